@@ -0,0 +1,88 @@
+/*
+ * CLiC, Framework for Command Line Interpretation in Eclipse
+ *
+ *     Copyright (C) 2013 Worldline or third-party contributors as
+ *     indicated by the @author tags or express copyright attribution
+ *     statements applied by the authors.
+ *
+ *     This library is free software; you can redistribute it and/or
+ *     modify it under the terms of the GNU Lesser General Public
+ *     License as published by the Free Software Foundation; either
+ *     version 2.1 of the License.
+ *
+ *     This library is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *     Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public
+ *     License along with this library; if not, write to the Free Software
+ *     Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+package com.worldline.clic.commands;
+
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks {@link CommandContext#cloneContext()}, done for each flow step
+ * and background command, and the first write to the scope of the clone, for
+ * several scope sizes.
+ * 
+ * @author mvanbesien / aneveux
+ * @version 1.0
+ * @since 1.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CloneContextBenchmark {
+
+	/**
+	 * The number of entries in the scope
+	 */
+	@Param({ "10", "1000", "10000" })
+	public int scopeSize;
+
+	/**
+	 * The context to be cloned
+	 */
+	private CommandContext context;
+
+	/**
+	 * Fills the scope of the context
+	 */
+	@Setup
+	public void setUp() {
+		context = new CommandContext(new StringWriter());
+		for (int i = 0; i < scopeSize; i++)
+			context.getScope().put("key" + i, Integer.valueOf(i));
+	}
+
+	@Benchmark
+	public CommandContext cloneContext() {
+		return context.cloneContext();
+	}
+
+	@Benchmark
+	public CommandContext cloneAndPut() {
+		final CommandContext clone = context.cloneContext();
+		clone.getScope().put("key0", "changed");
+		return clone;
+	}
+}
@@ -0,0 +1,88 @@
+/*
+ * CLiC, Framework for Command Line Interpretation in Eclipse
+ *
+ *     Copyright (C) 2013 Worldline or third-party contributors as
+ *     indicated by the @author tags or express copyright attribution
+ *     statements applied by the authors.
+ *
+ *     This library is free software; you can redistribute it and/or
+ *     modify it under the terms of the GNU Lesser General Public
+ *     License as published by the Free Software Foundation; either
+ *     version 2.1 of the License.
+ *
+ *     This library is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *     Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public
+ *     License along with this library; if not, write to the Free Software
+ *     Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+package com.worldline.clic.internal.assist;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the completion of command names done by
+ * {@link ContentAssistProcessor#assist(String, int)} each time the user hits
+ * TAB, for an increasing number of registered commands.
+ * 
+ * @author mvanbesien / aneveux
+ * @version 1.0
+ * @since 1.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ContentAssistBenchmark {
+
+	/**
+	 * The number of registered commands
+	 */
+	@Param({ "10", "100", "1000", "10000" })
+	public int commandCount;
+
+	/**
+	 * The registered commands, named after a few groups
+	 */
+	private Set<String> commands;
+
+	/**
+	 * Registers the commands
+	 */
+	@Setup
+	public void setUp() {
+		commands = new HashSet<String>();
+		final String[] groups = { "mvn", "git", "svn", "build", "deploy", "check", "report", "clean" };
+		for (int i = 0; i < commandCount; i++)
+			commands.add(groups[i % groups.length] + "-command-" + i);
+	}
+
+	@Benchmark
+	public String assistAmbiguousPrefix() {
+		return ContentAssistProcessor.assist("mv --goal install", 2, commands);
+	}
+
+	@Benchmark
+	public String assistUniquePrefix() {
+		return ContentAssistProcessor.assist("deploy-command-5 --goal install", 15, commands);
+	}
+}
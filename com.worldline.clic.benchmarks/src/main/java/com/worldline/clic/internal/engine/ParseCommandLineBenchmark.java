@@ -0,0 +1,95 @@
+/*
+ * CLiC, Framework for Command Line Interpretation in Eclipse
+ *
+ *     Copyright (C) 2013 Worldline or third-party contributors as
+ *     indicated by the @author tags or express copyright attribution
+ *     statements applied by the authors.
+ *
+ *     This library is free software; you can redistribute it and/or
+ *     modify it under the terms of the GNU Lesser General Public
+ *     License as published by the Free Software Foundation; either
+ *     version 2.1 of the License.
+ *
+ *     This library is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *     Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public
+ *     License along with this library; if not, write to the Free Software
+ *     Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+package com.worldline.clic.internal.engine;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.worldline.clic.internal.engine.CommandEngine.CommandParsingException;
+
+/**
+ * Benchmarks the splitting of the command lines into arguments, done by
+ * {@link CommandEngine#parseCommandLine(String)} for every processed
+ * command.
+ * 
+ * @author mvanbesien / aneveux
+ * @version 1.0
+ * @since 1.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParseCommandLineBenchmark {
+
+	/**
+	 * The kind of command line to be parsed
+	 */
+	@Param({ "short", "long", "quoted" })
+	public String input;
+
+	/**
+	 * The command line to be parsed
+	 */
+	private String commandLine;
+
+	/**
+	 * Builds the command line of the requested kind
+	 */
+	@Setup
+	public void setUp() {
+		final StringBuilder sb = new StringBuilder();
+		switch (input) {
+		case "short":
+			sb.append("-n hello");
+			break;
+		case "long":
+			for (int i = 0; i < 64; i++)
+				sb.append("--option").append(i).append(" value").append(i).append(' ');
+			break;
+		default:
+			for (int i = 0; i < 32; i++)
+				sb.append("--message \"some 'quoted' text ").append(i).append("\" '").append(i)
+						.append(" \"single\" quoted' ");
+			break;
+		}
+		commandLine = sb.toString().trim();
+	}
+
+	@Benchmark
+	public String[] parseCommandLine() throws CommandParsingException {
+		return CommandEngine.parseCommandLine(commandLine);
+	}
+}
@@ -0,0 +1,81 @@
+/*
+ * CLiC, Framework for Command Line Interpretation in Eclipse
+ *
+ *     Copyright (C) 2013 Worldline or third-party contributors as
+ *     indicated by the @author tags or express copyright attribution
+ *     statements applied by the authors.
+ *
+ *     This library is free software; you can redistribute it and/or
+ *     modify it under the terms of the GNU Lesser General Public
+ *     License as published by the Free Software Foundation; either
+ *     version 2.1 of the License.
+ *
+ *     This library is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *     Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public
+ *     License along with this library; if not, write to the Free Software
+ *     Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+package com.worldline.clic.internal.view;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks what {@link HistoryBufferedWriter} does on each written line:
+ * appending the line to the displayed text, then trimming it to the buffer
+ * limit.
+ * 
+ * @author mvanbesien / aneveux
+ * @version 1.0
+ * @since 1.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HistoryTrimBenchmark {
+
+	/**
+	 * The buffer limit, in characters
+	 */
+	@Param({ "10000", "100000", "1000000" })
+	public int bufferLimit;
+
+	/**
+	 * The displayed text, full
+	 */
+	private String buffer;
+
+	/**
+	 * Fills the displayed text
+	 */
+	@Setup
+	public void setUp() {
+		final StringBuilder sb = new StringBuilder();
+		for (int i = 0; sb.length() < bufferLimit; i++)
+			sb.append("> output line ").append(i).append(" of some command\r\n");
+		buffer = HistoryBufferedWriter.trim(sb.toString(), bufferLimit);
+	}
+
+	@Benchmark
+	public String appendAndTrim() {
+		return HistoryBufferedWriter.trim(buffer.concat("> one more line of output\r\n"), bufferLimit);
+	}
+}
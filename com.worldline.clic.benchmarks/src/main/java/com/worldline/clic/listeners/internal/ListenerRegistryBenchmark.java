@@ -0,0 +1,116 @@
+/*
+ * CLiC, Framework for Command Line Interpretation in Eclipse
+ *
+ *     Copyright (C) 2013 Worldline or third-party contributors as
+ *     indicated by the @author tags or express copyright attribution
+ *     statements applied by the authors.
+ *
+ *     This library is free software; you can redistribute it and/or
+ *     modify it under the terms of the GNU Lesser General Public
+ *     License as published by the Free Software Foundation; either
+ *     version 2.1 of the License.
+ *
+ *     This library is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *     Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public
+ *     License along with this library; if not, write to the Free Software
+ *     Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+package com.worldline.clic.listeners.internal;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.worldline.clic.listeners.ProcessedCommandEvent;
+import com.worldline.clic.listeners.ProcessedCommandListener;
+
+/**
+ * Benchmarks the lookup and the notification of the listeners done by
+ * {@link ListenerRegistry} once each command has been processed, for an
+ * increasing number of registered listeners, a quarter of them being
+ * {@link ProcessedCommandListener}s.
+ * 
+ * @author mvanbesien / aneveux
+ * @version 1.0
+ * @since 1.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ListenerRegistryBenchmark {
+
+	/**
+	 * A listener of the processed commands, doing nothing
+	 */
+	public static class NoopProcessedCommandListener implements ProcessedCommandListener {
+		@Override
+		public void onEvent(final ProcessedCommandEvent event) {
+		}
+	}
+
+	/**
+	 * A listener of other events, doing nothing
+	 */
+	public static class NoopListener implements IListener<IEvent> {
+		@Override
+		public void onEvent(final IEvent event) {
+		}
+	}
+
+	/**
+	 * The number of registered listeners
+	 */
+	@Param({ "4", "40", "400" })
+	public int listenerCount;
+
+	/**
+	 * The registry
+	 */
+	private ListenerRegistry registry;
+
+	/**
+	 * The event dispatched
+	 */
+	private final ProcessedCommandEvent event = new ProcessedCommandEvent("help");
+
+	/**
+	 * Registers the listeners
+	 */
+	@Setup
+	public void setUp() {
+		final List<IListener<?>> listeners = new ArrayList<IListener<?>>();
+		for (int i = 0; i < listenerCount; i++)
+			listeners.add(i % 4 == 0 ? new NoopProcessedCommandListener() : new NoopListener());
+		registry = new ListenerRegistry(listeners);
+	}
+
+	@Benchmark
+	public Collection<ProcessedCommandListener> getListenersFor() {
+		return registry.getListenersFor(ProcessedCommandListener.class);
+	}
+
+	@Benchmark
+	public void dispatch() {
+		registry.dispatch(ProcessedCommandListener.class, event);
+	}
+}
@@ -0,0 +1,195 @@
+/*
+ * CLiC, Framework for Command Line Interpretation in Eclipse
+ *
+ *     Copyright (C) 2013 Worldline or third-party contributors as
+ *     indicated by the @author tags or express copyright attribution
+ *     statements applied by the authors.
+ *
+ *     This library is free software; you can redistribute it and/or
+ *     modify it under the terms of the GNU Lesser General Public
+ *     License as published by the Free Software Foundation; either
+ *     version 2.1 of the License.
+ *
+ *     This library is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *     Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public
+ *     License along with this library; if not, write to the Free Software
+ *     Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+package com.worldline.clic.soak;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import joptsimple.OptionSpec;
+
+import com.worldline.clic.commands.AbstractCommand;
+import com.worldline.clic.commands.CommandContext;
+import com.worldline.clic.core.ClassCommandFactory;
+import com.worldline.clic.core.CommandDescriptor;
+import com.worldline.clic.core.ContributionProvider;
+import com.worldline.clic.core.FlowDescriptor;
+import com.worldline.clic.core.ListenerDescriptor;
+
+/**
+ * The {@link ContributionProvider} declaring the stand-in commands replayed by
+ * the {@link SoakHarness}, so that it can run offline. Each of them mimics a
+ * kind of command found in real automation scripts: cheap lookups, CPU bound
+ * work, waits on external tools, verbose outputs and failures.
+ * 
+ * @author mvanbesien / aneveux
+ * @version 1.0
+ * @since 1.2
+ */
+public class SoakCommands implements ContributionProvider {
+
+	@Override
+	public Collection<CommandDescriptor> getCommands() {
+		return Arrays.asList(
+				command("soak-echo", "Writes its arguments back", EchoCommand.class),
+				command("soak-spin", "Keeps the CPU busy for --micros microseconds", SpinCommand.class),
+				command("soak-sleep", "Waits for --millis milliseconds", SleepCommand.class),
+				command("soak-output", "Writes --lines lines", OutputCommand.class),
+				command("soak-fail", "Always fails", FailCommand.class));
+	}
+
+	@Override
+	public Collection<FlowDescriptor> getFlows() {
+		return Collections.singletonList(new FlowDescriptor("soak-flow", Arrays.asList("soak-echo", "soak-spin",
+				"soak-output")));
+	}
+
+	@Override
+	public Collection<ListenerDescriptor> getListeners() {
+		return Collections.emptyList();
+	}
+
+	/**
+	 * Creates the {@link CommandDescriptor} of a stand-in command
+	 * 
+	 * @param id
+	 *            the command's id
+	 * @param description
+	 *            the command's description
+	 * @param commandClass
+	 *            the command's implementation
+	 * @return the corresponding {@link CommandDescriptor}
+	 */
+	private static CommandDescriptor command(final String id, final String description,
+			final Class<? extends AbstractCommand> commandClass) {
+		return new CommandDescriptor(id, description, new ClassCommandFactory(commandClass));
+	}
+
+	/**
+	 * Writes its non option arguments back on a single line
+	 */
+	public static class EchoCommand extends AbstractCommand {
+
+		@Override
+		public void configureParser() {
+		}
+
+		@Override
+		public void execute(final CommandContext context) {
+			final StringBuilder builder = new StringBuilder();
+			for (final Object argument : options.nonOptionArguments())
+				builder.append(argument).append(' ');
+			context.write(builder.toString().trim());
+		}
+	}
+
+	/**
+	 * Keeps the CPU busy for the requested duration, defaulting to 200
+	 * microseconds
+	 */
+	public static class SpinCommand extends AbstractCommand {
+
+		/**
+		 * The duration of the work
+		 */
+		private OptionSpec<Integer> micros;
+
+		@Override
+		public void configureParser() {
+			micros = parser.accepts("micros").withRequiredArg().ofType(Integer.class).defaultsTo(200);
+		}
+
+		@Override
+		public void execute(final CommandContext context) {
+			final long end = System.nanoTime() + TimeUnit.MICROSECONDS.toNanos(options.valueOf(micros));
+			long hash = 17;
+			while (System.nanoTime() < end)
+				hash = hash * 31 + end;
+			context.write(Long.toHexString(hash));
+		}
+	}
+
+	/**
+	 * Waits for the requested duration, defaulting to 5 milliseconds, just
+	 * like a command waiting for an external tool
+	 */
+	public static class SleepCommand extends AbstractCommand {
+
+		/**
+		 * The duration of the wait
+		 */
+		private OptionSpec<Integer> millis;
+
+		@Override
+		public void configureParser() {
+			millis = parser.accepts("millis").withRequiredArg().ofType(Integer.class).defaultsTo(5);
+		}
+
+		@Override
+		public void execute(final CommandContext context) {
+			try {
+				Thread.sleep(options.valueOf(millis));
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	/**
+	 * Writes the requested number of lines, defaulting to 20
+	 */
+	public static class OutputCommand extends AbstractCommand {
+
+		/**
+		 * The number of lines to be written
+		 */
+		private OptionSpec<Integer> lines;
+
+		@Override
+		public void configureParser() {
+			lines = parser.accepts("lines").withRequiredArg().ofType(Integer.class).defaultsTo(20);
+		}
+
+		@Override
+		public void execute(final CommandContext context) {
+			final int count = options.valueOf(lines);
+			for (int i = 0; i < count; i++)
+				context.write("[INFO] soak output line " + i + " of " + count);
+		}
+	}
+
+	/**
+	 * Always fails, by throwing an exception
+	 */
+	public static class FailCommand extends AbstractCommand {
+
+		@Override
+		public void configureParser() {
+		}
+
+		@Override
+		public void execute(final CommandContext context) {
+			throw new IllegalStateException("soak-fail always fails");
+		}
+	}
+}
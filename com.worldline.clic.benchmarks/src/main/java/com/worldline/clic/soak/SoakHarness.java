@@ -0,0 +1,540 @@
+/*
+ * CLiC, Framework for Command Line Interpretation in Eclipse
+ *
+ *     Copyright (C) 2013 Worldline or third-party contributors as
+ *     indicated by the @author tags or express copyright attribution
+ *     statements applied by the authors.
+ *
+ *     This library is free software; you can redistribute it and/or
+ *     modify it under the terms of the GNU Lesser General Public
+ *     License as published by the Free Software Foundation; either
+ *     version 2.1 of the License.
+ *
+ *     This library is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *     Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public
+ *     License along with this library; if not, write to the Free Software
+ *     Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+package com.worldline.clic.soak;
+
+import static java.util.Arrays.asList;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import joptsimple.OptionException;
+import joptsimple.OptionParser;
+import joptsimple.OptionSet;
+import joptsimple.OptionSpec;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+import com.worldline.clic.core.ClicCore;
+import com.worldline.clic.core.EngineLogger;
+import com.worldline.clic.internal.engine.CommandEngine;
+import com.worldline.clic.internal.stats.LatencyHistogram;
+
+/**
+ * The {@link SoakHarness} is a load generator driving the command engine
+ * through {@link CommandEngine#execute}, in order to size CLiC for the hosts
+ * running our automation scripts. It is launched with
+ * 
+ * <pre>
+ * java -cp target/benchmarks.jar com.worldline.clic.soak.SoakHarness --rate 500 --duration 3600
+ * </pre>
+ * 
+ * The command lines are replayed cyclically from a script recorded with
+ * <i>--script</i> (empty lines and lines starting with # being ignored), or
+ * taken from a synthetic mix of the {@link SoakCommands}, which keeps the
+ * harness runnable offline.
+ * 
+ * The load follows an open model: the command lines are issued at the target
+ * rate whatever the time the engine takes to process them, and dealt
+ * round-robin to <i>--sessions</i> {@link SoakSession}s. The latencies are
+ * measured from the time each command line should have been issued, so that
+ * they aren't hidden when the engine falls behind. The throughput, the
+ * percentiles, the errors, the backlog and the heap used after garbage
+ * collection are reported periodically, then summarized at the end of the
+ * run along with the heap growth.
+ * 
+ * @author mvanbesien / aneveux
+ * @version 1.0
+ * @since 1.2
+ */
+public final class SoakHarness {
+
+	/**
+	 * The synthetic mix: the command lines and their weights
+	 */
+	private static final Object[][] SYNTHETIC_MIX = { { "soak-echo lookup artifact 1.2.0", 40 },
+			{ "soak-spin --micros 200", 20 }, { "soak-output --lines 20", 15 }, { "soak-sleep --millis 5", 10 },
+			{ "soak-flow release", 8 }, { "help soak-spin", 5 }, { "soak-fail", 2 } };
+
+	/**
+	 * The parser of the harness' arguments
+	 */
+	private final OptionParser parser = new OptionParser();
+
+	/**
+	 * The target rate
+	 */
+	private final OptionSpec<Double> rateOption = parser
+			.accepts("rate", "The number of command lines issued per second").withRequiredArg()
+			.ofType(Double.class).describedAs("commands/s").defaultsTo(500d);
+
+	/**
+	 * The duration of the measured run
+	 */
+	private final OptionSpec<Integer> durationOption = parser
+			.accepts("duration", "The duration of the run, warm-up excluded").withRequiredArg()
+			.ofType(Integer.class).describedAs("seconds").defaultsTo(60);
+
+	/**
+	 * The duration of the warm-up
+	 */
+	private final OptionSpec<Integer> warmupOption = parser
+			.accepts("warmup", "The duration of the warm-up, which isn't measured").withRequiredArg()
+			.ofType(Integer.class).describedAs("seconds").defaultsTo(10);
+
+	/**
+	 * The number of sessions
+	 */
+	private final OptionSpec<Integer> sessionsOption = parser
+			.accepts("sessions", "The number of sessions invoking the command lines").withRequiredArg()
+			.ofType(Integer.class).describedAs("count").defaultsTo(4);
+
+	/**
+	 * The recorded script
+	 */
+	private final OptionSpec<File> scriptOption = parser
+			.accepts("script", "Replays the command lines of a script rather than the synthetic mix")
+			.withRequiredArg().ofType(File.class).describedAs("script");
+
+	/**
+	 * The reporting interval
+	 */
+	private final OptionSpec<Integer> reportOption = parser
+			.accepts("report-interval", "The interval between two reports").withRequiredArg()
+			.ofType(Integer.class).describedAs("seconds").defaultsTo(10);
+
+	/**
+	 * The backlog the run is aborted at
+	 */
+	private final OptionSpec<Integer> maxBacklogOption = parser
+			.accepts("max-backlog", "Aborts the run when this many command lines are waiting")
+			.withRequiredArg().ofType(Integer.class).describedAs("count").defaultsTo(100000);
+
+	/**
+	 * Whether the help has to be displayed
+	 */
+	private final OptionSpec<Void> helpOption = parser.acceptsAll(asList("h", "help"), "Displays this help");
+
+	/**
+	 * The measures of the run
+	 */
+	private final SoakStatistics statistics = new SoakStatistics();
+
+	/**
+	 * The number of warnings and errors reported by the engine
+	 */
+	private final AtomicLong engineLogs = new AtomicLong();
+
+	/**
+	 * The heap used after garbage collection, sampled at each report of the
+	 * measured run, in bytes
+	 */
+	private final List<long[]> heapSamples = Collections.synchronizedList(new ArrayList<long[]>());
+
+	/**
+	 * The time the measured run started at, 0 during the warm-up
+	 */
+	private volatile long measureStart;
+
+	/**
+	 * Private constructor, the harness being used through
+	 * {@link #main(String[])}
+	 */
+	private SoakHarness() {
+	}
+
+	/**
+	 * Runs the soak test and exits with 0 if it went to its end, 1 if it has
+	 * been aborted and 2 if the arguments are invalid
+	 * 
+	 * @param args
+	 *            the harness' arguments
+	 */
+	public static void main(final String[] args) {
+		System.exit(new SoakHarness().run(args, System.out));
+	}
+
+	/**
+	 * Runs the soak test
+	 * 
+	 * @param args
+	 *            the harness' arguments
+	 * @param out
+	 *            the stream the reports are written on
+	 * @return the exit code
+	 */
+	private int run(final String[] args, final PrintStream out) {
+		final OptionSet options;
+		final List<String> commandLines;
+		try {
+			options = parser.parse(args);
+			if (options.has(helpOption)) {
+				parser.printHelpOn(out);
+				return 0;
+			}
+			commandLines = options.has(scriptOption) ? readScript(options.valueOf(scriptOption)) : syntheticMix();
+		} catch (final OptionException e) {
+			out.println(e.getMessage());
+			return 2;
+		} catch (final IOException e) {
+			out.println(e.getMessage());
+			return 2;
+		}
+		final double rate = options.valueOf(rateOption);
+		final int sessionCount = options.valueOf(sessionsOption);
+		if (commandLines.isEmpty() || rate <= 0 || sessionCount <= 0) {
+			out.println("Nothing to replay");
+			return 2;
+		}
+
+		ClicCore.addContributionProvider(new SoakCommands());
+		ClicCore.setLogger(new EngineLogger() {
+			@Override
+			public void warning(final String message, final Throwable t) {
+				engineLogs.incrementAndGet();
+			}
+
+			@Override
+			public void error(final String message, final Throwable t) {
+				engineLogs.incrementAndGet();
+			}
+		});
+		final List<SoakSession> sessions = new ArrayList<SoakSession>();
+		for (int i = 0; i < sessionCount; i++)
+			sessions.add(new SoakSession(i, statistics));
+		final long period = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+		final int maxBacklog = options.valueOf(maxBacklogOption);
+
+		final ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(final Runnable runnable) {
+				final Thread thread = new Thread(runnable, "soak-reporter");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		final long reportInterval = TimeUnit.SECONDS.toNanos(Math.max(1, options.valueOf(reportOption)));
+		reporter.scheduleAtFixedRate(new Runnable() {
+			private long last = System.nanoTime();
+
+			private long lastCompleted;
+
+			@Override
+			public void run() {
+				final long now = System.nanoTime();
+				final long completed = statistics.getCompleted();
+				report(out, now, (completed - lastCompleted) * 1e9 / (now - last));
+				last = now;
+				lastCompleted = completed;
+			}
+		}, reportInterval, reportInterval, TimeUnit.NANOSECONDS);
+
+		out.println(String.format(Locale.ENGLISH, "Replaying %d command lines at %.1f/s with %d sessions",
+				commandLines.size(), rate, sessionCount));
+		long issued = replay(sessions, commandLines, 0, period, TimeUnit.SECONDS.toNanos(options.valueOf(warmupOption)),
+				maxBacklog);
+		boolean aborted = issued < 0;
+		if (!aborted) {
+			// The baseline of the heap is taken before the measured run starts
+			final long heapBefore = liveHeap();
+			final long[] gcBefore = collections();
+			measureStart = System.nanoTime();
+			statistics.startMeasuring();
+			issued = replay(sessions, commandLines, issued, period,
+					TimeUnit.SECONDS.toNanos(options.valueOf(durationOption)), maxBacklog);
+			final long measured = System.nanoTime() - measureStart;
+			aborted = issued < 0;
+			try {
+				for (final SoakSession session : sessions)
+					aborted |= !aborted && !session.shutdown(TimeUnit.MINUTES.toMillis(1));
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+				aborted = true;
+			}
+			reporter.shutdownNow();
+			summarize(out, rate, sessions, measured, heapBefore, gcBefore);
+		} else
+			reporter.shutdownNow();
+		for (final SoakSession session : sessions)
+			session.abort();
+		if (aborted)
+			out.println(String.format(Locale.ENGLISH,
+					"Aborted: the engine can't keep up with the target rate (%d command lines waiting)",
+					statistics.getBacklog()));
+		return aborted ? 1 : 0;
+	}
+
+	/**
+	 * Issues the command lines at the target rate for the provided duration.
+	 * The time each command line should be issued at is computed from the
+	 * start of the phase, so that a late issue doesn't delay the following
+	 * ones.
+	 * 
+	 * @param sessions
+	 *            the sessions the command lines are dealt to
+	 * @param commandLines
+	 *            the command lines to be replayed cyclically
+	 * @param first
+	 *            the number of command lines already issued
+	 * @param period
+	 *            the interval between two command lines, in nanoseconds
+	 * @param duration
+	 *            the duration of the phase, in nanoseconds
+	 * @param maxBacklog
+	 *            the backlog the run is aborted at
+	 * @return the number of command lines issued since the beginning of the
+	 *         run, or -1 if the run has been aborted
+	 */
+	private long replay(final List<SoakSession> sessions, final List<String> commandLines, final long first,
+			final long period, final long duration, final int maxBacklog) {
+		final long start = System.nanoTime();
+		long issued = first;
+		for (long i = 0;; i++) {
+			final long intended = start + i * period;
+			if (intended - start >= duration)
+				return issued;
+			for (long wait = intended - System.nanoTime(); wait > 0; wait = intended - System.nanoTime())
+				LockSupport.parkNanos(wait);
+			if (statistics.getBacklog() >= maxBacklog)
+				return -1;
+			sessions.get((int) (issued % sessions.size())).submit(
+					commandLines.get((int) (issued % commandLines.size())), intended);
+			issued++;
+		}
+	}
+
+	/**
+	 * Writes the report of the interval which just ended
+	 * 
+	 * @param out
+	 *            the stream the report is written on
+	 * @param now
+	 *            the time of the report
+	 * @param throughput
+	 *            the number of command lines completed per second during the
+	 *            interval
+	 */
+	private void report(final PrintStream out, final long now, final double throughput) {
+		final LatencyHistogram interval = statistics.nextInterval();
+		final long errors = statistics.nextIntervalErrors();
+		final long heap = heapAfterCollection();
+		final String elapsed;
+		if (measureStart == 0)
+			elapsed = "warm-up";
+		else {
+			heapSamples.add(new long[] { now - measureStart, heap });
+			elapsed = String.format(Locale.ENGLISH, "%6ds", TimeUnit.NANOSECONDS.toSeconds(now - measureStart));
+		}
+		out.println(String.format(Locale.ENGLISH,
+				"%8s %9.1f/s  p50 %s  p99 %s  p99.9 %s  max %s  errors %d  backlog %d  heap %s", elapsed,
+				throughput, millis(interval.getValueAtPercentile(50)), millis(interval.getValueAtPercentile(99)),
+				millis(interval.getValueAtPercentile(99.9)), millis(interval.getMax()), errors,
+				statistics.getBacklog(), megabytes(heap)));
+	}
+
+	/**
+	 * Writes the summary of the measured run
+	 * 
+	 * @param out
+	 *            the stream the summary is written on
+	 * @param rate
+	 *            the target rate
+	 * @param sessions
+	 *            the sessions of the run
+	 * @param measured
+	 *            the duration of the measured run, in nanoseconds
+	 * @param heapBefore
+	 *            the live heap at the beginning of the measured run
+	 * @param gcBefore
+	 *            the number and duration of the garbage collections at the
+	 *            beginning of the measured run
+	 */
+	private void summarize(final PrintStream out, final double rate, final List<SoakSession> sessions,
+			final long measured, final long heapBefore, final long[] gcBefore) {
+		final LatencyHistogram responseTimes = statistics.getResponseTimes();
+		final LatencyHistogram serviceTimes = statistics.getServiceTimes();
+		final long count = responseTimes.getCount();
+		final long heapAfter = liveHeap();
+		final long[] gcAfter = collections();
+		long written = 0;
+		for (final SoakSession session : sessions)
+			written += session.getWritten();
+		out.println();
+		out.println(String.format(Locale.ENGLISH, "Duration       %.1f s, %d sessions", measured / 1e9,
+				sessions.size()));
+		out.println(String.format(Locale.ENGLISH, "Throughput     %.1f/s for a target of %.1f/s (%d command lines)",
+				count * 1e9 / measured, rate, count));
+		out.println(String.format(Locale.ENGLISH, "Errors         %d (%.2f%%), %d engine log entries",
+				statistics.getErrors(), count == 0 ? 0d : statistics.getErrors() * 100d / count, engineLogs.get()));
+		out.println("Response time  " + percentiles(responseTimes));
+		out.println("Service time   " + percentiles(serviceTimes));
+		out.println(String.format(Locale.ENGLISH, "Live heap      %s -> %s (%+.1f MB, %+.1f MB/h after GC)",
+				megabytes(heapBefore), megabytes(heapAfter), (heapAfter - heapBefore) / 1048576d, heapSlope()));
+		out.println(String.format(Locale.ENGLISH, "GC             %d collections, %d ms", gcAfter[0] - gcBefore[0],
+				gcAfter[1] - gcBefore[1]));
+		out.println(String.format(Locale.ENGLISH, "Output         %d characters written", written));
+	}
+
+	/**
+	 * Computes the trend of the heap used after garbage collection over the
+	 * measured run, as the slope of the least squares line of the samples
+	 * 
+	 * @return the heap growth, in megabytes per hour
+	 */
+	private double heapSlope() {
+		final List<long[]> samples;
+		synchronized (heapSamples) {
+			samples = new ArrayList<long[]>(heapSamples);
+		}
+		if (samples.size() < 2)
+			return 0d;
+		double meanTime = 0, meanHeap = 0;
+		for (final long[] sample : samples) {
+			meanTime += sample[0] / 3.6e12;
+			meanHeap += sample[1] / 1048576d;
+		}
+		meanTime /= samples.size();
+		meanHeap /= samples.size();
+		double covariance = 0, variance = 0;
+		for (final long[] sample : samples) {
+			final double time = sample[0] / 3.6e12 - meanTime;
+			covariance += time * (sample[1] / 1048576d - meanHeap);
+			variance += time * time;
+		}
+		return variance == 0 ? 0d : covariance / variance;
+	}
+
+	/**
+	 * @return the heap used after the last garbage collection of each pool,
+	 *         or the heap currently used if none happened yet
+	 */
+	private static long heapAfterCollection() {
+		long used = 0;
+		for (final MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			final MemoryUsage usage = pool.getType() == MemoryType.HEAP ? pool.getCollectionUsage() : null;
+			if (usage != null)
+				used += usage.getUsed();
+		}
+		return used > 0 ? used : ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+	}
+
+	/**
+	 * @return the heap used after a full garbage collection
+	 */
+	private static long liveHeap() {
+		System.gc();
+		return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+	}
+
+	/**
+	 * @return the number of garbage collections and their accumulated
+	 *         duration, in milliseconds
+	 */
+	private static long[] collections() {
+		final long[] collections = new long[2];
+		for (final GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+			collections[0] += Math.max(0, collector.getCollectionCount());
+			collections[1] += Math.max(0, collector.getCollectionTime());
+		}
+		return collections;
+	}
+
+	/**
+	 * Reads a recorded script
+	 * 
+	 * @param script
+	 *            the script
+	 * @return the command lines of the script
+	 * @throws IOException
+	 *             if the script can't be read
+	 */
+	private static List<String> readScript(final File script) throws IOException {
+		final List<String> commandLines = new ArrayList<String>();
+		for (final String line : Files.readLines(script, Charsets.UTF_8)) {
+			final String commandLine = line.trim();
+			if (commandLine.length() > 0 && !commandLine.startsWith("#"))
+				commandLines.add(commandLine);
+		}
+		return commandLines;
+	}
+
+	/**
+	 * Builds the synthetic mix, each command line appearing as many times as
+	 * its weight, in an order which is random but the same for every run
+	 * 
+	 * @return the command lines of the synthetic mix
+	 */
+	private static List<String> syntheticMix() {
+		final List<String> commandLines = new ArrayList<String>();
+		for (final Object[] entry : SYNTHETIC_MIX)
+			for (int i = 0; i < (Integer) entry[1]; i++)
+				commandLines.add((String) entry[0]);
+		Collections.shuffle(commandLines, new Random(42));
+		return commandLines;
+	}
+
+	/**
+	 * @param histogram
+	 *            a {@link LatencyHistogram}
+	 * @return the percentiles of the histogram
+	 */
+	private static String percentiles(final LatencyHistogram histogram) {
+		return String.format(Locale.ENGLISH, "p50 %s  p99 %s  p99.9 %s  max %s  mean %s",
+				millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(99)),
+				millis(histogram.getValueAtPercentile(99.9)), millis(histogram.getMax()),
+				millis(histogram.getMean()));
+	}
+
+	/**
+	 * @param nanos
+	 *            a duration in nanoseconds
+	 * @return the duration in milliseconds
+	 */
+	private static String millis(final long nanos) {
+		return String.format(Locale.ENGLISH, "%.3f ms", nanos / 1e6);
+	}
+
+	/**
+	 * @param bytes
+	 *            an amount of memory in bytes
+	 * @return the amount of memory in megabytes
+	 */
+	private static String megabytes(final long bytes) {
+		return String.format(Locale.ENGLISH, "%.1f MB", bytes / 1048576d);
+	}
+}
@@ -0,0 +1,170 @@
+/*
+ * CLiC, Framework for Command Line Interpretation in Eclipse
+ *
+ *     Copyright (C) 2013 Worldline or third-party contributors as
+ *     indicated by the @author tags or express copyright attribution
+ *     statements applied by the authors.
+ *
+ *     This library is free software; you can redistribute it and/or
+ *     modify it under the terms of the GNU Lesser General Public
+ *     License as published by the Free Software Foundation; either
+ *     version 2.1 of the License.
+ *
+ *     This library is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *     Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public
+ *     License along with this library; if not, write to the Free Software
+ *     Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+package com.worldline.clic.soak;
+
+import java.io.Writer;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.worldline.clic.commands.CommandContext;
+import com.worldline.clic.core.DefaultExecutionMonitor;
+import com.worldline.clic.internal.engine.CommandEngine;
+
+/**
+ * A session of the {@link SoakHarness}, standing for a console or a script
+ * calling CLiC: the commands it receives are invoked one after the other,
+ * through {@link CommandEngine#execute}, with a {@link CommandContext} of its
+ * own. Commands received while another one is running wait in the queue of
+ * the session. The engine is called directly rather than through the
+ * invoker of the plug-in, so that the harness runs without Eclipse.
+ * 
+ * @author mvanbesien / aneveux
+ * @version 1.0
+ * @since 1.2
+ */
+class SoakSession {
+
+	/**
+	 * The thread invoking the commands of the session
+	 */
+	private final ExecutorService executor;
+
+	/**
+	 * The context of the session
+	 */
+	private final CommandContext context;
+
+	/**
+	 * The number of characters written by the commands of the session
+	 */
+	private final AtomicLong written = new AtomicLong();
+
+	/**
+	 * The measures to be updated
+	 */
+	private final SoakStatistics statistics;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param index
+	 *            the index of the session, used to name its thread
+	 * @param statistics
+	 *            the measures to be updated
+	 */
+	SoakSession(final int index, final SoakStatistics statistics) {
+		this.statistics = statistics;
+		this.context = new CommandContext(new CountingWriter());
+		this.executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(final Runnable runnable) {
+				final Thread thread = new Thread(runnable, "soak-session-" + index);
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+
+	/**
+	 * Queues a command
+	 * 
+	 * @param commandLine
+	 *            the command line to be invoked
+	 * @param intended
+	 *            the time the command should be issued at according to the
+	 *            target rate, in {@link System#nanoTime()} units
+	 */
+	void submit(final String commandLine, final long intended) {
+		statistics.issued();
+		executor.execute(new Runnable() {
+			@Override
+			public void run() {
+				final long started = System.nanoTime();
+				boolean failed;
+				try {
+					failed = !CommandEngine.execute(commandLine, context, new DefaultExecutionMonitor()).isOK();
+				} catch (final RuntimeException e) {
+					failed = true;
+				}
+				statistics.completed(intended, started, System.nanoTime(), failed);
+			}
+		});
+	}
+
+	/**
+	 * Stops the session once the queued commands have been invoked
+	 * 
+	 * @param timeout
+	 *            how long to wait for the queued commands, in milliseconds
+	 * @return true if all the queued commands have been invoked
+	 * @throws InterruptedException
+	 *             if interrupted while waiting
+	 */
+	boolean shutdown(final long timeout) throws InterruptedException {
+		executor.shutdown();
+		return executor.awaitTermination(timeout, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Stops the session, discarding the queued commands
+	 */
+	void abort() {
+		executor.shutdownNow();
+	}
+
+	/**
+	 * @return the number of characters written by the commands of the session
+	 */
+	long getWritten() {
+		return written.get();
+	}
+
+	/**
+	 * The {@link Writer} of the session: the output is counted, then
+	 * discarded, so that the harness measures the engine rather than a
+	 * console.
+	 */
+	private class CountingWriter extends Writer {
+
+		@Override
+		public void write(final char[] cbuf, final int off, final int len) {
+			written.addAndGet(len);
+		}
+
+		@Override
+		public void write(final String str) {
+			if (str != null)
+				written.addAndGet(str.length());
+		}
+
+		@Override
+		public void flush() {
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+}
@@ -0,0 +1,186 @@
+/*
+ * CLiC, Framework for Command Line Interpretation in Eclipse
+ *
+ *     Copyright (C) 2013 Worldline or third-party contributors as
+ *     indicated by the @author tags or express copyright attribution
+ *     statements applied by the authors.
+ *
+ *     This library is free software; you can redistribute it and/or
+ *     modify it under the terms of the GNU Lesser General Public
+ *     License as published by the Free Software Foundation; either
+ *     version 2.1 of the License.
+ *
+ *     This library is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *     Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public
+ *     License along with this library; if not, write to the Free Software
+ *     Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+package com.worldline.clic.soak;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.worldline.clic.internal.stats.LatencyHistogram;
+
+/**
+ * The measures taken by the {@link SoakHarness}, over the whole run and over
+ * the current reporting interval.
+ * 
+ * Two latencies are recorded for each command. The response time runs from
+ * the time the command should have been issued according to the target rate,
+ * so that a stall of the engine is charged to every command queued behind it
+ * rather than to a single one (coordinated omission). The service time only
+ * runs from the time a session actually started the command.
+ * 
+ * @author mvanbesien / aneveux
+ * @version 1.0
+ * @since 1.2
+ */
+class SoakStatistics {
+
+	/**
+	 * The response times of the whole run, warm-up excluded
+	 */
+	private final LatencyHistogram responseTimes = new LatencyHistogram();
+
+	/**
+	 * The service times of the whole run, warm-up excluded
+	 */
+	private final LatencyHistogram serviceTimes = new LatencyHistogram();
+
+	/**
+	 * The response times of the current interval
+	 */
+	private final AtomicReference<LatencyHistogram> interval = new AtomicReference<LatencyHistogram>(
+			new LatencyHistogram());
+
+	/**
+	 * The number of issued commands
+	 */
+	private final AtomicLong issued = new AtomicLong();
+
+	/**
+	 * The number of completed commands
+	 */
+	private final AtomicLong completed = new AtomicLong();
+
+	/**
+	 * The number of failed commands, warm-up excluded
+	 */
+	private final AtomicLong errors = new AtomicLong();
+
+	/**
+	 * The number of failed commands of the current interval
+	 */
+	private final AtomicLong intervalErrors = new AtomicLong();
+
+	/**
+	 * Whether the warm-up is over
+	 */
+	private volatile boolean measuring;
+
+	/**
+	 * Records that a command has been handed over to a session
+	 */
+	void issued() {
+		issued.incrementAndGet();
+	}
+
+	/**
+	 * Records a completed command
+	 * 
+	 * @param intended
+	 *            the time the command should have been issued at, in
+	 *            {@link System#nanoTime()} units
+	 * @param started
+	 *            the time the command actually started at
+	 * @param ended
+	 *            the time the command ended at
+	 * @param failed
+	 *            whether the command failed
+	 */
+	void completed(final long intended, final long started, final long ended, final boolean failed) {
+		interval.get().record(ended - intended);
+		if (failed)
+			intervalErrors.incrementAndGet();
+		if (measuring) {
+			responseTimes.record(ended - intended);
+			serviceTimes.record(ended - started);
+			if (failed)
+				errors.incrementAndGet();
+		}
+		completed.incrementAndGet();
+	}
+
+	/**
+	 * Ends the warm-up: the following commands are taken into account in the
+	 * measures of the whole run
+	 */
+	void startMeasuring() {
+		measuring = true;
+	}
+
+	/**
+	 * Ends the current interval
+	 * 
+	 * @return the response times of the interval which just ended
+	 */
+	LatencyHistogram nextInterval() {
+		return interval.getAndSet(new LatencyHistogram());
+	}
+
+	/**
+	 * Ends the current interval
+	 * 
+	 * @return the number of failed commands of the interval which just ended
+	 */
+	long nextIntervalErrors() {
+		return intervalErrors.getAndSet(0);
+	}
+
+	/**
+	 * @return the response times of the whole run
+	 */
+	LatencyHistogram getResponseTimes() {
+		return responseTimes;
+	}
+
+	/**
+	 * @return the service times of the whole run
+	 */
+	LatencyHistogram getServiceTimes() {
+		return serviceTimes;
+	}
+
+	/**
+	 * @return the number of failed commands of the whole run
+	 */
+	long getErrors() {
+		return errors.get();
+	}
+
+	/**
+	 * @return the number of issued commands
+	 */
+	long getIssued() {
+		return issued.get();
+	}
+
+	/**
+	 * @return the number of completed commands
+	 */
+	long getCompleted() {
+		return completed.get();
+	}
+
+	/**
+	 * @return the number of commands issued but not completed yet
+	 */
+	long getBacklog() {
+		return issued.get() - completed.get();
+	}
+}
@@ -0,0 +1,223 @@
+/*
+ * CLiC, Framework for Command Line Interpretation in Eclipse
+ *
+ *     Copyright (C) 2013 Worldline or third-party contributors as
+ *     indicated by the @author tags or express copyright attribution
+ *     statements applied by the authors.
+ *
+ *     This library is free software; you can redistribute it and/or
+ *     modify it under the terms of the GNU Lesser General Public
+ *     License as published by the Free Software Foundation; either
+ *     version 2.1 of the License.
+ *
+ *     This library is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *     Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public
+ *     License along with this library; if not, write to the Free Software
+ *     Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+package com.worldline.clic.commands;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * Tests the {@link PersistentHashMap}, including the keys sharing their hash,
+ * the null keys and values, and the nodes collapsing after removals
+ * 
+ * @author mvanbesien / aneveux
+ * @version 1.0
+ * @since 1.2
+ */
+public class PersistentHashMapTest {
+
+	@Test
+	public void addsAndRemovesKeysSharingTheirHash() {
+		final Key first = new Key("first", 7), second = new Key("second", 7), third = new Key("third", 7);
+		final Key other = new Key("other", 8);
+		final PersistentHashMap<Key, String> map = PersistentHashMap.<Key, String> empty().plus(first, "1")
+				.plus(second, "2").plus(other, "o").plus(third, "3");
+		assertEquals(4, map.size());
+		assertEquals("1", map.get(first));
+		assertEquals("2", map.get(second));
+		assertEquals("3", map.get(third));
+		assertEquals("o", map.get(other));
+		assertFalse(map.containsKey(new Key("fourth", 7)));
+		assertSame(map, map.minus(new Key("fourth", 7)));
+		assertSame(map, map.plus(second, map.get(second)));
+
+		final PersistentHashMap<Key, String> updated = map.plus(second, "two");
+		assertEquals(4, updated.size());
+		assertEquals("two", updated.get(second));
+		assertEquals("2", map.get(second));
+
+		final PersistentHashMap<Key, String> removed = updated.minus(first);
+		assertEquals(3, removed.size());
+		assertFalse(removed.containsKey(first));
+		assertEquals("two", removed.get(second));
+		assertEquals("3", removed.get(third));
+		assertEquals("1", updated.get(first));
+		assertEquals(toHashMap(removed), toHashMap(map.minus(first).plus(second, "two")));
+	}
+
+	@Test
+	public void supportsNullKeysAndValues() {
+		final PersistentHashMap<String, String> map = PersistentHashMap.<String, String> empty().plus(null, "null key")
+				.plus("null value", null).plus("key", "value");
+		assertEquals(3, map.size());
+		assertTrue(map.containsKey(null));
+		assertEquals("null key", map.get(null));
+		assertTrue(map.containsKey("null value"));
+		assertNull(map.get("null value"));
+		assertFalse(map.containsKey("missing"));
+		assertNull(map.get("missing"));
+		assertSame(map, map.plus("null value", null));
+
+		final PersistentHashMap<String, String> removed = map.minus(null).minus("null value");
+		assertEquals(1, removed.size());
+		assertFalse(removed.containsKey(null));
+		assertFalse(removed.containsKey("null value"));
+		assertEquals("value", removed.get("key"));
+	}
+
+	@Test
+	public void collapsesTheNodesAfterRemovals() {
+		// Both keys share the 5 lowest bits of their hash, hence a nested node
+		final Key root = new Key("root", 0x01), nested = new Key("nested", 0x21), sibling = new Key("sibling", 0x41);
+		PersistentHashMap<Key, String> map = PersistentHashMap.<Key, String> empty().plus(root, "r").plus(nested, "n");
+		map = map.minus(nested);
+		assertEquals(1, map.size());
+		assertEquals("r", map.get(root));
+		map = map.plus(sibling, "s");
+		assertEquals(2, map.size());
+		assertEquals("r", map.get(root));
+		assertEquals("s", map.get(sibling));
+		assertFalse(map.containsKey(nested));
+
+		// A collision node pulled up to the root still accepts other hashes
+		final Key colliding = new Key("colliding", 0x41);
+		map = map.plus(colliding, "c").minus(root);
+		assertEquals(2, map.size());
+		map = map.plus(nested, "n");
+		assertEquals(3, map.size());
+		assertEquals("s", map.get(sibling));
+		assertEquals("c", map.get(colliding));
+		assertEquals("n", map.get(nested));
+
+		map = map.minus(sibling).minus(colliding).minus(nested);
+		assertEquals(0, map.size());
+		assertFalse(map.iterator().hasNext());
+		assertFalse(map.containsKey(nested));
+	}
+
+	@Test
+	public void keepsAllTheEntriesThroughManyUpdates() {
+		PersistentHashMap<Integer, Integer> map = PersistentHashMap.empty();
+		for (int i = 0; i < 5000; i++)
+			map = map.plus(i, i);
+		for (int i = 0; i < 5000; i += 2)
+			map = map.minus(i);
+		assertEquals(2500, map.size());
+		final Set<Integer> keys = new HashSet<Integer>();
+		for (final Map.Entry<Integer, Integer> entry : map) {
+			assertEquals(entry.getKey(), entry.getValue());
+			keys.add(entry.getKey());
+		}
+		assertEquals(2500, keys.size());
+		for (int i = 0; i < 5000; i++)
+			assertEquals(i % 2 == 1, map.containsKey(i));
+	}
+
+	@Test
+	public void computesTheChangesBetweenTwoVersions() {
+		final Key colliding = new Key("colliding", 7), other = new Key("other", 7);
+		final PersistentHashMap<Key, String> older = PersistentHashMap.<Key, String> empty()
+				.plus(new Key("kept", 1), "k").plus(new Key("updated", 2), "u").plus(new Key("removed", 3), "r")
+				.plus(colliding, "c").plus(other, "o");
+		final PersistentHashMap<Key, String> newer = older.plus(new Key("updated", 2), "u2")
+				.minus(new Key("removed", 3)).plus(new Key("added", 4), null).minus(colliding);
+
+		final List<Map.Entry<Key, String>> puts = new ArrayList<Map.Entry<Key, String>>();
+		final List<Key> removals = new ArrayList<Key>();
+		newer.diff(older, puts, removals);
+		final Map<Key, String> expectedPuts = new HashMap<Key, String>();
+		expectedPuts.put(new Key("updated", 2), "u2");
+		expectedPuts.put(new Key("added", 4), null);
+		assertEquals(expectedPuts, toHashMap(puts.iterator()));
+		assertEquals(new HashSet<Key>(Arrays.asList(new Key("removed", 3), colliding)),
+				new HashSet<Key>(removals));
+
+		puts.clear();
+		removals.clear();
+		newer.diff(newer, puts, removals);
+		assertTrue(puts.isEmpty());
+		assertTrue(removals.isEmpty());
+	}
+
+	/**
+	 * @return the entries of the map, in a {@link HashMap}
+	 */
+	private static <K, V> Map<K, V> toHashMap(final PersistentHashMap<K, V> map) {
+		return toHashMap(map.iterator());
+	}
+
+	/**
+	 * @return the entries, in a {@link HashMap}
+	 */
+	private static <K, V> Map<K, V> toHashMap(final Iterator<Map.Entry<K, V>> entries) {
+		final Map<K, V> result = new HashMap<K, V>();
+		while (entries.hasNext()) {
+			final Map.Entry<K, V> entry = entries.next();
+			result.put(entry.getKey(), entry.getValue());
+		}
+		return result;
+	}
+
+	/**
+	 * A key whose hash is chosen by the test, small enough to be left
+	 * unchanged by the spreading of the hashes
+	 */
+	private static final class Key {
+
+		private final String name;
+
+		private final int hash;
+
+		private Key(final String name, final int hash) {
+			this.name = name;
+			this.hash = hash;
+		}
+
+		@Override
+		public boolean equals(final Object o) {
+			return o instanceof Key && ((Key) o).name.equals(name);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public String toString() {
+			return name;
+		}
+	}
+}
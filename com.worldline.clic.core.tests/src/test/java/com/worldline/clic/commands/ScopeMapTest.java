@@ -0,0 +1,149 @@
+/*
+ * CLiC, Framework for Command Line Interpretation in Eclipse
+ *
+ *     Copyright (C) 2013 Worldline or third-party contributors as
+ *     indicated by the @author tags or express copyright attribution
+ *     statements applied by the authors.
+ *
+ *     This library is free software; you can redistribute it and/or
+ *     modify it under the terms of the GNU Lesser General Public
+ *     License as published by the Free Software Foundation; either
+ *     version 2.1 of the License.
+ *
+ *     This library is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *     Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public
+ *     License along with this library; if not, write to the Free Software
+ *     Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+package com.worldline.clic.commands;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.junit.Test;
+
+/**
+ * Tests the {@link ScopeMap}, including the merge of the changes made by
+ * concurrent forks and the removals through its entry set
+ * 
+ * @author mvanbesien / aneveux
+ * @version 1.0
+ * @since 1.2
+ */
+public class ScopeMapTest {
+
+	@Test
+	public void behavesAsAMap() {
+		final ScopeMap<String, Object> scope = new ScopeMap<String, Object>();
+		assertNull(scope.put("key", "value"));
+		assertEquals("value", scope.put("key", "other"));
+		assertNull(scope.put(null, "null key"));
+		assertNull(scope.put("null value", null));
+		assertEquals(3, scope.size());
+		assertEquals("null key", scope.get(null));
+		assertTrue(scope.containsKey("null value"));
+		assertEquals("other", scope.remove("key"));
+		assertNull(scope.remove("key"));
+		assertEquals(2, scope.size());
+		scope.clear();
+		assertTrue(scope.isEmpty());
+	}
+
+	@Test
+	public void keepsTheSnapshotsUnchanged() {
+		final ScopeMap<String, Object> scope = new ScopeMap<String, Object>();
+		scope.put("a", 1);
+		final PersistentHashMap<String, Object> snapshot = scope.snapshot();
+		scope.put("a", 2);
+		scope.put("b", 3);
+		assertEquals(1, snapshot.get("a"));
+		assertFalse(snapshot.containsKey("b"));
+		assertEquals(1, snapshot.size());
+	}
+
+	@Test
+	public void mergesTheChangesOfTwoConcurrentForks() {
+		final ScopeMap<String, Object> scope = new ScopeMap<String, Object>();
+		scope.put("shared", "base");
+		scope.put("removed", "base");
+		scope.put("first only", "base");
+		scope.put("untouched", "base");
+		final PersistentHashMap<String, Object> base = scope.snapshot();
+
+		final ScopeMap<String, Object> first = new ScopeMap<String, Object>(base);
+		final ScopeMap<String, Object> second = new ScopeMap<String, Object>(base);
+		first.put("shared", "first");
+		first.put("first only", "first");
+		first.remove("removed");
+		first.put("added by first", null);
+		second.put("shared", "second");
+		second.put("added by second", "second");
+		second.put(null, "second");
+
+		// The scope has been changed while the forks were running
+		scope.put("untouched", "scope");
+
+		scope.merge(base, first.snapshot());
+		scope.merge(base, second.snapshot());
+		final Map<String, Object> expected = new HashMap<String, Object>();
+		expected.put("shared", "second");
+		expected.put("first only", "first");
+		expected.put("untouched", "scope");
+		expected.put("added by first", null);
+		expected.put("added by second", "second");
+		expected.put(null, "second");
+		assertEquals(expected, new HashMap<String, Object>(scope));
+
+		// Merging a fork without any change leaves the scope as it is
+		scope.merge(base, new ScopeMap<String, Object>(base).snapshot());
+		assertEquals(expected, new HashMap<String, Object>(scope));
+	}
+
+	@Test
+	public void removesTheEntriesThroughTheEntrySetIterator() {
+		final ScopeMap<String, Integer> scope = new ScopeMap<String, Integer>();
+		for (int i = 0; i < 100; i++)
+			scope.put("key" + i, i);
+		for (final Iterator<Entry<String, Integer>> iterator = scope.entrySet().iterator(); iterator.hasNext();)
+			if (iterator.next().getValue() % 2 == 0)
+				iterator.remove();
+		assertEquals(50, scope.size());
+		for (int i = 0; i < 100; i++)
+			assertEquals(i % 2 == 1, scope.containsKey("key" + i));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void rejectsARemovalBeforeNext() {
+		final ScopeMap<String, Integer> scope = new ScopeMap<String, Integer>();
+		scope.put("key", 1);
+		scope.entrySet().iterator().remove();
+	}
+
+	@Test
+	public void rejectsASecondRemovalOfTheSameEntry() {
+		final ScopeMap<String, Integer> scope = new ScopeMap<String, Integer>();
+		scope.put("first", 1);
+		scope.put("second", 2);
+		final Iterator<Entry<String, Integer>> iterator = scope.entrySet().iterator();
+		iterator.next();
+		iterator.remove();
+		try {
+			iterator.remove();
+			fail("The same entry has been removed twice");
+		} catch (final IllegalStateException e) {
+			assertEquals(1, scope.size());
+		}
+	}
+}
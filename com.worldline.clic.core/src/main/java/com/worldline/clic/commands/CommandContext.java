@@ -0,0 +1,355 @@
+/*
+ * CLiC, Framework for Command Line Interpretation in Eclipse
+ *
+ *     Copyright (C) 2013 Worldline or third-party contributors as
+ *     indicated by the @author tags or express copyright attribution
+ *     statements applied by the authors.
+ *
+ *     This library is free software; you can redistribute it and/or
+ *     modify it under the terms of the GNU Lesser General Public
+ *     License as published by the Free Software Foundation; either
+ *     version 2.1 of the License.
+ *
+ *     This library is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *     Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public
+ *     License along with this library; if not, write to the Free Software
+ *     Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+package com.worldline.clic.commands;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.worldline.clic.core.ClicCore;
+
+/**
+ * {@link CommandContext} is a class used by CLiC in order to represent a
+ * specific command execution's context. The main feature behind this object is
+ * to allow to interact with the user by sending some feedbacks about a command
+ * execution.
+ * 
+ * @author mvanbesien / aneveux
+ * @version 1.1
+ * @since 1.0
+ */
+public class CommandContext {
+
+	/**
+	 * Constructor
+	 * 
+	 * @param writer
+	 *            the {@link Writer} object to be used by CLiC in order to send
+	 *            data to the console
+	 */
+	public CommandContext(final Writer writer) {
+		this(writer, new ScopeMap<String, Object>());
+	}
+
+	/**
+	 * Internal constructor, allowing to share the scope of another context
+	 * 
+	 * @param writer
+	 *            the {@link Writer} object to be used by CLiC in order to send
+	 *            data to the console
+	 * @param context
+	 *            the {@link ScopeMap} to be used as scope
+	 */
+	private CommandContext(final Writer writer, final ScopeMap<String, Object> context) {
+		this(writer, context, null, null, null);
+	}
+
+	/**
+	 * Internal constructor, used for contexts forked from another one
+	 * 
+	 * @param writer
+	 *            the {@link Writer} object to be used by CLiC in order to send
+	 *            data to the console
+	 * @param context
+	 *            the {@link ScopeMap} to be used as scope
+	 * @param parent
+	 *            the context this one has been forked from, if any
+	 * @param snapshot
+	 *            the scope of the parent at the time of the fork, if any
+	 * @param outer
+	 *            the context this one writes for, if any
+	 */
+	private CommandContext(final Writer writer, final ScopeMap<String, Object> context, final CommandContext parent,
+			final PersistentHashMap<String, Object> snapshot, final CommandContext outer) {
+		this.writer = writer;
+		this.context = context;
+		this.parent = parent;
+		this.snapshot = snapshot;
+		this.outer = outer;
+	}
+
+	/**
+	 * The {@link Writer} object which is used internally by the console in
+	 * order to display data
+	 */
+	private final Writer writer;
+
+	/**
+	 * This object allows to store the current object manipulated during the
+	 * command's execution
+	 */
+	private Object currentObject;
+
+	/**
+	 * This {@link #context} object is actually a {@link Map} allowing to store
+	 * any information in the execution's context. It can be copied in
+	 * constant time, and safely read while being updated.
+	 */
+	private final ScopeMap<String, Object> context;
+
+	/**
+	 * The {@link #outputs} of the context should be used if you want to store
+	 * some new parameters you'd like to provide to a command to be executed
+	 * after yours. You can write any arguments directly in this {@link List},
+	 * and it'll be internally used as new parameters for the following
+	 * commands.
+	 * 
+	 * @since 1.1
+	 */
+	private final List<String> outputs = Collections.synchronizedList(new ArrayList<String>());
+
+	/**
+	 * The number of lines written using {@link #write(String)}
+	 */
+	private final AtomicInteger writtenLines = new AtomicInteger();
+
+	/**
+	 * The number of characters written using {@link #write(String)}
+	 */
+	private final AtomicLong writtenCharacters = new AtomicLong();
+
+	/**
+	 * The context this one has been forked from, or null if it has not been
+	 * created using {@link #fork(String)}
+	 */
+	private final CommandContext parent;
+
+	/**
+	 * The scope of the {@link #parent} at the time this context has been
+	 * forked, used in order to know what has been changed by the execution
+	 */
+	private final PersistentHashMap<String, Object> snapshot;
+
+	/**
+	 * The context this one has been created from using
+	 * {@link #withWriter(Writer)}, which counts the lines and characters
+	 * written through this one as its own, or null
+	 */
+	private final CommandContext outer;
+
+	/**
+	 * This {@link #getScope()} function allows to get the execution's context
+	 * data. So you can put any kind of data in this context, and retrieve it
+	 * from somewhere else sharing the same context.
+	 * 
+	 * @return {@link #context} a {@link Map} containing the execution's context
+	 *         data
+	 */
+	public Map<String, Object> getScope() {
+		return context;
+	}
+
+	/**
+	 * Simple getter for {@link #currentObject}
+	 * 
+	 * @return {@link #currentObject}, the current object manipulated during
+	 *         this execution's instance
+	 */
+	public Object getCurrentObject() {
+		return currentObject;
+	}
+
+	/**
+	 * Allows to specify a new {@link Object} for this instance of the command's
+	 * execution
+	 * 
+	 * @param currentObject
+	 *            the {@link Object} to be linked with this execution's instance
+	 * @return the current instance of {@link CommandContext}
+	 */
+	public CommandContext withCurrentObject(final Object currentObject) {
+		this.currentObject = currentObject;
+		return this;
+	}
+
+	/**
+	 * Allows to create a new context object containing an exact clone of this
+	 * instance of {@link CommandContext}. The scope is shared structurally
+	 * with this instance, so that the clone is created in constant time.
+	 * 
+	 * @return a new instance of {@link CommandContext} containing the exact
+	 *         same information as this instance
+	 */
+	public CommandContext cloneContext() {
+		return new CommandContext(writer, new ScopeMap<String, Object>(context.snapshot()));
+	}
+
+	/**
+	 * Allows to create a new context sharing the scope and the current object
+	 * of this instance of {@link CommandContext}, but sending its data to
+	 * another {@link Writer}, and having its own {@link #outputs}. It is used
+	 * internally in order to capture what a command writes. The lines and
+	 * characters written through the new context are also counted by this
+	 * instance.
+	 * 
+	 * @param writer
+	 *            the {@link Writer} to be used by the new context
+	 * @return a new instance of {@link CommandContext} sharing this instance's
+	 *         scope
+	 * @since 1.2
+	 */
+	public CommandContext withWriter(final Writer writer) {
+		return new CommandContext(writer, context, null, null, this).withCurrentObject(currentObject);
+	}
+
+	/**
+	 * Allows to create the context of a single execution from this instance of
+	 * {@link CommandContext}. The new context has its own {@link #outputs}, and
+	 * works on a snapshot of this instance's scope, so that several commands
+	 * can be executed at the same time from the same console without altering
+	 * each other. Its messages are sent to the same {@link Writer}, prefixed
+	 * with the provided tag if any.
+	 * 
+	 * The changes made to the scope of the forked context are applied back to
+	 * this instance when {@link #complete()} is called.
+	 * 
+	 * @param tag
+	 *            the tag used to identify the execution's messages on the
+	 *            console, or null if they shouldn't be tagged
+	 * @return a new instance of {@link CommandContext} for a single execution
+	 * @since 1.2
+	 */
+	public CommandContext fork(final String tag) {
+		final PersistentHashMap<String, Object> snapshot = context.snapshot();
+		final Writer forkWriter = tag != null && writer != null ? new TaggedWriter(writer, tag) : writer;
+		return new CommandContext(forkWriter, new ScopeMap<String, Object>(snapshot), this, snapshot, null)
+				.withCurrentObject(currentObject);
+	}
+
+	/**
+	 * Applies the changes made to the scope of this context since it has been
+	 * forked to the scope of the context it has been forked from. The last
+	 * execution to complete wins when several ones changed the same entry.
+	 * Does nothing if this context has not been created using
+	 * {@link #fork(String)}.
+	 * 
+	 * @since 1.2
+	 */
+	public void complete() {
+		if (parent == null)
+			return;
+		parent.context.merge(snapshot, context.snapshot());
+	}
+
+	/**
+	 * Allows to write a message on the console using the context's
+	 * {@link #writer}. You don't have to wait till the end of the command's
+	 * execution, and the message will be displayed directly on the console.
+	 * 
+	 * @param message
+	 *            the message you'd like to display on the console
+	 */
+	public void write(final String message) {
+		if (message != null) {
+			int lines = 1;
+			for (int i = message.indexOf('\n'); i != -1 && i < message.length() - 1; i = message.indexOf('\n', i + 1))
+				lines++;
+			for (CommandContext counting = this; counting != null; counting = counting.outer) {
+				counting.writtenLines.addAndGet(lines);
+				counting.writtenCharacters.addAndGet(message.length());
+			}
+		}
+		if (writer != null)
+			try {
+				writer.write(message);
+				writer.flush();
+			} catch (final IOException e) {
+				ClicCore.getLogger().error(e.getMessage(), e);
+			}
+	}
+
+	/**
+	 * Allows to know how many lines have been written on the console through
+	 * this context, using {@link #write(String)}
+	 * 
+	 * @return the number of lines written
+	 * @since 1.2
+	 */
+	public int getWrittenLines() {
+		return writtenLines.get();
+	}
+
+	/**
+	 * Allows to know how many characters have been written on the console
+	 * through this context, using {@link #write(String)}
+	 * 
+	 * @return the number of characters written
+	 * @since 1.2
+	 */
+	public long getWrittenCharacters() {
+		return writtenCharacters.get();
+	}
+
+	/**
+	 * Simple getter for {@link #writer}. It allows to use the {@link #writer}
+	 * directly from your command, if you'd like to link the execution result
+	 * directly to the writer for example.
+	 * 
+	 * @return the {@link #writer} which is used by your command to display
+	 *         information on the console.
+	 */
+	public Writer getWriter() {
+		return writer;
+	}
+
+	/**
+	 * Allows to add a new parameter in the outputs of the actual command in
+	 * order to be used and injected to the next command to be executed in a
+	 * flow.
+	 * 
+	 * @param s
+	 *            a new parameter you'd like to inject in the next command to be
+	 *            executed
+	 * @since 1.1
+	 */
+	public void addOutput(final String s) {
+		outputs.add(s);
+	}
+
+	/**
+	 * Allows to clear the {@link #outputs} of the current context
+	 * 
+	 * @since 1.1
+	 */
+	public void clearOutputs() {
+		outputs.clear();
+	}
+
+	/**
+	 * Allows to get the {@link #outputs} which have been defined during the
+	 * execution of a command in order to prepare the arguments of the next
+	 * command
+	 * 
+	 * @return {@link #outputs} which is a {@link List} of {@link String}
+	 *         corresponding to new commands arguments
+	 * @since 1.1
+	 */
+	public List<String> getOutputs() {
+		return outputs;
+	}
+
+}
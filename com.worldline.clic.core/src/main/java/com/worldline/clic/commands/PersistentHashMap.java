@@ -0,0 +1,533 @@
+/*
+ * CLiC, Framework for Command Line Interpretation in Eclipse
+ *
+ *     Copyright (C) 2013 Worldline or third-party contributors as
+ *     indicated by the @author tags or express copyright attribution
+ *     statements applied by the authors.
+ *
+ *     This library is free software; you can redistribute it and/or
+ *     modify it under the terms of the GNU Lesser General Public
+ *     License as published by the Free Software Foundation; either
+ *     version 2.1 of the License.
+ *
+ *     This library is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *     Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public
+ *     License along with this library; if not, write to the Free Software
+ *     Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+package com.worldline.clic.commands;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Immutable hash map implemented as a hash array mapped trie. Each update
+ * returns a new map sharing all of its structure with the previous one, except
+ * for the path leading to the updated entry, so that a map can be copied in
+ * constant time and read by any thread without locking.
+ * 
+ * Both null keys and null values are supported.
+ * 
+ * @author mvanbesien / aneveux
+ * @version 1.0
+ * @since 1.2
+ * 
+ * @param <K>
+ *            the type of the keys
+ * @param <V>
+ *            the type of the values
+ */
+final class PersistentHashMap<K, V> implements Iterable<Map.Entry<K, V>> {
+
+	/**
+	 * Number of bits of the hash consumed at each level of the trie
+	 */
+	private static final int BITS = 5;
+
+	/**
+	 * Mask used to extract the index of a slot from the hash
+	 */
+	private static final int MASK = (1 << BITS) - 1;
+
+	/**
+	 * Value returned by the nodes when a key is not found, since null is a
+	 * legal value
+	 */
+	private static final Object NOT_FOUND = new Object();
+
+	/**
+	 * The empty map
+	 */
+	private static final PersistentHashMap<Object, Object> EMPTY = new PersistentHashMap<Object, Object>(null, 0);
+
+	/**
+	 * The root node of the trie, or null if the map is empty
+	 */
+	private final Node root;
+
+	/**
+	 * The number of entries of the map
+	 */
+	private final int size;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param root
+	 *            {@link #root}
+	 * @param size
+	 *            {@link #size}
+	 */
+	private PersistentHashMap(final Node root, final int size) {
+		this.root = root;
+		this.size = size;
+	}
+
+	/**
+	 * @return the empty map
+	 */
+	@SuppressWarnings("unchecked")
+	static <K, V> PersistentHashMap<K, V> empty() {
+		return (PersistentHashMap<K, V>) EMPTY;
+	}
+
+	/**
+	 * @return the number of entries of this map
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * @param key
+	 *            the key to look for
+	 * @return true if this map contains an entry for the provided key
+	 */
+	boolean containsKey(final Object key) {
+		return root != null && root.find(hash(key), 0, key) != NOT_FOUND;
+	}
+
+	/**
+	 * @param key
+	 *            the key to look for
+	 * @return the value associated with the key, or null if there is none
+	 */
+	@SuppressWarnings("unchecked")
+	V get(final Object key) {
+		final Object value = root == null ? NOT_FOUND : root.find(hash(key), 0, key);
+		return value == NOT_FOUND ? null : (V) value;
+	}
+
+	/**
+	 * @param key
+	 *            the key of the entry
+	 * @param value
+	 *            the value of the entry
+	 * @return a map containing the entries of this one, with the provided key
+	 *         associated with the provided value
+	 */
+	PersistentHashMap<K, V> plus(final K key, final V value) {
+		final int hash = hash(key);
+		if (root == null)
+			return new PersistentHashMap<K, V>(new Leaf(hash, key, value), 1);
+		final boolean[] added = new boolean[1];
+		final Node newRoot = root.assoc(hash, 0, key, value, added);
+		return newRoot == root ? this : new PersistentHashMap<K, V>(newRoot, added[0] ? size + 1 : size);
+	}
+
+	/**
+	 * @param key
+	 *            the key of the entry to remove
+	 * @return a map containing the entries of this one, except for the
+	 *         provided key
+	 */
+	PersistentHashMap<K, V> minus(final Object key) {
+		if (root == null)
+			return this;
+		final Node newRoot = root.without(hash(key), 0, key);
+		return newRoot == root ? this : new PersistentHashMap<K, V>(newRoot, size - 1);
+	}
+
+	/**
+	 * Computes the changes leading from an older version of a map to this
+	 * one. The subtrees shared by both versions are skipped, so that the cost
+	 * only depends on the number of changes. Values are compared by identity.
+	 * 
+	 * @param older
+	 *            the older version of the map
+	 * @param puts
+	 *            the list receiving the entries added or updated in this map
+	 * @param removals
+	 *            the list receiving the keys removed from this map
+	 */
+	@SuppressWarnings("unchecked")
+	void diff(final PersistentHashMap<K, V> older, final List<Map.Entry<K, V>> puts, final List<K> removals) {
+		final Deque<Node[]> pending = new ArrayDeque<Node[]>();
+		pending.push(new Node[] { older.root, root });
+		while (!pending.isEmpty()) {
+			final Node[] pair = pending.pop();
+			final Node before = pair[0], after = pair[1];
+			if (before == after)
+				continue;
+			if (before instanceof BitmapNode && after instanceof BitmapNode) {
+				final BitmapNode b = (BitmapNode) before, a = (BitmapNode) after;
+				for (int bits = b.bitmap | a.bitmap; bits != 0; bits &= bits - 1) {
+					final int bit = Integer.lowestOneBit(bits);
+					pending.push(new Node[] { b.slot(bit), a.slot(bit) });
+				}
+				continue;
+			}
+			if (after != null)
+				for (final Iterator<Leaf> it = new LeafIterator(after); it.hasNext();) {
+					final Leaf leaf = it.next();
+					final Object previous = older.root == null ? NOT_FOUND : older.root.find(leaf.hash, 0, leaf.key);
+					if (previous != leaf.value)
+						puts.add((Map.Entry<K, V>) leaf);
+				}
+			if (before != null)
+				for (final Iterator<Leaf> it = new LeafIterator(before); it.hasNext();) {
+					final Leaf leaf = it.next();
+					if (!containsKey(leaf.key))
+						removals.add((K) leaf.key);
+				}
+		}
+	}
+
+	/**
+	 * @return an iterator over the entries of this map
+	 */
+	@Override
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public Iterator<Map.Entry<K, V>> iterator() {
+		return (Iterator) new LeafIterator(root);
+	}
+
+	/**
+	 * @param key
+	 *            a key, possibly null
+	 * @return the spread hash code of the key
+	 */
+	private static int hash(final Object key) {
+		if (key == null)
+			return 0;
+		final int h = key.hashCode();
+		return h ^ (h >>> 16);
+	}
+
+	/**
+	 * @param a
+	 *            a key, possibly null
+	 * @param b
+	 *            a key, possibly null
+	 * @return true if both keys are equal
+	 */
+	private static boolean same(final Object a, final Object b) {
+		return a == null ? b == null : a.equals(b);
+	}
+
+	/**
+	 * @param hash
+	 *            a hash
+	 * @param shift
+	 *            the level in the trie
+	 * @return the bit corresponding to the hash at the provided level
+	 */
+	private static int bit(final int hash, final int shift) {
+		return 1 << ((hash >>> shift) & MASK);
+	}
+
+	/**
+	 * Node of the trie
+	 */
+	private static abstract class Node {
+
+		/**
+		 * @return the value associated with the key, or {@link #NOT_FOUND}
+		 */
+		abstract Object find(int hash, int shift, Object key);
+
+		/**
+		 * @return the node containing the provided entry, or this node if it
+		 *         already contained it
+		 */
+		abstract Node assoc(int hash, int shift, Object key, Object value, boolean[] added);
+
+		/**
+		 * @return the node without the provided key, this node if it did not
+		 *         contain it, or null if it becomes empty
+		 */
+		abstract Node without(int hash, int shift, Object key);
+	}
+
+	/**
+	 * Node holding a single entry
+	 */
+	private static final class Leaf extends Node implements Map.Entry<Object, Object> {
+
+		private final int hash;
+
+		private final Object key;
+
+		private final Object value;
+
+		Leaf(final int hash, final Object key, final Object value) {
+			this.hash = hash;
+			this.key = key;
+			this.value = value;
+		}
+
+		@Override
+		Object find(final int hash, final int shift, final Object key) {
+			return this.hash == hash && same(this.key, key) ? value : NOT_FOUND;
+		}
+
+		@Override
+		Node assoc(final int hash, final int shift, final Object key, final Object value, final boolean[] added) {
+			if (this.hash == hash && same(this.key, key))
+				return this.value == value ? this : new Leaf(hash, key, value);
+			added[0] = true;
+			final Leaf leaf = new Leaf(hash, key, value);
+			if (this.hash == hash)
+				return new CollisionNode(hash, new Leaf[] { this, leaf });
+			return BitmapNode.of(this, leaf, shift);
+		}
+
+		@Override
+		Node without(final int hash, final int shift, final Object key) {
+			return this.hash == hash && same(this.key, key) ? null : this;
+		}
+
+		@Override
+		public Object getKey() {
+			return key;
+		}
+
+		@Override
+		public Object getValue() {
+			return value;
+		}
+
+		@Override
+		public Object setValue(final Object value) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public boolean equals(final Object o) {
+			if (!(o instanceof Map.Entry))
+				return false;
+			final Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+			return same(key, e.getKey()) && same(value, e.getValue());
+		}
+
+		@Override
+		public int hashCode() {
+			return (key == null ? 0 : key.hashCode()) ^ (value == null ? 0 : value.hashCode());
+		}
+
+		@Override
+		public String toString() {
+			return key + "=" + value;
+		}
+	}
+
+	/**
+	 * Node holding up to 32 children, indexed by 5 bits of the hash
+	 */
+	private static final class BitmapNode extends Node {
+
+		private final int bitmap;
+
+		private final Node[] slots;
+
+		BitmapNode(final int bitmap, final Node[] slots) {
+			this.bitmap = bitmap;
+			this.slots = slots;
+		}
+
+		/**
+		 * @return a node holding two leaves having different hashes
+		 */
+		static Node of(final Leaf first, final Leaf second, final int shift) {
+			final int firstBit = bit(first.hash, shift), secondBit = bit(second.hash, shift);
+			if (firstBit == secondBit)
+				return new BitmapNode(firstBit, new Node[] { of(first, second, shift + BITS) });
+			final boolean ordered = ((first.hash >>> shift) & MASK) < ((second.hash >>> shift) & MASK);
+			return new BitmapNode(firstBit | secondBit, ordered ? new Node[] { first, second } : new Node[] { second,
+					first });
+		}
+
+		/**
+		 * @return the position of the slot matching the bit
+		 */
+		private int index(final int bit) {
+			return Integer.bitCount(bitmap & (bit - 1));
+		}
+
+		/**
+		 * @return the child matching the bit, or null
+		 */
+		Node slot(final int bit) {
+			return (bitmap & bit) == 0 ? null : slots[index(bit)];
+		}
+
+		@Override
+		Object find(final int hash, final int shift, final Object key) {
+			final int bit = bit(hash, shift);
+			return (bitmap & bit) == 0 ? NOT_FOUND : slots[index(bit)].find(hash, shift + BITS, key);
+		}
+
+		@Override
+		Node assoc(final int hash, final int shift, final Object key, final Object value, final boolean[] added) {
+			final int bit = bit(hash, shift);
+			final int index = index(bit);
+			if ((bitmap & bit) == 0) {
+				added[0] = true;
+				final Node[] newSlots = new Node[slots.length + 1];
+				System.arraycopy(slots, 0, newSlots, 0, index);
+				newSlots[index] = new Leaf(hash, key, value);
+				System.arraycopy(slots, index, newSlots, index + 1, slots.length - index);
+				return new BitmapNode(bitmap | bit, newSlots);
+			}
+			final Node child = slots[index].assoc(hash, shift + BITS, key, value, added);
+			if (child == slots[index])
+				return this;
+			final Node[] newSlots = slots.clone();
+			newSlots[index] = child;
+			return new BitmapNode(bitmap, newSlots);
+		}
+
+		@Override
+		Node without(final int hash, final int shift, final Object key) {
+			final int bit = bit(hash, shift);
+			if ((bitmap & bit) == 0)
+				return this;
+			final int index = index(bit);
+			final Node child = slots[index].without(hash, shift + BITS, key);
+			if (child == slots[index])
+				return this;
+			if (child != null) {
+				// Leaves and collision nodes don't depend on their level
+				if (slots.length == 1 && !(child instanceof BitmapNode))
+					return child;
+				final Node[] newSlots = slots.clone();
+				newSlots[index] = child;
+				return new BitmapNode(bitmap, newSlots);
+			}
+			if (slots.length == 1)
+				return null;
+			if (slots.length == 2 && !(slots[1 - index] instanceof BitmapNode))
+				return slots[1 - index];
+			final Node[] newSlots = new Node[slots.length - 1];
+			System.arraycopy(slots, 0, newSlots, 0, index);
+			System.arraycopy(slots, index + 1, newSlots, index, newSlots.length - index);
+			return new BitmapNode(bitmap & ~bit, newSlots);
+		}
+	}
+
+	/**
+	 * Node holding the entries whose keys share the same hash
+	 */
+	private static final class CollisionNode extends Node {
+
+		private final int hash;
+
+		private final Leaf[] leaves;
+
+		CollisionNode(final int hash, final Leaf[] leaves) {
+			this.hash = hash;
+			this.leaves = leaves;
+		}
+
+		@Override
+		Object find(final int hash, final int shift, final Object key) {
+			if (this.hash == hash)
+				for (final Leaf leaf : leaves)
+					if (same(leaf.key, key))
+						return leaf.value;
+			return NOT_FOUND;
+		}
+
+		@Override
+		Node assoc(final int hash, final int shift, final Object key, final Object value, final boolean[] added) {
+			if (this.hash != hash)
+				return new BitmapNode(bit(this.hash, shift), new Node[] { this }).assoc(hash, shift, key, value, added);
+			for (int i = 0; i < leaves.length; i++)
+				if (same(leaves[i].key, key)) {
+					if (leaves[i].value == value)
+						return this;
+					final Leaf[] newLeaves = leaves.clone();
+					newLeaves[i] = new Leaf(hash, key, value);
+					return new CollisionNode(hash, newLeaves);
+				}
+			added[0] = true;
+			final Leaf[] newLeaves = new Leaf[leaves.length + 1];
+			System.arraycopy(leaves, 0, newLeaves, 0, leaves.length);
+			newLeaves[leaves.length] = new Leaf(hash, key, value);
+			return new CollisionNode(hash, newLeaves);
+		}
+
+		@Override
+		Node without(final int hash, final int shift, final Object key) {
+			if (this.hash != hash)
+				return this;
+			for (int i = 0; i < leaves.length; i++)
+				if (same(leaves[i].key, key)) {
+					if (leaves.length == 2)
+						return leaves[1 - i];
+					final Leaf[] newLeaves = new Leaf[leaves.length - 1];
+					System.arraycopy(leaves, 0, newLeaves, 0, i);
+					System.arraycopy(leaves, i + 1, newLeaves, i, newLeaves.length - i);
+					return new CollisionNode(hash, newLeaves);
+				}
+			return this;
+		}
+	}
+
+	/**
+	 * Depth-first iterator over the leaves of a subtree
+	 */
+	private static final class LeafIterator implements Iterator<Leaf> {
+
+		private final Deque<Node> stack = new ArrayDeque<Node>();
+
+		LeafIterator(final Node root) {
+			if (root != null)
+				stack.push(root);
+		}
+
+		@Override
+		public boolean hasNext() {
+			return !stack.isEmpty();
+		}
+
+		@Override
+		public Leaf next() {
+			while (!stack.isEmpty()) {
+				final Node node = stack.pop();
+				if (node instanceof Leaf)
+					return (Leaf) node;
+				if (node instanceof BitmapNode)
+					for (final Node slot : ((BitmapNode) node).slots)
+						stack.push(slot);
+				else
+					for (final Leaf leaf : ((CollisionNode) node).leaves)
+						stack.push(leaf);
+			}
+			throw new NoSuchElementException();
+		}
+
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+	}
+}
@@ -0,0 +1,184 @@
+/*
+ * CLiC, Framework for Command Line Interpretation in Eclipse
+ *
+ *     Copyright (C) 2013 Worldline or third-party contributors as
+ *     indicated by the @author tags or express copyright attribution
+ *     statements applied by the authors.
+ *
+ *     This library is free software; you can redistribute it and/or
+ *     modify it under the terms of the GNU Lesser General Public
+ *     License as published by the Free Software Foundation; either
+ *     version 2.1 of the License.
+ *
+ *     This library is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *     Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public
+ *     License along with this library; if not, write to the Free Software
+ *     Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+package com.worldline.clic.commands;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * This {@link java.util.Map} is used as scope of the {@link CommandContext}. It
+ * is backed by a {@link PersistentHashMap} which is replaced on each update, so
+ * that the scope can be copied in constant time, and that readers always work
+ * on a consistent snapshot without locking.
+ * 
+ * @author mvanbesien / aneveux
+ * @version 1.0
+ * @since 1.2
+ * 
+ * @param <K>
+ *            the type of the keys
+ * @param <V>
+ *            the type of the values
+ */
+class ScopeMap<K, V> extends AbstractMap<K, V> {
+
+	/**
+	 * The current version of the map
+	 */
+	private final AtomicReference<PersistentHashMap<K, V>> current;
+
+	/**
+	 * Constructor, creating an empty scope
+	 */
+	ScopeMap() {
+		this(PersistentHashMap.<K, V> empty());
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param snapshot
+	 *            the initial content of the scope
+	 */
+	ScopeMap(final PersistentHashMap<K, V> snapshot) {
+		this.current = new AtomicReference<PersistentHashMap<K, V>>(snapshot);
+	}
+
+	/**
+	 * @return the current content of the scope, which won't be affected by
+	 *         later updates
+	 */
+	PersistentHashMap<K, V> snapshot() {
+		return current.get();
+	}
+
+	/**
+	 * Applies to this scope the changes leading from a snapshot to another
+	 * one, atomically. The changes of the last call win when several ones
+	 * update the same entry.
+	 * 
+	 * @param base
+	 *            the snapshot the changes have been made on
+	 * @param changed
+	 *            the snapshot containing the changes
+	 */
+	void merge(final PersistentHashMap<K, V> base, final PersistentHashMap<K, V> changed) {
+		final List<Entry<K, V>> puts = new ArrayList<Entry<K, V>>();
+		final List<K> removals = new ArrayList<K>();
+		changed.diff(base, puts, removals);
+		if (puts.isEmpty() && removals.isEmpty())
+			return;
+		PersistentHashMap<K, V> before, after;
+		do {
+			before = current.get();
+			after = before;
+			for (final Entry<K, V> entry : puts)
+				after = after.plus(entry.getKey(), entry.getValue());
+			for (final K key : removals)
+				after = after.minus(key);
+		} while (!current.compareAndSet(before, after));
+	}
+
+	@Override
+	public int size() {
+		return current.get().size();
+	}
+
+	@Override
+	public boolean containsKey(final Object key) {
+		return current.get().containsKey(key);
+	}
+
+	@Override
+	public V get(final Object key) {
+		return current.get().get(key);
+	}
+
+	@Override
+	public V put(final K key, final V value) {
+		PersistentHashMap<K, V> before;
+		do
+			before = current.get();
+		while (!current.compareAndSet(before, before.plus(key, value)));
+		return before.get(key);
+	}
+
+	@Override
+	public V remove(final Object key) {
+		PersistentHashMap<K, V> before;
+		do
+			before = current.get();
+		while (!current.compareAndSet(before, before.minus(key)));
+		return before.get(key);
+	}
+
+	@Override
+	public void clear() {
+		current.set(PersistentHashMap.<K, V> empty());
+	}
+
+	/**
+	 * @return the entries of the current snapshot of the scope. Removing an
+	 *         entry through the iterator removes it from the scope.
+	 */
+	@Override
+	public Set<Entry<K, V>> entrySet() {
+		final PersistentHashMap<K, V> snapshot = current.get();
+		return new AbstractSet<Entry<K, V>>() {
+			@Override
+			public Iterator<Entry<K, V>> iterator() {
+				final Iterator<Entry<K, V>> iterator = snapshot.iterator();
+				return new Iterator<Entry<K, V>>() {
+					private Entry<K, V> last;
+
+					@Override
+					public boolean hasNext() {
+						return iterator.hasNext();
+					}
+
+					@Override
+					public Entry<K, V> next() {
+						return last = iterator.next();
+					}
+
+					@Override
+					public void remove() {
+						if (last == null)
+							throw new IllegalStateException();
+						ScopeMap.this.remove(last.getKey());
+						last = null;
+					}
+				};
+			}
+
+			@Override
+			public int size() {
+				return snapshot.size();
+			}
+		};
+	}
+}
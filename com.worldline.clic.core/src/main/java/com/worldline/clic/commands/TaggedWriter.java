@@ -0,0 +1,110 @@
+/*
+ * CLiC, Framework for Command Line Interpretation in Eclipse
+ *
+ *     Copyright (C) 2013 Worldline or third-party contributors as
+ *     indicated by the @author tags or express copyright attribution
+ *     statements applied by the authors.
+ *
+ *     This library is free software; you can redistribute it and/or
+ *     modify it under the terms of the GNU Lesser General Public
+ *     License as published by the Free Software Foundation; either
+ *     version 2.1 of the License.
+ *
+ *     This library is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *     Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public
+ *     License along with this library; if not, write to the Free Software
+ *     Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+package com.worldline.clic.commands;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * This extension of a {@link Writer} prefixes each line written by a command
+ * with a tag before forwarding it to the shared {@link Writer}, so that the
+ * outputs of commands executed at the same time can be told apart.
+ * 
+ * @author mvanbesien / aneveux
+ * @version 1.0
+ * @since 1.2
+ */
+class TaggedWriter extends Writer {
+
+	/**
+	 * The shared {@link Writer}
+	 */
+	private final Writer delegate;
+
+	/**
+	 * The prefix added to each line
+	 */
+	private final String prefix;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param delegate
+	 *            the shared {@link Writer}
+	 * @param tag
+	 *            the tag identifying the execution
+	 */
+	TaggedWriter(final Writer delegate, final String tag) {
+		this.delegate = delegate;
+		this.prefix = "[" + tag + "] ";
+	}
+
+	/**
+	 * Forwards the provided {@link String}, with each of its lines prefixed by
+	 * the tag. A null {@link String} is forwarded as <i>null</i>, the same way
+	 * the console writers display it.
+	 */
+	@Override
+	public void write(final String message) throws IOException {
+		final String str = String.valueOf(message);
+		final StringBuilder sb = new StringBuilder(str.length() + prefix.length()).append(prefix);
+		for (int i = 0; i < str.length(); i++) {
+			final char c = str.charAt(i);
+			sb.append(c);
+			if (c == '\n' && i < str.length() - 1)
+				sb.append(prefix);
+		}
+		delegate.write(sb.toString());
+	}
+
+	/**
+	 * Forwards the provided part of a {@link String}
+	 */
+	@Override
+	public void write(final String str, final int off, final int len) throws IOException {
+		this.write(str.substring(off, off + len));
+	}
+
+	/**
+	 * Forwards the provided characters
+	 */
+	@Override
+	public void write(final char[] cbuf, final int off, final int len) throws IOException {
+		this.write(new String(cbuf, off, len));
+	}
+
+	/**
+	 * Flushes the shared {@link Writer}
+	 */
+	@Override
+	public void flush() throws IOException {
+		delegate.flush();
+	}
+
+	/**
+	 * Does nothing, as the shared {@link Writer} is not owned by this one
+	 */
+	@Override
+	public void close() throws IOException {
+		// does nothing
+	}
+}
@@ -0,0 +1,159 @@
+/*
+ * CLiC, Framework for Command Line Interpretation in Eclipse
+ *
+ *     Copyright (C) 2013 Worldline or third-party contributors as
+ *     indicated by the @author tags or express copyright attribution
+ *     statements applied by the authors.
+ *
+ *     This library is free software; you can redistribute it and/or
+ *     modify it under the terms of the GNU Lesser General Public
+ *     License as published by the Free Software Foundation; either
+ *     version 2.1 of the License.
+ *
+ *     This library is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *     Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public
+ *     License along with this library; if not, write to the Free Software
+ *     Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+package com.worldline.clic.core;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * {@link ClicCore} holds the services the command engine relies on, so that it
+ * can run within Eclipse as well as in a plain Java virtual machine:
+ * <ul>
+ * <li>the {@link ContributionProvider}s, which declare the available
+ * commands, flows and listeners,</li>
+ * <li>the {@link EngineLogger}, used to report the errors,</li>
+ * <li>the {@link EngineScheduler}, used to execute tasks asynchronously.</li>
+ * </ul>
+ * 
+ * The contribution providers are the ones added using
+ * {@link #addContributionProvider(ContributionProvider)}, followed by the ones
+ * declared as services in <i>META-INF/services</i> and loaded with the
+ * {@link ServiceLoader}. The logger and the scheduler default to
+ * implementations relying on the JDK only; the Eclipse plugin replaces them
+ * when it starts.
+ * 
+ * @author mvanbesien / aneveux
+ * @version 1.0
+ * @since 1.2
+ */
+public final class ClicCore {
+
+	/**
+	 * The identifier of CLiC, used in the statuses of the executions
+	 */
+	public static final String PLUGIN_ID = "com.worldline.clic"; //$NON-NLS-1$
+
+	/**
+	 * The providers which have been added explicitly
+	 */
+	private static final List<ContributionProvider> providers = new CopyOnWriteArrayList<ContributionProvider>();
+
+	/**
+	 * The logger to be used by the engine
+	 */
+	private static volatile EngineLogger logger = new DefaultEngineLogger();
+
+	/**
+	 * The scheduler to be used by the engine
+	 */
+	private static volatile EngineScheduler scheduler = new DefaultEngineScheduler();
+
+	/**
+	 * Private constructor, as this is a static helper class
+	 */
+	private ClicCore() {
+	}
+
+	/**
+	 * Adds a {@link ContributionProvider}. It has to be added before the
+	 * registries are first used in order to be taken into account.
+	 * 
+	 * @param provider
+	 *            the provider to be added
+	 */
+	public static void addContributionProvider(final ContributionProvider provider) {
+		providers.add(provider);
+	}
+
+	/**
+	 * Removes a {@link ContributionProvider} added using
+	 * {@link #addContributionProvider(ContributionProvider)}
+	 * 
+	 * @param provider
+	 *            the provider to be removed
+	 */
+	public static void removeContributionProvider(final ContributionProvider provider) {
+		providers.remove(provider);
+	}
+
+	/**
+	 * Returns the {@link ContributionProvider}s declaring the commands, flows
+	 * and listeners: the ones added explicitly, then the ones declared as
+	 * services. The services which can't be loaded are reported to the
+	 * {@link EngineLogger} and skipped.
+	 * 
+	 * @return the contribution providers, in the order they have to be
+	 *         queried
+	 */
+	public static List<ContributionProvider> getContributionProviders() {
+		final List<ContributionProvider> result = new ArrayList<ContributionProvider>(providers);
+		final Iterator<ContributionProvider> services = ServiceLoader.load(ContributionProvider.class,
+				ClicCore.class.getClassLoader()).iterator();
+		while (true)
+			try {
+				if (!services.hasNext())
+					break;
+				result.add(services.next());
+			} catch (final ServiceConfigurationError e) {
+				logger.error(e.getMessage(), e);
+			}
+		return result;
+	}
+
+	/**
+	 * @return the {@link EngineLogger} to be used by the engine
+	 */
+	public static EngineLogger getLogger() {
+		return logger;
+	}
+
+	/**
+	 * Replaces the {@link EngineLogger} used by the engine
+	 * 
+	 * @param logger
+	 *            the new logger, or null to restore the default one
+	 */
+	public static void setLogger(final EngineLogger logger) {
+		ClicCore.logger = logger != null ? logger : new DefaultEngineLogger();
+	}
+
+	/**
+	 * @return the {@link EngineScheduler} to be used by the engine
+	 */
+	public static EngineScheduler getScheduler() {
+		return scheduler;
+	}
+
+	/**
+	 * Replaces the {@link EngineScheduler} used by the engine
+	 * 
+	 * @param scheduler
+	 *            the new scheduler, or null to restore the default one
+	 */
+	public static void setScheduler(final EngineScheduler scheduler) {
+		ClicCore.scheduler = scheduler != null ? scheduler : new DefaultEngineScheduler();
+	}
+}
@@ -0,0 +1,159 @@
+/*
+ * CLiC, Framework for Command Line Interpretation in Eclipse
+ *
+ *     Copyright (C) 2013 Worldline or third-party contributors as
+ *     indicated by the @author tags or express copyright attribution
+ *     statements applied by the authors.
+ *
+ *     This library is free software; you can redistribute it and/or
+ *     modify it under the terms of the GNU Lesser General Public
+ *     License as published by the Free Software Foundation; either
+ *     version 2.1 of the License.
+ *
+ *     This library is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *     Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public
+ *     License along with this library; if not, write to the Free Software
+ *     Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+package com.worldline.clic.core;
+
+/**
+ * A {@link CommandDescriptor} declares a command to the command engine, the
+ * same way as a <i>command</i> element of the <i>commands</i> extension
+ * point: its identifier, its description, the way it is created, and whether
+ * its results are cached.
+ * 
+ * @author mvanbesien / aneveux
+ * @version 1.0
+ * @since 1.2
+ * 
+ * @see ContributionProvider#getCommands()
+ */
+public final class CommandDescriptor {
+
+	/**
+	 * The command's id, which is the first token of the command lines
+	 * executing it
+	 */
+	private final String id;
+
+	/**
+	 * The command's description
+	 */
+	private final String description;
+
+	/**
+	 * The factory creating the command each time it is executed
+	 */
+	private final CommandFactory factory;
+
+	/**
+	 * Whether the results of the command are cached
+	 */
+	private boolean cacheable;
+
+	/**
+	 * The duration during which a cached result remains valid, in
+	 * milliseconds
+	 */
+	private long cacheTtl;
+
+	/**
+	 * The value of the <i>cacheKey</i> attribute, telling how the cache key is
+	 * computed from the arguments
+	 */
+	private String cacheKey;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param id
+	 *            {@link #id}
+	 * @param description
+	 *            {@link #description}
+	 * @param factory
+	 *            {@link #factory}
+	 */
+	public CommandDescriptor(final String id, final String description, final CommandFactory factory) {
+		this.id = id;
+		this.description = description;
+		this.factory = factory;
+	}
+
+	/**
+	 * Declares the results of the command as cached
+	 * 
+	 * @param ttl
+	 *            the duration during which a cached result remains valid, in
+	 *            milliseconds
+	 * @param key
+	 *            <i>arguments</i>, <i>unorderedArguments</i> or
+	 *            <i>command</i>, as the <i>cacheKey</i> attribute of the
+	 *            extension point. <i>arguments</i> is used if null.
+	 * @return this descriptor
+	 */
+	public CommandDescriptor withCache(final long ttl, final String key) {
+		this.cacheable = true;
+		this.cacheTtl = ttl;
+		this.cacheKey = key;
+		return this;
+	}
+
+	/**
+	 * Simple getter for {@link #id}
+	 * 
+	 * @return {@link #id}
+	 */
+	public String getId() {
+		return id;
+	}
+
+	/**
+	 * Simple getter for {@link #description}
+	 * 
+	 * @return {@link #description}
+	 */
+	public String getDescription() {
+		return description;
+	}
+
+	/**
+	 * Simple getter for {@link #factory}
+	 * 
+	 * @return {@link #factory}
+	 */
+	public CommandFactory getFactory() {
+		return factory;
+	}
+
+	/**
+	 * Simple getter for {@link #cacheable}
+	 * 
+	 * @return {@link #cacheable}
+	 */
+	public boolean isCacheable() {
+		return cacheable;
+	}
+
+	/**
+	 * Simple getter for {@link #cacheTtl}
+	 * 
+	 * @return {@link #cacheTtl}
+	 */
+	public long getCacheTtl() {
+		return cacheTtl;
+	}
+
+	/**
+	 * Simple getter for {@link #cacheKey}
+	 * 
+	 * @return {@link #cacheKey}
+	 */
+	public String getCacheKey() {
+		return cacheKey;
+	}
+}
@@ -0,0 +1,60 @@
+/*
+ * CLiC, Framework for Command Line Interpretation in Eclipse
+ *
+ *     Copyright (C) 2013 Worldline or third-party contributors as
+ *     indicated by the @author tags or express copyright attribution
+ *     statements applied by the authors.
+ *
+ *     This library is free software; you can redistribute it and/or
+ *     modify it under the terms of the GNU Lesser General Public
+ *     License as published by the Free Software Foundation; either
+ *     version 2.1 of the License.
+ *
+ *     This library is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *     Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public
+ *     License along with this library; if not, write to the Free Software
+ *     Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+package com.worldline.clic.core;
+
+import java.util.Collection;
+
+/**
+ * A {@link ContributionProvider} declares commands, flows and listeners to the
+ * command engine. Within Eclipse, they're read from the extension registry;
+ * elsewhere, providers are declared as services in
+ * <i>META-INF/services/com.worldline.clic.core.ContributionProvider</i>.
+ * 
+ * The contributions are described by the {@link CommandDescriptor},
+ * {@link FlowDescriptor} and {@link ListenerDescriptor} of this package, which
+ * mirror the elements of the extension points, so that a provider doesn't
+ * depend on the internals of the engine.
+ * 
+ * @author mvanbesien / aneveux
+ * @version 1.0
+ * @since 1.2
+ * 
+ * @see ClicCore#getContributionProviders()
+ */
+public interface ContributionProvider {
+
+	/**
+	 * @return the commands declared by this provider
+	 */
+	Collection<CommandDescriptor> getCommands();
+
+	/**
+	 * @return the flows declared by this provider
+	 */
+	Collection<FlowDescriptor> getFlows();
+
+	/**
+	 * @return the listeners declared by this provider, along with the way the
+	 *         events are sent to them
+	 */
+	Collection<ListenerDescriptor> getListeners();
+}
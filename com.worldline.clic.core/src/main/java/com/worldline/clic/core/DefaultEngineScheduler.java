@@ -0,0 +1,71 @@
+/*
+ * CLiC, Framework for Command Line Interpretation in Eclipse
+ *
+ *     Copyright (C) 2013 Worldline or third-party contributors as
+ *     indicated by the @author tags or express copyright attribution
+ *     statements applied by the authors.
+ *
+ *     This library is free software; you can redistribute it and/or
+ *     modify it under the terms of the GNU Lesser General Public
+ *     License as published by the Free Software Foundation; either
+ *     version 2.1 of the License.
+ *
+ *     This library is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *     Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public
+ *     License along with this library; if not, write to the Free Software
+ *     Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+package com.worldline.clic.core;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The {@link EngineScheduler} used outside of Eclipse. The tasks are executed
+ * by a pool of daemon threads, which are named after the task they execute.
+ * 
+ * @author mvanbesien / aneveux
+ * @version 1.0
+ * @since 1.2
+ */
+class DefaultEngineScheduler implements EngineScheduler {
+
+	/**
+	 * The pool executing the tasks, whose idle threads are released after a
+	 * minute
+	 */
+	private final ExecutorService executor = Executors.newCachedThreadPool(new ThreadFactory() {
+
+		private final AtomicInteger counter = new AtomicInteger();
+
+		@Override
+		public Thread newThread(final Runnable runnable) {
+			final Thread thread = new Thread(runnable, "CLiC worker #" + counter.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	});
+
+	@Override
+	public void execute(final String name, final Runnable task) {
+		executor.execute(new Runnable() {
+			@Override
+			public void run() {
+				final Thread thread = Thread.currentThread();
+				final String threadName = thread.getName();
+				thread.setName(name);
+				try {
+					task.run();
+				} finally {
+					thread.setName(threadName);
+				}
+			}
+		});
+	}
+}
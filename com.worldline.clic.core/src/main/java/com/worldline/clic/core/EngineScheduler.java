@@ -0,0 +1,46 @@
+/*
+ * CLiC, Framework for Command Line Interpretation in Eclipse
+ *
+ *     Copyright (C) 2013 Worldline or third-party contributors as
+ *     indicated by the @author tags or express copyright attribution
+ *     statements applied by the authors.
+ *
+ *     This library is free software; you can redistribute it and/or
+ *     modify it under the terms of the GNU Lesser General Public
+ *     License as published by the Free Software Foundation; either
+ *     version 2.1 of the License.
+ *
+ *     This library is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *     Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public
+ *     License along with this library; if not, write to the Free Software
+ *     Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+package com.worldline.clic.core;
+
+/**
+ * The {@link EngineScheduler} executes the tasks the command engine runs in
+ * the background, such as the parallel steps of the flows. Within Eclipse,
+ * they're executed as jobs.
+ * 
+ * @author mvanbesien / aneveux
+ * @version 1.0
+ * @since 1.2
+ * 
+ * @see ClicCore#setScheduler(EngineScheduler)
+ */
+public interface EngineScheduler {
+
+	/**
+	 * Executes a task asynchronously
+	 * 
+	 * @param name
+	 *            the name of the task, describing it to the end-user
+	 * @param task
+	 *            the task to be executed
+	 */
+	void execute(String name, Runnable task);
+}
@@ -0,0 +1,50 @@
+/*
+ * CLiC, Framework for Command Line Interpretation in Eclipse
+ *
+ *     Copyright (C) 2013 Worldline or third-party contributors as
+ *     indicated by the @author tags or express copyright attribution
+ *     statements applied by the authors.
+ *
+ *     This library is free software; you can redistribute it and/or
+ *     modify it under the terms of the GNU Lesser General Public
+ *     License as published by the Free Software Foundation; either
+ *     version 2.1 of the License.
+ *
+ *     This library is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *     Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public
+ *     License along with this library; if not, write to the Free Software
+ *     Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+package com.worldline.clic.core;
+
+/**
+ * The {@link ExecutionMonitor} allows to cancel the execution of a command
+ * line, and lets the command engine know whether it has been cancelled, in
+ * which case the remaining commands of a flow are skipped. Within Eclipse, it
+ * wraps the progress monitor of the job executing the command line.
+ * 
+ * @author mvanbesien / aneveux
+ * @version 1.0
+ * @since 1.2
+ * 
+ * @see DefaultExecutionMonitor
+ */
+public interface ExecutionMonitor {
+
+	/**
+	 * @return true if the execution has been cancelled
+	 */
+	boolean isCanceled();
+
+	/**
+	 * Cancels the execution, or clears its cancellation
+	 * 
+	 * @param canceled
+	 *            true to cancel the execution
+	 */
+	void setCanceled(boolean canceled);
+}
@@ -0,0 +1,168 @@
+/*
+ * CLiC, Framework for Command Line Interpretation in Eclipse
+ *
+ *     Copyright (C) 2013 Worldline or third-party contributors as
+ *     indicated by the @author tags or express copyright attribution
+ *     statements applied by the authors.
+ *
+ *     This library is free software; you can redistribute it and/or
+ *     modify it under the terms of the GNU Lesser General Public
+ *     License as published by the Free Software Foundation; either
+ *     version 2.1 of the License.
+ *
+ *     This library is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *     Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public
+ *     License along with this library; if not, write to the Free Software
+ *     Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+package com.worldline.clic.core;
+
+/**
+ * The {@link ExecutionStatus} describes how the execution of a command, or
+ * of a flow, ended. Within Eclipse, it is turned into the status of the job
+ * executing the command line.
+ * 
+ * @author mvanbesien / aneveux
+ * @version 1.0
+ * @since 1.2
+ */
+public final class ExecutionStatus {
+
+	/**
+	 * The severities of a status, from the least to the most severe
+	 * 
+	 * @author mvanbesien / aneveux
+	 * @version 1.0
+	 * @since 1.2
+	 */
+	public static enum Severity {
+		/**
+		 * The execution ended properly
+		 */
+		OK,
+
+		/**
+		 * The execution ended, but an exception has been caught
+		 */
+		WARNING,
+
+		/**
+		 * The execution failed
+		 */
+		ERROR,
+
+		/**
+		 * The execution has been cancelled
+		 */
+		CANCEL
+	}
+
+	/**
+	 * The status of an execution which ended properly
+	 */
+	public static final ExecutionStatus OK = new ExecutionStatus(Severity.OK, "OK", null);
+
+	/**
+	 * The status of an execution which has been cancelled
+	 */
+	public static final ExecutionStatus CANCEL = new ExecutionStatus(Severity.CANCEL, "", null);
+
+	/**
+	 * The severity of the status
+	 */
+	private final Severity severity;
+
+	/**
+	 * The message describing the status
+	 */
+	private final String message;
+
+	/**
+	 * The exception which caused the status, if any
+	 */
+	private final Throwable exception;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param severity
+	 *            {@link #severity}
+	 * @param message
+	 *            {@link #message}
+	 * @param exception
+	 *            {@link #exception}, possibly null
+	 */
+	public ExecutionStatus(final Severity severity, final String message, final Throwable exception) {
+		this.severity = severity;
+		this.message = message;
+		this.exception = exception;
+	}
+
+	/**
+	 * Creates the status of an execution which failed
+	 * 
+	 * @param message
+	 *            the message describing the failure
+	 * @return the status
+	 */
+	public static ExecutionStatus error(final String message) {
+		return error(message, null);
+	}
+
+	/**
+	 * Creates the status of an execution which failed because of an
+	 * exception
+	 * 
+	 * @param message
+	 *            the message describing the failure
+	 * @param exception
+	 *            the exception which caused the failure
+	 * @return the status
+	 */
+	public static ExecutionStatus error(final String message, final Throwable exception) {
+		return new ExecutionStatus(Severity.ERROR, message, exception);
+	}
+
+	/**
+	 * @return true if the execution ended properly
+	 */
+	public boolean isOK() {
+		return severity == Severity.OK;
+	}
+
+	/**
+	 * Simple getter for {@link #severity}
+	 * 
+	 * @return {@link #severity}
+	 */
+	public Severity getSeverity() {
+		return severity;
+	}
+
+	/**
+	 * Simple getter for {@link #message}
+	 * 
+	 * @return {@link #message}
+	 */
+	public String getMessage() {
+		return message;
+	}
+
+	/**
+	 * Simple getter for {@link #exception}
+	 * 
+	 * @return {@link #exception}, null if there is none
+	 */
+	public Throwable getException() {
+		return exception;
+	}
+
+	@Override
+	public String toString() {
+		return severity + (message != null && message.length() > 0 ? ": " + message : "");
+	}
+}
@@ -0,0 +1,210 @@
+/*
+ * CLiC, Framework for Command Line Interpretation in Eclipse
+ *
+ *     Copyright (C) 2013 Worldline or third-party contributors as
+ *     indicated by the @author tags or express copyright attribution
+ *     statements applied by the authors.
+ *
+ *     This library is free software; you can redistribute it and/or
+ *     modify it under the terms of the GNU Lesser General Public
+ *     License as published by the Free Software Foundation; either
+ *     version 2.1 of the License.
+ *
+ *     This library is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *     Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public
+ *     License along with this library; if not, write to the Free Software
+ *     Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+package com.worldline.clic.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A {@link FlowDescriptor} declares a flow to the command engine, the same way
+ * as a <i>flow</i> element of the <i>commands</i> extension point. The steps
+ * of a flow are executed one after the other, unless some of them depend on
+ * others: the flow is then executed as a graph, each step being launched once
+ * the steps it depends on are done, running at most {@link #getParallelism()}
+ * steps at once.
+ * 
+ * @author mvanbesien / aneveux
+ * @version 1.0
+ * @since 1.2
+ * 
+ * @see ContributionProvider#getFlows()
+ */
+public final class FlowDescriptor {
+
+	/**
+	 * A step of a flow, as a <i>commandReference</i> element of the extension
+	 * point
+	 * 
+	 * @author mvanbesien / aneveux
+	 * @version 1.0
+	 * @since 1.2
+	 */
+	public static final class Step {
+
+		/**
+		 * The step's id, referenced by the steps depending on it
+		 */
+		private final String id;
+
+		/**
+		 * The command line executed by the step
+		 */
+		private final String commandReference;
+
+		/**
+		 * The ids of the steps this one depends on
+		 */
+		private final List<String> dependencies;
+
+		/**
+		 * Constructor
+		 * 
+		 * @param id
+		 *            {@link #id}
+		 * @param commandReference
+		 *            {@link #commandReference}
+		 * @param dependencies
+		 *            {@link #dependencies}
+		 */
+		private Step(final String id, final String commandReference, final List<String> dependencies) {
+			this.id = id;
+			this.commandReference = commandReference;
+			this.dependencies = Collections.unmodifiableList(new ArrayList<String>(dependencies));
+		}
+
+		/**
+		 * Simple getter for {@link #id}
+		 * 
+		 * @return {@link #id}
+		 */
+		public String getId() {
+			return id;
+		}
+
+		/**
+		 * Simple getter for {@link #commandReference}
+		 * 
+		 * @return {@link #commandReference}
+		 */
+		public String getCommandReference() {
+			return commandReference;
+		}
+
+		/**
+		 * Simple getter for {@link #dependencies}
+		 * 
+		 * @return {@link #dependencies}
+		 */
+		public List<String> getDependencies() {
+			return dependencies;
+		}
+	}
+
+	/**
+	 * The flow's name, which is the first token of the command lines executing
+	 * it
+	 */
+	private final String name;
+
+	/**
+	 * The steps of the flow, in their declaration order
+	 */
+	private final List<Step> steps = new ArrayList<Step>();
+
+	/**
+	 * The maximum number of steps running at once, when the flow is executed
+	 * as a graph
+	 */
+	private int parallelism = Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * Constructor for a flow whose steps are added with
+	 * {@link #withStep(String, String, List)}
+	 * 
+	 * @param name
+	 *            {@link #name}
+	 */
+	public FlowDescriptor(final String name) {
+		this.name = name;
+	}
+
+	/**
+	 * Constructor for a flow executing command lines one after the other
+	 * 
+	 * @param name
+	 *            {@link #name}
+	 * @param commandReferences
+	 *            the command lines executed by the flow
+	 */
+	public FlowDescriptor(final String name, final List<String> commandReferences) {
+		this(name);
+		for (final String commandReference : commandReferences)
+			withStep(commandReference, commandReference, Collections.<String> emptyList());
+	}
+
+	/**
+	 * Adds a step to the flow
+	 * 
+	 * @param id
+	 *            the step's id, referenced by the steps depending on it
+	 * @param commandReference
+	 *            the command line executed by the step
+	 * @param dependencies
+	 *            the ids of the steps this one depends on
+	 * @return this descriptor
+	 */
+	public FlowDescriptor withStep(final String id, final String commandReference, final List<String> dependencies) {
+		steps.add(new Step(id, commandReference, dependencies));
+		return this;
+	}
+
+	/**
+	 * Sets {@link #parallelism}, which defaults to the number of available
+	 * processors
+	 * 
+	 * @param parallelism
+	 *            {@link #parallelism}
+	 * @return this descriptor
+	 */
+	public FlowDescriptor withParallelism(final int parallelism) {
+		this.parallelism = parallelism;
+		return this;
+	}
+
+	/**
+	 * Simple getter for {@link #name}
+	 * 
+	 * @return {@link #name}
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Simple getter for {@link #steps}
+	 * 
+	 * @return {@link #steps}
+	 */
+	public List<Step> getSteps() {
+		return Collections.unmodifiableList(steps);
+	}
+
+	/**
+	 * Simple getter for {@link #parallelism}
+	 * 
+	 * @return {@link #parallelism}
+	 */
+	public int getParallelism() {
+		return parallelism;
+	}
+}
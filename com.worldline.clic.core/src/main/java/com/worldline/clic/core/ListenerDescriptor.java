@@ -0,0 +1,279 @@
+/*
+ * CLiC, Framework for Command Line Interpretation in Eclipse
+ *
+ *     Copyright (C) 2013 Worldline or third-party contributors as
+ *     indicated by the @author tags or express copyright attribution
+ *     statements applied by the authors.
+ *
+ *     This library is free software; you can redistribute it and/or
+ *     modify it under the terms of the GNU Lesser General Public
+ *     License as published by the Free Software Foundation; either
+ *     version 2.1 of the License.
+ *
+ *     This library is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *     Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public
+ *     License along with this library; if not, write to the Free Software
+ *     Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+package com.worldline.clic.core;
+
+import com.worldline.clic.listeners.internal.CircuitBreaker;
+import com.worldline.clic.listeners.internal.DispatchPolicy;
+import com.worldline.clic.listeners.internal.IListener;
+
+/**
+ * A {@link ListenerDescriptor} declares a listener to the command engine, the
+ * same way as a <i>listener</i> element of the <i>listeners</i> extension
+ * point: either the listener itself, or the type of the events it listens to
+ * and the factory creating it when the first of those events is published.
+ * 
+ * The descriptor also tells how the events are sent to the listener: on the
+ * thread of the command by default, or from a bounded queue of its own if it
+ * is asynchronous or receives the events in batches.
+ * 
+ * @author mvanbesien / aneveux
+ * @version 1.0
+ * @since 1.2
+ * 
+ * @see ContributionProvider#getListeners()
+ */
+public final class ListenerDescriptor {
+
+	/**
+	 * The listener, null if it is created by {@link #factory}
+	 */
+	private final IListener<?> listener;
+
+	/**
+	 * The factory creating the listener, null if {@link #listener} is provided
+	 */
+	private final ListenerFactory factory;
+
+	/**
+	 * The class name of the listener
+	 */
+	private final String name;
+
+	/**
+	 * The class name of the events the listener is created for, null if
+	 * {@link #listener} is provided
+	 */
+	private final String eventType;
+
+	/**
+	 * Whether the events are sent from the queue of the listener rather than
+	 * on the thread of the command
+	 */
+	private boolean asynchronous;
+
+	/**
+	 * The maximum number of events waiting for the listener
+	 */
+	private int queueCapacity = DispatchPolicy.DEFAULT_QUEUE_CAPACITY;
+
+	/**
+	 * The value of the <i>overflow</i> attribute, telling what happens when
+	 * an event is published while the queue is full
+	 */
+	private String overflow;
+
+	/**
+	 * The maximum number of events delivered at once
+	 */
+	private int batchSize = 1;
+
+	/**
+	 * The maximum time the first event of a batch waits for the following
+	 * ones, in milliseconds
+	 */
+	private long batchDelay = DispatchPolicy.DEFAULT_BATCH_DELAY;
+
+	/**
+	 * The time a call to the listener may take before being counted as a
+	 * failure, in milliseconds, 0 if it is not limited
+	 */
+	private long timeBudget = CircuitBreaker.DEFAULT_TIME_BUDGET;
+
+	/**
+	 * Constructor for a listener created by its provider
+	 * 
+	 * @param listener
+	 *            {@link #listener}
+	 */
+	public ListenerDescriptor(final IListener<?> listener) {
+		this.listener = listener;
+		this.factory = null;
+		this.name = listener.getClass().getName();
+		this.eventType = null;
+	}
+
+	/**
+	 * Constructor for a listener created when the first event of its type is
+	 * published
+	 * 
+	 * @param name
+	 *            {@link #name}
+	 * @param eventType
+	 *            {@link #eventType}
+	 * @param factory
+	 *            {@link #factory}
+	 */
+	public ListenerDescriptor(final String name, final String eventType, final ListenerFactory factory) {
+		this.listener = null;
+		this.factory = factory;
+		this.name = name;
+		this.eventType = eventType;
+	}
+
+	/**
+	 * Sets {@link #asynchronous}
+	 * 
+	 * @param asynchronous
+	 *            {@link #asynchronous}
+	 * @return this descriptor
+	 */
+	public ListenerDescriptor withAsynchronousDelivery(final boolean asynchronous) {
+		this.asynchronous = asynchronous;
+		return this;
+	}
+
+	/**
+	 * Configures the queue of the listener, used if it is asynchronous or
+	 * receives the events in batches
+	 * 
+	 * @param queueCapacity
+	 *            {@link #queueCapacity}
+	 * @param overflow
+	 *            <i>block</i>, <i>drop</i>, <i>dropOldest</i> or
+	 *            <i>coalesce</i>, as the <i>overflow</i> attribute of the
+	 *            extension point. <i>block</i> is used if null.
+	 * @return this descriptor
+	 */
+	public ListenerDescriptor withQueue(final int queueCapacity, final String overflow) {
+		this.queueCapacity = queueCapacity;
+		this.overflow = overflow;
+		return this;
+	}
+
+	/**
+	 * Delivers the events in batches
+	 * 
+	 * @param batchSize
+	 *            {@link #batchSize}
+	 * @param batchDelay
+	 *            {@link #batchDelay}
+	 * @return this descriptor
+	 */
+	public ListenerDescriptor withBatches(final int batchSize, final long batchDelay) {
+		this.batchSize = batchSize;
+		this.batchDelay = batchDelay;
+		return this;
+	}
+
+	/**
+	 * Sets {@link #timeBudget}, which defaults to the
+	 * <i>com.worldline.clic.listeners.budget</i> system property
+	 * 
+	 * @param timeBudget
+	 *            {@link #timeBudget}
+	 * @return this descriptor
+	 */
+	public ListenerDescriptor withTimeBudget(final long timeBudget) {
+		this.timeBudget = timeBudget;
+		return this;
+	}
+
+	/**
+	 * Simple getter for {@link #listener}
+	 * 
+	 * @return {@link #listener}
+	 */
+	public IListener<?> getListener() {
+		return listener;
+	}
+
+	/**
+	 * Simple getter for {@link #factory}
+	 * 
+	 * @return {@link #factory}
+	 */
+	public ListenerFactory getFactory() {
+		return factory;
+	}
+
+	/**
+	 * Simple getter for {@link #name}
+	 * 
+	 * @return {@link #name}
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Simple getter for {@link #eventType}
+	 * 
+	 * @return {@link #eventType}
+	 */
+	public String getEventType() {
+		return eventType;
+	}
+
+	/**
+	 * Simple getter for {@link #asynchronous}
+	 * 
+	 * @return {@link #asynchronous}
+	 */
+	public boolean isAsynchronous() {
+		return asynchronous;
+	}
+
+	/**
+	 * Simple getter for {@link #queueCapacity}
+	 * 
+	 * @return {@link #queueCapacity}
+	 */
+	public int getQueueCapacity() {
+		return queueCapacity;
+	}
+
+	/**
+	 * Simple getter for {@link #overflow}
+	 * 
+	 * @return {@link #overflow}
+	 */
+	public String getOverflow() {
+		return overflow;
+	}
+
+	/**
+	 * Simple getter for {@link #batchSize}
+	 * 
+	 * @return {@link #batchSize}
+	 */
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	/**
+	 * Simple getter for {@link #batchDelay}
+	 * 
+	 * @return {@link #batchDelay}
+	 */
+	public long getBatchDelay() {
+		return batchDelay;
+	}
+
+	/**
+	 * Simple getter for {@link #timeBudget}
+	 * 
+	 * @return {@link #timeBudget}
+	 */
+	public long getTimeBudget() {
+		return timeBudget;
+	}
+}
@@ -0,0 +1,84 @@
+/*
+ * CLiC, Framework for Command Line Interpretation in Eclipse
+ *
+ *     Copyright (C) 2013 Worldline or third-party contributors as
+ *     indicated by the @author tags or express copyright attribution
+ *     statements applied by the authors.
+ *
+ *     This library is free software; you can redistribute it and/or
+ *     modify it under the terms of the GNU Lesser General Public
+ *     License as published by the Free Software Foundation; either
+ *     version 2.1 of the License.
+ *
+ *     This library is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *     Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public
+ *     License along with this library; if not, write to the Free Software
+ *     Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+package com.worldline.clic.internal.commands.impl;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+
+import com.worldline.clic.commands.AbstractCommand;
+import com.worldline.clic.core.ClassCommandFactory;
+import com.worldline.clic.core.CommandDescriptor;
+import com.worldline.clic.core.ContributionProvider;
+import com.worldline.clic.core.FlowDescriptor;
+import com.worldline.clic.core.ListenerDescriptor;
+
+/**
+ * The {@link ContributionProvider} declaring the commands built in CLiC, so
+ * that they're available whether CLiC runs within Eclipse or not. It is
+ * declared as a service of the core module.
+ * 
+ * @author mvanbesien / aneveux
+ * @version 1.0
+ * @since 1.2
+ */
+public class BuiltinContributions implements ContributionProvider {
+
+	@Override
+	public Collection<CommandDescriptor> getCommands() {
+		return Arrays.asList(
+				command("list", "Displays the list of the available commands", ListCommandsCommand.class),
+				command("help", "Gives parameters information for given command", HelpCommand.class),
+				command("cache", "Displays the result cache statistics, or clears it with \"cache clear\"",
+						CacheCommand.class),
+				command("stats", "Displays the latencies and counters of the executed commands and flows",
+						StatsCommand.class),
+				command("trace", "Writes the timeline of the last executions as Chrome trace events",
+						TraceCommand.class));
+	}
+
+	@Override
+	public Collection<FlowDescriptor> getFlows() {
+		return Collections.emptyList();
+	}
+
+	@Override
+	public Collection<ListenerDescriptor> getListeners() {
+		return Collections.emptyList();
+	}
+
+	/**
+	 * Creates the {@link CommandDescriptor} of a built-in command
+	 * 
+	 * @param id
+	 *            the command's id
+	 * @param description
+	 *            the command's description
+	 * @param commandClass
+	 *            the command's implementation
+	 * @return the corresponding {@link CommandDescriptor}
+	 */
+	private static CommandDescriptor command(final String id, final String description,
+			final Class<? extends AbstractCommand> commandClass) {
+		return new CommandDescriptor(id, description, new ClassCommandFactory(commandClass));
+	}
+}
@@ -0,0 +1,71 @@
+/*
+ * CLiC, Framework for Command Line Interpretation in Eclipse
+ *
+ *     Copyright (C) 2013 Worldline or third-party contributors as
+ *     indicated by the @author tags or express copyright attribution
+ *     statements applied by the authors.
+ *
+ *     This library is free software; you can redistribute it and/or
+ *     modify it under the terms of the GNU Lesser General Public
+ *     License as published by the Free Software Foundation; either
+ *     version 2.1 of the License.
+ *
+ *     This library is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *     Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public
+ *     License along with this library; if not, write to the Free Software
+ *     Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+package com.worldline.clic.internal.commands.impl;
+
+import com.worldline.clic.commands.AbstractCommand;
+import com.worldline.clic.commands.CommandContext;
+import com.worldline.clic.internal.engine.ClicMessages;
+import com.worldline.clic.internal.engine.CommandResultCache;
+
+/**
+ * The {@link CacheCommand} is an internal implementation of an
+ * {@link AbstractCommand} allowing to deal with the results cached for the
+ * commands declared as cacheable. Without any argument, it displays the cache
+ * statistics; <i>cache clear</i> removes all the cached results.
+ * 
+ * @author mvanbesien / aneveux
+ * @version 1.0
+ * @since 1.2
+ * 
+ * @see CommandResultCache
+ */
+public class CacheCommand extends AbstractCommand {
+
+	/**
+	 * The argument asking for the cache to be cleared
+	 */
+	private static final String CLEAR = "clear";
+
+	/**
+	 * We don't define any option, as this command only accepts a <i>clear</i>
+	 * argument.
+	 */
+	@Override
+	public void configureParser() {
+	}
+
+	/**
+	 * This command clears the {@link CommandResultCache} if asked to, and
+	 * displays its statistics otherwise.
+	 */
+	@Override
+	public void execute(final CommandContext context) {
+		final CommandResultCache cache = CommandResultCache.getInstance();
+		if (options.nonOptionArguments().contains(CLEAR))
+			context.write(ClicMessages.CACHE_CLEARED.value(cache.clear()));
+		else
+			context.write(ClicMessages.CACHE_STATISTICS.value(cache.getSize(), cache.getMaxSize(), cache.getHits(),
+					cache.getMisses(), String.format("%.1f", cache.getHitRate() * 100), cache.getEvictions(),
+					cache.getExpirations()));
+	}
+
+}
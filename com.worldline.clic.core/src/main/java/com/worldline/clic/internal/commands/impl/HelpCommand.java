@@ -28,9 +28,9 @@ import joptsimple.OptionSpec;
 
 import com.worldline.clic.commands.AbstractCommand;
 import com.worldline.clic.commands.CommandContext;
-import com.worldline.clic.internal.Activator;
-import com.worldline.clic.internal.ClicMessages;
-import com.worldline.clic.internal.commands.CommandRegistry;
+import com.worldline.clic.core.ClicCore;
+import com.worldline.clic.internal.engine.ClicMessages;
+import com.worldline.clic.internal.engine.CommandRegistry;
 
 /**
  * The {@link HelpCommand} is an internal implementation of an
@@ -93,7 +93,7 @@ public class HelpCommand extends AbstractCommand {
 		} catch (final IOException e) {
 			context.write(ClicMessages.COMMAND_EXECUTION_ERROR.value(e
 					.getMessage()));
-			Activator.sendErrorToErrorLog(
+			ClicCore.getLogger().error(
 					ClicMessages.COMMAND_EXECUTION_ERROR.value(e.getMessage()),
 					e);
 		}
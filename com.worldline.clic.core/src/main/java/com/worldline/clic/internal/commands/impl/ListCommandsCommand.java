@@ -27,9 +27,9 @@ import java.util.Collections;
 import java.util.List;
 import com.worldline.clic.commands.AbstractCommand;
 import com.worldline.clic.commands.CommandContext;
-import com.worldline.clic.internal.ClicMessages;
-import com.worldline.clic.internal.commands.CommandFlowWrapper;
-import com.worldline.clic.internal.commands.CommandRegistry;
+import com.worldline.clic.internal.engine.ClicMessages;
+import com.worldline.clic.internal.engine.CommandFlowWrapper;
+import com.worldline.clic.internal.engine.CommandRegistry;
 
 /**
  * The {@link ListCommandsCommand} is an internal implementation of an
@@ -0,0 +1,161 @@
+/*
+ * CLiC, Framework for Command Line Interpretation in Eclipse
+ *
+ *     Copyright (C) 2013 Worldline or third-party contributors as
+ *     indicated by the @author tags or express copyright attribution
+ *     statements applied by the authors.
+ *
+ *     This library is free software; you can redistribute it and/or
+ *     modify it under the terms of the GNU Lesser General Public
+ *     License as published by the Free Software Foundation; either
+ *     version 2.1 of the License.
+ *
+ *     This library is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *     Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public
+ *     License along with this library; if not, write to the Free Software
+ *     Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+package com.worldline.clic.internal.commands.impl;
+
+import java.util.List;
+import java.util.Map;
+
+import joptsimple.OptionSpec;
+
+import com.worldline.clic.commands.AbstractCommand;
+import com.worldline.clic.commands.CommandContext;
+import com.worldline.clic.internal.engine.ClicMessages;
+import com.worldline.clic.internal.stats.CommandPhase;
+import com.worldline.clic.internal.stats.CommandStatistics;
+import com.worldline.clic.internal.stats.LatencyHistogram;
+import com.worldline.clic.internal.stats.SlowCommandRecorder;
+
+/**
+ * The {@link StatsCommand} is an internal implementation of an
+ * {@link AbstractCommand} displaying the latencies and counters recorded for
+ * each command and flow executed since the statistics have been reset. The
+ * <i>--command</i> option restricts the display to a single command or flow,
+ * the <i>--slow</i> option displays the last commands which ran past the slow
+ * command threshold instead, and the <i>--reset</i> option resets the
+ * statistics.
+ * 
+ * @author mvanbesien / aneveux
+ * @version 1.0
+ * @since 1.2
+ * 
+ * @see CommandStatistics
+ */
+public class StatsCommand extends AbstractCommand {
+
+	/**
+	 * An {@link OptionSpec} allowing to restrict the display to a command
+	 */
+	OptionSpec<String> command;
+
+	/**
+	 * An {@link OptionSpec} asking for the statistics to be reset
+	 */
+	OptionSpec<Void> reset;
+
+	/**
+	 * An {@link OptionSpec} asking for the slow commands to be displayed
+	 */
+	OptionSpec<Void> slow;
+
+	/**
+	 * We configure the parser to accept a <i>command</i> parameter, and the
+	 * <i>slow</i> and <i>reset</i> flags
+	 */
+	@Override
+	public void configureParser() {
+		command = parser.accepts("command").withRequiredArg().ofType(String.class).describedAs("command or flow:name");
+		slow = parser.accepts("slow");
+		reset = parser.accepts("reset");
+	}
+
+	/**
+	 * Displays the statistics of each command and flow, then resets them if
+	 * asked to.
+	 */
+	@Override
+	public void execute(final CommandContext context) {
+		if (options.has(slow)) {
+			writeSlowCommands(context);
+			return;
+		}
+		final CommandStatistics statistics = CommandStatistics.getInstance();
+		boolean found = false;
+		for (final Map.Entry<String, CommandStatistics.Entry> entry : statistics.getAll().entrySet())
+			if (entry.getValue().getInvocations() > 0
+					&& (!options.has(command) || options.valueOf(command).equals(entry.getKey()))) {
+				write(context, entry.getKey(), entry.getValue());
+				found = true;
+			}
+		if (!found)
+			context.write(ClicMessages.STATS_NONE.value());
+		if (options.has(reset)) {
+			statistics.reset();
+			context.write(ClicMessages.STATS_RESET.value());
+		}
+	}
+
+	/**
+	 * Writes the statistics of a command or flow
+	 * 
+	 * @param context
+	 *            the command context
+	 * @param key
+	 *            the command id or flow key
+	 * @param entry
+	 *            the statistics to write
+	 */
+	private void write(final CommandContext context, final String key, final CommandStatistics.Entry entry) {
+		final StringBuilder sb = new StringBuilder(ClicMessages.STATS_ENTRY.value(key,
+				String.valueOf(entry.getInvocations()), String.valueOf(entry.getErrors()),
+				String.valueOf(entry.getParseFailures())));
+		for (final CommandPhase phase : CommandPhase.values()) {
+			final LatencyHistogram histogram = entry.getHistogram(phase);
+			if (histogram.getCount() > 0)
+				sb.append('\n').append(
+						ClicMessages.STATS_PHASE.value(phase.getLabel(), String.valueOf(histogram.getCount()),
+								millis(histogram.getMean()), millis(histogram.getValueAtPercentile(50)),
+								millis(histogram.getValueAtPercentile(90)), millis(histogram.getValueAtPercentile(99)),
+								millis(histogram.getMax())));
+		}
+		context.write(sb.toString());
+	}
+
+	/**
+	 * Writes the last commands which ran past the slow command threshold, then
+	 * forgets them if asked to.
+	 * 
+	 * @param context
+	 *            the command context
+	 */
+	private void writeSlowCommands(final CommandContext context) {
+		final SlowCommandRecorder recorder = SlowCommandRecorder.getInstance();
+		final List<SlowCommandRecorder.SlowCommand> slowCommands = recorder.getSlowCommands();
+		if (slowCommands.isEmpty())
+			context.write(ClicMessages.STATS_SLOW_NONE.value(String.valueOf(recorder.getThreshold())));
+		for (final SlowCommandRecorder.SlowCommand slowCommand : slowCommands)
+			if (!options.has(command) || options.valueOf(command).equals(slowCommand.getCommandId()))
+				context.write(slowCommand.describe());
+		if (options.has(reset)) {
+			recorder.reset();
+			context.write(ClicMessages.STATS_RESET.value());
+		}
+	}
+
+	/**
+	 * @param nanos
+	 *            a duration in nanoseconds
+	 * @return the duration in milliseconds, formatted for display
+	 */
+	private static String millis(final long nanos) {
+		return String.format("%.3f", nanos / 1e6);
+	}
+}
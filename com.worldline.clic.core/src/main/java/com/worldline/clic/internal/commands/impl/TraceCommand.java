@@ -0,0 +1,99 @@
+/*
+ * CLiC, Framework for Command Line Interpretation in Eclipse
+ *
+ *     Copyright (C) 2013 Worldline or third-party contributors as
+ *     indicated by the @author tags or express copyright attribution
+ *     statements applied by the authors.
+ *
+ *     This library is free software; you can redistribute it and/or
+ *     modify it under the terms of the GNU Lesser General Public
+ *     License as published by the Free Software Foundation; either
+ *     version 2.1 of the License.
+ *
+ *     This library is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *     Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public
+ *     License along with this library; if not, write to the Free Software
+ *     Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+package com.worldline.clic.internal.commands.impl;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.List;
+
+import joptsimple.OptionSpec;
+
+import com.worldline.clic.commands.AbstractCommand;
+import com.worldline.clic.commands.CommandContext;
+import com.worldline.clic.core.ClicCore;
+import com.worldline.clic.internal.engine.ClicMessages;
+import com.worldline.clic.internal.trace.ExecutionTrace;
+import com.worldline.clic.internal.trace.TraceEventWriter;
+import com.worldline.clic.internal.trace.TraceRecorder;
+
+/**
+ * The {@link TraceCommand} is an internal implementation of an
+ * {@link AbstractCommand} writing the traces of the last processed command
+ * lines as trace events, which can be opened in a timeline viewer such as
+ * <i>chrome://tracing</i> or Perfetto. The <i>--last</i> option restricts the
+ * export to the last executions, and the <i>--file</i> option specifies the
+ * file to be written, which defaults to a new file of the temporary directory.
+ * 
+ * @author mvanbesien / aneveux
+ * @version 1.0
+ * @since 1.2
+ * 
+ * @see TraceRecorder
+ */
+public class TraceCommand extends AbstractCommand {
+
+	/**
+	 * An {@link OptionSpec} allowing to restrict the number of executions
+	 */
+	OptionSpec<Integer> last;
+
+	/**
+	 * An {@link OptionSpec} allowing to specify the file to be written
+	 */
+	OptionSpec<File> file;
+
+	/**
+	 * We configure the parser to accept a <i>last</i> and a <i>file</i>
+	 * parameter
+	 */
+	@Override
+	public void configureParser() {
+		last = parser.accepts("last").withRequiredArg().ofType(Integer.class).describedAs("executions")
+				.defaultsTo(Integer.MAX_VALUE);
+		file = parser.accepts("file").withRequiredArg().ofType(File.class).describedAs("path");
+	}
+
+	/**
+	 * Writes the traces of the last executions to the file
+	 */
+	@Override
+	public void execute(final CommandContext context) {
+		final List<ExecutionTrace> traces = TraceRecorder.getInstance().getLast(options.valueOf(last));
+		if (traces.isEmpty()) {
+			context.write(ClicMessages.TRACE_NONE.value());
+			return;
+		}
+		final File target = options.has(file) ? options.valueOf(file) : new File(System.getProperty("java.io.tmpdir"),
+				"clic-trace-" + System.currentTimeMillis() + ".json");
+		try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(target), "UTF-8"))) {
+			new TraceEventWriter(writer).write(traces);
+			context.write(ClicMessages.TRACE_WRITTEN.value(String.valueOf(traces.size()), target.getAbsolutePath()));
+		} catch (final IOException e) {
+			context.write(ClicMessages.COMMAND_EXECUTION_ERROR.value(e.getMessage()));
+			ClicCore.getLogger().error(ClicMessages.COMMAND_EXECUTION_ERROR.value(e.getMessage()), e);
+		}
+	}
+}
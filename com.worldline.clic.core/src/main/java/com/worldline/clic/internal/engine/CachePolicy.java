@@ -0,0 +1,214 @@
+/*
+ * CLiC, Framework for Command Line Interpretation in Eclipse
+ *
+ *     Copyright (C) 2013 Worldline or third-party contributors as
+ *     indicated by the @author tags or express copyright attribution
+ *     statements applied by the authors.
+ *
+ *     This library is free software; you can redistribute it and/or
+ *     modify it under the terms of the GNU Lesser General Public
+ *     License as published by the Free Software Foundation; either
+ *     version 2.1 of the License.
+ *
+ *     This library is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *     Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public
+ *     License along with this library; if not, write to the Free Software
+ *     Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+package com.worldline.clic.internal.engine;
+
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+
+import joptsimple.NonOptionArgumentSpec;
+import joptsimple.OptionException;
+import joptsimple.OptionParser;
+import joptsimple.OptionSet;
+import joptsimple.OptionSpec;
+
+/**
+ * The {@link CachePolicy} describes how the results of a command declared as
+ * cacheable in the extension point are cached: how long they remain valid, and
+ * how the cache key is computed from the command's arguments.
+ * 
+ * @author mvanbesien / aneveux
+ * @version 1.0
+ * @since 1.2
+ * 
+ * @see CommandResultCache
+ */
+public class CachePolicy {
+
+	/**
+	 * The available strategies for computing a cache key from the arguments of
+	 * a command
+	 * 
+	 * @author mvanbesien / aneveux
+	 * @version 1.0
+	 * @since 1.2
+	 */
+	public static enum KeyStrategy {
+		/**
+		 * The trimmed arguments, in their order
+		 */
+		ARGUMENTS,
+
+		/**
+		 * The options given by the trimmed arguments, each one along with its
+		 * values, whatever the order of the options, followed by the
+		 * non-option arguments in their order
+		 */
+		UNORDERED_ARGUMENTS,
+
+		/**
+		 * The command only, its arguments are ignored
+		 */
+		COMMAND;
+
+		/**
+		 * Returns the {@link KeyStrategy} matching the value of the
+		 * <i>cacheKey</i> attribute of the extension point
+		 * 
+		 * @param value
+		 *            the value of the attribute, which may be null
+		 * @return the matching {@link KeyStrategy}, {@link #ARGUMENTS} by
+		 *         default
+		 */
+		public static KeyStrategy fromAttribute(final String value) {
+			if ("unorderedArguments".equals(value))
+				return UNORDERED_ARGUMENTS;
+			if ("command".equals(value))
+				return COMMAND;
+			return ARGUMENTS;
+		}
+	}
+
+	/**
+	 * The separator used between the parts of a cache key, which can't be
+	 * typed in a command line
+	 */
+	private static final char SEPARATOR = '\u0000';
+
+	/**
+	 * The prefix of the option names in a cache key, which can't be typed in a
+	 * command line
+	 */
+	private static final char OPTION = '\u0001';
+
+	/**
+	 * The prefix of the option values in a cache key, which can't be typed in
+	 * a command line
+	 */
+	private static final char VALUE = '\u0002';
+
+	/**
+	 * The duration, in milliseconds, during which a cached result remains
+	 * valid
+	 */
+	private final long ttl;
+
+	/**
+	 * The strategy used to compute the cache keys
+	 */
+	private final KeyStrategy keyStrategy;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param ttl
+	 *            {@link #ttl}
+	 * @param keyStrategy
+	 *            {@link #keyStrategy}
+	 */
+	public CachePolicy(final long ttl, final KeyStrategy keyStrategy) {
+		this.ttl = ttl;
+		this.keyStrategy = keyStrategy;
+	}
+
+	/**
+	 * Simple getter for {@link #ttl}
+	 * 
+	 * @return {@link #ttl}
+	 */
+	public long getTtl() {
+		return ttl;
+	}
+
+	/**
+	 * Simple getter for {@link #keyStrategy}
+	 * 
+	 * @return {@link #keyStrategy}
+	 */
+	public KeyStrategy getKeyStrategy() {
+		return keyStrategy;
+	}
+
+	/**
+	 * Computes the cache key of an invocation of a command. With
+	 * {@link KeyStrategy#UNORDERED_ARGUMENTS}, the arguments are parsed with
+	 * the parser of the command, so that each option is kept along with its
+	 * values; they're used in their order if they can't be parsed.
+	 * 
+	 * @param commandId
+	 *            the id of the invoked command
+	 * @param parameters
+	 *            the arguments of the invocation
+	 * @param parser
+	 *            the configured parser of the command, only used with
+	 *            {@link KeyStrategy#UNORDERED_ARGUMENTS}, and not used by
+	 *            anyone else
+	 * @return the cache key of the invocation
+	 */
+	public String keyFor(final String commandId, final String[] parameters, final OptionParser parser) {
+		final StringBuilder sb = new StringBuilder(commandId);
+		if (keyStrategy == KeyStrategy.COMMAND)
+			return sb.toString();
+		final String[] normalized = new String[parameters.length];
+		for (int i = 0; i < parameters.length; i++)
+			normalized[i] = parameters[i].trim();
+		if (keyStrategy == KeyStrategy.UNORDERED_ARGUMENTS && parser != null)
+			try {
+				final OptionSet options;
+				synchronized (parser) {
+					options = parser.parse(normalized);
+				}
+				appendUnordered(sb, options);
+				return sb.toString();
+			} catch (final OptionException e) {
+				sb.setLength(commandId.length());
+			}
+		for (final String parameter : normalized)
+			sb.append(SEPARATOR).append(parameter);
+		return sb.toString();
+	}
+
+	/**
+	 * Appends the parsed arguments of an invocation to its cache key: the
+	 * non-option arguments in their order, then the options sorted by name,
+	 * each one followed by its values in their order
+	 * 
+	 * @param sb
+	 *            the cache key being built
+	 * @param options
+	 *            the parsed arguments
+	 */
+	private static void appendUnordered(final StringBuilder sb, final OptionSet options) {
+		for (final Object argument : options.nonOptionArguments())
+			sb.append(SEPARATOR).append(argument);
+		final TreeMap<String, List<?>> sorted = new TreeMap<String, List<?>>();
+		for (final OptionSpec<?> spec : options.specs())
+			if (!(spec instanceof NonOptionArgumentSpec<?>))
+				sorted.put(spec.options().toString(), options.valuesOf(spec));
+		for (final Entry<String, List<?>> option : sorted.entrySet()) {
+			sb.append(SEPARATOR).append(OPTION).append(option.getKey());
+			for (final Object value : option.getValue())
+				sb.append(SEPARATOR).append(VALUE).append(value);
+		}
+	}
+
+}
@@ -19,7 +19,7 @@
  *     License along with this library; if not, write to the Free Software
  *     Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
  */
-package com.worldline.clic.internal;
+package com.worldline.clic.internal.engine;
 
 import java.text.MessageFormat;
 import java.util.ResourceBundle;
@@ -41,7 +41,7 @@ import java.util.ResourceBundle;
 public enum ClicMessages {
 	// Error messages
 
-	COMMAND_NOT_FOUND, COMMAND_EXECUTION_ERROR, COMMAND_PARSING_ERROR, PARSER_UNBALANCED_QUOTES,
+	COMMAND_NOT_FOUND, COMMAND_EXECUTION_ERROR, COMMAND_PARSING_ERROR, PARSER_UNBALANCED_QUOTES, FLOW_FAILED,
 
 	// Formatting messages
 
@@ -49,7 +49,40 @@ public enum ClicMessages {
 
 	// Messages
 
-	CLIC_TITLE, CLIC_WELCOME, CONSOLE_CLEAR, COMMAND_RETURN, COMMAND_FLOWS
+	CLIC_TITLE, CLIC_WELCOME, CONSOLE_CLEAR, COMMAND_RETURN, COMMAND_FLOWS,
+
+	// Background jobs
+
+	JOB_STARTED, JOB_DONE, JOB_ENTRY, JOB_RUNNING, JOB_WAITING, JOB_NONE, JOB_KILLED, JOB_NOT_FOUND,
+	JOB_KILL_USAGE,
+
+	// Result cache
+
+	CACHE_STATISTICS, CACHE_CLEARED,
+
+	// Statistics
+
+	STATS_ENTRY, STATS_PHASE, STATS_NONE, STATS_RESET, STATS_SLOW_NONE,
+
+	// Traces
+
+	TRACE_WRITTEN, TRACE_NONE,
+
+	// Batch launcher
+
+	LAUNCHER_SCRIPT_ERROR, LAUNCHER_FAILED,
+
+	// Daemon
+
+	DAEMON_STARTED, DAEMON_ERROR, DAEMON_UNAUTHORIZED, DAEMON_REQUEST_TOO_LONG,
+
+	// Listeners
+
+	LISTENER_DISABLED,
+
+	// History
+
+	SEARCH_PROMPT, SEARCH_FAILED
 
 	;
 
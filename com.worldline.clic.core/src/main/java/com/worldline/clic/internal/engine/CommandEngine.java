@@ -0,0 +1,646 @@
+/*
+ * CLiC, Framework for Command Line Interpretation in Eclipse
+ *
+ *     Copyright (C) 2013 Worldline or third-party contributors as
+ *     indicated by the @author tags or express copyright attribution
+ *     statements applied by the authors.
+ *
+ *     This library is free software; you can redistribute it and/or
+ *     modify it under the terms of the GNU Lesser General Public
+ *     License as published by the Free Software Foundation; either
+ *     version 2.1 of the License.
+ *
+ *     This library is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *     Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public
+ *     License along with this library; if not, write to the Free Software
+ *     Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+package com.worldline.clic.internal.engine;
+
+import static com.worldline.clic.internal.engine.ClicMessages.COMMAND_NOT_FOUND;
+import static com.worldline.clic.internal.engine.ClicMessages.COMMAND_PARSING_ERROR;
+import static com.worldline.clic.internal.engine.ClicMessages.FLOW_FAILED;
+import static com.worldline.clic.internal.engine.ClicMessages.PARSER_UNBALANCED_QUOTES;
+import static com.worldline.clic.internal.engine.ClicMessages.SEPARATOR;
+
+import java.util.ArrayList;
+import java.util.StringTokenizer;
+
+import joptsimple.OptionException;
+import joptsimple.OptionParser;
+
+import com.google.common.collect.ObjectArrays;
+import com.worldline.clic.commands.AbstractCommand;
+import com.worldline.clic.commands.CommandContext;
+import com.worldline.clic.core.ClicCore;
+import com.worldline.clic.core.ExecutionMonitor;
+import com.worldline.clic.core.ExecutionStatus;
+import com.worldline.clic.core.ExecutionStatus.Severity;
+import com.worldline.clic.internal.stats.CommandPhase;
+import com.worldline.clic.internal.stats.CommandStatistics;
+import com.worldline.clic.internal.stats.EngineActivity;
+import com.worldline.clic.internal.stats.EngineProbe;
+import com.worldline.clic.internal.stats.EngineProbes;
+import com.worldline.clic.internal.stats.SlowCommandRecorder;
+import com.worldline.clic.internal.stats.SlowestInvocations;
+import com.worldline.clic.internal.trace.ExecutionTrace;
+import com.worldline.clic.internal.trace.TraceRecorder;
+import com.worldline.clic.internal.trace.TraceSpan;
+import com.worldline.clic.listeners.CommandLifecycleEvent;
+import com.worldline.clic.listeners.CommandLifecycleEvent.Type;
+import com.worldline.clic.listeners.CommandLifecycleListener;
+import com.worldline.clic.listeners.ProcessedCommandEvent;
+import com.worldline.clic.listeners.ProcessedCommandListener;
+import com.worldline.clic.listeners.internal.ListenerRegistry;
+
+/**
+ * The {@link CommandEngine} processes all the commands defined in the
+ * framework, independently of the way they're scheduled: it is used by the
+ * jobs of the Eclipse plugin as well as by any plain Java application
+ * embedding CLiC.
+ * 
+ * Internally, the {@link CommandEngine} will allow to parse a command (relying
+ * on some Ant implementation for that), then use JOpt-Simple to parse all the
+ * parameters and inject them properly in the specific command options. Finally,
+ * it'll execute the implementation defined by the command.
+ * 
+ * @author mvanbesien / aneveux
+ * @version 1.0
+ * @since 1.2
+ * 
+ * @see AbstractCommand
+ */
+public final class CommandEngine {
+
+	/**
+	 * Private constructor, as this is a static helper class
+	 */
+	private CommandEngine() {
+	}
+
+	/**
+	 * Processes a command line: parses all the options and executes the
+	 * command, or the flow, it refers to. The changes made to the scope are
+	 * then published to the context the execution's one has been forked from,
+	 * if any.
+	 * 
+	 * The processing is traced by the {@link TraceRecorder}.
+	 * 
+	 * @param commandChain
+	 *            the command which has been provided by the end-user
+	 * @param context
+	 *            the execution context to be used during the whole lifecycle of
+	 *            the processed command
+	 * @param monitor
+	 *            the {@link ExecutionMonitor} allowing to cancel the
+	 *            execution
+	 * @return {@link ExecutionStatus#CANCEL} if the execution has been
+	 *         cancelled, {@link ExecutionStatus#OK} otherwise
+	 * 
+	 * @see #execute(String, CommandContext, ExecutionMonitor)
+	 */
+	public static ExecutionStatus process(final String commandChain, final CommandContext context,
+			final ExecutionMonitor monitor) {
+		execute(commandChain, context, monitor);
+		return monitor.isCanceled() ? ExecutionStatus.CANCEL : ExecutionStatus.OK;
+	}
+
+	/**
+	 * Processes a command line, just like
+	 * {@link #process(String, CommandContext, ExecutionMonitor)}, but returns
+	 * the status of the executed command, or flow, so that callers such as
+	 * scripts can stop on the first failure.
+	 * 
+	 * @param commandChain
+	 *            the command which has been provided by the end-user
+	 * @param context
+	 *            the execution context to be used during the whole lifecycle of
+	 *            the processed command
+	 * @param monitor
+	 *            the {@link ExecutionMonitor} allowing to cancel the
+	 *            execution
+	 * @return {@link ExecutionStatus#CANCEL} if the execution has been
+	 *         cancelled, the status of the command or flow otherwise
+	 */
+	public static ExecutionStatus execute(final String commandChain, final CommandContext context,
+			final ExecutionMonitor monitor) {
+		final TraceRecorder tracer = TraceRecorder.getInstance();
+		final ExecutionTrace trace = tracer.start(commandChain);
+		final TraceSpan span = tracer.begin("process", "engine", "commandLine", commandChain);
+		EngineActivity.getInstance().started();
+		final ExecutionStatus status;
+		try {
+			status = processCommand(commandChain, context, monitor);
+		} finally {
+			EngineActivity.getInstance().finished();
+			tracer.end(span);
+			tracer.finish(trace);
+		}
+		context.complete();
+		return monitor.isCanceled() ? ExecutionStatus.CANCEL : status;
+	}
+
+	/**
+	 * This {@link #processCommand(String, CommandContext)} function allows to
+	 * parse the command in chunks, compute all the options thanks to
+	 * JOpt-Simple, and finally, to execute the command if no error has been
+	 * raised.
+	 * 
+	 * The duration of the whole processing and of the listeners' notification
+	 * are recorded in the {@link CommandStatistics} of the command, or of the
+	 * flow. The {@link CommandLifecycleEvent}s are sent along the way, if a
+	 * {@link CommandLifecycleListener} is registered.
+	 * 
+	 * @param command
+	 *            the command which has been provided by the end-user
+	 * @param context
+	 *            the execution context to be used
+	 * @param monitor
+	 *            the {@link ExecutionMonitor} allowing to know whether the
+	 *            execution has been cancelled, in which case the remaining
+	 *            commands of a flow are skipped
+	 * @return an {@link ExecutionStatus} describing the execution status of the
+	 *         command or flow
+	 */
+	private static ExecutionStatus processCommand(final String command, final CommandContext context,
+			final ExecutionMonitor monitor) {
+		final long start = System.nanoTime();
+		final boolean lifecycle = ListenerRegistry.getInstance().hasListeners(CommandLifecycleListener.class);
+		final int writtenLines = context.getWrittenLines();
+		final long writtenCharacters = context.getWrittenCharacters();
+		String firstChunk = "";
+		String[] parameters = new String[0];
+		boolean flow = false;
+		context.clearOutputs();
+		if (lifecycle)
+			publish(new CommandLifecycleEvent(Type.SUBMITTED, command, command.indexOf(" ") == -1 ? command
+					: command.substring(0, command.indexOf(" ")), null, null, null, 0, 0, null));
+		if (command.indexOf(" ") == -1)
+			firstChunk = command;
+		else {
+			try {
+				parameters = parseCommandLine(command.substring(command.indexOf(" ")).trim());
+			} catch (final CommandParsingException e) {
+				final CommandStatistics.Entry statistics = statisticsOf(command.substring(0, command.indexOf(" ")));
+				if (statistics != null)
+					statistics.parseFailed();
+				context.write(COMMAND_PARSING_ERROR.value(e.getMessage()));
+				ClicCore.getLogger().error(COMMAND_PARSING_ERROR.value(e.getMessage()), e);
+				final ExecutionStatus status = ExecutionStatus.error(COMMAND_PARSING_ERROR.value(e.getMessage()),
+						e);
+				if (lifecycle) {
+					final ExecutionMeasures measures = new ExecutionMeasures();
+					measures.record(CommandPhase.TOTAL, System.nanoTime() - start);
+					publish(new CommandLifecycleEvent(Type.FINISHED, command, command.substring(0,
+							command.indexOf(" ")), null, null, measures.durations, context.getWrittenLines()
+							- writtenLines, context.getWrittenCharacters() - writtenCharacters, status));
+				}
+				return status;
+			}
+			firstChunk = command.substring(0, command.indexOf(" "));
+		}
+
+		flow = CommandRegistry.getInstance().getFlows().containsKey(firstChunk);
+		if (lifecycle)
+			publish(new CommandLifecycleEvent(Type.PARSED, command, firstChunk, parameters, flow ? firstChunk : null,
+					null, 0, 0, null));
+		final ExecutionMeasures measures = lifecycle ? new ExecutionMeasures() : null;
+
+		final CommandStatistics.Entry statistics;
+		final ExecutionStatus status;
+		if (flow) {
+			statistics = CommandStatistics.getInstance().get(CommandStatistics.flowKey(firstChunk));
+			statistics.invoked();
+			boolean succeeded = true;
+			final CommandFlowWrapper wrapper = CommandRegistry.getInstance().getFlows().get(firstChunk);
+			if (wrapper.isGraph())
+				succeeded = new FlowExecutor(wrapper, parameters, command, context, monitor).execute();
+			else
+				for (final String commandReference : wrapper.getCommandReferences()) {
+					if (monitor.isCanceled())
+						break;
+					final String[] allParameters = ObjectArrays.concat(parameters,
+							context.getOutputs().toArray(new String[0]), String.class);
+					succeeded &= launchFlowStep(firstChunk, commandReference, allParameters, command, context);
+				}
+			if (!succeeded)
+				statistics.failed();
+			status = succeeded ? ExecutionStatus.OK : ExecutionStatus.error(FLOW_FAILED.value(firstChunk));
+		} else {
+			status = launchObservedCommand(null, firstChunk, parameters, command, context, measures);
+			statistics = statisticsOf(firstChunk);
+		}
+		final long processed = System.nanoTime();
+
+		// Now, calls the listeners related to Command Process.
+		final TraceSpan span = TraceRecorder.getInstance().begin("listeners", "engine");
+		ListenerRegistry.getInstance().dispatch(ProcessedCommandListener.class, new ProcessedCommandEvent(command),
+				firstChunk, parameters.length, context.getWrittenLines() - writtenLines);
+		TraceRecorder.getInstance().end(span);
+		final long end = System.nanoTime();
+		if (statistics != null) {
+			statistics.record(CommandPhase.LISTENERS, end - processed);
+			statistics.record(CommandPhase.TOTAL, end - start);
+		}
+		SlowestInvocations.getInstance().record(command, end - start);
+		EngineActivity.getInstance().processed();
+		if (lifecycle) {
+			measures.record(CommandPhase.LISTENERS, end - processed);
+			measures.record(CommandPhase.TOTAL, end - start);
+			publish(new CommandLifecycleEvent(Type.FINISHED, command, firstChunk, parameters, flow ? firstChunk
+					: null, measures.durations, context.getWrittenLines() - writtenLines,
+					context.getWrittenCharacters() - writtenCharacters, status));
+		}
+		return status;
+	}
+
+	/**
+	 * Sends a {@link CommandLifecycleEvent} to the
+	 * {@link CommandLifecycleListener}s
+	 * 
+	 * @param event
+	 *            the event to be sent
+	 */
+	private static void publish(final CommandLifecycleEvent event) {
+		ListenerRegistry.getInstance().dispatch(CommandLifecycleListener.class, event, event.getCommandId(),
+				event.getArguments() != null ? event.getArguments().length : 0, event.getOutputLines());
+	}
+
+	/**
+	 * Launches a command, on its own or as a step of a flow, and sends the
+	 * {@link Type#STEP_STARTED} and {@link Type#STEP_FINISHED} events around
+	 * its execution if the measures are to be taken
+	 * 
+	 * @param flowName
+	 *            the name of the flow, null if the command is launched on its
+	 *            own
+	 * @param firstChunk
+	 *            the command reference to be executed
+	 * @param parameters
+	 *            the parameters of the command
+	 * @param command
+	 *            the whole command which has been provided by the end user
+	 * @param context
+	 *            the command context
+	 * @param measures
+	 *            the {@link ExecutionMeasures} to be filled, null if nobody
+	 *            listens to the lifecycle of the commands
+	 * @return an {@link ExecutionStatus} describing the execution status of the
+	 *         command
+	 */
+	private static ExecutionStatus launchObservedCommand(final String flowName, final String firstChunk,
+			final String[] parameters, final String command, final CommandContext context,
+			final ExecutionMeasures measures) {
+		if (measures == null)
+			return launchCommand(firstChunk, parameters, command, context, null);
+		publish(new CommandLifecycleEvent(Type.STEP_STARTED, command, firstChunk, parameters, flowName, null, 0, 0,
+				null));
+		ExecutionStatus status = null;
+		try {
+			status = launchCommand(firstChunk, parameters, command, context, measures);
+		} finally {
+			publish(new CommandLifecycleEvent(Type.STEP_FINISHED, command, firstChunk, parameters, flowName,
+					measures.durations.clone(), measures.outputLines, measures.outputCharacters, status));
+		}
+		return status;
+	}
+
+	/**
+	 * @param firstChunk
+	 *            the first chunk of a command line
+	 * @return the {@link CommandStatistics} of the flow or command the chunk
+	 *         refers to, or null if there is none
+	 */
+	private static CommandStatistics.Entry statisticsOf(final String firstChunk) {
+		if (CommandRegistry.getInstance().getFlows().containsKey(firstChunk))
+			return CommandStatistics.getInstance().get(CommandStatistics.flowKey(firstChunk));
+		if (CommandRegistry.getInstance().getCommandsList().contains(firstChunk))
+			return CommandStatistics.getInstance().get(firstChunk);
+		return null;
+	}
+
+	/**
+	 * Allows to launch a particular command's execution. If the command is
+	 * declared as cacheable, the invocation is served from the
+	 * {@link CommandResultCache} when possible, and its result is cached
+	 * otherwise.
+	 * 
+	 * The duration of each phase of the execution, as well as the invocations,
+	 * errors and parsing failures, are recorded in the
+	 * {@link CommandStatistics} of the command.
+	 * 
+	 * @param firstChunk
+	 *            the command reference to be executed. this parameter will
+	 *            allow to retrieve the command from the extension point.
+	 * @param parameters
+	 *            contains all the paramters to be provided to the command to be
+	 *            executed
+	 * @param command
+	 *            contains the whole command which has been provided by the end
+	 *            user, without any interpretation
+	 * @param context
+	 *            the command context
+	 * @return an {@link ExecutionStatus} describing the execution status of the
+	 *         command
+	 */
+	public static ExecutionStatus launchCommand(final String firstChunk, final String[] parameters, final String command,
+			final CommandContext context) {
+		return launchCommand(firstChunk, parameters, command, context, null);
+	}
+
+	/**
+	 * Allows to launch a particular command's execution, just like
+	 * {@link #launchCommand(String, String[], String, CommandContext)}, while
+	 * filling the provided {@link ExecutionMeasures}
+	 * 
+	 * @param firstChunk
+	 *            the command reference to be executed
+	 * @param parameters
+	 *            the parameters of the command
+	 * @param command
+	 *            the whole command which has been provided by the end user
+	 * @param context
+	 *            the command context
+	 * @param measures
+	 *            the {@link ExecutionMeasures} to be filled, or null
+	 * @return an {@link ExecutionStatus} describing the execution status of the
+	 *         command
+	 */
+	private static ExecutionStatus launchCommand(final String firstChunk, final String[] parameters, final String command,
+			final CommandContext context, final ExecutionMeasures measures) {
+		final TraceRecorder tracer = TraceRecorder.getInstance();
+		final CachePolicy cachePolicy = CommandRegistry.getInstance().getCachePolicy(firstChunk);
+		final String cacheKey = cachePolicy != null ? CommandRegistry.getInstance().getCacheKey(firstChunk,
+				parameters) : null;
+		if (cacheKey != null) {
+			final CommandResultCache.CachedResult cachedResult = CommandResultCache.getInstance().get(cacheKey);
+			if (cachedResult != null) {
+				final TraceSpan replaySpan = tracer.begin("replay", "cache", "command", firstChunk);
+				CommandStatistics.getInstance().get(firstChunk).invoked();
+				final int replayedLines = context.getWrittenLines();
+				final long replayedCharacters = context.getWrittenCharacters();
+				final ExecutionStatus status = cachedResult.replay(context);
+				if (measures != null) {
+					measures.outputLines = context.getWrittenLines() - replayedLines;
+					measures.outputCharacters = context.getWrittenCharacters() - replayedCharacters;
+				}
+				context.write(SEPARATOR.value());
+				tracer.end(replaySpan);
+				return status;
+			}
+		}
+		final SlowCommandRecorder.Watch watch = SlowCommandRecorder.getInstance().start(command, firstChunk,
+				parameters);
+		final long start = System.nanoTime();
+		final TraceSpan instantiateSpan = tracer.begin("instantiate", "command", "command", firstChunk);
+		final AbstractCommand commandImplementation = CommandRegistry.getInstance().instantiateCommand(firstChunk);
+		if (commandImplementation != null) {
+			final CommandStatistics.Entry statistics = CommandStatistics.getInstance().get(firstChunk);
+			statistics.invoked();
+			final long instantiated = System.nanoTime();
+			statistics.record(CommandPhase.INSTANTIATE, instantiated - start);
+			watch.record(CommandPhase.INSTANTIATE, instantiated - start);
+			if (measures != null)
+				measures.record(CommandPhase.INSTANTIATE, instantiated - start);
+			CommandWrapper.configureCommand(commandImplementation);
+			final long configured = System.nanoTime();
+			statistics.record(CommandPhase.CONFIGURE, configured - instantiated);
+			watch.record(CommandPhase.CONFIGURE, configured - instantiated);
+			if (measures != null)
+				measures.record(CommandPhase.CONFIGURE, configured - instantiated);
+			tracer.end(instantiateSpan);
+			final EngineProbe probe = EngineProbes.get();
+			final Object parseToken = probe.beginParse();
+			final TraceSpan parseSpan = tracer.begin("parse", "command", "command", firstChunk);
+			try {
+				computeParameters(commandImplementation, context, parameters);
+				probe.endParse(parseToken, firstChunk, parameters.length, true);
+				tracer.end(parseSpan);
+			} catch (final OptionException e) {
+				probe.endParse(parseToken, firstChunk, parameters.length, false);
+				tracer.end(parseSpan);
+				statistics.parseFailed();
+				watch.stop(0, false);
+				context.write(COMMAND_PARSING_ERROR.value(e.getMessage()));
+				ClicCore.getLogger().error(COMMAND_PARSING_ERROR.value(e.getMessage()), e);
+				return ExecutionStatus.error(COMMAND_PARSING_ERROR.value(e.getMessage()), e);
+			}
+			final long parsed = System.nanoTime();
+			statistics.record(CommandPhase.PARSE, parsed - configured);
+			watch.record(CommandPhase.PARSE, parsed - configured);
+			if (measures != null)
+				measures.record(CommandPhase.PARSE, parsed - configured);
+			final Object executeToken = probe.beginExecute();
+			final TraceSpan executeSpan = tracer.begin("execute", "command", "command", firstChunk);
+			final int writtenLines = context.getWrittenLines();
+			final long writtenCharacters = context.getWrittenCharacters();
+			ExecutionStatus status;
+			final int outputLines;
+			final long outputCharacters;
+			final TraceSpan flushSpan;
+			if (cacheKey != null) {
+				final RecordingWriter recorder = new RecordingWriter(context.getWriter());
+				final CommandContext recordingContext = context.withWriter(recorder);
+				status = executeCommand(commandImplementation, recordingContext);
+				outputLines = recordingContext.getWrittenLines();
+				outputCharacters = recordingContext.getWrittenCharacters();
+				probe.endExecute(executeToken, firstChunk, parameters.length, outputLines, status.isOK());
+				tracer.end(executeSpan);
+				flushSpan = tracer.begin("flush", "command", "command", firstChunk);
+				for (final String output : recordingContext.getOutputs())
+					context.addOutput(output);
+				if (status.isOK())
+					CommandResultCache.getInstance().put(cacheKey, recorder.getChunks(),
+							recordingContext.getOutputs(), status, cachePolicy.getTtl());
+			} else {
+				status = executeCommand(commandImplementation, context);
+				outputLines = context.getWrittenLines() - writtenLines;
+				outputCharacters = context.getWrittenCharacters() - writtenCharacters;
+				probe.endExecute(executeToken, firstChunk, parameters.length, outputLines, status.isOK());
+				tracer.end(executeSpan);
+				flushSpan = tracer.begin("flush", "command", "command", firstChunk);
+			}
+			final long executed = System.nanoTime();
+			statistics.record(CommandPhase.EXECUTE, executed - parsed);
+			watch.record(CommandPhase.EXECUTE, executed - parsed);
+			if (measures != null)
+				measures.record(CommandPhase.EXECUTE, executed - parsed);
+			if (!status.isOK())
+				statistics.failed();
+			if (measures != null) {
+				measures.outputLines = outputLines;
+				measures.outputCharacters = outputCharacters;
+			}
+			context.write(SEPARATOR.value());
+			tracer.end(flushSpan);
+			watch.stop(outputLines, status.isOK());
+			return status;
+		} else {
+			tracer.end(instantiateSpan);
+			watch.stop(0, false);
+			context.write(COMMAND_NOT_FOUND.value(command));
+			return ExecutionStatus.error(COMMAND_NOT_FOUND.value(command));
+		}
+	}
+
+	/**
+	 * Allows to launch a step of a flow, notifying the {@link EngineProbe} of
+	 * its execution
+	 * 
+	 * @param flowName
+	 *            the name of the flow
+	 * @param commandReference
+	 *            the command executed by the step
+	 * @param parameters
+	 *            the parameters of the step
+	 * @param command
+	 *            the whole command which has been provided by the end user
+	 * @param context
+	 *            the context of the step
+	 * @return true if the step ended properly
+	 */
+	static boolean launchFlowStep(final String flowName, final String commandReference, final String[] parameters,
+			final String command, final CommandContext context) {
+		final EngineProbe probe = EngineProbes.get();
+		final Object token = probe.beginFlowStep();
+		final TraceSpan span = TraceRecorder.getInstance().begin(commandReference, "step", "flow", flowName);
+		final int writtenLines = context.getWrittenLines();
+		boolean succeeded = false;
+		try {
+			succeeded = launchObservedCommand(flowName, commandReference, parameters, command, context,
+					ListenerRegistry.getInstance().hasListeners(CommandLifecycleListener.class)
+							? new ExecutionMeasures() : null).isOK();
+		} finally {
+			probe.endFlowStep(token, flowName, commandReference, parameters.length, context.getWrittenLines()
+					- writtenLines, succeeded);
+			TraceRecorder.getInstance().end(span);
+		}
+		return succeeded;
+	}
+
+	/**
+	 * Executes a command whose parameters have been computed
+	 * 
+	 * @param commandImplementation
+	 *            the {@link AbstractCommand} to be executed
+	 * @param context
+	 *            the command context
+	 * @return an {@link ExecutionStatus} describing the execution status of the
+	 *         command
+	 */
+	private static ExecutionStatus executeCommand(final AbstractCommand commandImplementation,
+			final CommandContext context) {
+		try {
+			commandImplementation.execute(context);
+			return ExecutionStatus.OK;
+		} catch (Exception e) {
+			ClicCore.getLogger().warning("An exception was caught while executing command", e);
+			return new ExecutionStatus(Severity.WARNING, "An exception was caught while executing command", e);
+		}
+	}
+
+	/**
+	 * This internal function allows to invoke the {@link OptionParser} of a
+	 * specific provided {@link AbstractCommand} in order to compute all of its
+	 * parameters.
+	 * 
+	 * @param commandImplementation
+	 *            an {@link AbstractCommand} on which we want to compute the
+	 *            options
+	 * @param context
+	 *            the execution's context
+	 * @param parameters
+	 *            all the parameters to be computed by the {@link OptionParser}
+	 * 
+	 * @see AbstractCommand#parse(String[])
+	 */
+	private static void computeParameters(final AbstractCommand commandImplementation, final CommandContext context,
+			final String[] parameters) {
+		commandImplementation.parse(parameters);
+	}
+
+	/**
+	 * http://api.dpml.net/ant/1.6.4/org/apache/tools/ant/types/Commandline.
+	 * html#translateCommandline%28java.lang.String%29
+	 * 
+	 * Command-line cracker coming from Ant.
+	 * 
+	 * @param toProcess
+	 *            the command line to process.
+	 * @return the command line broken into strings. An empty or null toProcess
+	 *         parameter results in a zero sized array.
+	 * 
+	 * @throws CommandParsingException
+	 */
+	static String[] parseCommandLine(final String toProcess) throws CommandParsingException {
+		if (toProcess == null || toProcess.length() == 0)
+			// no command? no string
+			return new String[0];
+		final int normal = 0;
+		final int inQuote = 1;
+		final int inDoubleQuote = 2;
+		int state = normal;
+		final StringTokenizer tok = new StringTokenizer(toProcess, "\"\' ", true);
+		final ArrayList<String> result = new ArrayList<String>();
+		final StringBuilder current = new StringBuilder();
+		boolean lastTokenHasBeenQuoted = false;
+
+		while (tok.hasMoreTokens()) {
+			final String nextTok = tok.nextToken();
+			switch (state) {
+			case inQuote:
+				if ("\'".equals(nextTok)) {
+					lastTokenHasBeenQuoted = true;
+					state = normal;
+				} else
+					current.append(nextTok);
+				break;
+			case inDoubleQuote:
+				if ("\"".equals(nextTok)) {
+					lastTokenHasBeenQuoted = true;
+					state = normal;
+				} else
+					current.append(nextTok);
+				break;
+			default:
+				if ("\'".equals(nextTok))
+					state = inQuote;
+				else if ("\"".equals(nextTok))
+					state = inDoubleQuote;
+				else if (" ".equals(nextTok)) {
+					if (lastTokenHasBeenQuoted || current.length() != 0) {
+						result.add(current.toString());
+						current.setLength(0);
+					}
+				} else
+					current.append(nextTok);
+				lastTokenHasBeenQuoted = false;
+				break;
+			}
+		}
+		if (lastTokenHasBeenQuoted || current.length() != 0)
+			result.add(current.toString());
+		if (state == inQuote || state == inDoubleQuote)
+			throw new CommandParsingException(PARSER_UNBALANCED_QUOTES.value(toProcess));
+		return result.toArray(new String[result.size()]);
+	}
+
+	/**
+	 * This {@link Exception} allows to specify an issue while parsing a command
+	 * 
+	 * @author aneveux
+	 * @version 1.0
+	 * @since 1.0
+	 */
+	@SuppressWarnings("serial")
+	static class CommandParsingException extends Exception {
+		public CommandParsingException(final String msg) {
+			super(msg);
+		}
+	}
+
+}
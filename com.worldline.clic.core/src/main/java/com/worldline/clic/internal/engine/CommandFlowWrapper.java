@@ -0,0 +1,259 @@
+/*
+ * CLiC, Framework for Command Line Interpretation in Eclipse
+ *
+ *     Copyright (C) 2013 Worldline or third-party contributors as
+ *     indicated by the @author tags or express copyright attribution
+ *     statements applied by the authors.
+ *
+ *     This library is free software; you can redistribute it and/or
+ *     modify it under the terms of the GNU Lesser General Public
+ *     License as published by the Free Software Foundation; either
+ *     version 2.1 of the License.
+ *
+ *     This library is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *     Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public
+ *     License along with this library; if not, write to the Free Software
+ *     Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+package com.worldline.clic.internal.engine;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The {@link CommandFlowWrapper} object allows to store all the information
+ * linked to a particular instance of a command flow. It allows to retrieve all
+ * the commands that should be invoked from a particular flow.
+ * 
+ * A flow is either sequential, meaning its commands are executed one after the
+ * other, or a graph as soon as one of its {@link FlowStep} declares
+ * dependencies. The steps of a graph are executed once their dependencies are
+ * done, with at most {@link #getParallelism()} of them running at the same
+ * time.
+ * 
+ * @author ahavez
+ * @version 1.1
+ * @since 1.0
+ */
+public class CommandFlowWrapper {
+
+	/**
+	 * The name of the command flow
+	 */
+	private final String name;
+
+	/**
+	 * A {@link List} containing all the commands to be invoked by the flow
+	 */
+	private final List<String> commandReferences;
+
+	/**
+	 * The steps of the flow, by identifier, in the declaration order
+	 */
+	private final Map<String, FlowStep> steps = new LinkedHashMap<String, FlowStep>();
+
+	/**
+	 * Whether at least one step of the flow declares dependencies
+	 */
+	private final boolean graph;
+
+	/**
+	 * The maximum number of steps to be executed at the same time
+	 */
+	private final int parallelism;
+
+	/**
+	 * Default constructor
+	 * 
+	 * @param name
+	 *            the command flow's name
+	 * @param commandReferences
+	 *            all the commands that should be invoked from this flow
+	 */
+	public CommandFlowWrapper(final String name,
+			final List<String> commandReferences) {
+		this.name = name;
+		this.commandReferences = new ArrayList<String>(commandReferences);
+		for (int i = 0; i < commandReferences.size(); i++) {
+			final String id = String.valueOf(i);
+			steps.put(id, new FlowStep(id, commandReferences.get(i),
+					Collections.<String> emptyList()));
+		}
+		this.graph = false;
+		this.parallelism = 1;
+	}
+
+	/**
+	 * Constructor for flows made of {@link FlowStep}
+	 * 
+	 * @param name
+	 *            the command flow's name
+	 * @param flowSteps
+	 *            all the steps of the flow, in the declaration order
+	 * @param parallelism
+	 *            the maximum number of steps to be executed at the same time
+	 * @throws IllegalArgumentException
+	 *             if the flow is a graph and two steps share the same
+	 *             identifier, if a step depends on an unknown step, or if the
+	 *             dependencies contain a cycle
+	 */
+	public CommandFlowWrapper(final String name,
+			final List<FlowStep> flowSteps, final int parallelism) {
+		this.name = name;
+		this.commandReferences = new ArrayList<String>();
+		boolean dependencies = false;
+		for (final FlowStep step : flowSteps) {
+			commandReferences.add(step.getCommandReference());
+			dependencies |= !step.getDependencies().isEmpty();
+		}
+		this.graph = dependencies;
+		this.parallelism = Math.max(1, parallelism);
+		// Sequential flows may reference the same command several times
+		for (int i = 0; i < flowSteps.size(); i++) {
+			final FlowStep step = flowSteps.get(i);
+			if (steps.put(graph ? step.getId() : String.valueOf(i), step) != null)
+				throw new IllegalArgumentException("Duplicate step " + step.getId() + " in flow " + name);
+		}
+		if (graph)
+			checkDependencies();
+	}
+
+	/**
+	 * Ensures that all the dependencies of the steps exist, and that they don't
+	 * contain any cycle.
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if the dependencies are invalid
+	 */
+	private void checkDependencies() {
+		final Map<String, Integer> remaining = new HashMap<String, Integer>();
+		for (final FlowStep step : steps.values()) {
+			for (final String dependency : step.getDependencies())
+				if (!steps.containsKey(dependency))
+					throw new IllegalArgumentException("Step " + step.getId() + " of flow " + name
+							+ " depends on unknown step " + dependency);
+			remaining.put(step.getId(), new HashSet<String>(step.getDependencies()).size());
+		}
+		// Kahn's algorithm: if some steps never become ready, there is a cycle
+		final List<String> ready = new ArrayList<String>();
+		for (final Map.Entry<String, Integer> entry : remaining.entrySet())
+			if (entry.getValue() == 0)
+				ready.add(entry.getKey());
+		int visited = 0;
+		while (!ready.isEmpty()) {
+			final String id = ready.remove(ready.size() - 1);
+			visited++;
+			for (final String dependent : getDependents(id)) {
+				final int count = remaining.get(dependent) - 1;
+				remaining.put(dependent, count);
+				if (count == 0)
+					ready.add(dependent);
+			}
+		}
+		if (visited != steps.size())
+			throw new IllegalArgumentException("Flow " + name + " contains a dependency cycle");
+	}
+
+	/**
+	 * Returns the identifiers of the steps which directly depend on the
+	 * provided one.
+	 * 
+	 * @param id
+	 *            the identifier of a step of the flow
+	 * @return the identifiers of the steps depending on it
+	 */
+	public Set<String> getDependents(final String id) {
+		final Set<String> dependents = new HashSet<String>();
+		for (final FlowStep step : steps.values())
+			if (step.getDependencies().contains(id))
+				dependents.add(step.getId());
+		return dependents;
+	}
+
+	/**
+	 * Simple getter for {@link #name}
+	 * 
+	 * @return the name of the flow
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Simple getter for {@link #commandReferences}
+	 * 
+	 * @return all the command references to be invoked from the flow
+	 */
+	public List<String> getCommandReferences() {
+		return commandReferences;
+	}
+
+	/**
+	 * Simple getter for the steps of the flow
+	 * 
+	 * @return all the steps of the flow, in the declaration order
+	 */
+	public Collection<FlowStep> getSteps() {
+		return Collections.unmodifiableCollection(steps.values());
+	}
+
+	/**
+	 * Returns a step of a graph flow from its identifier
+	 * 
+	 * @param id
+	 *            the identifier of the step
+	 * @return the corresponding {@link FlowStep}, null if it doesn't exist
+	 */
+	public FlowStep getStep(final String id) {
+		return steps.get(id);
+	}
+
+	/**
+	 * Simple getter for {@link #graph}
+	 * 
+	 * @return true if the steps of the flow have to be executed according to
+	 *         their dependencies, false if they're executed sequentially
+	 */
+	public boolean isGraph() {
+		return graph;
+	}
+
+	/**
+	 * Simple getter for {@link #parallelism}
+	 * 
+	 * @return the maximum number of steps to be executed at the same time
+	 */
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * Overriding toString method in order to display all the information of the
+	 * flow properly
+	 */
+	@Override
+	public String toString() {
+		final StringBuilder sb = new StringBuilder();
+		sb.append(name).append(": [");
+		if (graph)
+			for (final FlowStep step : steps.values())
+				sb.append(step).append(", ");
+		else
+			for (final String command : commandReferences)
+				sb.append(command).append(", ");
+		sb.delete(sb.length() - 2, sb.length() - 1);
+		sb.append("]");
+		return sb.toString();
+	}
+}
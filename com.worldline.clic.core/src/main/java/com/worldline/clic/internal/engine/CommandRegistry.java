@@ -0,0 +1,286 @@
+/*
+ * CLiC, Framework for Command Line Interpretation in Eclipse
+ *
+ *     Copyright (C) 2013 Worldline or third-party contributors as
+ *     indicated by the @author tags or express copyright attribution
+ *     statements applied by the authors.
+ *
+ *     This library is free software; you can redistribute it and/or
+ *     modify it under the terms of the GNU Lesser General Public
+ *     License as published by the Free Software Foundation; either
+ *     version 2.1 of the License.
+ *
+ *     This library is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *     Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public
+ *     License along with this library; if not, write to the Free Software
+ *     Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+package com.worldline.clic.internal.engine;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.worldline.clic.commands.AbstractCommand;
+import com.worldline.clic.core.ClicCore;
+import com.worldline.clic.core.CommandDescriptor;
+import com.worldline.clic.core.ContributionProvider;
+import com.worldline.clic.core.FlowDescriptor;
+
+/**
+ * This {@link CommandRegistry} object allows to read all the commands
+ * contributed by the {@link ContributionProvider}s, and make them available to
+ * the other components of the framework.
+ * 
+ * This singleton aims at providing various utilities methods allowing to give
+ * information about the available commands and information linked to those
+ * commands.
+ * 
+ * @author mvanbesien / aneveux
+ * @version 1.0
+ * @since 1.0
+ */
+public class CommandRegistry {
+
+	/**
+	 * This inner class allows to store the singleton instance.
+	 * 
+	 * @author mvanbesien
+	 * @since 1.0
+	 */
+	private static final class SingletonHolder {
+		/**
+		 * contains the instance of {@link CommandRegistry} to be used as a
+		 * singleton
+		 */
+		private static CommandRegistry instance = new CommandRegistry();
+	}
+
+	/**
+	 * The private constructor allows to match with the singleton pattern. It'll
+	 * take care of loading all the information coming from the contribution
+	 * providers.
+	 */
+	private CommandRegistry() {
+		final long start = System.nanoTime();
+		loadContributions();
+		loadTime = System.nanoTime() - start;
+	}
+
+	/**
+	 * The time spent loading the contributions, in nanoseconds
+	 */
+	private final long loadTime;
+
+	/**
+	 * The {@link #loadContributions()} method allows to query all the
+	 * {@link ContributionProvider}s in order to retrieve all the commands and
+	 * flows which have been contributed and store them into a {@link Map}. When
+	 * several providers contribute the same identifier, the first one wins. An
+	 * invalid flow, such as a flow whose steps depend on each other in a
+	 * cycle, is reported and ignored.
+	 */
+	private void loadContributions() {
+		commands.clear();
+		flows.clear();
+
+		for (final ContributionProvider provider : ClicCore
+				.getContributionProviders())
+			try {
+				for (final CommandDescriptor command : provider.getCommands())
+					if (!commands.containsKey(command.getId()))
+						commands.put(command.getId(), createCommand(command));
+				for (final FlowDescriptor flow : provider.getFlows())
+					if (!flows.containsKey(flow.getName()))
+						try {
+							flows.put(flow.getName(), createFlow(flow));
+						} catch (final IllegalArgumentException e) {
+							ClicCore.getLogger().error(e.getMessage(), e);
+						}
+			} catch (final RuntimeException e) {
+				ClicCore.getLogger().error(e.getMessage(), e);
+			}
+	}
+
+	/**
+	 * Creates the {@link CommandWrapper} of a contributed command
+	 * 
+	 * @param descriptor
+	 *            the {@link CommandDescriptor} of the command
+	 * @return the {@link CommandWrapper} of the command
+	 */
+	private static CommandWrapper createCommand(
+			final CommandDescriptor descriptor) {
+		final CachePolicy cachePolicy = descriptor.isCacheable() ? new CachePolicy(
+				descriptor.getCacheTtl(),
+				CachePolicy.KeyStrategy.fromAttribute(descriptor.getCacheKey()))
+				: null;
+		return new CommandWrapper(descriptor.getId(),
+				descriptor.getDescription(), descriptor.getFactory(),
+				cachePolicy);
+	}
+
+	/**
+	 * Creates the {@link CommandFlowWrapper} of a contributed flow
+	 * 
+	 * @param descriptor
+	 *            the {@link FlowDescriptor} of the flow
+	 * @return the {@link CommandFlowWrapper} of the flow
+	 * @throws IllegalArgumentException
+	 *             if the steps of the flow depend on unknown steps, or on
+	 *             each other in a cycle
+	 */
+	private static CommandFlowWrapper createFlow(final FlowDescriptor descriptor) {
+		final List<FlowStep> steps = new ArrayList<FlowStep>();
+		for (final FlowDescriptor.Step step : descriptor.getSteps())
+			steps.add(new FlowStep(step.getId(), step.getCommandReference(),
+					step.getDependencies()));
+		return new CommandFlowWrapper(descriptor.getName(), steps,
+				descriptor.getParallelism());
+	}
+
+	/**
+	 * This {@link Map} allows to store all the commands which have been
+	 * contributed through the extension point. The {@link Map} is linked a
+	 * {@link String} correponding to the command's id to a particular
+	 * {@link CommandWrapper} containing all the required information needed to
+	 * actually build the command.
+	 */
+	private final Map<String, CommandWrapper> commands = new HashMap<String, CommandWrapper>();
+
+	/**
+	 * This {@link Map} allows to store all the flows which have been
+	 * contributed through the extension point. The {@link Map} actually links
+	 * the flow's name to its associated {@link CommandFlowWrapper}.
+	 */
+	private final Map<String, CommandFlowWrapper> flows = new HashMap<String, CommandFlowWrapper>();
+
+	/**
+	 * Allows to retrieve all the flows which have been contributed from the
+	 * extension point
+	 * 
+	 * @return {@link #flows} all the flows defined in the extension point
+	 */
+	public Map<String, CommandFlowWrapper> getFlows() {
+		return flows;
+	}
+
+	/**
+	 * Allows to get the singleton instance in order to query for some
+	 * information about commands
+	 * 
+	 * @return the singleton instance of {@link CommandRegistry}
+	 */
+	public static CommandRegistry getInstance() {
+		return SingletonHolder.instance;
+	}
+
+	/**
+	 * Allows to search the registry {@link Map} ({@link #commands}) for a
+	 * particular command by its id. If the command exists, the
+	 * {@link CommandWrapper} will allow to actually create the
+	 * {@link AbstractCommand} object.
+	 * 
+	 * @param commandId
+	 *            the id of the command you'd like to search in the registry
+	 * @return an instance of {@link AbstractCommand} linked to the specified id
+	 *         if it exists. null otherwise.
+	 */
+	public AbstractCommand createCommand(final String commandId) {
+		return commands.containsKey(commandId) ? commands.get(commandId)
+				.createCommand() : null;
+	}
+
+	/**
+	 * Allows to create a command, without configuring its parser
+	 * 
+	 * @param commandId
+	 *            the id of the command you'd like to create
+	 * @return an instance of {@link AbstractCommand} linked to the specified id
+	 *         if it exists, to be configured using
+	 *         {@link CommandWrapper#configureCommand(AbstractCommand)}. null
+	 *         otherwise.
+	 * @since 1.2
+	 */
+	public AbstractCommand instantiateCommand(final String commandId) {
+		return commands.containsKey(commandId) ? commands.get(commandId)
+				.instantiateCommand() : null;
+	}
+
+	/**
+	 * Allows to search the registry {@link Map} ({@link #commands}) for the
+	 * description of a particular command.
+	 * 
+	 * @param commandId
+	 *            the id of the command you'd like to search in the registry
+	 * @return the command's description (which is specified in the extension
+	 *         point) if it exists, null otherwise.
+	 */
+	public String getCommandDescription(final String commandId) {
+		return commands.containsKey(commandId) ? commands.get(commandId)
+				.getDescription() : null;
+	}
+
+	/**
+	 * Allows to search the registry {@link Map} ({@link #commands}) for the
+	 * {@link CachePolicy} of a particular command.
+	 * 
+	 * @param commandId
+	 *            the id of the command you'd like to search in the registry
+	 * @return the command's {@link CachePolicy} if it exists and is declared as
+	 *         cacheable, null otherwise.
+	 * @since 1.2
+	 */
+	public CachePolicy getCachePolicy(final String commandId) {
+		return commands.containsKey(commandId) ? commands.get(commandId)
+				.getCachePolicy() : null;
+	}
+
+	/**
+	 * Allows to compute the cache key of an invocation of a particular
+	 * command.
+	 * 
+	 * @param commandId
+	 *            the id of the command you'd like to search in the registry
+	 * @param parameters
+	 *            the arguments of the invocation
+	 * @return the cache key of the invocation if the command exists and is
+	 *         declared as cacheable, null otherwise.
+	 * @since 1.2
+	 * 
+	 * @see CommandWrapper#getCacheKey(String[])
+	 */
+	public String getCacheKey(final String commandId, final String[] parameters) {
+		return commands.containsKey(commandId) ? commands.get(commandId)
+				.getCacheKey(parameters) : null;
+	}
+
+	/**
+	 * Allows to query the registry in order to get all the available commands.
+	 * 
+	 * @return A {@link Set} containing all the available commands ids. The
+	 *         available commands are actually matching with all the extension
+	 *         point contributions
+	 */
+	public Set<String> getCommandsList() {
+		return Collections.unmodifiableSet(commands.keySet());
+	}
+
+	/**
+	 * Simple getter for {@link #loadTime}
+	 * 
+	 * @return the time spent loading the contributions, in nanoseconds
+	 * @since 1.2
+	 */
+	public long getLoadTime() {
+		return loadTime;
+	}
+
+}
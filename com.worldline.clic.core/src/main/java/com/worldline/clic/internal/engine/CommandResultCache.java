@@ -0,0 +1,304 @@
+/*
+ * CLiC, Framework for Command Line Interpretation in Eclipse
+ *
+ *     Copyright (C) 2013 Worldline or third-party contributors as
+ *     indicated by the @author tags or express copyright attribution
+ *     statements applied by the authors.
+ *
+ *     This library is free software; you can redistribute it and/or
+ *     modify it under the terms of the GNU Lesser General Public
+ *     License as published by the Free Software Foundation; either
+ *     version 2.1 of the License.
+ *
+ *     This library is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *     Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public
+ *     License along with this library; if not, write to the Free Software
+ *     Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+package com.worldline.clic.internal.engine;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.worldline.clic.commands.CommandContext;
+import com.worldline.clic.core.ExecutionStatus;
+
+/**
+ * The {@link CommandResultCache} stores the results of the invocations of the
+ * commands declared as cacheable in the extension point, so that repeated
+ * invocations with the same arguments are served without executing the
+ * command again.
+ * 
+ * The cache is bounded: once it contains {@link #getMaxSize()} entries, the
+ * least recently used one is evicted. Its size can be configured with the
+ * <i>com.worldline.clic.cache.size</i> system property. It also keeps track of
+ * its hits and misses, which are displayed by the <i>cache</i> command.
+ * 
+ * @author mvanbesien / aneveux
+ * @version 1.0
+ * @since 1.2
+ * 
+ * @see CachePolicy
+ */
+public class CommandResultCache {
+
+	/**
+	 * This inner class allows to store the singleton instance.
+	 */
+	private static final class SingletonHolder {
+		/**
+		 * contains the instance of {@link CommandResultCache} to be used as a
+		 * singleton
+		 */
+		private static CommandResultCache instance = new CommandResultCache(Integer.getInteger(
+				"com.worldline.clic.cache.size", 256));
+	}
+
+	/**
+	 * Allows to get the singleton instance
+	 * 
+	 * @return the singleton instance of {@link CommandResultCache}
+	 */
+	public static CommandResultCache getInstance() {
+		return SingletonHolder.instance;
+	}
+
+	/**
+	 * The result of an invocation of a command, as stored in the cache
+	 * 
+	 * @author mvanbesien / aneveux
+	 * @version 1.0
+	 * @since 1.2
+	 */
+	public static class CachedResult {
+
+		/**
+		 * The chunks written by the command on its context's writer
+		 */
+		private final List<String> chunks;
+
+		/**
+		 * The outputs added by the command to its context
+		 */
+		private final List<String> outputs;
+
+		/**
+		 * The status of the invocation
+		 */
+		private final ExecutionStatus status;
+
+		/**
+		 * The time, in milliseconds, after which the result is not valid
+		 * anymore
+		 */
+		private final long expiration;
+
+		/**
+		 * Constructor
+		 * 
+		 * @param chunks
+		 *            {@link #chunks}
+		 * @param outputs
+		 *            {@link #outputs}
+		 * @param status
+		 *            {@link #status}
+		 * @param expiration
+		 *            {@link #expiration}
+		 */
+		CachedResult(final List<String> chunks, final List<String> outputs, final ExecutionStatus status,
+				final long expiration) {
+			this.chunks = Collections.unmodifiableList(chunks);
+			this.outputs = Collections.unmodifiableList(outputs);
+			this.status = status;
+			this.expiration = expiration;
+		}
+
+		/**
+		 * Replays the result on the provided context: the chunks are written
+		 * again through it, so that they are counted as its output, and the
+		 * outputs are added to it.
+		 * 
+		 * @param context
+		 *            the {@link CommandContext} of the repeated invocation
+		 * @return the status of the cached invocation
+		 */
+		public ExecutionStatus replay(final CommandContext context) {
+			for (final String chunk : chunks)
+				context.write(chunk);
+			for (final String output : outputs)
+				context.addOutput(output);
+			return status;
+		}
+	}
+
+	/**
+	 * The maximum number of entries of the cache
+	 */
+	private final int maxSize;
+
+	/**
+	 * The cached results, in access order
+	 */
+	private final Map<String, CachedResult> entries;
+
+	/**
+	 * The number of invocations served from the cache
+	 */
+	private long hits;
+
+	/**
+	 * The number of invocations which couldn't be served from the cache
+	 */
+	private long misses;
+
+	/**
+	 * The number of entries which have been evicted as the cache was full
+	 */
+	private long evictions;
+
+	/**
+	 * The number of entries which have been discarded as they were expired
+	 */
+	private long expirations;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param maxSize
+	 *            the maximum number of entries of the cache
+	 */
+	CommandResultCache(final int maxSize) {
+		this.maxSize = maxSize;
+		this.entries = new LinkedHashMap<String, CachedResult>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(final Map.Entry<String, CachedResult> eldest) {
+				if (size() > CommandResultCache.this.maxSize) {
+					evictions++;
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	/**
+	 * Looks for a valid cached result
+	 * 
+	 * @param key
+	 *            the cache key of the invocation, computed by
+	 *            {@link CachePolicy#keyFor(String, String[], joptsimple.OptionParser)}
+	 * @return the cached result, or null if there is no valid one
+	 */
+	public synchronized CachedResult get(final String key) {
+		final CachedResult result = entries.get(key);
+		if (result != null && result.expiration <= System.currentTimeMillis()) {
+			entries.remove(key);
+			expirations++;
+		} else if (result != null) {
+			hits++;
+			return result;
+		}
+		misses++;
+		return null;
+	}
+
+	/**
+	 * Stores the result of an invocation
+	 * 
+	 * @param key
+	 *            the cache key of the invocation
+	 * @param chunks
+	 *            the chunks written by the command
+	 * @param outputs
+	 *            the outputs added by the command
+	 * @param status
+	 *            the status of the invocation
+	 * @param ttl
+	 *            the duration, in milliseconds, during which the result remains
+	 *            valid
+	 */
+	public synchronized void put(final String key, final List<String> chunks, final List<String> outputs,
+			final ExecutionStatus status, final long ttl) {
+		entries.put(key, new CachedResult(chunks, outputs, status, System.currentTimeMillis() + ttl));
+	}
+
+	/**
+	 * Removes all the cached results. The statistics are kept.
+	 * 
+	 * @return the number of removed entries
+	 */
+	public synchronized int clear() {
+		final int size = entries.size();
+		entries.clear();
+		return size;
+	}
+
+	/**
+	 * Simple getter for {@link #maxSize}
+	 * 
+	 * @return {@link #maxSize}
+	 */
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	/**
+	 * @return the number of entries of the cache, including the expired ones
+	 *         which haven't been discarded yet
+	 */
+	public synchronized int getSize() {
+		return entries.size();
+	}
+
+	/**
+	 * Simple getter for {@link #hits}
+	 * 
+	 * @return {@link #hits}
+	 */
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	/**
+	 * Simple getter for {@link #misses}
+	 * 
+	 * @return {@link #misses}
+	 */
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	/**
+	 * Simple getter for {@link #evictions}
+	 * 
+	 * @return {@link #evictions}
+	 */
+	public synchronized long getEvictions() {
+		return evictions;
+	}
+
+	/**
+	 * Simple getter for {@link #expirations}
+	 * 
+	 * @return {@link #expirations}
+	 */
+	public synchronized long getExpirations() {
+		return expirations;
+	}
+
+	/**
+	 * @return the ratio of the lookups served from the cache, between 0 and 1
+	 */
+	public synchronized double getHitRate() {
+		return hits + misses == 0 ? 0 : (double) hits / (hits + misses);
+	}
+
+}
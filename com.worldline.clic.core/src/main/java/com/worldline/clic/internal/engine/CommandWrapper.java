@@ -0,0 +1,211 @@
+/*
+ * CLiC, Framework for Command Line Interpretation in Eclipse
+ *
+ *     Copyright (C) 2013 Worldline or third-party contributors as
+ *     indicated by the @author tags or express copyright attribution
+ *     statements applied by the authors.
+ *
+ *     This library is free software; you can redistribute it and/or
+ *     modify it under the terms of the GNU Lesser General Public
+ *     License as published by the Free Software Foundation; either
+ *     version 2.1 of the License.
+ *
+ *     This library is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *     Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public
+ *     License along with this library; if not, write to the Free Software
+ *     Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+package com.worldline.clic.internal.engine;
+
+import joptsimple.OptionParser;
+
+import com.worldline.clic.commands.AbstractCommand;
+import com.worldline.clic.core.ClicCore;
+import com.worldline.clic.core.CommandFactory;
+
+/**
+ * The {@link CommandWrapper} object allows to store all the information which
+ * are linked to a command, and build the instance of {@link AbstractCommand} to
+ * be linked to the command when needed.
+ * 
+ * A {@link CommandWrapper} object will be created for each command contributed
+ * to the registry, and will allow to create the {@link AbstractCommand} only
+ * when needed, using its {@link CommandFactory}.
+ * 
+ * @author mvanbesien / aneveux
+ * @version 1.0
+ * @since 1.0
+ */
+public class CommandWrapper {
+
+	/**
+	 * the command's id (matching with the id specified in the extension point)
+	 */
+	private final String id;
+
+	/**
+	 * the command's description, coming from the extension point
+	 */
+	private final String description;
+
+	/**
+	 * the {@link CommandFactory} creating the command's implementation
+	 */
+	private final CommandFactory factory;
+
+	/**
+	 * the command's {@link CachePolicy}, null if the command is not cacheable
+	 */
+	private final CachePolicy cachePolicy;
+
+	/**
+	 * the configured parser of a command's implementation, used to compute the
+	 * cache keys, created the first time it is needed
+	 */
+	private volatile OptionParser keyParser;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param id
+	 *            the command's id
+	 * @param description
+	 *            the command's description
+	 * @param factory
+	 *            the {@link CommandFactory} creating the command's
+	 *            implementation
+	 */
+	public CommandWrapper(final String id, final String description,
+			final CommandFactory factory) {
+		this(id, description, factory, null);
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param id
+	 *            the command's id
+	 * @param description
+	 *            the command's description
+	 * @param factory
+	 *            the {@link CommandFactory} creating the command's
+	 *            implementation
+	 * @param cachePolicy
+	 *            the command's {@link CachePolicy}, null if the command is not
+	 *            cacheable
+	 * @since 1.2
+	 */
+	public CommandWrapper(final String id, final String description,
+			final CommandFactory factory, final CachePolicy cachePolicy) {
+		super();
+		this.id = id;
+		this.factory = factory;
+		this.description = description;
+		this.cachePolicy = cachePolicy;
+	}
+
+	/**
+	 * Simple getter for {@link #id}
+	 * 
+	 * @return {@link #id}
+	 */
+	public String getId() {
+		return id;
+	}
+
+	/**
+	 * Allows to create the {@link AbstractCommand} instance which is linked to
+	 * this {@link CommandWrapper}. It'll use its {@link CommandFactory} in
+	 * order to get the executable.
+	 * 
+	 * @return an instance of {@link AbstractCommand} linked to this
+	 *         {@link CommandWrapper}, null if an error is raised
+	 */
+	public AbstractCommand createCommand() {
+		final AbstractCommand cmd = instantiateCommand();
+		if (cmd != null)
+			configureCommand(cmd);
+		return cmd;
+	}
+
+	/**
+	 * Allows to create the implementation of the command, without configuring
+	 * its parser.
+	 * 
+	 * @return a new instance of the {@link AbstractCommand}, or null if it
+	 *         can't be created
+	 * @since 1.2
+	 */
+	public AbstractCommand instantiateCommand() {
+		try {
+			return factory.createCommand();
+		} catch (final Exception e) {
+			ClicCore.getLogger().error(e.getMessage(), e);
+		}
+		return null;
+	}
+
+	/**
+	 * Allows to configure the parser of a command created by
+	 * {@link #instantiateCommand()}
+	 * 
+	 * @param cmd
+	 *            the {@link AbstractCommand} to configure
+	 * @since 1.2
+	 */
+	public static void configureCommand(final AbstractCommand cmd) {
+		cmd.getParser().allowsUnrecognizedOptions();
+		cmd.configureParser();
+	}
+
+	/**
+	 * Simple getter for {@link #description}
+	 * 
+	 * @return {@link #description}
+	 */
+	public String getDescription() {
+		return description;
+	}
+
+	/**
+	 * Simple getter for {@link #cachePolicy}
+	 * 
+	 * @return {@link #cachePolicy}, null if the command is not cacheable
+	 * @since 1.2
+	 */
+	public CachePolicy getCachePolicy() {
+		return cachePolicy;
+	}
+
+	/**
+	 * Allows to compute the cache key of an invocation of the command. When
+	 * the key doesn't depend on the order of the options, the arguments are
+	 * parsed with the parser of an implementation of the command created the
+	 * first time it is needed.
+	 * 
+	 * @param parameters
+	 *            the arguments of the invocation
+	 * @return the cache key of the invocation, or null if the command is not
+	 *         cacheable
+	 * @since 1.2
+	 */
+	public String getCacheKey(final String[] parameters) {
+		if (cachePolicy == null)
+			return null;
+		OptionParser parser = null;
+		if (cachePolicy.getKeyStrategy() == CachePolicy.KeyStrategy.UNORDERED_ARGUMENTS) {
+			parser = keyParser;
+			if (parser == null) {
+				final AbstractCommand cmd = createCommand();
+				if (cmd != null)
+					keyParser = parser = cmd.getParser();
+			}
+		}
+		return cachePolicy.keyFor(id, parameters, parser);
+	}
+
+}
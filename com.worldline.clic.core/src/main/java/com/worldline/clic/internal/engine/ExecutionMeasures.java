@@ -0,0 +1,73 @@
+/*
+ * CLiC, Framework for Command Line Interpretation in Eclipse
+ *
+ *     Copyright (C) 2013 Worldline or third-party contributors as
+ *     indicated by the @author tags or express copyright attribution
+ *     statements applied by the authors.
+ *
+ *     This library is free software; you can redistribute it and/or
+ *     modify it under the terms of the GNU Lesser General Public
+ *     License as published by the Free Software Foundation; either
+ *     version 2.1 of the License.
+ *
+ *     This library is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *     Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public
+ *     License along with this library; if not, write to the Free Software
+ *     Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+package com.worldline.clic.internal.engine;
+
+import java.util.Arrays;
+
+import com.worldline.clic.internal.stats.CommandPhase;
+import com.worldline.clic.listeners.CommandLifecycleEvent;
+
+/**
+ * The measures taken while executing a command, gathered in order to be sent
+ * with the {@link CommandLifecycleEvent}s.
+ * 
+ * @author mvanbesien / aneveux
+ * @version 1.0
+ * @since 1.2
+ */
+final class ExecutionMeasures {
+
+	/**
+	 * The duration of each phase, by {@link CommandPhase} ordinal, -1 for the
+	 * phases which haven't been measured
+	 */
+	final long[] durations = new long[CommandPhase.values().length];
+
+	/**
+	 * The number of lines written by the command
+	 */
+	int outputLines;
+
+	/**
+	 * The number of characters written by the command
+	 */
+	long outputCharacters;
+
+	/**
+	 * Constructor
+	 */
+	ExecutionMeasures() {
+		Arrays.fill(durations, -1);
+	}
+
+	/**
+	 * Records the duration of a phase
+	 * 
+	 * @param phase
+	 *            the phase
+	 * @param nanos
+	 *            its duration in nanoseconds
+	 */
+	void record(final CommandPhase phase, final long nanos) {
+		durations[phase.ordinal()] = nanos;
+	}
+}
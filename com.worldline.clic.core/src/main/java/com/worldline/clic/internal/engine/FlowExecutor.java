@@ -0,0 +1,246 @@
+/*
+ * CLiC, Framework for Command Line Interpretation in Eclipse
+ *
+ *     Copyright (C) 2013 Worldline or third-party contributors as
+ *     indicated by the @author tags or express copyright attribution
+ *     statements applied by the authors.
+ *
+ *     This library is free software; you can redistribute it and/or
+ *     modify it under the terms of the GNU Lesser General Public
+ *     License as published by the Free Software Foundation; either
+ *     version 2.1 of the License.
+ *
+ *     This library is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *     Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public
+ *     License along with this library; if not, write to the Free Software
+ *     Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+package com.worldline.clic.internal.engine;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.google.common.collect.ObjectArrays;
+import com.worldline.clic.commands.CommandContext;
+import com.worldline.clic.core.ClicCore;
+import com.worldline.clic.core.EngineScheduler;
+import com.worldline.clic.core.ExecutionMonitor;
+import com.worldline.clic.internal.stats.EngineActivity;
+import com.worldline.clic.internal.trace.ExecutionTrace;
+import com.worldline.clic.internal.trace.TraceRecorder;
+
+/**
+ * The {@link FlowExecutor} executes the steps of a graph
+ * {@link CommandFlowWrapper}. Each step is launched as soon as all the steps it
+ * depends on are done, so that the independent branches of the flow run
+ * concurrently, with at most {@link CommandFlowWrapper#getParallelism()} steps
+ * running at the same time.
+ * 
+ * The steps are executed by the {@link EngineScheduler} of the {@link ClicCore}.
+ * Each step is executed with its own context forked from the flow's
+ * {@link CommandContext}, and receives as parameters the flow's parameters
+ * followed by the outputs of the steps it depends on. The changes a step makes
+ * to the scope are applied back to the flow's context as soon as it is done, so
+ * that they're seen by the steps depending on it, the last step to be done
+ * winning when steps running at the same time change the same entry. Once the
+ * flow is done, the outputs of all its steps are added to the flow's context,
+ * in the declaration order.
+ * 
+ * @author mvanbesien / aneveux
+ * @version 1.0
+ * @since 1.2
+ * 
+ * @see CommandFlowWrapper
+ */
+class FlowExecutor {
+
+	/**
+	 * The flow to be executed
+	 */
+	private final CommandFlowWrapper flow;
+
+	/**
+	 * The parameters provided to the flow by the end-user
+	 */
+	private final String[] parameters;
+
+	/**
+	 * The whole command line which has been provided by the end-user
+	 */
+	private final String command;
+
+	/**
+	 * The execution context of the flow
+	 */
+	private final CommandContext context;
+
+	/**
+	 * The monitor allowing to know whether the flow has been cancelled
+	 */
+	private final ExecutionMonitor monitor;
+
+	/**
+	 * The outputs of the steps which are done, by step identifier
+	 */
+	private final Map<String, List<String>> outputs = new ConcurrentHashMap<String, List<String>>();
+
+	/**
+	 * Becomes true as soon as a step does not end properly
+	 */
+	private final AtomicBoolean failed = new AtomicBoolean();
+
+	/**
+	 * Constructor
+	 * 
+	 * @param flow
+	 *            the flow to be executed
+	 * @param parameters
+	 *            the parameters provided to the flow
+	 * @param command
+	 *            the whole command line provided by the end-user
+	 * @param context
+	 *            the execution context of the flow
+	 * @param monitor
+	 *            the monitor allowing to know whether the flow has been
+	 *            cancelled
+	 */
+	FlowExecutor(final CommandFlowWrapper flow, final String[] parameters, final String command,
+			final CommandContext context, final ExecutionMonitor monitor) {
+		this.flow = flow;
+		this.parameters = parameters;
+		this.command = command;
+		this.context = context;
+		this.monitor = monitor;
+	}
+
+	/**
+	 * Executes all the steps of the flow, and blocks until they're done. Once
+	 * the flow is cancelled or a step failed, either by not ending properly or
+	 * by raising an error, no more step is launched, but the running ones are
+	 * waited for, so that none of them is still updating the context when this
+	 * method returns.
+	 * 
+	 * @return true if all the executed steps ended properly
+	 */
+	boolean execute() {
+		final Map<String, Integer> remaining = new HashMap<String, Integer>();
+		for (final FlowStep step : flow.getSteps())
+			remaining.put(step.getId(), new LinkedHashSet<String>(step.getDependencies()).size());
+
+		final EngineScheduler scheduler = ClicCore.getScheduler();
+		final String taskName = "CLiC flow " + flow.getName();
+		final CompletionService<FlowStep> completionService = new ExecutorCompletionService<FlowStep>(
+				new Executor() {
+					@Override
+					public void execute(final Runnable task) {
+						scheduler.execute(taskName, task);
+					}
+				});
+		// The steps whose dependencies are done, waiting for a free slot
+		final Deque<FlowStep> ready = new ArrayDeque<FlowStep>();
+		for (final FlowStep step : flow.getSteps())
+			if (step.getDependencies().isEmpty())
+				ready.add(step);
+		int running = 0;
+		boolean aborted = false;
+		boolean interrupted = false;
+		while (true) {
+			while (running < flow.getParallelism() && !ready.isEmpty() && !aborted && !monitor.isCanceled()) {
+				completionService.submit(newStepTask(ready.poll()));
+				running++;
+			}
+			if (running == 0)
+				break;
+			try {
+				final Future<FlowStep> future = completionService.take();
+				running--;
+				final FlowStep done = future.get();
+				if (failed.get()) {
+					aborted = true;
+					continue;
+				}
+				for (final String dependent : flow.getDependents(done.getId())) {
+					final int count = remaining.get(dependent) - 1;
+					remaining.put(dependent, count);
+					if (count == 0)
+						ready.add(flow.getStep(dependent));
+				}
+			} catch (final InterruptedException e) {
+				// The running steps are still waited for, the interruption
+				// being restored once they're done
+				monitor.setCanceled(true);
+				interrupted = true;
+			} catch (final ExecutionException e) {
+				failed.set(true);
+				aborted = true;
+				ClicCore.getLogger().error(e.getMessage(), e);
+			}
+		}
+		if (interrupted)
+			Thread.currentThread().interrupt();
+
+		for (final FlowStep step : flow.getSteps())
+			if (outputs.containsKey(step.getId()))
+				for (final String output : outputs.get(step.getId()))
+					context.addOutput(output);
+		return !failed.get();
+	}
+
+	/**
+	 * Creates the task executing a step of the flow. The parameters of the
+	 * step are computed right away, from the outputs of its dependencies, and
+	 * its context is forked from the flow's one, to which its scope changes
+	 * are applied back once it is done.
+	 * 
+	 * @param step
+	 *            the step to be executed
+	 * @return a {@link Callable} executing the step, and returning it once
+	 *         done
+	 */
+	private Callable<FlowStep> newStepTask(final FlowStep step) {
+		String[] stepParameters = parameters;
+		for (final String dependency : new LinkedHashSet<String>(step.getDependencies()))
+			stepParameters = ObjectArrays.concat(stepParameters,
+					outputs.get(dependency).toArray(new String[0]), String.class);
+		final String[] allParameters = stepParameters;
+		final CommandContext stepContext = context.fork(null);
+		final ExecutionTrace trace = TraceRecorder.getInstance().current();
+		return new Callable<FlowStep>() {
+			@Override
+			public FlowStep call() {
+				EngineActivity.getInstance().started();
+				TraceRecorder.getInstance().attach(trace);
+				try {
+					if (!CommandEngine.launchFlowStep(flow.getName(), step.getCommandReference(), allParameters,
+							command, stepContext))
+						failed.set(true);
+				} catch (final RuntimeException e) {
+					failed.set(true);
+					ClicCore.getLogger().error(e.getMessage(), e);
+				} finally {
+					stepContext.complete();
+					outputs.put(step.getId(), stepContext.getOutputs());
+					TraceRecorder.getInstance().detach();
+					EngineActivity.getInstance().finished();
+				}
+				return step;
+			}
+		};
+	}
+}
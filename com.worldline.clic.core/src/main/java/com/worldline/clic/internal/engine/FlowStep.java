@@ -0,0 +1,117 @@
+/*
+ * CLiC, Framework for Command Line Interpretation in Eclipse
+ *
+ *     Copyright (C) 2013 Worldline or third-party contributors as
+ *     indicated by the @author tags or express copyright attribution
+ *     statements applied by the authors.
+ *
+ *     This library is free software; you can redistribute it and/or
+ *     modify it under the terms of the GNU Lesser General Public
+ *     License as published by the Free Software Foundation; either
+ *     version 2.1 of the License.
+ *
+ *     This library is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *     Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public
+ *     License along with this library; if not, write to the Free Software
+ *     Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+package com.worldline.clic.internal.engine;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The {@link FlowStep} object represents a command reference within a
+ * {@link CommandFlowWrapper}. Next to the referenced command, it holds the
+ * identifiers of the steps which have to be done before it can be executed.
+ * 
+ * @author mvanbesien / aneveux
+ * @version 1.0
+ * @since 1.2
+ */
+public class FlowStep {
+
+	/**
+	 * The identifier of the step in its flow
+	 */
+	private final String id;
+
+	/**
+	 * The reference of the command to be executed by the step
+	 */
+	private final String commandReference;
+
+	/**
+	 * The identifiers of the steps this one depends on
+	 */
+	private final List<String> dependencies;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param id
+	 *            the identifier of the step in its flow
+	 * @param commandReference
+	 *            the reference of the command to be executed
+	 * @param dependencies
+	 *            the identifiers of the steps this one depends on
+	 */
+	public FlowStep(final String id, final String commandReference,
+			final List<String> dependencies) {
+		this.id = id;
+		this.commandReference = commandReference;
+		this.dependencies = Collections.unmodifiableList(new ArrayList<String>(
+				dependencies));
+	}
+
+	/**
+	 * Simple getter for {@link #id}
+	 * 
+	 * @return {@link #id}
+	 */
+	public String getId() {
+		return id;
+	}
+
+	/**
+	 * Simple getter for {@link #commandReference}
+	 * 
+	 * @return {@link #commandReference}
+	 */
+	public String getCommandReference() {
+		return commandReference;
+	}
+
+	/**
+	 * Simple getter for {@link #dependencies}
+	 * 
+	 * @return {@link #dependencies}
+	 */
+	public List<String> getDependencies() {
+		return dependencies;
+	}
+
+	/**
+	 * Overriding toString method in order to display the step with its
+	 * dependencies
+	 */
+	@Override
+	public String toString() {
+		final StringBuilder sb = new StringBuilder(id);
+		if (!id.equals(commandReference))
+			sb.append('=').append(commandReference);
+		if (!dependencies.isEmpty()) {
+			sb.append(" (");
+			for (final String dependency : dependencies)
+				sb.append(dependency).append(", ");
+			sb.setLength(sb.length() - 2);
+			sb.append(')');
+		}
+		return sb.toString();
+	}
+}
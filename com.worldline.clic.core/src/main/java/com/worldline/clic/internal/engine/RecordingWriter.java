@@ -0,0 +1,114 @@
+/*
+ * CLiC, Framework for Command Line Interpretation in Eclipse
+ *
+ *     Copyright (C) 2013 Worldline or third-party contributors as
+ *     indicated by the @author tags or express copyright attribution
+ *     statements applied by the authors.
+ *
+ *     This library is free software; you can redistribute it and/or
+ *     modify it under the terms of the GNU Lesser General Public
+ *     License as published by the Free Software Foundation; either
+ *     version 2.1 of the License.
+ *
+ *     This library is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *     Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public
+ *     License along with this library; if not, write to the Free Software
+ *     Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+package com.worldline.clic.internal.engine;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This extension of a {@link Writer} forwards everything to another
+ * {@link Writer}, while recording each written chunk so that it can be written
+ * again later on.
+ * 
+ * @author mvanbesien / aneveux
+ * @version 1.0
+ * @since 1.2
+ */
+class RecordingWriter extends Writer {
+
+	/**
+	 * The {@link Writer} everything is forwarded to
+	 */
+	private final Writer delegate;
+
+	/**
+	 * The chunks which have been written
+	 */
+	private final List<String> chunks = new ArrayList<String>();
+
+	/**
+	 * Constructor
+	 * 
+	 * @param delegate
+	 *            the {@link Writer} everything is forwarded to, which may be
+	 *            null
+	 */
+	RecordingWriter(final Writer delegate) {
+		this.delegate = delegate;
+	}
+
+	/**
+	 * Simple getter for {@link #chunks}
+	 * 
+	 * @return the chunks written so far
+	 */
+	synchronized List<String> getChunks() {
+		return new ArrayList<String>(chunks);
+	}
+
+	/**
+	 * Records and forwards the provided {@link String}
+	 */
+	@Override
+	public void write(final String str) throws IOException {
+		synchronized (this) {
+			chunks.add(str);
+		}
+		if (delegate != null)
+			delegate.write(str);
+	}
+
+	/**
+	 * Records and forwards the provided part of a {@link String}
+	 */
+	@Override
+	public void write(final String str, final int off, final int len) throws IOException {
+		this.write(str.substring(off, off + len));
+	}
+
+	/**
+	 * Records and forwards the provided characters
+	 */
+	@Override
+	public void write(final char[] cbuf, final int off, final int len) throws IOException {
+		this.write(new String(cbuf, off, len));
+	}
+
+	/**
+	 * Flushes the delegate {@link Writer}
+	 */
+	@Override
+	public void flush() throws IOException {
+		if (delegate != null)
+			delegate.flush();
+	}
+
+	/**
+	 * Does nothing, as the delegate {@link Writer} is not owned by this one
+	 */
+	@Override
+	public void close() throws IOException {
+		// does nothing
+	}
+}
@@ -0,0 +1,86 @@
+/*
+ * CLiC, Framework for Command Line Interpretation in Eclipse
+ *
+ *     Copyright (C) 2013 Worldline or third-party contributors as
+ *     indicated by the @author tags or express copyright attribution
+ *     statements applied by the authors.
+ *
+ *     This library is free software; you can redistribute it and/or
+ *     modify it under the terms of the GNU Lesser General Public
+ *     License as published by the Free Software Foundation; either
+ *     version 2.1 of the License.
+ *
+ *     This library is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *     Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public
+ *     License along with this library; if not, write to the Free Software
+ *     Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+package com.worldline.clic.internal.jmx;
+
+import java.util.List;
+
+/**
+ * Management interface of the command engine, registered as
+ * <i>com.worldline.clic:type=CommandEngine</i>.
+ * 
+ * @author mvanbesien / aneveux
+ * @version 1.0
+ * @since 1.2
+ */
+public interface CommandEngineMXBean {
+
+	/**
+	 * @return the number of commands waiting to be executed
+	 */
+	int getQueueDepth();
+
+	/**
+	 * @return the number of commands or flow steps being executed
+	 */
+	int getActiveWorkers();
+
+	/**
+	 * @return the number of command lines processed
+	 */
+	long getCompletedCommands();
+
+	/**
+	 * @return the latencies and counters of each command and flow
+	 */
+	List<CommandStatisticsData> getCommandStatistics();
+
+	/**
+	 * @return the duration in milliseconds past which a command or flow step
+	 *         is recorded as slow, 0 if they are not recorded
+	 */
+	long getSlowThreshold();
+
+	/**
+	 * @param threshold
+	 *            the duration in milliseconds past which a command or flow
+	 *            step is recorded as slow, 0 to stop recording them
+	 */
+	void setSlowThreshold(long threshold);
+
+	/**
+	 * Resets the latencies and counters of the commands, flows and listeners,
+	 * as well as the slowest invocations and the slow commands
+	 */
+	void resetCounters();
+
+	/**
+	 * @return the slowest command lines processed since the last reset, the
+	 *         slowest first
+	 */
+	List<String> dumpSlowInvocations();
+
+	/**
+	 * @return the description of the last commands and flow steps which ran
+	 *         past the threshold, the oldest first
+	 */
+	List<String> dumpSlowCommands();
+}
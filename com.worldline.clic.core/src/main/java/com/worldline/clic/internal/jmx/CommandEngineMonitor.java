@@ -0,0 +1,105 @@
+/*
+ * CLiC, Framework for Command Line Interpretation in Eclipse
+ *
+ *     Copyright (C) 2013 Worldline or third-party contributors as
+ *     indicated by the @author tags or express copyright attribution
+ *     statements applied by the authors.
+ *
+ *     This library is free software; you can redistribute it and/or
+ *     modify it under the terms of the GNU Lesser General Public
+ *     License as published by the Free Software Foundation; either
+ *     version 2.1 of the License.
+ *
+ *     This library is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *     Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public
+ *     License along with this library; if not, write to the Free Software
+ *     Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+package com.worldline.clic.internal.jmx;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import com.worldline.clic.internal.stats.CommandStatistics;
+import com.worldline.clic.internal.stats.EngineActivity;
+import com.worldline.clic.internal.stats.SlowCommandRecorder;
+import com.worldline.clic.internal.stats.SlowestInvocations;
+import com.worldline.clic.listeners.internal.ListenerRegistry;
+
+/**
+ * Implementation of the {@link CommandEngineMXBean}
+ * 
+ * @author mvanbesien / aneveux
+ * @version 1.0
+ * @since 1.2
+ */
+public class CommandEngineMonitor implements CommandEngineMXBean {
+
+	@Override
+	public int getQueueDepth() {
+		return EngineActivity.getInstance().getQueueDepth();
+	}
+
+	@Override
+	public int getActiveWorkers() {
+		return EngineActivity.getInstance().getActiveWorkers();
+	}
+
+	@Override
+	public long getCompletedCommands() {
+		return EngineActivity.getInstance().getCompletedCommands();
+	}
+
+	@Override
+	public List<CommandStatisticsData> getCommandStatistics() {
+		final List<CommandStatisticsData> result = new ArrayList<CommandStatisticsData>();
+		for (final Map.Entry<String, CommandStatistics.Entry> entry : CommandStatistics.getInstance().getAll()
+				.entrySet())
+			result.add(new CommandStatisticsData(entry.getKey(), entry.getValue()));
+		return result;
+	}
+
+	@Override
+	public long getSlowThreshold() {
+		return SlowCommandRecorder.getInstance().getThreshold();
+	}
+
+	@Override
+	public void setSlowThreshold(final long threshold) {
+		SlowCommandRecorder.getInstance().setThreshold(threshold);
+	}
+
+	@Override
+	public void resetCounters() {
+		CommandStatistics.getInstance().reset();
+		SlowestInvocations.getInstance().reset();
+		SlowCommandRecorder.getInstance().reset();
+		ListenerRegistry.getInstance().resetDispatchStatistics();
+	}
+
+	@Override
+	public List<String> dumpSlowInvocations() {
+		final SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS");
+		final List<String> result = new ArrayList<String>();
+		for (final SlowestInvocations.Invocation invocation : SlowestInvocations.getInstance().getSlowest())
+			result.add(String.format("%s [%s] %.3f ms: %s", format.format(new Date(invocation.getTimestamp())),
+					invocation.getThread(), CommandStatisticsData.millis(invocation.getDuration()),
+					invocation.getCommandLine()));
+		return result;
+	}
+
+	@Override
+	public List<String> dumpSlowCommands() {
+		final List<String> result = new ArrayList<String>();
+		for (final SlowCommandRecorder.SlowCommand slowCommand : SlowCommandRecorder.getInstance().getSlowCommands())
+			result.add(slowCommand.describe());
+		return result;
+	}
+}
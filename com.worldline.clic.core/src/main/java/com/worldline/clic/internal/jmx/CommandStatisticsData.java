@@ -0,0 +1,133 @@
+/*
+ * CLiC, Framework for Command Line Interpretation in Eclipse
+ *
+ *     Copyright (C) 2013 Worldline or third-party contributors as
+ *     indicated by the @author tags or express copyright attribution
+ *     statements applied by the authors.
+ *
+ *     This library is free software; you can redistribute it and/or
+ *     modify it under the terms of the GNU Lesser General Public
+ *     License as published by the Free Software Foundation; either
+ *     version 2.1 of the License.
+ *
+ *     This library is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *     Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public
+ *     License along with this library; if not, write to the Free Software
+ *     Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+package com.worldline.clic.internal.jmx;
+
+import com.worldline.clic.internal.stats.CommandPhase;
+import com.worldline.clic.internal.stats.CommandStatistics;
+import com.worldline.clic.internal.stats.LatencyHistogram;
+
+/**
+ * The latencies and counters of a command or flow, as exposed over JMX
+ * 
+ * @author mvanbesien / aneveux
+ * @version 1.0
+ * @since 1.2
+ */
+public class CommandStatisticsData {
+
+	/**
+	 * The command id or flow key
+	 */
+	private final String key;
+
+	/**
+	 * The statistics of the command or flow
+	 */
+	private final CommandStatistics.Entry entry;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param key
+	 *            {@link #key}
+	 * @param entry
+	 *            {@link #entry}
+	 */
+	CommandStatisticsData(final String key, final CommandStatistics.Entry entry) {
+		this.key = key;
+		this.entry = entry;
+	}
+
+	/**
+	 * @return the command id, or <i>flow:</i> followed by the flow name
+	 */
+	public String getKey() {
+		return key;
+	}
+
+	/**
+	 * @return the number of invocations
+	 */
+	public long getInvocations() {
+		return entry.getInvocations();
+	}
+
+	/**
+	 * @return the number of invocations which did not end properly
+	 */
+	public long getErrors() {
+		return entry.getErrors();
+	}
+
+	/**
+	 * @return the number of invocations whose arguments could not be parsed
+	 */
+	public long getParseFailures() {
+		return entry.getParseFailures();
+	}
+
+	/**
+	 * @return the mean duration in milliseconds
+	 */
+	public double getMeanMillis() {
+		return millis(total().getMean());
+	}
+
+	/**
+	 * @return the median duration in milliseconds
+	 */
+	public double getP50Millis() {
+		return millis(total().getValueAtPercentile(50));
+	}
+
+	/**
+	 * @return the 99th percentile of the durations in milliseconds
+	 */
+	public double getP99Millis() {
+		return millis(total().getValueAtPercentile(99));
+	}
+
+	/**
+	 * @return the greatest duration in milliseconds
+	 */
+	public double getMaxMillis() {
+		return millis(total().getMax());
+	}
+
+	/**
+	 * @return the histogram of the whole processing for flows and commands
+	 *         launched directly, or of the execution for flow steps
+	 */
+	private LatencyHistogram total() {
+		final LatencyHistogram total = entry.getHistogram(CommandPhase.TOTAL);
+		return total.getCount() > 0 ? total : entry.getHistogram(CommandPhase.EXECUTE);
+	}
+
+	/**
+	 * @param nanos
+	 *            a duration in nanoseconds
+	 * @return the duration in milliseconds
+	 */
+	static double millis(final long nanos) {
+		return nanos / 1e6;
+	}
+}
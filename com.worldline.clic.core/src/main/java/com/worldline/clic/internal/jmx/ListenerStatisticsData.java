@@ -0,0 +1,219 @@
+/*
+ * CLiC, Framework for Command Line Interpretation in Eclipse
+ *
+ *     Copyright (C) 2013 Worldline or third-party contributors as
+ *     indicated by the @author tags or express copyright attribution
+ *     statements applied by the authors.
+ *
+ *     This library is free software; you can redistribute it and/or
+ *     modify it under the terms of the GNU Lesser General Public
+ *     License as published by the Free Software Foundation; either
+ *     version 2.1 of the License.
+ *
+ *     This library is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *     Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public
+ *     License along with this library; if not, write to the Free Software
+ *     Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+package com.worldline.clic.internal.jmx;
+
+import java.util.Locale;
+
+import com.worldline.clic.internal.stats.LatencyHistogram;
+import com.worldline.clic.listeners.internal.CircuitBreaker;
+import com.worldline.clic.listeners.internal.ListenerQueue;
+
+/**
+ * The dispatch times and failures of a listener, the state of its circuit
+ * breaker, and the state of its queue if it is notified asynchronously, as
+ * exposed over JMX
+ * 
+ * @author mvanbesien / aneveux
+ * @version 1.0
+ * @since 1.2
+ */
+public class ListenerStatisticsData {
+
+	/**
+	 * The class name of the listener
+	 */
+	private final String listener;
+
+	/**
+	 * The time spent by the listener to handle the events
+	 */
+	private final LatencyHistogram histogram;
+
+	/**
+	 * The number of events the listener failed to handle
+	 */
+	private final long failures;
+
+	/**
+	 * The queue of the listener, null if it is notified synchronously
+	 */
+	private final ListenerQueue queue;
+
+	/**
+	 * The circuit breaker of the listener
+	 */
+	private final CircuitBreaker breaker;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param listener
+	 *            {@link #listener}
+	 * @param histogram
+	 *            {@link #histogram}
+	 * @param failures
+	 *            {@link #failures}
+	 * @param queue
+	 *            {@link #queue}
+	 * @param breaker
+	 *            {@link #breaker}
+	 */
+	ListenerStatisticsData(final String listener, final LatencyHistogram histogram, final long failures,
+			final ListenerQueue queue, final CircuitBreaker breaker) {
+		this.listener = listener;
+		this.histogram = histogram;
+		this.failures = failures;
+		this.queue = queue;
+		this.breaker = breaker;
+	}
+
+	/**
+	 * @return the class name of the listener
+	 */
+	public String getListener() {
+		return listener;
+	}
+
+	/**
+	 * @return the number of events sent to the listener, or of batches if it
+	 *         receives them in batches
+	 */
+	public long getEvents() {
+		return histogram.getCount();
+	}
+
+	/**
+	 * @return the number of events the listener failed to handle
+	 */
+	public long getFailures() {
+		return failures;
+	}
+
+	/**
+	 * @return the mean dispatch time in milliseconds
+	 */
+	public double getMeanMillis() {
+		return CommandStatisticsData.millis(histogram.getMean());
+	}
+
+	/**
+	 * @return the 99th percentile of the dispatch times in milliseconds
+	 */
+	public double getP99Millis() {
+		return CommandStatisticsData.millis(histogram.getValueAtPercentile(99));
+	}
+
+	/**
+	 * @return the greatest dispatch time in milliseconds
+	 */
+	public double getMaxMillis() {
+		return CommandStatisticsData.millis(histogram.getMax());
+	}
+
+	/**
+	 * @return <i>synchronous</i>, or the overflow policy of the queue of the
+	 *         listener (<i>block</i>, <i>drop</i>, <i>dropOldest</i> or
+	 *         <i>coalesce</i>)
+	 */
+	public String getDispatch() {
+		return queue != null ? queue.getPolicy().getOverflow().getAttribute() : "synchronous";
+	}
+
+	/**
+	 * @return the capacity of the queue of the listener, 0 if it is notified
+	 *         synchronously
+	 */
+	public int getQueueCapacity() {
+		return queue != null ? queue.getPolicy().getQueueCapacity() : 0;
+	}
+
+	/**
+	 * @return the number of events waiting for the listener
+	 */
+	public int getQueueDepth() {
+		return queue != null ? queue.getDepth() : 0;
+	}
+
+	/**
+	 * @return the greatest number of events which have been waiting for the
+	 *         listener at the same time
+	 */
+	public int getMaxQueueDepth() {
+		return queue != null ? queue.getMaxDepth() : 0;
+	}
+
+	/**
+	 * @return the number of events dropped because the queue of the listener
+	 *         was full
+	 */
+	public long getDropped() {
+		return queue != null ? queue.getDropped() : 0;
+	}
+
+	/**
+	 * @return the number of events the listener has been skipped for while
+	 *         its circuit was open, whether they have been published
+	 *         synchronously or taken from its queue
+	 */
+	public long getSkipped() {
+		return breaker.getSkipped();
+	}
+
+	/**
+	 * @return the number of batches delivered to the listener, 0 if it
+	 *         receives the events one by one
+	 */
+	public long getBatches() {
+		return queue != null ? queue.getBatches() : 0;
+	}
+
+	/**
+	 * @return the state of the circuit of the listener (<i>closed</i>,
+	 *         <i>open</i> or <i>half_open</i>)
+	 */
+	public String getCircuit() {
+		return breaker.getState().name().toLowerCase(Locale.ENGLISH);
+	}
+
+	/**
+	 * @return the time budget of the listener in milliseconds, 0 if it has
+	 *         none
+	 */
+	public long getTimeBudget() {
+		return breaker.getTimeBudget();
+	}
+
+	/**
+	 * @return the number of calls to the listener which ran past its time
+	 *         budget
+	 */
+	public long getOverruns() {
+		return breaker.getOverruns();
+	}
+
+	/**
+	 * @return the number of times the circuit of the listener has been opened
+	 */
+	public long getTrips() {
+		return breaker.getTrips();
+	}
+}
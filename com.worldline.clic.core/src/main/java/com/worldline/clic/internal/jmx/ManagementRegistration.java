@@ -0,0 +1,96 @@
+/*
+ * CLiC, Framework for Command Line Interpretation in Eclipse
+ *
+ *     Copyright (C) 2013 Worldline or third-party contributors as
+ *     indicated by the @author tags or express copyright attribution
+ *     statements applied by the authors.
+ *
+ *     This library is free software; you can redistribute it and/or
+ *     modify it under the terms of the GNU Lesser General Public
+ *     License as published by the Free Software Foundation; either
+ *     version 2.1 of the License.
+ *
+ *     This library is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *     Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public
+ *     License along with this library; if not, write to the Free Software
+ *     Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+package com.worldline.clic.internal.jmx;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import com.worldline.clic.core.ClicCore;
+
+/**
+ * Registers the CLiC MBeans in the platform {@link MBeanServer}, so that the
+ * state of the engine can be watched without the UI.
+ * 
+ * @author mvanbesien / aneveux
+ * @version 1.0
+ * @since 1.2
+ */
+public final class ManagementRegistration {
+
+	/**
+	 * The domain of the MBeans
+	 */
+	private static final String DOMAIN = "com.worldline.clic";
+
+	/**
+	 * Private constructor
+	 */
+	private ManagementRegistration() {
+	}
+
+	/**
+	 * @return the MBeans to register, by type
+	 */
+	private static Map<String, Object> mbeans() {
+		final Map<String, Object> mbeans = new LinkedHashMap<String, Object>();
+		mbeans.put("CommandEngine", new CommandEngineMonitor());
+		mbeans.put("Registry", new RegistryMonitor());
+		mbeans.put("Output", new OutputMonitor());
+		return mbeans;
+	}
+
+	/**
+	 * Registers the MBeans. Failures are logged, as the plugin can work
+	 * without them.
+	 */
+	public static void register() {
+		final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		for (final Map.Entry<String, Object> entry : mbeans().entrySet())
+			try {
+				final ObjectName name = new ObjectName(DOMAIN, "type", entry.getKey());
+				if (!server.isRegistered(name))
+					server.registerMBean(entry.getValue(), name);
+			} catch (final JMException e) {
+				ClicCore.getLogger().error(e.getMessage(), e);
+			}
+	}
+
+	/**
+	 * Unregisters the MBeans
+	 */
+	public static void unregister() {
+		final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		for (final String type : mbeans().keySet())
+			try {
+				final ObjectName name = new ObjectName(DOMAIN, "type", type);
+				if (server.isRegistered(name))
+					server.unregisterMBean(name);
+			} catch (final JMException e) {
+				ClicCore.getLogger().error(e.getMessage(), e);
+			}
+	}
+}
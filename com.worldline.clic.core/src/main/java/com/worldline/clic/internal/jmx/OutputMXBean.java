@@ -0,0 +1,55 @@
+/*
+ * CLiC, Framework for Command Line Interpretation in Eclipse
+ *
+ *     Copyright (C) 2013 Worldline or third-party contributors as
+ *     indicated by the @author tags or express copyright attribution
+ *     statements applied by the authors.
+ *
+ *     This library is free software; you can redistribute it and/or
+ *     modify it under the terms of the GNU Lesser General Public
+ *     License as published by the Free Software Foundation; either
+ *     version 2.1 of the License.
+ *
+ *     This library is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *     Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public
+ *     License along with this library; if not, write to the Free Software
+ *     Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+package com.worldline.clic.internal.jmx;
+
+/**
+ * Management interface of the output pipeline of the opened CLiC views,
+ * registered as <i>com.worldline.clic:type=Output</i>.
+ * 
+ * @author mvanbesien / aneveux
+ * @version 1.0
+ * @since 1.2
+ */
+public interface OutputMXBean {
+
+	/**
+	 * @return the number of opened views
+	 */
+	int getOpenViews();
+
+	/**
+	 * @return the number of characters kept in the scrollback of all the
+	 *         views
+	 */
+	long getScrollbackCharacters();
+
+	/**
+	 * @return an estimation of the memory used by the scrollback of all the
+	 *         views, in bytes
+	 */
+	long getScrollbackBytes();
+
+	/**
+	 * @return the number of commands kept in the history of all the views
+	 */
+	long getHistorySize();
+}
@@ -0,0 +1,102 @@
+/*
+ * CLiC, Framework for Command Line Interpretation in Eclipse
+ *
+ *     Copyright (C) 2013 Worldline or third-party contributors as
+ *     indicated by the @author tags or express copyright attribution
+ *     statements applied by the authors.
+ *
+ *     This library is free software; you can redistribute it and/or
+ *     modify it under the terms of the GNU Lesser General Public
+ *     License as published by the Free Software Foundation; either
+ *     version 2.1 of the License.
+ *
+ *     This library is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *     Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public
+ *     License along with this library; if not, write to the Free Software
+ *     Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+package com.worldline.clic.internal.jmx;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Implementation of the {@link OutputMXBean}. The views register themselves
+ * when created, and unregister when disposed.
+ * 
+ * @author mvanbesien / aneveux
+ * @version 1.0
+ * @since 1.2
+ */
+public class OutputMonitor implements OutputMXBean {
+
+	/**
+	 * A view whose output pipeline is monitored
+	 */
+	public interface Source {
+
+		/**
+		 * @return the number of characters kept in the scrollback
+		 */
+		int getScrollbackLength();
+
+		/**
+		 * @return the number of commands kept in the history
+		 */
+		int getHistorySize();
+	}
+
+	/**
+	 * The monitored views
+	 */
+	private static final CopyOnWriteArrayList<Source> SOURCES = new CopyOnWriteArrayList<Source>();
+
+	/**
+	 * Starts monitoring a view
+	 * 
+	 * @param source
+	 *            the view to monitor
+	 */
+	public static void register(final Source source) {
+		SOURCES.add(source);
+	}
+
+	/**
+	 * Stops monitoring a view
+	 * 
+	 * @param source
+	 *            the view to stop monitoring
+	 */
+	public static void unregister(final Source source) {
+		SOURCES.remove(source);
+	}
+
+	@Override
+	public int getOpenViews() {
+		return SOURCES.size();
+	}
+
+	@Override
+	public long getScrollbackCharacters() {
+		long total = 0;
+		for (final Source source : SOURCES)
+			total += source.getScrollbackLength();
+		return total;
+	}
+
+	@Override
+	public long getScrollbackBytes() {
+		return getScrollbackCharacters() * 2;
+	}
+
+	@Override
+	public long getHistorySize() {
+		long total = 0;
+		for (final Source source : SOURCES)
+			total += source.getHistorySize();
+		return total;
+	}
+}
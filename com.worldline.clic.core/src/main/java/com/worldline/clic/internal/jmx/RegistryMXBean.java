@@ -0,0 +1,62 @@
+/*
+ * CLiC, Framework for Command Line Interpretation in Eclipse
+ *
+ *     Copyright (C) 2013 Worldline or third-party contributors as
+ *     indicated by the @author tags or express copyright attribution
+ *     statements applied by the authors.
+ *
+ *     This library is free software; you can redistribute it and/or
+ *     modify it under the terms of the GNU Lesser General Public
+ *     License as published by the Free Software Foundation; either
+ *     version 2.1 of the License.
+ *
+ *     This library is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *     Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public
+ *     License along with this library; if not, write to the Free Software
+ *     Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+package com.worldline.clic.internal.jmx;
+
+import java.util.List;
+
+/**
+ * Management interface of the command and listener registries, registered as
+ * <i>com.worldline.clic:type=Registry</i>.
+ * 
+ * @author mvanbesien / aneveux
+ * @version 1.0
+ * @since 1.2
+ */
+public interface RegistryMXBean {
+
+	/**
+	 * @return the number of registered commands
+	 */
+	int getCommandCount();
+
+	/**
+	 * @return the number of registered flows
+	 */
+	int getFlowCount();
+
+	/**
+	 * @return the time spent loading the commands extension point, in
+	 *         milliseconds
+	 */
+	double getLoadTimeMillis();
+
+	/**
+	 * @return the number of registered listeners
+	 */
+	int getListenerCount();
+
+	/**
+	 * @return the dispatch times and failures of each listener, and the
+	 *         state of the queues of the listeners notified asynchronously
+	 */
+	List<ListenerStatisticsData> getListenerStatistics();
+}
@@ -0,0 +1,71 @@
+/*
+ * CLiC, Framework for Command Line Interpretation in Eclipse
+ *
+ *     Copyright (C) 2013 Worldline or third-party contributors as
+ *     indicated by the @author tags or express copyright attribution
+ *     statements applied by the authors.
+ *
+ *     This library is free software; you can redistribute it and/or
+ *     modify it under the terms of the GNU Lesser General Public
+ *     License as published by the Free Software Foundation; either
+ *     version 2.1 of the License.
+ *
+ *     This library is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *     Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public
+ *     License along with this library; if not, write to the Free Software
+ *     Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+package com.worldline.clic.internal.jmx;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import com.worldline.clic.internal.engine.CommandRegistry;
+import com.worldline.clic.internal.stats.LatencyHistogram;
+import com.worldline.clic.listeners.internal.ListenerRegistry;
+
+/**
+ * Implementation of the {@link RegistryMXBean}
+ * 
+ * @author mvanbesien / aneveux
+ * @version 1.0
+ * @since 1.2
+ */
+public class RegistryMonitor implements RegistryMXBean {
+
+	@Override
+	public int getCommandCount() {
+		return CommandRegistry.getInstance().getCommandsList().size();
+	}
+
+	@Override
+	public int getFlowCount() {
+		return CommandRegistry.getInstance().getFlows().size();
+	}
+
+	@Override
+	public double getLoadTimeMillis() {
+		return CommandStatisticsData.millis(CommandRegistry.getInstance().getLoadTime());
+	}
+
+	@Override
+	public int getListenerCount() {
+		return ListenerRegistry.getInstance().getListenerCount();
+	}
+
+	@Override
+	public List<ListenerStatisticsData> getListenerStatistics() {
+		final ListenerRegistry registry = ListenerRegistry.getInstance();
+		final List<ListenerStatisticsData> result = new ArrayList<ListenerStatisticsData>();
+		for (final Map.Entry<String, LatencyHistogram> entry : registry.getDispatchTimes().entrySet())
+			result.add(new ListenerStatisticsData(entry.getKey(), entry.getValue(), registry
+					.getDispatchFailures(entry.getKey()), registry.getQueues().get(entry.getKey()),
+					registry.getCircuitBreakers().get(entry.getKey())));
+		return result;
+	}
+}
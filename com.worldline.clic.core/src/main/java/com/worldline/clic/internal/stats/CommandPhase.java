@@ -0,0 +1,87 @@
+/*
+ * CLiC, Framework for Command Line Interpretation in Eclipse
+ *
+ *     Copyright (C) 2013 Worldline or third-party contributors as
+ *     indicated by the @author tags or express copyright attribution
+ *     statements applied by the authors.
+ *
+ *     This library is free software; you can redistribute it and/or
+ *     modify it under the terms of the GNU Lesser General Public
+ *     License as published by the Free Software Foundation; either
+ *     version 2.1 of the License.
+ *
+ *     This library is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *     Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public
+ *     License along with this library; if not, write to the Free Software
+ *     Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+package com.worldline.clic.internal.stats;
+
+/**
+ * The phases of a command's execution measured by the
+ * {@link CommandStatistics}
+ * 
+ * @author mvanbesien / aneveux
+ * @version 1.0
+ * @since 1.2
+ */
+public enum CommandPhase {
+
+	/**
+	 * Creation of the command's implementation
+	 */
+	INSTANTIATE("instantiate"),
+
+	/**
+	 * Call to the command's configureParser method
+	 */
+	CONFIGURE("configureParser"),
+
+	/**
+	 * Parsing of the command's arguments
+	 */
+	PARSE("parse"),
+
+	/**
+	 * Execution of the command
+	 */
+	EXECUTE("execute"),
+
+	/**
+	 * Notification of the listeners, once the whole command line is processed
+	 */
+	LISTENERS("listeners"),
+
+	/**
+	 * Processing of the whole command line
+	 */
+	TOTAL("total");
+
+	/**
+	 * The name displayed to the end-user
+	 */
+	private final String label;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param label
+	 *            {@link #label}
+	 */
+	private CommandPhase(final String label) {
+		this.label = label;
+	}
+
+	/**
+	 * Simple getter for {@link #label}
+	 * 
+	 * @return {@link #label}
+	 */
+	public String getLabel() {
+		return label;
+	}
+}
@@ -0,0 +1,226 @@
+/*
+ * CLiC, Framework for Command Line Interpretation in Eclipse
+ *
+ *     Copyright (C) 2013 Worldline or third-party contributors as
+ *     indicated by the @author tags or express copyright attribution
+ *     statements applied by the authors.
+ *
+ *     This library is free software; you can redistribute it and/or
+ *     modify it under the terms of the GNU Lesser General Public
+ *     License as published by the Free Software Foundation; either
+ *     version 2.1 of the License.
+ *
+ *     This library is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *     Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public
+ *     License along with this library; if not, write to the Free Software
+ *     Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+package com.worldline.clic.internal.stats;
+
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The {@link CommandStatistics} keeps track of the latencies and counters of
+ * all the commands and flows executed by the engine, keyed by command id, or
+ * by <i>flow:</i> followed by the flow name for flows.
+ * 
+ * @author mvanbesien / aneveux
+ * @version 1.0
+ * @since 1.2
+ */
+public class CommandStatistics {
+
+	/**
+	 * Prefix of the keys used for flows
+	 */
+	public static final String FLOW_PREFIX = "flow:";
+
+	/**
+	 * This inner class allows to store the singleton instance.
+	 */
+	private static final class SingletonHolder {
+		/**
+		 * contains the instance of {@link CommandStatistics} to be used as a
+		 * singleton
+		 */
+		private static CommandStatistics instance = new CommandStatistics();
+	}
+
+	/**
+	 * Allows to get the singleton instance
+	 * 
+	 * @return the singleton instance of {@link CommandStatistics}
+	 */
+	public static CommandStatistics getInstance() {
+		return SingletonHolder.instance;
+	}
+
+	/**
+	 * The statistics, by command id or flow key
+	 */
+	private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<String, Entry>();
+
+	/**
+	 * Private constructor
+	 */
+	private CommandStatistics() {
+	}
+
+	/**
+	 * @param flowName
+	 *            the name of a flow
+	 * @return the key used for the statistics of the flow
+	 */
+	public static String flowKey(final String flowName) {
+		return FLOW_PREFIX + flowName;
+	}
+
+	/**
+	 * Returns the statistics of a command or a flow, creating them if needed
+	 * 
+	 * @param key
+	 *            the command id, or the flow key
+	 * @return the {@link Entry} of the command or flow
+	 */
+	public Entry get(final String key) {
+		final Entry entry = entries.get(key);
+		if (entry != null)
+			return entry;
+		final Entry created = new Entry();
+		final Entry existing = entries.putIfAbsent(key, created);
+		return existing != null ? existing : created;
+	}
+
+	/**
+	 * @return a snapshot of all the statistics, sorted by key
+	 */
+	public SortedMap<String, Entry> getAll() {
+		return new TreeMap<String, Entry>(entries);
+	}
+
+	/**
+	 * Resets all the statistics
+	 */
+	public void reset() {
+		for (final Map.Entry<String, Entry> entry : entries.entrySet())
+			entry.getValue().reset();
+	}
+
+	/**
+	 * The statistics of a single command or flow
+	 */
+	public static class Entry {
+
+		/**
+		 * One histogram per phase
+		 */
+		private final LatencyHistogram[] histograms = new LatencyHistogram[CommandPhase.values().length];
+
+		/**
+		 * The number of invocations
+		 */
+		private final AtomicLong invocations = new AtomicLong();
+
+		/**
+		 * The number of invocations which did not end properly
+		 */
+		private final AtomicLong errors = new AtomicLong();
+
+		/**
+		 * The number of invocations whose arguments could not be parsed
+		 */
+		private final AtomicLong parseFailures = new AtomicLong();
+
+		/**
+		 * Constructor
+		 */
+		Entry() {
+			for (int i = 0; i < histograms.length; i++)
+				histograms[i] = new LatencyHistogram();
+		}
+
+		/**
+		 * Records the duration of a phase
+		 * 
+		 * @param phase
+		 *            the {@link CommandPhase}
+		 * @param nanos
+		 *            the duration in nanoseconds
+		 */
+		public void record(final CommandPhase phase, final long nanos) {
+			histograms[phase.ordinal()].record(nanos);
+		}
+
+		/**
+		 * @param phase
+		 *            the {@link CommandPhase}
+		 * @return the {@link LatencyHistogram} of the phase
+		 */
+		public LatencyHistogram getHistogram(final CommandPhase phase) {
+			return histograms[phase.ordinal()];
+		}
+
+		/**
+		 * Counts an invocation
+		 */
+		public void invoked() {
+			invocations.incrementAndGet();
+		}
+
+		/**
+		 * Counts an invocation which did not end properly
+		 */
+		public void failed() {
+			errors.incrementAndGet();
+		}
+
+		/**
+		 * Counts an invocation whose arguments could not be parsed
+		 */
+		public void parseFailed() {
+			parseFailures.incrementAndGet();
+		}
+
+		/**
+		 * @return the number of invocations
+		 */
+		public long getInvocations() {
+			return invocations.get();
+		}
+
+		/**
+		 * @return the number of invocations which did not end properly
+		 */
+		public long getErrors() {
+			return errors.get();
+		}
+
+		/**
+		 * @return the number of invocations whose arguments could not be
+		 *         parsed
+		 */
+		public long getParseFailures() {
+			return parseFailures.get();
+		}
+
+		/**
+		 * Resets the counters and histograms
+		 */
+		void reset() {
+			for (final LatencyHistogram histogram : histograms)
+				histogram.reset();
+			invocations.set(0);
+			errors.set(0);
+			parseFailures.set(0);
+		}
+	}
+}
@@ -0,0 +1,143 @@
+/*
+ * CLiC, Framework for Command Line Interpretation in Eclipse
+ *
+ *     Copyright (C) 2013 Worldline or third-party contributors as
+ *     indicated by the @author tags or express copyright attribution
+ *     statements applied by the authors.
+ *
+ *     This library is free software; you can redistribute it and/or
+ *     modify it under the terms of the GNU Lesser General Public
+ *     License as published by the Free Software Foundation; either
+ *     version 2.1 of the License.
+ *
+ *     This library is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *     Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public
+ *     License along with this library; if not, write to the Free Software
+ *     Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+package com.worldline.clic.internal.stats;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The {@link EngineActivity} keeps track of the commands waiting to be
+ * executed and of the ones being executed by the engine, whatever the thread
+ * executing them.
+ * 
+ * @author mvanbesien / aneveux
+ * @version 1.0
+ * @since 1.2
+ */
+public class EngineActivity {
+
+	/**
+	 * This inner class allows to store the singleton instance.
+	 */
+	private static final class SingletonHolder {
+		/**
+		 * contains the instance of {@link EngineActivity} to be used as a
+		 * singleton
+		 */
+		private static EngineActivity instance = new EngineActivity();
+	}
+
+	/**
+	 * Allows to get the singleton instance
+	 * 
+	 * @return the singleton instance of {@link EngineActivity}
+	 */
+	public static EngineActivity getInstance() {
+		return SingletonHolder.instance;
+	}
+
+	/**
+	 * The executions which have been scheduled, but are not running yet
+	 */
+	private final Set<Object> queued = Collections.newSetFromMap(new ConcurrentHashMap<Object, Boolean>());
+
+	/**
+	 * The number of commands or flow steps being executed
+	 */
+	private final AtomicInteger active = new AtomicInteger();
+
+	/**
+	 * The number of command lines processed
+	 */
+	private final AtomicLong completed = new AtomicLong();
+
+	/**
+	 * Private constructor
+	 */
+	private EngineActivity() {
+	}
+
+	/**
+	 * Notifies that an execution has been scheduled, and waits to run
+	 * 
+	 * @param execution
+	 *            the object representing the execution, such as its job
+	 */
+	public void queued(final Object execution) {
+		queued.add(execution);
+	}
+
+	/**
+	 * Notifies that an execution is about to run, or won't run at all
+	 * 
+	 * @param execution
+	 *            the object passed to {@link #queued(Object)}
+	 */
+	public void dequeued(final Object execution) {
+		queued.remove(execution);
+	}
+
+	/**
+	 * Notifies the beginning of the execution of a command or flow step
+	 */
+	public void started() {
+		active.incrementAndGet();
+	}
+
+	/**
+	 * Notifies the end of the execution of a command or flow step
+	 */
+	public void finished() {
+		active.decrementAndGet();
+	}
+
+	/**
+	 * Notifies that a whole command line has been processed
+	 */
+	public void processed() {
+		completed.incrementAndGet();
+	}
+
+	/**
+	 * @return the number of commands waiting to be executed
+	 */
+	public int getQueueDepth() {
+		return queued.size();
+	}
+
+	/**
+	 * @return the number of commands or flow steps being executed
+	 */
+	public int getActiveWorkers() {
+		return active.get();
+	}
+
+	/**
+	 * @return the number of command lines processed
+	 */
+	public long getCompletedCommands() {
+		return completed.get();
+	}
+}
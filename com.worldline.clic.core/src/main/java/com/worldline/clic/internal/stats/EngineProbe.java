@@ -0,0 +1,143 @@
+/*
+ * CLiC, Framework for Command Line Interpretation in Eclipse
+ *
+ *     Copyright (C) 2013 Worldline or third-party contributors as
+ *     indicated by the @author tags or express copyright attribution
+ *     statements applied by the authors.
+ *
+ *     This library is free software; you can redistribute it and/or
+ *     modify it under the terms of the GNU Lesser General Public
+ *     License as published by the Free Software Foundation; either
+ *     version 2.1 of the License.
+ *
+ *     This library is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *     Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public
+ *     License along with this library; if not, write to the Free Software
+ *     Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+package com.worldline.clic.internal.stats;
+
+/**
+ * An {@link EngineProbe} is notified of the activity of the command engine, so
+ * that it can be correlated with the rest of the JVM activity by profiling
+ * tools. Each activity is notified by a call to a <i>begin</i> method, whose
+ * result is given back to the matching <i>end</i> method.
+ * 
+ * As the probe is called on every command execution, implementations should
+ * return null from the <i>begin</i> methods, and do nothing else, when they're
+ * not recording.
+ * 
+ * @author mvanbesien / aneveux
+ * @version 1.0
+ * @since 1.2
+ * 
+ * @see EngineProbes
+ */
+public interface EngineProbe {
+
+	/**
+	 * Called before the arguments of a command are parsed
+	 * 
+	 * @return a token given back to
+	 *         {@link #endParse(Object, String, int, boolean)}, or null
+	 */
+	Object beginParse();
+
+	/**
+	 * Called once the arguments of a command are parsed
+	 * 
+	 * @param token
+	 *            the result of {@link #beginParse()}
+	 * @param commandId
+	 *            the command id
+	 * @param argumentCount
+	 *            the number of arguments
+	 * @param succeeded
+	 *            false if the arguments could not be parsed
+	 */
+	void endParse(Object token, String commandId, int argumentCount, boolean succeeded);
+
+	/**
+	 * Called before a command is executed
+	 * 
+	 * @return a token given back to
+	 *         {@link #endExecute(Object, String, int, int, boolean)}, or null
+	 */
+	Object beginExecute();
+
+	/**
+	 * Called once a command is executed
+	 * 
+	 * @param token
+	 *            the result of {@link #beginExecute()}
+	 * @param commandId
+	 *            the command id
+	 * @param argumentCount
+	 *            the number of arguments
+	 * @param outputLines
+	 *            the number of lines written by the command
+	 * @param succeeded
+	 *            false if the command did not end properly
+	 */
+	void endExecute(Object token, String commandId, int argumentCount, int outputLines, boolean succeeded);
+
+	/**
+	 * Called before a step of a flow is executed
+	 * 
+	 * @return a token given back to
+	 *         {@link #endFlowStep(Object, String, String, int, int, boolean)},
+	 *         or null
+	 */
+	Object beginFlowStep();
+
+	/**
+	 * Called once a step of a flow is executed
+	 * 
+	 * @param token
+	 *            the result of {@link #beginFlowStep()}
+	 * @param flowName
+	 *            the name of the flow
+	 * @param commandId
+	 *            the id of the command executed by the step
+	 * @param argumentCount
+	 *            the number of arguments of the step
+	 * @param outputLines
+	 *            the number of lines written by the step
+	 * @param succeeded
+	 *            false if the step did not end properly
+	 */
+	void endFlowStep(Object token, String flowName, String commandId, int argumentCount, int outputLines,
+			boolean succeeded);
+
+	/**
+	 * Called before a listener is notified
+	 * 
+	 * @return a token given back to
+	 *         {@link #endListener(Object, String, String, int, int, boolean)},
+	 *         or null
+	 */
+	Object beginListener();
+
+	/**
+	 * Called once a listener is notified
+	 * 
+	 * @param token
+	 *            the result of {@link #beginListener()}
+	 * @param listener
+	 *            the class name of the listener
+	 * @param commandId
+	 *            the id of the command or flow the event is about, if known
+	 * @param argumentCount
+	 *            the number of arguments of the command or flow
+	 * @param outputLines
+	 *            the number of lines written by the command or flow
+	 * @param succeeded
+	 *            false if the listener raised an exception
+	 */
+	void endListener(Object token, String listener, String commandId, int argumentCount, int outputLines,
+			boolean succeeded);
+}
@@ -0,0 +1,124 @@
+/*
+ * CLiC, Framework for Command Line Interpretation in Eclipse
+ *
+ *     Copyright (C) 2013 Worldline or third-party contributors as
+ *     indicated by the @author tags or express copyright attribution
+ *     statements applied by the authors.
+ *
+ *     This library is free software; you can redistribute it and/or
+ *     modify it under the terms of the GNU Lesser General Public
+ *     License as published by the Free Software Foundation; either
+ *     version 2.1 of the License.
+ *
+ *     This library is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *     Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public
+ *     License along with this library; if not, write to the Free Software
+ *     Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+package com.worldline.clic.internal.stats;
+
+/**
+ * Gives access to the {@link EngineProbe} notified of the engine's activity.
+ * 
+ * The probe is the class named by the <i>com.worldline.clic.probe</i> system
+ * property, which defaults to the Flight Recorder probe provided by the
+ * <i>com.worldline.clic.jfr</i> fragment. When the class can't be loaded, for
+ * example because the fragment is not installed or the JVM doesn't provide the
+ * Flight Recorder API, a probe doing nothing is used.
+ * 
+ * @author mvanbesien / aneveux
+ * @version 1.0
+ * @since 1.2
+ */
+public final class EngineProbes {
+
+	/**
+	 * The name of the default probe
+	 */
+	private static final String DEFAULT_PROBE = "com.worldline.clic.jfr.JfrEngineProbe";
+
+	/**
+	 * The probe doing nothing
+	 */
+	private static final EngineProbe NOOP = new EngineProbe() {
+
+		@Override
+		public Object beginParse() {
+			return null;
+		}
+
+		@Override
+		public void endParse(final Object token, final String commandId, final int argumentCount,
+				final boolean succeeded) {
+		}
+
+		@Override
+		public Object beginExecute() {
+			return null;
+		}
+
+		@Override
+		public void endExecute(final Object token, final String commandId, final int argumentCount,
+				final int outputLines, final boolean succeeded) {
+		}
+
+		@Override
+		public Object beginFlowStep() {
+			return null;
+		}
+
+		@Override
+		public void endFlowStep(final Object token, final String flowName, final String commandId,
+				final int argumentCount, final int outputLines, final boolean succeeded) {
+		}
+
+		@Override
+		public Object beginListener() {
+			return null;
+		}
+
+		@Override
+		public void endListener(final Object token, final String listener, final String commandId,
+				final int argumentCount, final int outputLines, final boolean succeeded) {
+		}
+	};
+
+	/**
+	 * The probe in use
+	 */
+	private static final EngineProbe PROBE = loadProbe(System.getProperty("com.worldline.clic.probe",
+			DEFAULT_PROBE));
+
+	/**
+	 * Private constructor
+	 */
+	private EngineProbes() {
+	}
+
+	/**
+	 * @return the {@link EngineProbe} in use
+	 */
+	public static EngineProbe get() {
+		return PROBE;
+	}
+
+	/**
+	 * Loads the probe
+	 * 
+	 * @param className
+	 *            the name of the probe's class
+	 * @return an instance of the class, or a probe doing nothing if it can't
+	 *         be loaded
+	 */
+	private static EngineProbe loadProbe(final String className) {
+		try {
+			return (EngineProbe) Class.forName(className, true, EngineProbes.class.getClassLoader()).newInstance();
+		} catch (final ReflectiveOperationException | LinkageError | ClassCastException e) {
+			return NOOP;
+		}
+	}
+}
@@ -0,0 +1,177 @@
+/*
+ * CLiC, Framework for Command Line Interpretation in Eclipse
+ *
+ *     Copyright (C) 2013 Worldline or third-party contributors as
+ *     indicated by the @author tags or express copyright attribution
+ *     statements applied by the authors.
+ *
+ *     This library is free software; you can redistribute it and/or
+ *     modify it under the terms of the GNU Lesser General Public
+ *     License as published by the Free Software Foundation; either
+ *     version 2.1 of the License.
+ *
+ *     This library is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *     Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public
+ *     License along with this library; if not, write to the Free Software
+ *     Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+package com.worldline.clic.internal.stats;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * This {@link LatencyHistogram} records durations in nanoseconds in
+ * log-linear buckets: each power of two is split into 16 buckets, which keeps
+ * the relative error of the reported percentiles under 7% while using a
+ * fixed amount of memory. Recording a value is lock-free and allocation-free,
+ * so that it can be done on every command execution.
+ * 
+ * @author mvanbesien / aneveux
+ * @version 1.0
+ * @since 1.2
+ */
+public class LatencyHistogram {
+
+	/**
+	 * Number of bits used to split each power of two
+	 */
+	private static final int SUB_BITS = 4;
+
+	/**
+	 * Number of buckets per power of two
+	 */
+	private static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+	/**
+	 * Highest power of two tracked: greater values (more than 4 hours) are
+	 * recorded in the last bucket
+	 */
+	private static final int MAX_MAGNITUDE = 43;
+
+	/**
+	 * The number of values recorded in each bucket
+	 */
+	private final AtomicLongArray buckets = new AtomicLongArray(indexOf(Long.MAX_VALUE) + 1);
+
+	/**
+	 * The number of recorded values
+	 */
+	private final AtomicLong count = new AtomicLong();
+
+	/**
+	 * The sum of the recorded values
+	 */
+	private final AtomicLong sum = new AtomicLong();
+
+	/**
+	 * The greatest recorded value
+	 */
+	private final AtomicLong max = new AtomicLong();
+
+	/**
+	 * Records a duration
+	 * 
+	 * @param nanos
+	 *            the duration in nanoseconds. Negative values are ignored.
+	 */
+	public void record(final long nanos) {
+		if (nanos < 0)
+			return;
+		buckets.incrementAndGet(indexOf(nanos));
+		count.incrementAndGet();
+		sum.addAndGet(nanos);
+		long current = max.get();
+		while (nanos > current && !max.compareAndSet(current, nanos))
+			current = max.get();
+	}
+
+	/**
+	 * @return the number of recorded values
+	 */
+	public long getCount() {
+		return count.get();
+	}
+
+	/**
+	 * @return the mean of the recorded values in nanoseconds, 0 if there is
+	 *         none
+	 */
+	public long getMean() {
+		final long n = count.get();
+		return n == 0 ? 0 : sum.get() / n;
+	}
+
+	/**
+	 * @return the greatest recorded value in nanoseconds
+	 */
+	public long getMax() {
+		return max.get();
+	}
+
+	/**
+	 * Computes a percentile of the recorded values
+	 * 
+	 * @param percentile
+	 *            the percentile, between 0 and 100
+	 * @return the upper bound of the bucket containing the percentile, in
+	 *         nanoseconds, capped by the greatest recorded value. 0 if there
+	 *         is no recorded value.
+	 */
+	public long getValueAtPercentile(final double percentile) {
+		long total = 0;
+		for (int i = 0; i < buckets.length(); i++)
+			total += buckets.get(i);
+		if (total == 0)
+			return 0;
+		final long rank = Math.max(1, (long) Math.ceil(total * Math.min(percentile, 100) / 100));
+		long seen = 0;
+		for (int i = 0; i < buckets.length(); i++) {
+			seen += buckets.get(i);
+			if (seen >= rank)
+				return Math.min(upperBoundOf(i), max.get());
+		}
+		return max.get();
+	}
+
+	/**
+	 * Forgets all the recorded values
+	 */
+	public void reset() {
+		for (int i = 0; i < buckets.length(); i++)
+			buckets.set(i, 0);
+		count.set(0);
+		sum.set(0);
+		max.set(0);
+	}
+
+	/**
+	 * @param value
+	 *            a positive value
+	 * @return the index of the bucket the value belongs to
+	 */
+	private static int indexOf(final long value) {
+		if (value < SUB_BUCKETS)
+			return (int) value;
+		final int magnitude = Math.min(63 - Long.numberOfLeadingZeros(value), MAX_MAGNITUDE);
+		final long capped = Math.min(value, (2L << MAX_MAGNITUDE) - 1);
+		return (magnitude - SUB_BITS + 1) * SUB_BUCKETS + (int) ((capped >>> (magnitude - SUB_BITS)) & (SUB_BUCKETS - 1));
+	}
+
+	/**
+	 * @param index
+	 *            the index of a bucket
+	 * @return the greatest value belonging to the bucket
+	 */
+	private static long upperBoundOf(final int index) {
+		if (index < SUB_BUCKETS)
+			return index;
+		final int magnitude = index / SUB_BUCKETS + SUB_BITS - 1;
+		final long lowerBound = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << (magnitude - SUB_BITS);
+		return lowerBound + (1L << (magnitude - SUB_BITS)) - 1;
+	}
+}
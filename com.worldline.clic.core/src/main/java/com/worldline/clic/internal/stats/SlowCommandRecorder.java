@@ -0,0 +1,488 @@
+/*
+ * CLiC, Framework for Command Line Interpretation in Eclipse
+ *
+ *     Copyright (C) 2013 Worldline or third-party contributors as
+ *     indicated by the @author tags or express copyright attribution
+ *     statements applied by the authors.
+ *
+ *     This library is free software; you can redistribute it and/or
+ *     modify it under the terms of the GNU Lesser General Public
+ *     License as published by the Free Software Foundation; either
+ *     version 2.1 of the License.
+ *
+ *     This library is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *     Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public
+ *     License along with this library; if not, write to the Free Software
+ *     Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+package com.worldline.clic.internal.stats;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.text.SimpleDateFormat;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import com.worldline.clic.core.ClicCore;
+
+/**
+ * The {@link SlowCommandRecorder} keeps the commands and flow steps which ran
+ * past a threshold, along with what is needed in order to understand why:
+ * the command line, the arguments, the duration of each phase, the number of
+ * lines written and a sample of the stack of the executing thread, taken when
+ * the threshold has been reached.
+ * 
+ * It is configured using the following system properties:
+ * <ul>
+ * <li><i>com.worldline.clic.slow.threshold</i>: the threshold in
+ * milliseconds, which defaults to 2000, 0 disabling the recording. It can be
+ * changed at runtime through JMX.</li>
+ * <li><i>com.worldline.clic.slow.size</i>: the number of slow commands kept in
+ * memory, which defaults to 32.</li>
+ * <li><i>com.worldline.clic.slow.file</i>: the file the slow commands are
+ * appended to, if any. It is rolled over to a <i>.1</i> file once it reaches
+ * the size defined by <i>com.worldline.clic.slow.file.size</i>, which defaults
+ * to 1 MB.</li>
+ * </ul>
+ * 
+ * @author mvanbesien / aneveux
+ * @version 1.0
+ * @since 1.2
+ */
+public class SlowCommandRecorder {
+
+	/**
+	 * This inner class allows to store the singleton instance.
+	 */
+	private static final class SingletonHolder {
+		/**
+		 * contains the instance of {@link SlowCommandRecorder} to be used as a
+		 * singleton
+		 */
+		private static SlowCommandRecorder instance = new SlowCommandRecorder(Long.getLong(
+				"com.worldline.clic.slow.threshold", 2000), Integer.getInteger("com.worldline.clic.slow.size", 32),
+				System.getProperty("com.worldline.clic.slow.file"), Long.getLong("com.worldline.clic.slow.file.size",
+						1024 * 1024));
+	}
+
+	/**
+	 * Allows to get the singleton instance
+	 * 
+	 * @return the singleton instance of {@link SlowCommandRecorder}
+	 */
+	public static SlowCommandRecorder getInstance() {
+		return SingletonHolder.instance;
+	}
+
+	/**
+	 * The watch of a single command execution, to be fed with the duration of
+	 * its phases and stopped once it is done.
+	 */
+	public class Watch {
+
+		/**
+		 * The command line the command belongs to
+		 */
+		private final String commandLine;
+
+		/**
+		 * The id of the command
+		 */
+		private final String commandId;
+
+		/**
+		 * The arguments of the command
+		 */
+		private final String[] arguments;
+
+		/**
+		 * The thread executing the command
+		 */
+		private final Thread thread = Thread.currentThread();
+
+		/**
+		 * The time the execution started at, in nanoseconds
+		 */
+		private final long start = System.nanoTime();
+
+		/**
+		 * The duration of each phase in nanoseconds, indexed by
+		 * {@link CommandPhase#ordinal()}
+		 */
+		private final long[] phases = new long[CommandPhase.values().length];
+
+		/**
+		 * The task sampling the stack of the {@link #thread}, if scheduled
+		 */
+		private final ScheduledFuture<?> sampling;
+
+		/**
+		 * The stack of the {@link #thread} when the threshold has been reached
+		 */
+		private volatile StackTraceElement[] stack;
+
+		/**
+		 * Constructor
+		 * 
+		 * @param commandLine
+		 *            {@link #commandLine}
+		 * @param commandId
+		 *            {@link #commandId}
+		 * @param arguments
+		 *            {@link #arguments}
+		 * @param threshold
+		 *            the threshold in milliseconds, 0 if disabled
+		 */
+		private Watch(final String commandLine, final String commandId, final String[] arguments,
+				final long threshold) {
+			this.commandLine = commandLine;
+			this.commandId = commandId;
+			this.arguments = arguments;
+			this.sampling = threshold > 0 ? watchdog.schedule(new Runnable() {
+				@Override
+				public void run() {
+					stack = thread.getStackTrace();
+				}
+			}, threshold, TimeUnit.MILLISECONDS) : null;
+		}
+
+		/**
+		 * Records the duration of a phase
+		 * 
+		 * @param phase
+		 *            the phase
+		 * @param duration
+		 *            its duration in nanoseconds
+		 */
+		public void record(final CommandPhase phase, final long duration) {
+			phases[phase.ordinal()] = duration;
+		}
+
+		/**
+		 * Stops the watch, and keeps the execution if it ran past the
+		 * threshold
+		 * 
+		 * @param outputLines
+		 *            the number of lines written by the command
+		 * @param succeeded
+		 *            whether the command succeeded
+		 */
+		public void stop(final int outputLines, final boolean succeeded) {
+			if (sampling == null)
+				return;
+			sampling.cancel(false);
+			final long duration = System.nanoTime() - start;
+			if (duration >= TimeUnit.MILLISECONDS.toNanos(threshold))
+				add(new SlowCommand(this, duration, outputLines, succeeded));
+		}
+	}
+
+	/**
+	 * An execution which ran past the threshold
+	 */
+	public static class SlowCommand {
+
+		/**
+		 * The time the execution ended at, in milliseconds since the epoch
+		 */
+		private final long timestamp = System.currentTimeMillis();
+
+		/**
+		 * The command line the command belongs to
+		 */
+		private final String commandLine;
+
+		/**
+		 * The id of the command
+		 */
+		private final String commandId;
+
+		/**
+		 * The arguments of the command
+		 */
+		private final String[] arguments;
+
+		/**
+		 * The name of the thread which executed the command
+		 */
+		private final String thread;
+
+		/**
+		 * The duration of the execution in nanoseconds
+		 */
+		private final long duration;
+
+		/**
+		 * The duration of each phase in nanoseconds
+		 */
+		private final long[] phases;
+
+		/**
+		 * The number of lines written by the command
+		 */
+		private final int outputLines;
+
+		/**
+		 * Whether the command succeeded
+		 */
+		private final boolean succeeded;
+
+		/**
+		 * The stack of the thread when the threshold has been reached, or null
+		 * if it couldn't be sampled in time
+		 */
+		private final StackTraceElement[] stack;
+
+		/**
+		 * Constructor
+		 * 
+		 * @param watch
+		 *            the watch of the execution
+		 * @param duration
+		 *            {@link #duration}
+		 * @param outputLines
+		 *            {@link #outputLines}
+		 * @param succeeded
+		 *            {@link #succeeded}
+		 */
+		private SlowCommand(final Watch watch, final long duration, final int outputLines, final boolean succeeded) {
+			this.commandLine = watch.commandLine;
+			this.commandId = watch.commandId;
+			this.arguments = watch.arguments.clone();
+			this.thread = watch.thread.getName();
+			this.duration = duration;
+			this.phases = watch.phases.clone();
+			this.outputLines = outputLines;
+			this.succeeded = succeeded;
+			this.stack = watch.stack;
+		}
+
+		/**
+		 * @return the time the execution ended at, in milliseconds since the
+		 *         epoch
+		 */
+		public long getTimestamp() {
+			return timestamp;
+		}
+
+		/**
+		 * @return the command line the command belongs to
+		 */
+		public String getCommandLine() {
+			return commandLine;
+		}
+
+		/**
+		 * @return the id of the command
+		 */
+		public String getCommandId() {
+			return commandId;
+		}
+
+		/**
+		 * @return the duration of the execution in nanoseconds
+		 */
+		public long getDuration() {
+			return duration;
+		}
+
+		/**
+		 * Describes the execution on several lines, as written in the log file
+		 * 
+		 * @return the description of the execution
+		 */
+		public String describe() {
+			final StringBuilder sb = new StringBuilder();
+			sb.append(new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS").format(new Date(timestamp))).append(" [")
+					.append(thread).append("] ").append(millis(duration)).append(" ms, ").append(outputLines)
+					.append(" lines, ").append(succeeded ? "succeeded" : "failed").append(": ").append(commandLine);
+			sb.append("\n\tcommand: ").append(commandId).append(' ').append(Arrays.toString(arguments));
+			sb.append("\n\tphases:");
+			for (final CommandPhase phase : CommandPhase.values())
+				if (phases[phase.ordinal()] > 0)
+					sb.append(' ').append(phase.getLabel()).append('=').append(millis(phases[phase.ordinal()]))
+							.append(" ms");
+			if (stack != null)
+				for (final StackTraceElement element : stack)
+					sb.append("\n\tat ").append(element);
+			else
+				sb.append("\n\t(no stack sample)");
+			return sb.toString();
+		}
+
+		/**
+		 * @param nanos
+		 *            a duration in nanoseconds
+		 * @return the duration in milliseconds, formatted for display
+		 */
+		private static String millis(final long nanos) {
+			return String.format("%.3f", nanos / 1e6);
+		}
+	}
+
+	/**
+	 * The executor sampling the stacks, and writing to the log file
+	 */
+	private final ScheduledThreadPoolExecutor watchdog;
+
+	/**
+	 * The last slow executions, the oldest first
+	 */
+	private final Deque<SlowCommand> ring = new ArrayDeque<SlowCommand>();
+
+	/**
+	 * The maximum number of slow executions kept in memory
+	 */
+	private final int capacity;
+
+	/**
+	 * The file the slow executions are appended to, or null
+	 */
+	private final File file;
+
+	/**
+	 * The size the file is rolled over at
+	 */
+	private final long maxFileSize;
+
+	/**
+	 * The threshold in milliseconds, 0 if the recording is disabled
+	 */
+	private volatile long threshold;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param threshold
+	 *            {@link #threshold}
+	 * @param capacity
+	 *            {@link #capacity}
+	 * @param file
+	 *            the path of the log file, or null
+	 * @param maxFileSize
+	 *            {@link #maxFileSize}
+	 */
+	private SlowCommandRecorder(final long threshold, final int capacity, final String file, final long maxFileSize) {
+		this.threshold = Math.max(0, threshold);
+		this.capacity = Math.max(1, capacity);
+		this.file = file != null ? new File(file) : null;
+		this.maxFileSize = maxFileSize;
+		this.watchdog = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+			@Override
+			public Thread newThread(final Runnable r) {
+				final Thread thread = new Thread(r, "CLiC slow command watchdog");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		this.watchdog.setRemoveOnCancelPolicy(true);
+	}
+
+	/**
+	 * Starts watching the execution of a command on the current thread
+	 * 
+	 * @param commandLine
+	 *            the command line the command belongs to
+	 * @param commandId
+	 *            the id of the command
+	 * @param arguments
+	 *            the arguments of the command
+	 * @return the {@link Watch} of the execution
+	 */
+	public Watch start(final String commandLine, final String commandId, final String[] arguments) {
+		return new Watch(commandLine, commandId, arguments, threshold);
+	}
+
+	/**
+	 * @return the threshold in milliseconds, 0 if the recording is disabled
+	 */
+	public long getThreshold() {
+		return threshold;
+	}
+
+	/**
+	 * Changes the threshold. It applies to the executions starting afterwards.
+	 * 
+	 * @param threshold
+	 *            the threshold in milliseconds, 0 to disable the recording
+	 */
+	public void setThreshold(final long threshold) {
+		this.threshold = Math.max(0, threshold);
+	}
+
+	/**
+	 * @return the last slow executions, the oldest first
+	 */
+	public List<SlowCommand> getSlowCommands() {
+		synchronized (ring) {
+			return new ArrayList<SlowCommand>(ring);
+		}
+	}
+
+	/**
+	 * Forgets the slow executions kept in memory
+	 */
+	public void reset() {
+		synchronized (ring) {
+			ring.clear();
+		}
+	}
+
+	/**
+	 * Keeps a slow execution, and appends it to the log file if any
+	 * 
+	 * @param slowCommand
+	 *            the slow execution
+	 */
+	private void add(final SlowCommand slowCommand) {
+		synchronized (ring) {
+			ring.addLast(slowCommand);
+			if (ring.size() > capacity)
+				ring.removeFirst();
+		}
+		if (file != null)
+			watchdog.execute(new Runnable() {
+				@Override
+				public void run() {
+					append(slowCommand);
+				}
+			});
+	}
+
+	/**
+	 * Appends a slow execution to the log file, rolling it over if needed.
+	 * Called from the {@link #watchdog} thread only.
+	 * 
+	 * @param slowCommand
+	 *            the slow execution
+	 */
+	private void append(final SlowCommand slowCommand) {
+		if (file.length() >= maxFileSize) {
+			final File rolled = new File(file.getPath() + ".1");
+			if (rolled.exists() && !rolled.delete() || !file.renameTo(rolled))
+				ClicCore.getLogger().error("Unable to roll over " + file, null);
+		}
+		try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, true), "UTF-8"))) {
+			writer.write(slowCommand.describe());
+			writer.write(System.getProperty("line.separator"));
+		} catch (final IOException e) {
+			ClicCore.getLogger().error(e.getMessage(), e);
+		}
+	}
+}
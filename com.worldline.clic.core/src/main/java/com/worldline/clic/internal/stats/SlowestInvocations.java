@@ -0,0 +1,216 @@
+/*
+ * CLiC, Framework for Command Line Interpretation in Eclipse
+ *
+ *     Copyright (C) 2013 Worldline or third-party contributors as
+ *     indicated by the @author tags or express copyright attribution
+ *     statements applied by the authors.
+ *
+ *     This library is free software; you can redistribute it and/or
+ *     modify it under the terms of the GNU Lesser General Public
+ *     License as published by the Free Software Foundation; either
+ *     version 2.1 of the License.
+ *
+ *     This library is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *     Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public
+ *     License along with this library; if not, write to the Free Software
+ *     Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+package com.worldline.clic.internal.stats;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * The {@link SlowestInvocations} keeps the slowest command lines processed
+ * since it has been reset. Its capacity is defined by the
+ * <i>com.worldline.clic.stats.slowest</i> system property, and defaults to 20.
+ * 
+ * @author mvanbesien / aneveux
+ * @version 1.0
+ * @since 1.2
+ */
+public class SlowestInvocations {
+
+	/**
+	 * This inner class allows to store the singleton instance.
+	 */
+	private static final class SingletonHolder {
+		/**
+		 * contains the instance of {@link SlowestInvocations} to be used as a
+		 * singleton
+		 */
+		private static SlowestInvocations instance = new SlowestInvocations(Integer.getInteger(
+				"com.worldline.clic.stats.slowest", 20));
+	}
+
+	/**
+	 * Allows to get the singleton instance
+	 * 
+	 * @return the singleton instance of {@link SlowestInvocations}
+	 */
+	public static SlowestInvocations getInstance() {
+		return SingletonHolder.instance;
+	}
+
+	/**
+	 * A processed command line
+	 */
+	public static class Invocation {
+
+		/**
+		 * The command line
+		 */
+		private final String commandLine;
+
+		/**
+		 * The duration of the processing in nanoseconds
+		 */
+		private final long duration;
+
+		/**
+		 * The time the processing ended at, in milliseconds since the epoch
+		 */
+		private final long timestamp;
+
+		/**
+		 * The name of the thread which processed the command line
+		 */
+		private final String thread;
+
+		/**
+		 * Constructor
+		 * 
+		 * @param commandLine
+		 *            {@link #commandLine}
+		 * @param duration
+		 *            {@link #duration}
+		 * @param timestamp
+		 *            {@link #timestamp}
+		 * @param thread
+		 *            {@link #thread}
+		 */
+		Invocation(final String commandLine, final long duration, final long timestamp, final String thread) {
+			this.commandLine = commandLine;
+			this.duration = duration;
+			this.timestamp = timestamp;
+			this.thread = thread;
+		}
+
+		/**
+		 * @return the command line
+		 */
+		public String getCommandLine() {
+			return commandLine;
+		}
+
+		/**
+		 * @return the duration of the processing in nanoseconds
+		 */
+		public long getDuration() {
+			return duration;
+		}
+
+		/**
+		 * @return the time the processing ended at, in milliseconds since the
+		 *         epoch
+		 */
+		public long getTimestamp() {
+			return timestamp;
+		}
+
+		/**
+		 * @return the name of the thread which processed the command line
+		 */
+		public String getThread() {
+			return thread;
+		}
+	}
+
+	/**
+	 * Orders the invocations by duration
+	 */
+	private static final Comparator<Invocation> BY_DURATION = new Comparator<Invocation>() {
+		@Override
+		public int compare(final Invocation o1, final Invocation o2) {
+			return Long.compare(o1.duration, o2.duration);
+		}
+	};
+
+	/**
+	 * The slowest invocations, the fastest of them at the head
+	 */
+	private final PriorityQueue<Invocation> slowest;
+
+	/**
+	 * The maximum number of invocations kept
+	 */
+	private final int capacity;
+
+	/**
+	 * The fastest duration kept, once full: faster invocations are discarded
+	 * without locking
+	 */
+	private volatile long threshold;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param capacity
+	 *            the maximum number of invocations kept
+	 */
+	private SlowestInvocations(final int capacity) {
+		this.capacity = Math.max(1, capacity);
+		this.slowest = new PriorityQueue<Invocation>(this.capacity, BY_DURATION);
+	}
+
+	/**
+	 * Records a processed command line, if it is slower than the ones kept
+	 * 
+	 * @param commandLine
+	 *            the command line
+	 * @param duration
+	 *            the duration of the processing in nanoseconds
+	 */
+	public void record(final String commandLine, final long duration) {
+		if (duration <= threshold)
+			return;
+		final Invocation invocation = new Invocation(commandLine, duration, System.currentTimeMillis(), Thread
+				.currentThread().getName());
+		synchronized (slowest) {
+			slowest.add(invocation);
+			if (slowest.size() > capacity)
+				slowest.poll();
+			if (slowest.size() == capacity)
+				threshold = slowest.peek().duration;
+		}
+	}
+
+	/**
+	 * @return the slowest invocations, the slowest first
+	 */
+	public List<Invocation> getSlowest() {
+		final List<Invocation> result;
+		synchronized (slowest) {
+			result = new ArrayList<Invocation>(slowest);
+		}
+		Collections.sort(result, Collections.reverseOrder(BY_DURATION));
+		return result;
+	}
+
+	/**
+	 * Forgets all the invocations
+	 */
+	public void reset() {
+		synchronized (slowest) {
+			slowest.clear();
+			threshold = 0;
+		}
+	}
+}
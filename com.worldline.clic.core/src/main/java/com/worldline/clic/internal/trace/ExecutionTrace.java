@@ -0,0 +1,95 @@
+/*
+ * CLiC, Framework for Command Line Interpretation in Eclipse
+ *
+ *     Copyright (C) 2013 Worldline or third-party contributors as
+ *     indicated by the @author tags or express copyright attribution
+ *     statements applied by the authors.
+ *
+ *     This library is free software; you can redistribute it and/or
+ *     modify it under the terms of the GNU Lesser General Public
+ *     License as published by the Free Software Foundation; either
+ *     version 2.1 of the License.
+ *
+ *     This library is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *     Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public
+ *     License along with this library; if not, write to the Free Software
+ *     Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+package com.worldline.clic.internal.trace;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An {@link ExecutionTrace} gathers the {@link TraceSpan}s recorded while
+ * processing a command line, whatever the threads they happened on.
+ * 
+ * @author mvanbesien / aneveux
+ * @version 1.0
+ * @since 1.2
+ */
+public class ExecutionTrace {
+
+	/**
+	 * The sequence number of the execution
+	 */
+	private final long id;
+
+	/**
+	 * The processed command line
+	 */
+	private final String commandLine;
+
+	/**
+	 * The ended spans
+	 */
+	private final List<TraceSpan> spans = new ArrayList<TraceSpan>();
+
+	/**
+	 * Constructor
+	 * 
+	 * @param id
+	 *            {@link #id}
+	 * @param commandLine
+	 *            {@link #commandLine}
+	 */
+	ExecutionTrace(final long id, final String commandLine) {
+		this.id = id;
+		this.commandLine = commandLine;
+	}
+
+	/**
+	 * Adds an ended span
+	 * 
+	 * @param span
+	 *            the {@link TraceSpan}
+	 */
+	synchronized void add(final TraceSpan span) {
+		spans.add(span);
+	}
+
+	/**
+	 * @return the sequence number of the execution
+	 */
+	public long getId() {
+		return id;
+	}
+
+	/**
+	 * @return the processed command line
+	 */
+	public String getCommandLine() {
+		return commandLine;
+	}
+
+	/**
+	 * @return the ended spans, in the order they ended
+	 */
+	public synchronized List<TraceSpan> getSpans() {
+		return new ArrayList<TraceSpan>(spans);
+	}
+}
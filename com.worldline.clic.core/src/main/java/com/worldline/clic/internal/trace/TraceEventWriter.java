@@ -0,0 +1,154 @@
+/*
+ * CLiC, Framework for Command Line Interpretation in Eclipse
+ *
+ *     Copyright (C) 2013 Worldline or third-party contributors as
+ *     indicated by the @author tags or express copyright attribution
+ *     statements applied by the authors.
+ *
+ *     This library is free software; you can redistribute it and/or
+ *     modify it under the terms of the GNU Lesser General Public
+ *     License as published by the Free Software Foundation; either
+ *     version 2.1 of the License.
+ *
+ *     This library is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *     Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public
+ *     License along with this library; if not, write to the Free Software
+ *     Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+package com.worldline.clic.internal.trace;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Writes {@link ExecutionTrace}s in the Trace Event format, which can be
+ * opened by Chrome's <i>about:tracing</i> or by Perfetto. Each execution is
+ * shown as a process named after its command line, and each of its spans as a
+ * complete event on the thread it happened on.
+ * 
+ * @author mvanbesien / aneveux
+ * @version 1.0
+ * @since 1.2
+ */
+public class TraceEventWriter {
+
+	/**
+	 * The {@link Writer} the events are written to
+	 */
+	private final Writer writer;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param writer
+	 *            {@link #writer}
+	 */
+	public TraceEventWriter(final Writer writer) {
+		this.writer = writer;
+	}
+
+	/**
+	 * Writes the traces. The timestamps are relative to the beginning of the
+	 * first span.
+	 * 
+	 * @param traces
+	 *            the traces to write
+	 * @throws IOException
+	 *             if the traces can't be written
+	 */
+	public void write(final List<ExecutionTrace> traces) throws IOException {
+		long origin = Long.MAX_VALUE;
+		for (final ExecutionTrace trace : traces)
+			for (final TraceSpan span : trace.getSpans())
+				origin = Math.min(origin, span.getStart());
+
+		writer.write("{\"displayTimeUnit\":\"ms\",\"traceEvents\":[");
+		boolean first = true;
+		for (final ExecutionTrace trace : traces) {
+			first = writeMetadata(first, "process_name", trace.getId(), 0, trace.getCommandLine());
+			final Map<Long, String> threads = new HashMap<Long, String>();
+			for (final TraceSpan span : trace.getSpans()) {
+				if (!threads.containsKey(span.getThreadId())) {
+					threads.put(span.getThreadId(), span.getThreadName());
+					first = writeMetadata(first, "thread_name", trace.getId(), span.getThreadId(), span.getThreadName());
+				}
+				writer.write(",{\"ph\":\"X\",\"name\":");
+				writeString(span.getName());
+				writer.write(",\"cat\":");
+				writeString(span.getCategory());
+				writer.write(",\"pid\":" + trace.getId() + ",\"tid\":" + span.getThreadId());
+				writer.write(",\"ts\":" + micros(span.getStart() - origin) + ",\"dur\":"
+						+ micros(span.getEnd() - span.getStart()));
+				writer.write(",\"args\":{");
+				final String[] args = span.getArgs();
+				for (int i = 0; i + 1 < args.length; i += 2) {
+					if (i > 0)
+						writer.write(',');
+					writeString(args[i]);
+					writer.write(':');
+					writeString(args[i + 1]);
+				}
+				writer.write("}}");
+			}
+		}
+		writer.write("]}");
+		writer.flush();
+	}
+
+	/**
+	 * Writes a metadata event
+	 * 
+	 * @return false, as an event has been written
+	 */
+	private boolean writeMetadata(final boolean first, final String name, final long pid, final long tid,
+			final String value) throws IOException {
+		if (!first)
+			writer.write(',');
+		writer.write("{\"ph\":\"M\",\"name\":\"" + name + "\",\"pid\":" + pid + ",\"tid\":" + tid
+				+ ",\"args\":{\"name\":");
+		writeString(value);
+		writer.write("}}");
+		return false;
+	}
+
+	/**
+	 * Writes a JSON string
+	 * 
+	 * @param value
+	 *            the value, possibly null
+	 */
+	private void writeString(final String value) throws IOException {
+		if (value == null) {
+			writer.write("null");
+			return;
+		}
+		final StringBuilder sb = new StringBuilder(value.length() + 2).append('"');
+		for (int i = 0; i < value.length(); i++) {
+			final char c = value.charAt(i);
+			if (c == '"' || c == '\\')
+				sb.append('\\').append(c);
+			else if (c < 0x20)
+				sb.append(String.format("\\u%04x", (int) c));
+			else
+				sb.append(c);
+		}
+		writer.write(sb.append('"').toString());
+	}
+
+	/**
+	 * @param nanos
+	 *            a duration in nanoseconds
+	 * @return the duration in microseconds, as expected by the format
+	 */
+	private static String micros(final long nanos) {
+		return String.format(Locale.ROOT, "%.3f", nanos / 1e3);
+	}
+}
@@ -0,0 +1,200 @@
+/*
+ * CLiC, Framework for Command Line Interpretation in Eclipse
+ *
+ *     Copyright (C) 2013 Worldline or third-party contributors as
+ *     indicated by the @author tags or express copyright attribution
+ *     statements applied by the authors.
+ *
+ *     This library is free software; you can redistribute it and/or
+ *     modify it under the terms of the GNU Lesser General Public
+ *     License as published by the Free Software Foundation; either
+ *     version 2.1 of the License.
+ *
+ *     This library is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *     Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public
+ *     License along with this library; if not, write to the Free Software
+ *     Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+package com.worldline.clic.internal.trace;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The {@link TraceRecorder} keeps the {@link ExecutionTrace}s of the last
+ * processed command lines. Their number is defined by the
+ * <i>com.worldline.clic.trace.size</i> system property, and defaults to 16; 0
+ * disables the recording.
+ * 
+ * The trace of the command line being processed is attached to the thread
+ * processing it, and to the threads executing the steps of its flow, so that
+ * the spans can be recorded without passing the trace around.
+ * 
+ * @author mvanbesien / aneveux
+ * @version 1.0
+ * @since 1.2
+ */
+public class TraceRecorder {
+
+	/**
+	 * This inner class allows to store the singleton instance.
+	 */
+	private static final class SingletonHolder {
+		/**
+		 * contains the instance of {@link TraceRecorder} to be used as a
+		 * singleton
+		 */
+		private static TraceRecorder instance = new TraceRecorder(Integer.getInteger("com.worldline.clic.trace.size",
+				16));
+	}
+
+	/**
+	 * Allows to get the singleton instance
+	 * 
+	 * @return the singleton instance of {@link TraceRecorder}
+	 */
+	public static TraceRecorder getInstance() {
+		return SingletonHolder.instance;
+	}
+
+	/**
+	 * The trace attached to the current thread
+	 */
+	private final ThreadLocal<ExecutionTrace> current = new ThreadLocal<ExecutionTrace>();
+
+	/**
+	 * The last traces, the oldest first
+	 */
+	private final Deque<ExecutionTrace> traces = new ArrayDeque<ExecutionTrace>();
+
+	/**
+	 * The maximum number of traces kept
+	 */
+	private final int capacity;
+
+	/**
+	 * The sequence of the traces
+	 */
+	private final AtomicLong sequence = new AtomicLong();
+
+	/**
+	 * Constructor
+	 * 
+	 * @param capacity
+	 *            the maximum number of traces kept
+	 */
+	private TraceRecorder(final int capacity) {
+		this.capacity = capacity;
+	}
+
+	/**
+	 * Starts the trace of a command line, and attaches it to the current
+	 * thread. Does nothing if the recording is disabled, or if the thread is
+	 * already processing a command line, in which case the spans of the new
+	 * one are recorded in the trace of the outer one.
+	 * 
+	 * @param commandLine
+	 *            the command line
+	 * @return the started trace, to be given back to
+	 *         {@link #finish(ExecutionTrace)}, or null
+	 */
+	public ExecutionTrace start(final String commandLine) {
+		if (capacity <= 0 || current.get() != null)
+			return null;
+		final ExecutionTrace trace = new ExecutionTrace(sequence.incrementAndGet(), commandLine);
+		current.set(trace);
+		return trace;
+	}
+
+	/**
+	 * Finishes a trace started by {@link #start(String)}, detaches it from the
+	 * current thread, and keeps it.
+	 * 
+	 * @param trace
+	 *            the trace, possibly null
+	 */
+	public void finish(final ExecutionTrace trace) {
+		if (trace == null)
+			return;
+		current.remove();
+		synchronized (traces) {
+			traces.addLast(trace);
+			while (traces.size() > capacity)
+				traces.removeFirst();
+		}
+	}
+
+	/**
+	 * @return the trace attached to the current thread, or null
+	 */
+	public ExecutionTrace current() {
+		return current.get();
+	}
+
+	/**
+	 * Attaches a trace to the current thread, which works on behalf of the
+	 * thread the trace has been started on
+	 * 
+	 * @param trace
+	 *            the trace, possibly null
+	 */
+	public void attach(final ExecutionTrace trace) {
+		if (trace != null)
+			current.set(trace);
+	}
+
+	/**
+	 * Detaches the trace from the current thread
+	 */
+	public void detach() {
+		current.remove();
+	}
+
+	/**
+	 * Begins a span in the trace attached to the current thread
+	 * 
+	 * @param name
+	 *            the name of the span
+	 * @param category
+	 *            the category of the span
+	 * @param args
+	 *            additional information, as alternating names and values
+	 * @return the span, to be given back to {@link #end(TraceSpan)}, or null if
+	 *         no trace is attached to the current thread
+	 */
+	public TraceSpan begin(final String name, final String category, final String... args) {
+		final ExecutionTrace trace = current.get();
+		return trace != null ? new TraceSpan(trace, name, category, args) : null;
+	}
+
+	/**
+	 * Ends a span begun by {@link #begin(String, String, String...)}
+	 * 
+	 * @param span
+	 *            the span, possibly null
+	 */
+	public void end(final TraceSpan span) {
+		if (span != null)
+			span.end();
+	}
+
+	/**
+	 * @param count
+	 *            the maximum number of traces to return
+	 * @return the last traces, the oldest first
+	 */
+	public List<ExecutionTrace> getLast(final int count) {
+		final List<ExecutionTrace> result;
+		synchronized (traces) {
+			result = new ArrayList<ExecutionTrace>(traces);
+		}
+		return result.subList(Math.max(0, result.size() - count), result.size());
+	}
+}
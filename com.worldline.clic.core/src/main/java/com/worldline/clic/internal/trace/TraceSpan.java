@@ -0,0 +1,156 @@
+/*
+ * CLiC, Framework for Command Line Interpretation in Eclipse
+ *
+ *     Copyright (C) 2013 Worldline or third-party contributors as
+ *     indicated by the @author tags or express copyright attribution
+ *     statements applied by the authors.
+ *
+ *     This library is free software; you can redistribute it and/or
+ *     modify it under the terms of the GNU Lesser General Public
+ *     License as published by the Free Software Foundation; either
+ *     version 2.1 of the License.
+ *
+ *     This library is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *     Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public
+ *     License along with this library; if not, write to the Free Software
+ *     Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+package com.worldline.clic.internal.trace;
+
+/**
+ * A {@link TraceSpan} represents an activity of the engine during the
+ * processing of a command line, such as the parsing or the execution of a
+ * command, along with the thread it happened on.
+ * 
+ * @author mvanbesien / aneveux
+ * @version 1.0
+ * @since 1.2
+ */
+public class TraceSpan {
+
+	/**
+	 * The trace the span belongs to
+	 */
+	private final ExecutionTrace trace;
+
+	/**
+	 * The name of the span
+	 */
+	private final String name;
+
+	/**
+	 * The category of the span
+	 */
+	private final String category;
+
+	/**
+	 * Additional information, as alternating names and values
+	 */
+	private final String[] args;
+
+	/**
+	 * The id of the thread the span happened on
+	 */
+	private final long threadId;
+
+	/**
+	 * The name of the thread the span happened on
+	 */
+	private final String threadName;
+
+	/**
+	 * The time the span began at, as given by {@link System#nanoTime()}
+	 */
+	private final long start;
+
+	/**
+	 * The time the span ended at, as given by {@link System#nanoTime()}
+	 */
+	private long end;
+
+	/**
+	 * Constructor, beginning the span on the current thread
+	 * 
+	 * @param trace
+	 *            {@link #trace}
+	 * @param name
+	 *            {@link #name}
+	 * @param category
+	 *            {@link #category}
+	 * @param args
+	 *            {@link #args}
+	 */
+	TraceSpan(final ExecutionTrace trace, final String name, final String category, final String... args) {
+		this.trace = trace;
+		this.name = name;
+		this.category = category;
+		this.args = args;
+		final Thread thread = Thread.currentThread();
+		this.threadId = thread.getId();
+		this.threadName = thread.getName();
+		this.start = System.nanoTime();
+	}
+
+	/**
+	 * Ends the span, and adds it to its trace
+	 */
+	void end() {
+		end = System.nanoTime();
+		trace.add(this);
+	}
+
+	/**
+	 * @return the name of the span
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return the category of the span
+	 */
+	public String getCategory() {
+		return category;
+	}
+
+	/**
+	 * @return additional information, as alternating names and values
+	 */
+	public String[] getArgs() {
+		return args;
+	}
+
+	/**
+	 * @return the id of the thread the span happened on
+	 */
+	public long getThreadId() {
+		return threadId;
+	}
+
+	/**
+	 * @return the name of the thread the span happened on
+	 */
+	public String getThreadName() {
+		return threadName;
+	}
+
+	/**
+	 * @return the time the span began at, as given by
+	 *         {@link System#nanoTime()}
+	 */
+	public long getStart() {
+		return start;
+	}
+
+	/**
+	 * @return the time the span ended at, as given by
+	 *         {@link System#nanoTime()}
+	 */
+	public long getEnd() {
+		return end;
+	}
+}
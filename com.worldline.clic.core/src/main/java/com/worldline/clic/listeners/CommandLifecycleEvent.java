@@ -0,0 +1,268 @@
+/*
+ * CLiC, Framework for Command Line Interpretation in Eclipse
+ *
+ *     Copyright (C) 2013 Worldline or third-party contributors as
+ *     indicated by the @author tags or express copyright attribution
+ *     statements applied by the authors.
+ *
+ *     This library is free software; you can redistribute it and/or
+ *     modify it under the terms of the GNU Lesser General Public
+ *     License as published by the Free Software Foundation; either
+ *     version 2.1 of the License.
+ *
+ *     This library is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *     Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public
+ *     License along with this library; if not, write to the Free Software
+ *     Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+package com.worldline.clic.listeners;
+
+import com.worldline.clic.core.ExecutionStatus;
+import com.worldline.clic.internal.stats.CommandPhase;
+import com.worldline.clic.listeners.internal.IEvent;
+
+/**
+ * Event describing a step of the lifecycle of a command line processed by
+ * CLiC, sent to the {@link CommandLifecycleListener}s. A command line is
+ * {@link Type#SUBMITTED}, then {@link Type#PARSED}; each command it executes
+ * (the command itself, or each step of a flow) is then
+ * {@link Type#STEP_STARTED} and {@link Type#STEP_FINISHED}, and the command
+ * line is eventually {@link Type#FINISHED}.
+ * 
+ * The events are only built when at least one listener has subscribed to them.
+ * 
+ * @author mvanbesien / aneveux
+ * @version 1.0
+ * @since 1.2
+ */
+public class CommandLifecycleEvent implements IEvent {
+
+	/**
+	 * The steps of the lifecycle of a command line
+	 * 
+	 * @author mvanbesien / aneveux
+	 * @version 1.0
+	 * @since 1.2
+	 */
+	public static enum Type {
+		/**
+		 * The command line has been received by the engine
+		 */
+		SUBMITTED,
+
+		/**
+		 * The command line has been broken into arguments
+		 */
+		PARSED,
+
+		/**
+		 * A command is about to be executed, on its own or as a step of a flow
+		 */
+		STEP_STARTED,
+
+		/**
+		 * A command has been executed, on its own or as a step of a flow
+		 */
+		STEP_FINISHED,
+
+		/**
+		 * The command line has been processed, and the
+		 * {@link ProcessedCommandListener}s notified
+		 */
+		FINISHED
+	}
+
+	/**
+	 * The step of the lifecycle
+	 */
+	private final Type type;
+
+	/**
+	 * The command line, as provided by the user
+	 */
+	private final String commandLine;
+
+	/**
+	 * The id of the command, or the name of the flow
+	 */
+	private final String commandId;
+
+	/**
+	 * The arguments of the command
+	 */
+	private final String[] arguments;
+
+	/**
+	 * The name of the flow the command is executed by
+	 */
+	private final String flowName;
+
+	/**
+	 * The duration of each phase, by {@link CommandPhase} ordinal
+	 */
+	private final long[] durations;
+
+	/**
+	 * The number of lines written
+	 */
+	private final int outputLines;
+
+	/**
+	 * The number of characters written
+	 */
+	private final long outputCharacters;
+
+	/**
+	 * The status of the execution
+	 */
+	private final ExecutionStatus status;
+
+	/**
+	 * The name of the thread the event has been sent from
+	 */
+	private final String thread;
+
+	/**
+	 * The time the event has been created at
+	 */
+	private final long timestamp;
+
+	/**
+	 * Creates a new lifecycle event
+	 * 
+	 * @param type
+	 *            the step of the lifecycle
+	 * @param commandLine
+	 *            the command line, as provided by the user
+	 * @param commandId
+	 *            the id of the command, or the name of the flow
+	 * @param arguments
+	 *            the arguments of the command, null if not known yet
+	 * @param flowName
+	 *            the name of the flow the command is executed by, null if the
+	 *            command isn't executed by a flow
+	 * @param durations
+	 *            the duration of each phase in nanoseconds, by
+	 *            {@link CommandPhase} ordinal, -1 for the phases which haven't
+	 *            been measured. Null if no phase has been measured.
+	 * @param outputLines
+	 *            the number of lines written
+	 * @param outputCharacters
+	 *            the number of characters written
+	 * @param status
+	 *            the status of the execution, null if not known yet
+	 */
+	public CommandLifecycleEvent(Type type, String commandLine, String commandId, String[] arguments,
+			String flowName, long[] durations, int outputLines, long outputCharacters, ExecutionStatus status) {
+		this.type = type;
+		this.commandLine = commandLine;
+		this.commandId = commandId;
+		this.arguments = arguments;
+		this.flowName = flowName;
+		this.durations = durations;
+		this.outputLines = outputLines;
+		this.outputCharacters = outputCharacters;
+		this.status = status;
+		this.thread = Thread.currentThread().getName();
+		this.timestamp = System.currentTimeMillis();
+	}
+
+	/**
+	 * @return the step of the lifecycle
+	 */
+	public Type getType() {
+		return this.type;
+	}
+
+	/**
+	 * @return the command line, as provided by the user
+	 */
+	public String getCommandLine() {
+		return this.commandLine;
+	}
+
+	/**
+	 * @return the id of the command, or the name of the flow for the events
+	 *         about the whole command line of a flow
+	 */
+	public String getCommandId() {
+		return this.commandId;
+	}
+
+	/**
+	 * @return a copy of the arguments of the command, null before the command
+	 *         line has been parsed
+	 */
+	public String[] getArguments() {
+		return this.arguments != null ? this.arguments.clone() : null;
+	}
+
+	/**
+	 * @return the name of the flow the command is executed by, null if the
+	 *         command isn't executed by a flow
+	 */
+	public String getFlowName() {
+		return this.flowName;
+	}
+
+	/**
+	 * Returns the duration of a phase of the execution. The phases of the
+	 * execution of a command are given by the {@link Type#STEP_FINISHED}
+	 * events, and by the {@link Type#FINISHED} event of a command executed on
+	 * its own; {@link CommandPhase#LISTENERS} and {@link CommandPhase#TOTAL}
+	 * are given by the {@link Type#FINISHED} events.
+	 * 
+	 * @param phase
+	 *            the phase
+	 * @return the duration of the phase in nanoseconds, or -1 if it hasn't
+	 *         been measured
+	 */
+	public long getDuration(CommandPhase phase) {
+		return this.durations != null ? this.durations[phase.ordinal()] : -1;
+	}
+
+	/**
+	 * @return the number of lines written by the command, or by the command
+	 *         line for the {@link Type#FINISHED} events
+	 */
+	public int getOutputLines() {
+		return this.outputLines;
+	}
+
+	/**
+	 * @return the number of characters written by the command, or by the
+	 *         command line for the {@link Type#FINISHED} events
+	 */
+	public long getOutputCharacters() {
+		return this.outputCharacters;
+	}
+
+	/**
+	 * @return the status of the execution, null for the events sent before
+	 *         the end of the execution
+	 */
+	public ExecutionStatus getStatus() {
+		return this.status;
+	}
+
+	/**
+	 * @return the name of the thread the event has been sent from, which is
+	 *         the one executing the command line or the step
+	 */
+	public String getThread() {
+		return this.thread;
+	}
+
+	/**
+	 * @return the time the event has been created at, in milliseconds since
+	 *         the epoch
+	 */
+	public long getTimestamp() {
+		return this.timestamp;
+	}
+
+}
@@ -0,0 +1,271 @@
+/*
+ * CLiC, Framework for Command Line Interpretation in Eclipse
+ *
+ *     Copyright (C) 2013 Worldline or third-party contributors as
+ *     indicated by the @author tags or express copyright attribution
+ *     statements applied by the authors.
+ *
+ *     This library is free software; you can redistribute it and/or
+ *     modify it under the terms of the GNU Lesser General Public
+ *     License as published by the Free Software Foundation; either
+ *     version 2.1 of the License.
+ *
+ *     This library is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *     Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public
+ *     License along with this library; if not, write to the Free Software
+ *     Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+package com.worldline.clic.listeners.internal;
+
+import static com.worldline.clic.internal.engine.ClicMessages.LISTENER_DISABLED;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.worldline.clic.core.ClicCore;
+
+/**
+ * The {@link CircuitBreaker} isolates the commands from a misbehaving
+ * listener. Each call to the listener which raises an exception, or which
+ * runs past the time budget of the listener if it has one, is counted as a
+ * failure. After
+ * a given number of failures in a row, the circuit is opened: the listener is
+ * skipped until a cool-down period has elapsed, then given a single trial
+ * call, which closes the circuit if it succeeds and opens it again
+ * otherwise.
+ * 
+ * The opening of the circuit is reported once, along with the last
+ * exception, rather than each failure being logged. The defaults are given
+ * by the following system properties:
+ * <ul>
+ * <li><i>com.worldline.clic.listeners.budget</i>: the time budget of the
+ * listeners declaring none, in milliseconds, 0 to disable it (0 by default,
+ * so that only the exceptions are counted),</li>
+ * <li><i>com.worldline.clic.listeners.failures</i>: the number of failures in
+ * a row opening the circuit (5 by default),</li>
+ * <li><i>com.worldline.clic.listeners.cooldown</i>: the time the listener is
+ * skipped for, in milliseconds (60000 by default).</li>
+ * </ul>
+ * 
+ * @author mvanbesien / aneveux
+ * @version 1.0
+ * @since 1.2
+ */
+public class CircuitBreaker {
+
+	/**
+	 * The states of the circuit
+	 * 
+	 * @author mvanbesien / aneveux
+	 * @version 1.0
+	 * @since 1.2
+	 */
+	public static enum State {
+		/**
+		 * The listener is notified
+		 */
+		CLOSED,
+
+		/**
+		 * The listener is skipped until the cool-down period has elapsed
+		 */
+		OPEN,
+
+		/**
+		 * The cool-down period has elapsed, and the listener is given a
+		 * trial call
+		 */
+		HALF_OPEN
+	}
+
+	/**
+	 * The time budget of the listeners when none is declared, in milliseconds
+	 */
+	public static final long DEFAULT_TIME_BUDGET = Long.getLong("com.worldline.clic.listeners.budget", 0);
+
+	/**
+	 * The number of failures in a row opening the circuit
+	 */
+	private static final int FAILURE_THRESHOLD = Math.max(1,
+			Integer.getInteger("com.worldline.clic.listeners.failures", 5));
+
+	/**
+	 * The time the listener is skipped for once the circuit is opened, in
+	 * nanoseconds
+	 */
+	private static final long COOL_DOWN = TimeUnit.MILLISECONDS.toNanos(Long.getLong(
+			"com.worldline.clic.listeners.cooldown", 60000));
+
+	/**
+	 * The class name of the listener
+	 */
+	private final String name;
+
+	/**
+	 * The time budget of the listener in nanoseconds, 0 if it has none
+	 */
+	private final long timeBudget;
+
+	/**
+	 * The state of the circuit
+	 */
+	private final AtomicReference<State> state = new AtomicReference<State>(State.CLOSED);
+
+	/**
+	 * The number of failures in a row
+	 */
+	private final AtomicInteger consecutiveFailures = new AtomicInteger();
+
+	/**
+	 * The time the cool-down period ends at, as given by
+	 * {@link System#nanoTime()}
+	 */
+	private volatile long openUntil;
+
+	/**
+	 * The number of times the circuit has been opened
+	 */
+	private final AtomicLong trips = new AtomicLong();
+
+	/**
+	 * The number of events the listener has been skipped for
+	 */
+	private final AtomicLong skipped = new AtomicLong();
+
+	/**
+	 * The number of calls which ran past the time budget
+	 */
+	private final AtomicLong overruns = new AtomicLong();
+
+	/**
+	 * Constructor
+	 * 
+	 * @param name
+	 *            the class name of the listener
+	 * @param timeBudget
+	 *            the time budget of the listener in milliseconds, 0 if it has
+	 *            none
+	 */
+	CircuitBreaker(final String name, final long timeBudget) {
+		this.name = name;
+		this.timeBudget = TimeUnit.MILLISECONDS.toNanos(Math.max(0, timeBudget));
+	}
+
+	/**
+	 * Tells whether the listener should be called. Once the cool-down period
+	 * has elapsed, a single caller is allowed to call it. The events are
+	 * counted as skipped otherwise.
+	 * 
+	 * @param events
+	 *            the number of events the listener would be called for
+	 * @return true if the listener should be called, false if it should be
+	 *         skipped
+	 */
+	boolean allows(final int events) {
+		final State current = state.get();
+		if (current == State.CLOSED)
+			return true;
+		if (current == State.OPEN && System.nanoTime() - openUntil >= 0
+				&& state.compareAndSet(State.OPEN, State.HALF_OPEN))
+			return true;
+		skipped.addAndGet(events);
+		return false;
+	}
+
+	/**
+	 * Records the outcome of a call to the listener, opening the circuit if
+	 * needed
+	 * 
+	 * @param elapsed
+	 *            the time spent by the listener, in nanoseconds
+	 * @param exception
+	 *            the exception raised by the listener, null if it succeeded
+	 * @return true if the exception is the first one of a series, and should
+	 *         then be logged
+	 */
+	boolean record(final long elapsed, final Exception exception) {
+		final boolean overrun = timeBudget > 0 && elapsed > timeBudget;
+		if (overrun)
+			overruns.incrementAndGet();
+		if (exception == null && !overrun) {
+			consecutiveFailures.set(0);
+			state.compareAndSet(State.HALF_OPEN, State.CLOSED);
+			return false;
+		}
+		final int failures = consecutiveFailures.incrementAndGet();
+		if (state.get() == State.HALF_OPEN)
+			open(State.HALF_OPEN);
+		else if (failures >= FAILURE_THRESHOLD && open(State.CLOSED))
+			ClicCore.getLogger().warning(
+					LISTENER_DISABLED.value(name, failures, TimeUnit.NANOSECONDS.toSeconds(COOL_DOWN)), exception);
+		return exception != null && failures == 1;
+	}
+
+	/**
+	 * Opens the circuit, unless another thread did it first
+	 * 
+	 * @param from
+	 *            the expected state of the circuit
+	 * @return true if the circuit has been opened by this call
+	 */
+	private boolean open(final State from) {
+		if (!state.compareAndSet(from, State.OPEN))
+			return false;
+		openUntil = System.nanoTime() + COOL_DOWN;
+		trips.incrementAndGet();
+		return true;
+	}
+
+	/**
+	 * @return the state of the circuit
+	 */
+	public State getState() {
+		return state.get();
+	}
+
+	/**
+	 * @return the time budget of the listener in milliseconds, 0 if it has
+	 *         none
+	 */
+	public long getTimeBudget() {
+		return TimeUnit.NANOSECONDS.toMillis(timeBudget);
+	}
+
+	/**
+	 * @return the number of times the circuit has been opened
+	 */
+	public long getTrips() {
+		return trips.get();
+	}
+
+	/**
+	 * @return the number of events the listener has been skipped for
+	 */
+	public long getSkipped() {
+		return skipped.get();
+	}
+
+	/**
+	 * @return the number of calls which ran past the time budget
+	 */
+	public long getOverruns() {
+		return overruns.get();
+	}
+
+	/**
+	 * Closes the circuit, and resets its counters
+	 */
+	void reset() {
+		state.set(State.CLOSED);
+		consecutiveFailures.set(0);
+		trips.set(0);
+		skipped.set(0);
+		overruns.set(0);
+	}
+}
@@ -0,0 +1,229 @@
+/*
+ * CLiC, Framework for Command Line Interpretation in Eclipse
+ *
+ *     Copyright (C) 2013 Worldline or third-party contributors as
+ *     indicated by the @author tags or express copyright attribution
+ *     statements applied by the authors.
+ *
+ *     This library is free software; you can redistribute it and/or
+ *     modify it under the terms of the GNU Lesser General Public
+ *     License as published by the Free Software Foundation; either
+ *     version 2.1 of the License.
+ *
+ *     This library is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *     Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public
+ *     License along with this library; if not, write to the Free Software
+ *     Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+package com.worldline.clic.listeners.internal;
+
+/**
+ * The {@link DispatchPolicy} describes how the events are sent to a listener
+ * declared as asynchronous in the extension point: rather than being notified
+ * on the thread of the command, the listener is fed from a bounded queue of
+ * its own, drained by a small pool of threads shared by all the asynchronous
+ * listeners. The policy tells how large the queue is, and what happens when an
+ * event is published while it is full.
+ * 
+ * The policy also tells whether the events are delivered in batches: a batch
+ * is delivered as soon as it holds {@link #getBatchSize()} events, or when its
+ * first event has been waiting for {@link #getBatchDelay()} milliseconds.
+ * 
+ * @author mvanbesien / aneveux
+ * @version 1.0
+ * @since 1.2
+ * 
+ * @see ListenerQueue
+ */
+public class DispatchPolicy {
+
+	/**
+	 * The available behaviors when an event is published while the queue of
+	 * the listener is full
+	 * 
+	 * @author mvanbesien / aneveux
+	 * @version 1.0
+	 * @since 1.2
+	 */
+	public static enum Overflow {
+		/**
+		 * The publishing thread waits for room in the queue, so that no event
+		 * is lost but a slow listener slows the commands down
+		 */
+		BLOCK("block"),
+
+		/**
+		 * The published event is dropped
+		 */
+		DROP("drop"),
+
+		/**
+		 * The oldest pending event is dropped to make room for the published
+		 * one, whatever the command it has been published for, so that the
+		 * listener always receives the latest events. This suits listeners
+		 * displaying a state rather than keeping a history.
+		 */
+		DROP_OLDEST("dropOldest"),
+
+		/**
+		 * The published event replaces the pending event of the same type
+		 * published for the same command, so that the listener only receives
+		 * the latest event of each command. When no such event is pending and
+		 * the queue is full, the oldest pending event is dropped as with
+		 * {@link #DROP_OLDEST}.
+		 */
+		COALESCE("coalesce");
+
+		/**
+		 * The value of the <i>overflow</i> attribute of the extension point
+		 */
+		private final String attribute;
+
+		/**
+		 * Constructor
+		 * 
+		 * @param attribute
+		 *            {@link #attribute}
+		 */
+		private Overflow(final String attribute) {
+			this.attribute = attribute;
+		}
+
+		/**
+		 * Simple getter for {@link #attribute}
+		 * 
+		 * @return {@link #attribute}
+		 */
+		public String getAttribute() {
+			return attribute;
+		}
+
+		/**
+		 * Returns the {@link Overflow} matching the value of the
+		 * <i>overflow</i> attribute of the extension point
+		 * 
+		 * @param value
+		 *            the value of the attribute, which may be null
+		 * @return the matching {@link Overflow}, {@link #BLOCK} by default
+		 */
+		public static Overflow fromAttribute(final String value) {
+			for (final Overflow overflow : values())
+				if (overflow.attribute.equals(value))
+					return overflow;
+			return BLOCK;
+		}
+	}
+
+	/**
+	 * The capacity of the queue when none is declared
+	 */
+	public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
+	/**
+	 * The maximum time a batch waits for more events when none is declared,
+	 * in milliseconds
+	 */
+	public static final long DEFAULT_BATCH_DELAY = 1000;
+
+	/**
+	 * The maximum number of events waiting for the listener
+	 */
+	private final int queueCapacity;
+
+	/**
+	 * What happens when an event is published while the queue is full
+	 */
+	private final Overflow overflow;
+
+	/**
+	 * The maximum number of events delivered at once, 1 if the events are
+	 * delivered one by one
+	 */
+	private final int batchSize;
+
+	/**
+	 * The maximum time the first event of a batch waits for the following
+	 * ones, in milliseconds
+	 */
+	private final long batchDelay;
+
+	/**
+	 * Constructor for a listener receiving the events one by one
+	 * 
+	 * @param queueCapacity
+	 *            {@link #queueCapacity}, at least 1
+	 * @param overflow
+	 *            {@link #overflow}
+	 */
+	public DispatchPolicy(final int queueCapacity, final Overflow overflow) {
+		this(queueCapacity, overflow, 1, 0);
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param queueCapacity
+	 *            {@link #queueCapacity}, at least 1
+	 * @param overflow
+	 *            {@link #overflow}
+	 * @param batchSize
+	 *            {@link #batchSize}, at least 1 and at most the queue capacity
+	 * @param batchDelay
+	 *            {@link #batchDelay}
+	 */
+	public DispatchPolicy(final int queueCapacity, final Overflow overflow, final int batchSize,
+			final long batchDelay) {
+		this.queueCapacity = Math.max(1, queueCapacity);
+		this.overflow = overflow;
+		this.batchSize = Math.max(1, Math.min(batchSize, this.queueCapacity));
+		this.batchDelay = Math.max(0, batchDelay);
+	}
+
+	/**
+	 * Simple getter for {@link #queueCapacity}
+	 * 
+	 * @return {@link #queueCapacity}
+	 */
+	public int getQueueCapacity() {
+		return queueCapacity;
+	}
+
+	/**
+	 * Simple getter for {@link #overflow}
+	 * 
+	 * @return {@link #overflow}
+	 */
+	public Overflow getOverflow() {
+		return overflow;
+	}
+
+	/**
+	 * Simple getter for {@link #batchSize}
+	 * 
+	 * @return {@link #batchSize}
+	 */
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	/**
+	 * Simple getter for {@link #batchDelay}
+	 * 
+	 * @return {@link #batchDelay}
+	 */
+	public long getBatchDelay() {
+		return batchDelay;
+	}
+
+	/**
+	 * @return true if the events are delivered in batches
+	 */
+	public boolean isBatched() {
+		return batchSize > 1;
+	}
+
+}
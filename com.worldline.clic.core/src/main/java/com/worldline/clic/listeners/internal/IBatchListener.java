@@ -0,0 +1,49 @@
+/*
+ * CLiC, Framework for Command Line Interpretation in Eclipse
+ *
+ *     Copyright (C) 2013 Worldline or third-party contributors as
+ *     indicated by the @author tags or express copyright attribution
+ *     statements applied by the authors.
+ *
+ *     This library is free software; you can redistribute it and/or
+ *     modify it under the terms of the GNU Lesser General Public
+ *     License as published by the Free Software Foundation; either
+ *     version 2.1 of the License.
+ *
+ *     This library is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *     Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public
+ *     License along with this library; if not, write to the Free Software
+ *     Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+package com.worldline.clic.listeners.internal;
+
+import java.util.List;
+
+/**
+ * Interface for the listeners able to handle several events at once, such as
+ * the ones writing the events to a database or a file. When such a listener is
+ * declared with a <i>batchSize</i> in the extension point, the events are
+ * delivered in batches bounded by that size and by the <i>batchDelay</i>.
+ * 
+ * @author mvanbesien / aneveux
+ * @version 1.0
+ * @since 1.2
+ * 
+ * @see DispatchPolicy
+ */
+public interface IBatchListener<E extends IEvent> extends IListener<E> {
+
+	/**
+	 * Called with events published since the previous batch, in the order
+	 * they have been published.
+	 * 
+	 * @param events
+	 *            the events, never empty
+	 */
+	public void onEvents(List<E> events);
+
+}
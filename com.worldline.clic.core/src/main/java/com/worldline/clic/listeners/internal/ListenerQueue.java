@@ -0,0 +1,381 @@
+/*
+ * CLiC, Framework for Command Line Interpretation in Eclipse
+ *
+ *     Copyright (C) 2013 Worldline or third-party contributors as
+ *     indicated by the @author tags or express copyright attribution
+ *     statements applied by the authors.
+ *
+ *     This library is free software; you can redistribute it and/or
+ *     modify it under the terms of the GNU Lesser General Public
+ *     License as published by the Free Software Foundation; either
+ *     version 2.1 of the License.
+ *
+ *     This library is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *     Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public
+ *     License along with this library; if not, write to the Free Software
+ *     Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+package com.worldline.clic.listeners.internal;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.worldline.clic.listeners.internal.DispatchPolicy.Overflow;
+
+/**
+ * The {@link ListenerQueue} holds the events waiting for a listener notified
+ * asynchronously. It is drained by a pool of daemon threads shared by all the
+ * queues, whose size is given by the
+ * <i>com.worldline.clic.listeners.threads</i> system property (2 by default).
+ * A queue is drained by one thread at a time, so that its listener receives
+ * the events one after the other, in the order they have been published.
+ * 
+ * When the listener accepts batches, the queue is drained as soon as it holds
+ * a full batch, or once the batch delay has elapsed since the first event of
+ * the batch has been published.
+ * 
+ * With {@link Overflow#COALESCE}, an event replaces the pending event of the
+ * same type published for the same command, which moves to the end of the
+ * queue, as it is now the latest event.
+ * 
+ * @author mvanbesien / aneveux
+ * @version 1.0
+ * @since 1.2
+ * 
+ * @see DispatchPolicy
+ */
+public class ListenerQueue {
+
+	/**
+	 * Static internal class, in charge of holding the pool draining the queues
+	 */
+	private static class ExecutorHolder {
+		static ScheduledThreadPoolExecutor executor = createExecutor();
+
+		private static ScheduledThreadPoolExecutor createExecutor() {
+			final ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(Math.max(1,
+					Integer.getInteger("com.worldline.clic.listeners.threads", 2)), new ThreadFactory() {
+
+				private final AtomicInteger counter = new AtomicInteger();
+
+				@Override
+				public Thread newThread(final Runnable runnable) {
+					final Thread thread = new Thread(runnable, "CLiC listeners #" + counter.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+			// The delayed drains cancelled by a full batch shouldn't pile up
+			executor.setRemoveOnCancelPolicy(true);
+			return executor;
+		}
+	}
+
+	/**
+	 * The maximum number of events delivered in a row before the thread is
+	 * handed over to the other queues
+	 */
+	private static final int DRAIN_BATCH = 64;
+
+	/**
+	 * The listener fed by this queue
+	 */
+	private final RegisteredListener listener;
+
+	/**
+	 * The policy of the listener
+	 */
+	private final DispatchPolicy policy;
+
+	/**
+	 * The events waiting for the listener
+	 */
+	private final BlockingQueue<PendingEvent> events;
+
+	/**
+	 * Whether the queue has been handed over to the pool in order to be drained
+	 */
+	private final AtomicBoolean scheduled = new AtomicBoolean();
+
+	/**
+	 * The number of published events
+	 */
+	private final AtomicLong published = new AtomicLong();
+
+	/**
+	 * The number of events dropped because the queue was full, or replaced by
+	 * a newer event of the same command
+	 */
+	private final AtomicLong dropped = new AtomicLong();
+
+	/**
+	 * The greatest number of events which have been waiting at the same time
+	 */
+	private final AtomicInteger maxDepth = new AtomicInteger();
+
+	/**
+	 * The number of delivered batches
+	 */
+	private final AtomicLong batches = new AtomicLong();
+
+	/**
+	 * The drain waiting for the batch delay to elapse, if any
+	 */
+	private volatile ScheduledFuture<?> delayedDrain;
+
+	/**
+	 * Drains the queue, then hands it over to the pool again if events have
+	 * been published in the meantime
+	 */
+	private final Runnable drainer = new Runnable() {
+		@Override
+		public void run() {
+			try {
+				if (policy.isBatched())
+					drainBatches();
+				else
+					for (int i = 0; i < DRAIN_BATCH; i++) {
+						final PendingEvent pending = events.poll();
+						if (pending == null)
+							break;
+						listener.deliver(pending.event, pending.commandId, pending.argumentCount,
+								pending.outputLines);
+					}
+			} finally {
+				scheduled.set(false);
+				if (!events.isEmpty())
+					schedule();
+			}
+		}
+	};
+
+	/**
+	 * Constructor
+	 * 
+	 * @param listener
+	 *            the listener fed by this queue
+	 * @param policy
+	 *            the policy of the listener
+	 */
+	ListenerQueue(final RegisteredListener listener, final DispatchPolicy policy) {
+		this.listener = listener;
+		this.policy = policy;
+		this.events = new ArrayBlockingQueue<PendingEvent>(policy.getQueueCapacity());
+	}
+
+	/**
+	 * Publishes an event to the listener, applying the {@link Overflow} of its
+	 * policy if the queue is full
+	 * 
+	 * @param event
+	 *            the event
+	 * @param commandId
+	 *            the id of the command or flow, possibly null
+	 * @param argumentCount
+	 *            the number of arguments of the command or flow
+	 * @param outputLines
+	 *            the number of lines written by the command or flow
+	 */
+	void publish(final IEvent event, final String commandId, final int argumentCount, final int outputLines) {
+		final PendingEvent pending = new PendingEvent(event, commandId, argumentCount, outputLines);
+		published.incrementAndGet();
+		if (policy.getOverflow() == Overflow.COALESCE)
+			coalesce(pending);
+		else if (!events.offer(pending))
+			switch (policy.getOverflow()) {
+			case DROP:
+				dropped.incrementAndGet();
+				break;
+			case DROP_OLDEST:
+				while (!events.offer(pending))
+					if (events.poll() != null)
+						dropped.incrementAndGet();
+				break;
+			default:
+				try {
+					events.put(pending);
+				} catch (final InterruptedException e) {
+					Thread.currentThread().interrupt();
+					dropped.incrementAndGet();
+				}
+			}
+		final int depth = events.size();
+		int max = maxDepth.get();
+		while (depth > max && !maxDepth.compareAndSet(max, depth))
+			max = maxDepth.get();
+		schedule();
+	}
+
+	/**
+	 * Queues an event in place of the pending event of the same type published
+	 * for the same command, if any, dropping the oldest pending events if the
+	 * queue is still full. The publishers are serialized, so that two events of
+	 * the same command cannot both be queued, while the queue is drained
+	 * concurrently: an event taken by the drainer meanwhile is simply not
+	 * replaced.
+	 * 
+	 * @param pending
+	 *            the published event
+	 */
+	private synchronized void coalesce(final PendingEvent pending) {
+		for (final Iterator<PendingEvent> iterator = events.iterator(); iterator.hasNext();) {
+			final PendingEvent queued = iterator.next();
+			if (queued.event.getClass() == pending.event.getClass()
+					&& (queued.commandId == null ? pending.commandId == null : queued.commandId
+							.equals(pending.commandId))) {
+				if (events.remove(queued))
+					dropped.incrementAndGet();
+				break;
+			}
+		}
+		while (!events.offer(pending))
+			if (events.poll() != null)
+				dropped.incrementAndGet();
+	}
+
+	/**
+	 * Delivers the full batches waiting in the queue, and the last one if its
+	 * delay has elapsed
+	 */
+	private void drainBatches() {
+		final int batchSize = policy.getBatchSize();
+		final List<PendingEvent> pendings = new ArrayList<PendingEvent>(batchSize);
+		for (int i = 0; i < DRAIN_BATCH && (events.size() >= batchSize || remainingDelay() <= 0); i++) {
+			pendings.clear();
+			events.drainTo(pendings, batchSize);
+			if (pendings.isEmpty())
+				return;
+			batches.incrementAndGet();
+			listener.deliverBatch(pendings);
+		}
+	}
+
+	/**
+	 * @return the time left before the batch delay of the oldest pending event
+	 *         elapses, in nanoseconds, 0 if there is no pending event
+	 */
+	private long remainingDelay() {
+		final PendingEvent first = events.peek();
+		return first != null ? first.published + TimeUnit.MILLISECONDS.toNanos(policy.getBatchDelay())
+				- System.nanoTime() : 0;
+	}
+
+	/**
+	 * Hands the queue over to the pool, unless it already has been. When the
+	 * listener accepts batches and the current one isn't full, the queue is
+	 * only drained once the batch delay has elapsed, unless the batch gets
+	 * full in the meantime.
+	 */
+	private void schedule() {
+		final boolean partialBatch = policy.isBatched() && events.size() < policy.getBatchSize();
+		if (scheduled.compareAndSet(false, true)) {
+			if (partialBatch)
+				delayedDrain = ExecutorHolder.executor.schedule(drainer, Math.max(0, remainingDelay()),
+						TimeUnit.NANOSECONDS);
+			else
+				ExecutorHolder.executor.execute(drainer);
+		} else if (policy.isBatched() && !partialBatch) {
+			final ScheduledFuture<?> drain = delayedDrain;
+			if (drain != null && drain.cancel(false))
+				ExecutorHolder.executor.execute(drainer);
+		}
+	}
+
+	/**
+	 * @return the {@link DispatchPolicy} of the listener
+	 */
+	public DispatchPolicy getPolicy() {
+		return policy;
+	}
+
+	/**
+	 * @return the number of events currently waiting for the listener
+	 */
+	public int getDepth() {
+		return events.size();
+	}
+
+	/**
+	 * @return the greatest number of events which have been waiting at the
+	 *         same time
+	 */
+	public int getMaxDepth() {
+		return maxDepth.get();
+	}
+
+	/**
+	 * @return the number of events published to the listener
+	 */
+	public long getPublished() {
+		return published.get();
+	}
+
+	/**
+	 * @return the number of events dropped because the queue was full: the
+	 *         published ones with {@link Overflow#DROP}, the pending ones with
+	 *         {@link Overflow#DROP_OLDEST}, and the pending ones replaced by a
+	 *         newer event with {@link Overflow#COALESCE}. The events taken from the queue
+	 *         while the circuit of the listener was open are counted by its
+	 *         {@link CircuitBreaker#getSkipped()}.
+	 */
+	public long getDropped() {
+		return dropped.get();
+	}
+
+	/**
+	 * @return the number of batches delivered to the listener, 0 if it
+	 *         receives the events one by one
+	 */
+	public long getBatches() {
+		return batches.get();
+	}
+
+	/**
+	 * Resets the counters of the queue
+	 */
+	void reset() {
+		published.set(0);
+		dropped.set(0);
+		batches.set(0);
+		maxDepth.set(events.size());
+	}
+
+	/**
+	 * An event waiting in the queue, along with the information about the
+	 * command it has been published for
+	 */
+	static final class PendingEvent {
+
+		final IEvent event;
+
+		final String commandId;
+
+		final int argumentCount;
+
+		final int outputLines;
+
+		private final long published = System.nanoTime();
+
+		private PendingEvent(final IEvent event, final String commandId, final int argumentCount,
+				final int outputLines) {
+			this.event = event;
+			this.commandId = commandId;
+			this.argumentCount = argumentCount;
+			this.outputLines = outputLines;
+		}
+	}
+}
@@ -0,0 +1,437 @@
+package com.worldline.clic.listeners.internal;
+
+import java.util.ArrayList;
+/*
+ * CLiC, Framework for Command Line Interpretation in Eclipse
+ *
+ *     Copyright (C) 2013 Worldline or third-party contributors as
+ *     indicated by the @author tags or express copyright attribution
+ *     statements applied by the authors.
+ *
+ *     This library is free software; you can redistribute it and/or
+ *     modify it under the terms of the GNU Lesser General Public
+ *     License as published by the Free Software Foundation; either
+ *     version 2.1 of the License.
+ *
+ *     This library is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *     Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public
+ *     License along with this library; if not, write to the Free Software
+ *     Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.worldline.clic.core.ClicCore;
+import com.worldline.clic.core.ContributionProvider;
+import com.worldline.clic.core.ListenerDescriptor;
+import com.worldline.clic.internal.stats.EngineProbe;
+import com.worldline.clic.internal.stats.LatencyHistogram;
+
+/**
+ * 
+ * @author mvanbesien/ahavez
+ * 
+ */
+public class ListenerRegistry {
+
+	/**
+	 * Static internal class, in charge of holding the Singleton instance.
+	 * 
+	 * @generated Singleton Generator on 2013-12-03 17:34:14 CET
+	 */
+	private static class SingletonHolder {
+		static ListenerRegistry instance = new ListenerRegistry();
+	}
+
+	/**
+	 * Returns the Singleton instance of this class.
+	 * 
+	 * @generated Singleton Generator on 2013-12-03 17:34:14 CET
+	 */
+	public static ListenerRegistry getInstance() {
+		return SingletonHolder.instance;
+	}
+
+	/**
+	 * Default constructor. Generated because used in singleton instanciation &
+	 * needs to be private Implementation enriched to load the listeners of the
+	 * contribution providers
+	 * 
+	 * @generated Singleton Generator on 2013-12-03 17:34:14 CET
+	 */
+	private ListenerRegistry() {
+		for (ContributionProvider provider : ClicCore.getContributionProviders()) {
+			try {
+				for (ListenerDescriptor descriptor : provider.getListeners()) {
+					register(createWrapper(descriptor));
+				}
+			} catch (RuntimeException e) {
+				ClicCore.getLogger().error(e.getMessage(), e);
+			}
+		}
+	}
+
+	/**
+	 * Constructor used in order to work with the provided listeners, instead
+	 * of the ones contributed by the providers. The listeners are notified
+	 * synchronously.
+	 * 
+	 * @param listeners : Listeners to register.
+	 */
+	ListenerRegistry(Collection<? extends IListener<?>> listeners) {
+		for (IListener<?> listener : listeners) {
+			register(new ListenerWrapper(listener));
+		}
+	}
+
+	/**
+	 * Creates the {@link ListenerWrapper} of a contributed listener. A listener
+	 * receiving the events in batches without implementing
+	 * {@link IBatchListener} is reported, as its batches are delivered event
+	 * by event, and so is a batch size exceeding the queue capacity, which is
+	 * reduced to the capacity as a batch could never be filled otherwise.
+	 * 
+	 * @param descriptor : Declaration of the listener.
+	 * @return the {@link ListenerWrapper} of the listener
+	 */
+	private static ListenerWrapper createWrapper(ListenerDescriptor descriptor) {
+		DispatchPolicy policy = null;
+		if (descriptor.isAsynchronous() || descriptor.getBatchSize() > 1) {
+			int queueCapacity = Math.max(1, descriptor.getQueueCapacity());
+			int batchSize = descriptor.getBatchSize();
+			if (batchSize > queueCapacity) {
+				ClicCore.getLogger().warning(
+						descriptor.getName() + " declares batches of " + batchSize + " events in a queue of "
+								+ queueCapacity + " events, its batches will hold " + queueCapacity + " events",
+						null);
+				batchSize = queueCapacity;
+			}
+			policy = new DispatchPolicy(queueCapacity, DispatchPolicy.Overflow.fromAttribute(descriptor
+					.getOverflow()), batchSize, descriptor.getBatchDelay());
+		}
+		if (descriptor.getListener() != null && policy != null && policy.isBatched()
+				&& !(descriptor.getListener() instanceof IBatchListener<?>)) {
+			ClicCore.getLogger().warning(
+					descriptor.getName() + " does not implement " + IBatchListener.class.getName()
+							+ ", its batches will be delivered event by event", null);
+		}
+		ListenerWrapper wrapper = descriptor.getListener() != null ? new ListenerWrapper(descriptor.getListener(),
+				policy) : new ListenerWrapper(descriptor.getName(), descriptor.getEventType(), descriptor.getFactory(),
+				policy);
+		return wrapper.withTimeBudget(descriptor.getTimeBudget());
+	}
+
+	/**
+	 * Registers a listener, and prepares its dispatch statistics and its
+	 * queue if it is notified asynchronously.
+	 * 
+	 * @param wrapper : Declaration of the listener to register.
+	 */
+	private void register(ListenerWrapper wrapper) {
+		String name = wrapper.getName();
+		if (!this.dispatchTimes.containsKey(name)) {
+			this.dispatchTimes.put(name, new LatencyHistogram());
+			this.dispatchFailures.put(name, new AtomicLong());
+			this.breakers.put(name, new CircuitBreaker(name, wrapper.getTimeBudget()));
+		}
+		RegisteredListener registered = new RegisteredListener(wrapper, this.dispatchTimes.get(name),
+				this.dispatchFailures.get(name), this.breakers.get(name));
+		if (registered.queue != null && !this.queues.containsKey(name)) {
+			this.queues.put(name, registered.queue);
+		}
+		this.registeredListeners.add(registered);
+	}
+
+	/**
+	 * List of all the listeners contributed by the providers, along with their
+	 * dispatch statistics.
+	 */
+	private final List<RegisteredListener> registeredListeners = new ArrayList<RegisteredListener>();
+
+	/**
+	 * The listeners of each type, computed the first time the type is asked
+	 * for. As the listeners are all registered at construction time, an entry
+	 * never needs to be invalidated.
+	 */
+	private final Map<Class<?>, TypeIndex> typeIndexes = new ConcurrentHashMap<Class<?>, TypeIndex>();
+
+	/**
+	 * Time spent by each listener to handle the events, by listener class name
+	 */
+	private final Map<String, LatencyHistogram> dispatchTimes = new ConcurrentHashMap<String, LatencyHistogram>();
+
+	/**
+	 * Number of events each listener failed to handle, by listener class name
+	 */
+	private final Map<String, AtomicLong> dispatchFailures = new ConcurrentHashMap<String, AtomicLong>();
+
+	/**
+	 * Queues of the listeners notified asynchronously, by listener class name
+	 */
+	private final Map<String, ListenerQueue> queues = new ConcurrentHashMap<String, ListenerQueue>();
+
+	/**
+	 * Circuit breakers of the listeners, by listener class name
+	 */
+	private final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<String, CircuitBreaker>();
+
+	/**
+	 * Returns all the listeners registered for CLiC. The listeners declared
+	 * lazily are only returned once they have been created.
+	 * 
+	 * @return
+	 */
+	public Collection<IListener<?>> getAllListeners() {
+		Collection<IListener<?>> listeners = new ArrayList<IListener<?>>();
+		for (RegisteredListener registered : this.registeredListeners) {
+			if (registered.peek() != null) {
+				listeners.add(registered.peek());
+			}
+		}
+		return Collections.unmodifiableCollection(listeners);
+	}
+
+	/**
+	 * Returns the number of listeners registered for CLiC, including the ones
+	 * declared lazily which haven't been created yet
+	 * 
+	 * @return the number of listeners
+	 */
+	public int getListenerCount() {
+		return this.registeredListeners.size();
+	}
+
+	/**
+	 * Returns all the listeners of a specific type, registered for CLiC. The
+	 * returned collection is computed once per type, then shared, unless some
+	 * of the listeners are declared lazily: they are then created, and the
+	 * collection computed on each call.
+	 * 
+	 * @param clazz : Listener type.
+	 * @return an unmodifiable collection of the listeners
+	 */
+	@SuppressWarnings("unchecked")
+	public <T extends IListener<?>> Collection<T> getListenersFor(Class<T> clazz) {
+		TypeIndex index = indexOf(clazz);
+		if (!index.lazy) {
+			return (Collection<T>) index.listeners;
+		}
+		Collection<T> validListeners = new ArrayList<T>();
+		for (RegisteredListener registered : index.entries) {
+			IListener<?> listener = registered.get();
+			if (clazz.isInstance(listener)) {
+				validListeners.add((T) listener);
+			}
+		}
+		return Collections.unmodifiableCollection(validListeners);
+	}
+
+	/**
+	 * Tells whether at least one listener of a specific type is registered,
+	 * so that events nobody has subscribed to don't need to be built.
+	 * 
+	 * @param clazz : Listener type.
+	 * @return true if a listener of the type is registered
+	 */
+	public boolean hasListeners(Class<? extends IListener<?>> clazz) {
+		return indexOf(clazz).entries.length > 0;
+	}
+
+	/**
+	 * Returns the {@link TypeIndex} of a listener type, computing it if it is
+	 * the first time the type is asked for. The listeners declared lazily
+	 * which haven't been created yet are indexed after the type of the events
+	 * they declare, so that they don't need to be created.
+	 * 
+	 * @param clazz : Listener type.
+	 * @return the {@link TypeIndex} of the type
+	 */
+	private TypeIndex indexOf(Class<?> clazz) {
+		TypeIndex index = this.typeIndexes.get(clazz);
+		if (index == null) {
+			Class<?> eventType = eventTypeOf(clazz);
+			List<RegisteredListener> validListeners = new ArrayList<RegisteredListener>();
+			for (RegisteredListener registered : this.registeredListeners) {
+				IListener<?> listener = registered.peek();
+				if (listener != null ? clazz.isInstance(listener) : registered.handles(eventType)) {
+					validListeners.add(registered);
+				}
+			}
+			// Concurrent computations build equal indexes, either one can be kept
+			index = new TypeIndex(validListeners.toArray(new RegisteredListener[validListeners.size()]));
+			this.typeIndexes.put(clazz, index);
+		}
+		return index;
+	}
+
+	/**
+	 * Finds the type of the events handled by a listener type, from the type
+	 * argument it gives to {@link IListener}
+	 * 
+	 * @param clazz : Listener type.
+	 * @return the type of the events, or null if it can't be found
+	 */
+	private static Class<?> eventTypeOf(Class<?> clazz) {
+		if (clazz == null || clazz == IListener.class) {
+			return null;
+		}
+		for (Type type : clazz.getGenericInterfaces()) {
+			Type raw = type instanceof ParameterizedType ? ((ParameterizedType) type).getRawType() : type;
+			if (raw == IListener.class && type instanceof ParameterizedType) {
+				Type argument = ((ParameterizedType) type).getActualTypeArguments()[0];
+				return argument instanceof Class<?> ? (Class<?>) argument : null;
+			}
+			Class<?> eventType = raw instanceof Class<?> ? eventTypeOf((Class<?>) raw) : null;
+			if (eventType != null) {
+				return eventType;
+			}
+		}
+		return eventTypeOf(clazz.getSuperclass());
+	}
+
+	/**
+	 * Sends an event to all the listeners of a specific type. The listeners
+	 * notified synchronously are called on the current thread: the time spent
+	 * by each of them is recorded, and the exceptions it raises are logged
+	 * without preventing the other listeners from being notified. The event is
+	 * published to the queues of the listeners notified asynchronously.
+	 * 
+	 * @param clazz : Listener type.
+	 * @param event : Event to send.
+	 */
+	public <E extends IEvent, T extends IListener<E>> void dispatch(Class<T> clazz, E event) {
+		dispatch(clazz, event, null, 0, 0);
+	}
+
+	/**
+	 * Sends an event about a command or flow to all the listeners of a
+	 * specific type, just like {@link #dispatch(Class, IEvent)}. The time
+	 * spent by each listener is notified to the {@link EngineProbe} along with
+	 * the provided information about the command.
+	 * 
+	 * @param clazz : Listener type.
+	 * @param event : Event to send.
+	 * @param commandId : Id of the command or flow.
+	 * @param argumentCount : Number of arguments of the command or flow.
+	 * @param outputLines : Number of lines written by the command or flow.
+	 */
+	public <E extends IEvent, T extends IListener<E>> void dispatch(Class<T> clazz, E event, String commandId,
+			int argumentCount, int outputLines) {
+		RegisteredListener[] listeners = indexOf(clazz).entries;
+		for (int i = 0; i < listeners.length; i++) {
+			RegisteredListener registered = listeners[i];
+			// The listeners declared lazily are created with the first event
+			if (registered.factory != null && !clazz.isInstance(registered.get())) {
+				continue;
+			}
+			if (registered.queue != null) {
+				registered.queue.publish(event, commandId, argumentCount, outputLines);
+			} else {
+				registered.deliver(event, commandId, argumentCount, outputLines);
+			}
+		}
+	}
+
+	/**
+	 * Returns the time spent by each listener to handle the events
+	 * 
+	 * @return a map of histograms, by listener class name
+	 */
+	public Map<String, LatencyHistogram> getDispatchTimes() {
+		return Collections.unmodifiableMap(this.dispatchTimes);
+	}
+
+	/**
+	 * Returns the number of events each listener failed to handle
+	 * 
+	 * @param listenerName : Listener class name.
+	 * @return the number of failures
+	 */
+	public long getDispatchFailures(String listenerName) {
+		AtomicLong failures = this.dispatchFailures.get(listenerName);
+		return failures != null ? failures.get() : 0;
+	}
+
+	/**
+	 * Resets the dispatch times and failures of all the listeners, and closes
+	 * their circuits
+	 */
+	public void resetDispatchStatistics() {
+		for (LatencyHistogram histogram : this.dispatchTimes.values())
+			histogram.reset();
+		for (AtomicLong failures : this.dispatchFailures.values())
+			failures.set(0);
+		for (ListenerQueue queue : this.queues.values())
+			queue.reset();
+		for (CircuitBreaker breaker : this.breakers.values())
+			breaker.reset();
+	}
+
+	/**
+	 * Returns the circuit breakers of the listeners, giving whether they are
+	 * currently skipped and how many times they have been
+	 * 
+	 * @return a map of circuit breakers, by listener class name
+	 */
+	public Map<String, CircuitBreaker> getCircuitBreakers() {
+		return Collections.unmodifiableMap(this.breakers);
+	}
+
+	/**
+	 * Returns the queues of the listeners notified asynchronously, giving
+	 * their depth and the number of events they dropped
+	 * 
+	 * @return a map of queues, by listener class name
+	 */
+	public Map<String, ListenerQueue> getQueues() {
+		return Collections.unmodifiableMap(this.queues);
+	}
+
+	/**
+	 * The listeners of a type, as an array iterated over when dispatching an
+	 * event, and as the collection returned by
+	 * {@link ListenerRegistry#getListenersFor(Class)}
+	 */
+	private static final class TypeIndex {
+
+		/**
+		 * The listeners of the type, in the registration order
+		 */
+		private final RegisteredListener[] entries;
+
+		/**
+		 * An unmodifiable view of the listeners of the type, null if some of
+		 * them are declared lazily
+		 */
+		private final Collection<IListener<?>> listeners;
+
+		/**
+		 * Whether some of the listeners are declared lazily
+		 */
+		private final boolean lazy;
+
+		private TypeIndex(RegisteredListener[] entries) {
+			this.entries = entries;
+			boolean lazy = false;
+			IListener<?>[] listeners = new IListener<?>[entries.length];
+			for (int i = 0; i < entries.length; i++) {
+				listeners[i] = entries[i].peek();
+				lazy |= entries[i].factory != null;
+			}
+			this.lazy = lazy;
+			this.listeners = lazy ? null : Collections.unmodifiableList(Arrays.asList(listeners));
+		}
+	}
+
+}
@@ -0,0 +1,189 @@
+/*
+ * CLiC, Framework for Command Line Interpretation in Eclipse
+ *
+ *     Copyright (C) 2013 Worldline or third-party contributors as
+ *     indicated by the @author tags or express copyright attribution
+ *     statements applied by the authors.
+ *
+ *     This library is free software; you can redistribute it and/or
+ *     modify it under the terms of the GNU Lesser General Public
+ *     License as published by the Free Software Foundation; either
+ *     version 2.1 of the License.
+ *
+ *     This library is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *     Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public
+ *     License along with this library; if not, write to the Free Software
+ *     Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+package com.worldline.clic.listeners.internal;
+
+import com.worldline.clic.core.ListenerFactory;
+
+/**
+ * A {@link ListenerWrapper} is a listener as declared to the
+ * {@link ListenerRegistry}, along with the way the events are sent to it.
+ * 
+ * A listener can be declared lazily, with the type of the events it handles
+ * and a {@link ListenerFactory}: it is then only created, which may activate
+ * the plugin contributing it, when an event of that type is first published.
+ * 
+ * @author mvanbesien / aneveux
+ * @version 1.0
+ * @since 1.2
+ */
+public class ListenerWrapper {
+
+	/**
+	 * The listener, null if it is declared lazily
+	 */
+	private final IListener<?> listener;
+
+	/**
+	 * The factory creating the listener, null if it is not declared lazily
+	 */
+	private final ListenerFactory factory;
+
+	/**
+	 * The class name of the listener
+	 */
+	private final String name;
+
+	/**
+	 * The class name of the events handled by the listener, null if it is not
+	 * declared lazily
+	 */
+	private final String eventType;
+
+	/**
+	 * How the events are sent to the listener, null if they are sent
+	 * synchronously, on the thread of the command
+	 */
+	private final DispatchPolicy dispatchPolicy;
+
+	/**
+	 * The time budget of the listener in milliseconds, 0 if it has none
+	 */
+	private long timeBudget = CircuitBreaker.DEFAULT_TIME_BUDGET;
+
+	/**
+	 * Constructor for a listener notified synchronously
+	 * 
+	 * @param listener
+	 *            the listener
+	 */
+	public ListenerWrapper(final IListener<?> listener) {
+		this(listener, null);
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param listener
+	 *            the listener
+	 * @param dispatchPolicy
+	 *            the listener's {@link DispatchPolicy}, null if it is notified
+	 *            synchronously
+	 */
+	public ListenerWrapper(final IListener<?> listener, final DispatchPolicy dispatchPolicy) {
+		this.listener = listener;
+		this.factory = null;
+		this.name = listener.getClass().getName();
+		this.eventType = null;
+		this.dispatchPolicy = dispatchPolicy;
+	}
+
+	/**
+	 * Constructor for a listener declared lazily
+	 * 
+	 * @param name
+	 *            the class name of the listener
+	 * @param eventType
+	 *            the class name of the events handled by the listener
+	 * @param factory
+	 *            the {@link ListenerFactory} creating the listener
+	 * @param dispatchPolicy
+	 *            the listener's {@link DispatchPolicy}, null if it is notified
+	 *            synchronously
+	 */
+	public ListenerWrapper(final String name, final String eventType, final ListenerFactory factory,
+			final DispatchPolicy dispatchPolicy) {
+		this.listener = null;
+		this.factory = factory;
+		this.name = name;
+		this.eventType = eventType;
+		this.dispatchPolicy = dispatchPolicy;
+	}
+
+	/**
+	 * Simple getter for {@link #listener}
+	 * 
+	 * @return {@link #listener}
+	 */
+	public IListener<?> getListener() {
+		return listener;
+	}
+
+	/**
+	 * Simple getter for {@link #factory}
+	 * 
+	 * @return {@link #factory}
+	 */
+	public ListenerFactory getFactory() {
+		return factory;
+	}
+
+	/**
+	 * Simple getter for {@link #name}
+	 * 
+	 * @return {@link #name}
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Simple getter for {@link #eventType}
+	 * 
+	 * @return {@link #eventType}
+	 */
+	public String getEventType() {
+		return eventType;
+	}
+
+	/**
+	 * Simple getter for {@link #dispatchPolicy}
+	 * 
+	 * @return {@link #dispatchPolicy}
+	 */
+	public DispatchPolicy getDispatchPolicy() {
+		return dispatchPolicy;
+	}
+
+	/**
+	 * Simple getter for {@link #timeBudget}
+	 * 
+	 * @return {@link #timeBudget}
+	 */
+	public long getTimeBudget() {
+		return timeBudget;
+	}
+
+	/**
+	 * Allows to specify the time budget of the listener, overriding
+	 * {@link CircuitBreaker#DEFAULT_TIME_BUDGET}. The calls running past it
+	 * are counted as failures by the {@link CircuitBreaker} of the listener.
+	 * 
+	 * @param timeBudget
+	 *            the time budget in milliseconds, 0 if the listener has none
+	 * @return the current instance of {@link ListenerWrapper}
+	 */
+	public ListenerWrapper withTimeBudget(final long timeBudget) {
+		this.timeBudget = timeBudget;
+		return this;
+	}
+
+}
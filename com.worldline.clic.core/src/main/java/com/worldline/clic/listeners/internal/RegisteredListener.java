@@ -0,0 +1,266 @@
+/*
+ * CLiC, Framework for Command Line Interpretation in Eclipse
+ *
+ *     Copyright (C) 2013 Worldline or third-party contributors as
+ *     indicated by the @author tags or express copyright attribution
+ *     statements applied by the authors.
+ *
+ *     This library is free software; you can redistribute it and/or
+ *     modify it under the terms of the GNU Lesser General Public
+ *     License as published by the Free Software Foundation; either
+ *     version 2.1 of the License.
+ *
+ *     This library is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *     Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public
+ *     License along with this library; if not, write to the Free Software
+ *     Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+package com.worldline.clic.listeners.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.worldline.clic.core.ClicCore;
+import com.worldline.clic.core.ListenerFactory;
+import com.worldline.clic.internal.stats.EngineProbe;
+import com.worldline.clic.internal.stats.EngineProbes;
+import com.worldline.clic.internal.stats.LatencyHistogram;
+import com.worldline.clic.listeners.internal.ListenerQueue.PendingEvent;
+
+/**
+ * A listener registered in the {@link ListenerRegistry}, along with the
+ * statistics its dispatch times and failures are recorded in, so that
+ * dispatching an event doesn't need to look them up, and with its
+ * {@link ListenerQueue} if it is notified asynchronously. A listener declared
+ * lazily is created the first time it is needed. The listener is called
+ * through its {@link CircuitBreaker}, which skips it for a while once it
+ * misbehaves.
+ * 
+ * @author mvanbesien / aneveux
+ * @version 1.0
+ * @since 1.2
+ */
+final class RegisteredListener {
+
+	/**
+	 * The listener, null until a listener declared lazily is created
+	 */
+	private volatile IListener<?> listener;
+
+	/**
+	 * The factory creating a listener declared lazily, null otherwise
+	 */
+	final ListenerFactory factory;
+
+	/**
+	 * The class name of the events handled by a listener declared lazily
+	 */
+	final String eventType;
+
+	/**
+	 * Whether the creation of a listener declared lazily has failed, in which
+	 * case it isn't attempted again
+	 */
+	private boolean creationFailed;
+
+	/**
+	 * The class name of the listener
+	 */
+	final String name;
+
+	/**
+	 * The time spent by the listener to handle the events
+	 */
+	final LatencyHistogram times;
+
+	/**
+	 * The number of events the listener failed to handle
+	 */
+	final AtomicLong failures;
+
+	/**
+	 * The circuit breaker of the listener
+	 */
+	final CircuitBreaker breaker;
+
+	/**
+	 * The queue the events are published to, null if the listener is notified
+	 * synchronously
+	 */
+	final ListenerQueue queue;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param wrapper
+	 *            the declaration of the listener
+	 * @param times
+	 *            {@link #times}
+	 * @param failures
+	 *            {@link #failures}
+	 * @param breaker
+	 *            {@link #breaker}
+	 */
+	RegisteredListener(final ListenerWrapper wrapper, final LatencyHistogram times, final AtomicLong failures,
+			final CircuitBreaker breaker) {
+		this.listener = wrapper.getListener();
+		this.factory = wrapper.getFactory();
+		this.name = wrapper.getName();
+		this.eventType = wrapper.getEventType();
+		this.times = times;
+		this.failures = failures;
+		this.breaker = breaker;
+		this.queue = wrapper.getDispatchPolicy() != null ? new ListenerQueue(this, wrapper.getDispatchPolicy())
+				: null;
+	}
+
+	/**
+	 * @return the listener if it has been created, null otherwise
+	 */
+	IListener<?> peek() {
+		return listener;
+	}
+
+	/**
+	 * Returns the listener, creating it if it is declared lazily and hasn't
+	 * been created yet
+	 * 
+	 * @return the listener, or null if it can't be created
+	 */
+	IListener<?> get() {
+		IListener<?> result = listener;
+		if (result == null && factory != null)
+			synchronized (this) {
+				if (listener == null && !creationFailed)
+					try {
+						listener = factory.createListener();
+					} catch (final Exception e) {
+						creationFailed = true;
+						ClicCore.getLogger().error(e.getMessage(), e);
+					}
+				result = listener;
+			}
+		return result;
+	}
+
+	/**
+	 * Tells whether a listener declared lazily handles the events handled by
+	 * a listener type, without creating it
+	 * 
+	 * @param handledType
+	 *            the class of the events handled by the listener type, null
+	 *            if it is not known
+	 * @return true if the listener handles these events, or if it can't be
+	 *         told
+	 */
+	boolean handles(final Class<?> handledType) {
+		if (handledType == null || eventType == null || IEvent.class == handledType)
+			return true;
+		for (Class<?> type = handledType; type != null; type = type.getSuperclass())
+			if (type.getName().equals(eventType) || implementsType(type))
+				return true;
+		return false;
+	}
+
+	/**
+	 * @param type
+	 *            a class or interface
+	 * @return true if one of the interfaces of the type, or of their super
+	 *         interfaces, is the declared event type
+	 */
+	private boolean implementsType(final Class<?> type) {
+		for (final Class<?> implemented : type.getInterfaces())
+			if (implemented.getName().equals(eventType) || implementsType(implemented))
+				return true;
+		return false;
+	}
+
+	/**
+	 * Sends an event to the listener, on the current thread. The time spent by
+	 * the listener is recorded, and notified to the {@link EngineProbe} along
+	 * with the provided information about the command. Nothing is done while
+	 * the circuit of the listener is open. Only the first exception of a
+	 * series is logged, the {@link CircuitBreaker} reporting the following
+	 * ones when it opens the circuit.
+	 * 
+	 * @param event
+	 *            the event
+	 * @param commandId
+	 *            the id of the command or flow, possibly null
+	 * @param argumentCount
+	 *            the number of arguments of the command or flow
+	 * @param outputLines
+	 *            the number of lines written by the command or flow
+	 */
+	@SuppressWarnings("unchecked")
+	<E extends IEvent> void deliver(final E event, final String commandId, final int argumentCount,
+			final int outputLines) {
+		if (!breaker.allows(1))
+			return;
+		final IListener<?> target = get();
+		if (target == null)
+			return;
+		final EngineProbe probe = EngineProbes.get();
+		final long start = System.nanoTime();
+		final Object token = probe.beginListener();
+		Exception exception = null;
+		try {
+			((IListener<E>) target).onEvent(event);
+		} catch (final Exception e) {
+			failures.incrementAndGet();
+			exception = e;
+		} finally {
+			final long elapsed = System.nanoTime() - start;
+			times.record(elapsed);
+			probe.endListener(token, name, commandId, argumentCount, outputLines, exception == null);
+			if (breaker.record(elapsed, exception))
+				ClicCore.getLogger().warning("An exception was caught while executing listener", exception);
+		}
+	}
+
+	/**
+	 * Sends a batch of events to the listener, on the current thread, in a
+	 * single call if it is an {@link IBatchListener}, and one by one along
+	 * with the information about their command otherwise. The time spent by
+	 * an {@link IBatchListener} on the batch is recorded as a single dispatch.
+	 * 
+	 * @param pendings
+	 *            the events, along with the information about the command
+	 *            they have been published for
+	 */
+	@SuppressWarnings("unchecked")
+	<E extends IEvent> void deliverBatch(final List<PendingEvent> pendings) {
+		final IListener<?> target = get();
+		if (!(target instanceof IBatchListener<?>)) {
+			for (final PendingEvent pending : pendings)
+				deliver(pending.event, pending.commandId, pending.argumentCount, pending.outputLines);
+			return;
+		}
+		if (!breaker.allows(pendings.size()))
+			return;
+		final List<E> events = new ArrayList<E>(pendings.size());
+		for (final PendingEvent pending : pendings)
+			events.add((E) pending.event);
+		final EngineProbe probe = EngineProbes.get();
+		final long start = System.nanoTime();
+		final Object token = probe.beginListener();
+		Exception exception = null;
+		try {
+			((IBatchListener<E>) target).onEvents(events);
+		} catch (final Exception e) {
+			failures.incrementAndGet();
+			exception = e;
+		} finally {
+			final long elapsed = System.nanoTime() - start;
+			times.record(elapsed);
+			probe.endListener(token, name, null, events.size(), 0, exception == null);
+			if (breaker.record(elapsed, exception))
+				ClicCore.getLogger().warning("An exception was caught while executing listener", exception);
+		}
+	}
+}
@@ -0,0 +1,161 @@
+/*
+ * CLiC, Framework for Command Line Interpretation in Eclipse
+ *
+ *     Copyright (C) 2013 Worldline or third-party contributors as
+ *     indicated by the @author tags or express copyright attribution
+ *     statements applied by the authors.
+ *
+ *     This library is free software; you can redistribute it and/or
+ *     modify it under the terms of the GNU Lesser General Public
+ *     License as published by the Free Software Foundation; either
+ *     version 2.1 of the License.
+ *
+ *     This library is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *     Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public
+ *     License along with this library; if not, write to the Free Software
+ *     Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+package com.worldline.clic.jfr;
+
+import jdk.jfr.EventType;
+
+import com.worldline.clic.internal.stats.EngineProbe;
+
+/**
+ * This {@link EngineProbe} emits Flight Recorder events, so that the activity
+ * of CLiC shows up in the recordings along with the rest of the JVM activity.
+ * 
+ * While the events are not enabled in any running recording, each call only
+ * checks the state of the event type, and no event is created.
+ * 
+ * @author mvanbesien / aneveux
+ * @version 1.0
+ * @since 1.2
+ */
+public class JfrEngineProbe implements EngineProbe {
+
+	/**
+	 * The type of the events about parsed commands
+	 */
+	private static final EventType PARSED = EventType.getEventType(CommandParsedEvent.class);
+
+	/**
+	 * The type of the events about executed commands
+	 */
+	private static final EventType EXECUTED = EventType.getEventType(CommandExecutedEvent.class);
+
+	/**
+	 * The type of the events about executed flow steps
+	 */
+	private static final EventType FLOW_STEP_EXECUTED = EventType.getEventType(FlowStepExecutedEvent.class);
+
+	/**
+	 * The type of the events about invoked listeners
+	 */
+	private static final EventType LISTENER_INVOKED = EventType.getEventType(ListenerInvokedEvent.class);
+
+	@Override
+	public Object beginParse() {
+		if (!PARSED.isEnabled())
+			return null;
+		final CommandParsedEvent event = new CommandParsedEvent();
+		event.begin();
+		return event;
+	}
+
+	@Override
+	public void endParse(final Object token, final String commandId, final int argumentCount,
+			final boolean succeeded) {
+		if (token == null)
+			return;
+		final CommandParsedEvent event = (CommandParsedEvent) token;
+		event.end();
+		if (event.shouldCommit()) {
+			event.commandId = commandId;
+			event.argumentCount = argumentCount;
+			event.succeeded = succeeded;
+			event.commit();
+		}
+	}
+
+	@Override
+	public Object beginExecute() {
+		if (!EXECUTED.isEnabled())
+			return null;
+		final CommandExecutedEvent event = new CommandExecutedEvent();
+		event.begin();
+		return event;
+	}
+
+	@Override
+	public void endExecute(final Object token, final String commandId, final int argumentCount,
+			final int outputLines, final boolean succeeded) {
+		if (token == null)
+			return;
+		final CommandExecutedEvent event = (CommandExecutedEvent) token;
+		event.end();
+		if (event.shouldCommit()) {
+			event.commandId = commandId;
+			event.argumentCount = argumentCount;
+			event.outputLines = outputLines;
+			event.succeeded = succeeded;
+			event.commit();
+		}
+	}
+
+	@Override
+	public Object beginFlowStep() {
+		if (!FLOW_STEP_EXECUTED.isEnabled())
+			return null;
+		final FlowStepExecutedEvent event = new FlowStepExecutedEvent();
+		event.begin();
+		return event;
+	}
+
+	@Override
+	public void endFlowStep(final Object token, final String flowName, final String commandId,
+			final int argumentCount, final int outputLines, final boolean succeeded) {
+		if (token == null)
+			return;
+		final FlowStepExecutedEvent event = (FlowStepExecutedEvent) token;
+		event.end();
+		if (event.shouldCommit()) {
+			event.flowName = flowName;
+			event.commandId = commandId;
+			event.argumentCount = argumentCount;
+			event.outputLines = outputLines;
+			event.succeeded = succeeded;
+			event.commit();
+		}
+	}
+
+	@Override
+	public Object beginListener() {
+		if (!LISTENER_INVOKED.isEnabled())
+			return null;
+		final ListenerInvokedEvent event = new ListenerInvokedEvent();
+		event.begin();
+		return event;
+	}
+
+	@Override
+	public void endListener(final Object token, final String listener, final String commandId,
+			final int argumentCount, final int outputLines, final boolean succeeded) {
+		if (token == null)
+			return;
+		final ListenerInvokedEvent event = (ListenerInvokedEvent) token;
+		event.end();
+		if (event.shouldCommit()) {
+			event.listener = listener;
+			event.commandId = commandId;
+			event.argumentCount = argumentCount;
+			event.outputLines = outputLines;
+			event.succeeded = succeeded;
+			event.commit();
+		}
+	}
+}
@@ -0,0 +1,72 @@
+/*
+ * CLiC, Framework for Command Line Interpretation in Eclipse
+ *
+ *     Copyright (C) 2013 Worldline or third-party contributors as
+ *     indicated by the @author tags or express copyright attribution
+ *     statements applied by the authors.
+ *
+ *     This library is free software; you can redistribute it and/or
+ *     modify it under the terms of the GNU Lesser General Public
+ *     License as published by the Free Software Foundation; either
+ *     version 2.1 of the License.
+ *
+ *     This library is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *     Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public
+ *     License along with this library; if not, write to the Free Software
+ *     Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+package com.worldline.clic.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event emitted once a listener is notified of a command's processing
+ * 
+ * @author mvanbesien / aneveux
+ * @version 1.0
+ * @since 1.2
+ */
+@Name("com.worldline.clic.ListenerInvoked")
+@Label("Listener Invoked")
+@Category("CLiC")
+@Description("Notification of a CLiC listener")
+class ListenerInvokedEvent extends Event {
+
+	/**
+	 * The class name of the listener
+	 */
+	@Label("Listener")
+	String listener;
+
+	/**
+	 * The command id
+	 */
+	@Label("Command")
+	String commandId;
+
+	/**
+	 * The number of arguments
+	 */
+	@Label("Arguments")
+	int argumentCount;
+
+	/**
+	 * The number of lines written
+	 */
+	@Label("Output Lines")
+	int outputLines;
+
+	/**
+	 * Whether it ended properly
+	 */
+	@Label("Succeeded")
+	boolean succeeded;
+}
@@ -0,0 +1,243 @@
+/*
+ * CLiC, Framework for Command Line Interpretation in Eclipse
+ *
+ *     Copyright (C) 2013 Worldline or third-party contributors as
+ *     indicated by the @author tags or express copyright attribution
+ *     statements applied by the authors.
+ *
+ *     This library is free software; you can redistribute it and/or
+ *     modify it under the terms of the GNU Lesser General Public
+ *     License as published by the Free Software Foundation; either
+ *     version 2.1 of the License.
+ *
+ *     This library is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *     Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public
+ *     License along with this library; if not, write to the Free Software
+ *     Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+package com.worldline.clic.launcher;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.worldline.clic.commands.CommandContext;
+import com.worldline.clic.core.ClicCore;
+import com.worldline.clic.internal.engine.ClicMessages;
+
+/**
+ * The {@link ClicDaemon} keeps a warm engine running, and executes the command
+ * lines sent by the {@link DaemonClient}s, so that scripts calling CLiC many
+ * times don't pay the startup of a JVM each time.
+ * 
+ * A single thread multiplexes all the connections using a {@link Selector}:
+ * it accepts them, reads the command lines, and writes back the outputs. The
+ * command lines themselves are executed by a small pool of workers. Each
+ * connection has its own {@link CommandContext}, and its command lines are
+ * executed one after the other, in the order they've been received.
+ * 
+ * As Unix domain sockets are not available to Java 7, the daemon listens on
+ * the loopback interface only, and the clients have to provide the token
+ * stored in the {@link DaemonInfo} file, readable by the current user only.
+ * 
+ * @author mvanbesien / aneveux
+ * @version 1.0
+ * @since 1.2
+ * 
+ * @see DaemonConnection
+ */
+class ClicDaemon {
+
+	/**
+	 * The selector multiplexing the connections
+	 */
+	private final Selector selector;
+
+	/**
+	 * The channel accepting the connections
+	 */
+	private final ServerSocketChannel server;
+
+	/**
+	 * The workers executing the command lines
+	 */
+	private final ExecutorService workers;
+
+	/**
+	 * The information allowing the clients to connect
+	 */
+	private final DaemonInfo info;
+
+	/**
+	 * The connections having some output to be written
+	 */
+	private final Queue<DaemonConnection> writeRequests = new ConcurrentLinkedQueue<DaemonConnection>();
+
+	/**
+	 * False once the daemon has been asked to stop
+	 */
+	private volatile boolean running = true;
+
+	/**
+	 * Constructor, binding the daemon to the loopback interface
+	 * 
+	 * @param port
+	 *            the port to listen on, 0 for any free port
+	 * @param workerCount
+	 *            the number of command lines which can be executed at the same
+	 *            time
+	 * @throws IOException
+	 *             if the port can't be bound
+	 */
+	ClicDaemon(final int port, final int workerCount) throws IOException {
+		selector = Selector.open();
+		server = ServerSocketChannel.open();
+		server.socket().bind(new InetSocketAddress(InetAddress.getByName(null), port));
+		server.configureBlocking(false);
+		server.register(selector, SelectionKey.OP_ACCEPT);
+		final AtomicInteger counter = new AtomicInteger();
+		workers = Executors.newFixedThreadPool(Math.max(1, workerCount), new ThreadFactory() {
+			@Override
+			public Thread newThread(final Runnable runnable) {
+				final Thread thread = new Thread(runnable, "CLiC daemon worker #" + counter.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		info = new DaemonInfo(server.socket().getLocalPort(), DaemonInfo.newToken());
+	}
+
+	/**
+	 * Publishes the {@link DaemonInfo}, and serves the connections until the
+	 * daemon is stopped
+	 * 
+	 * @param out
+	 *            the stream the startup message is written on
+	 * @throws IOException
+	 *             if the {@link DaemonInfo} can't be published, or if the
+	 *             selector fails
+	 */
+	void serve(final PrintStream out) throws IOException {
+		info.write();
+		out.println(ClicMessages.DAEMON_STARTED.value(String.valueOf(info.getPort()), DaemonInfo.FILE));
+		out.flush();
+		try {
+			while (running) {
+				selector.select();
+				for (DaemonConnection connection = writeRequests.poll(); connection != null; connection = writeRequests
+						.poll())
+					connection.enableWrites();
+				final Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+				while (keys.hasNext()) {
+					final SelectionKey key = keys.next();
+					keys.remove();
+					if (key.isValid() && key.isAcceptable())
+						accept();
+					else if (key.isValid())
+						handle(key, (DaemonConnection) key.attachment());
+				}
+			}
+		} finally {
+			info.delete();
+			for (final SelectionKey key : selector.keys())
+				if (key.attachment() instanceof DaemonConnection)
+					((DaemonConnection) key.attachment()).close();
+			server.close();
+			selector.close();
+			workers.shutdownNow();
+		}
+	}
+
+	/**
+	 * Accepts a pending connection
+	 * 
+	 * @throws IOException
+	 *             if the connection can't be registered
+	 */
+	private void accept() throws IOException {
+		final SocketChannel channel = server.accept();
+		if (channel == null)
+			return;
+		channel.configureBlocking(false);
+		channel.socket().setTcpNoDelay(true);
+		final SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+		key.attach(new DaemonConnection(this, channel, key));
+	}
+
+	/**
+	 * Reads from, and writes to, a connection which is ready. The connection
+	 * is closed as soon as it fails, without affecting the other ones.
+	 * 
+	 * @param key
+	 *            the key of the connection
+	 * @param connection
+	 *            the connection
+	 */
+	private void handle(final SelectionKey key, final DaemonConnection connection) {
+		try {
+			if (key.isReadable() && !connection.read())
+				connection.close();
+			else if (key.isValid() && key.isWritable())
+				connection.write();
+		} catch (final IOException e) {
+			connection.close();
+		}
+	}
+
+	/**
+	 * Asks the selector thread to write the pending output of a connection
+	 * 
+	 * @param connection
+	 *            the connection having some output to be written
+	 */
+	void requestWrite(final DaemonConnection connection) {
+		writeRequests.add(connection);
+		selector.wakeup();
+	}
+
+	/**
+	 * Executes a task on a worker
+	 * 
+	 * @param task
+	 *            the task to be executed
+	 */
+	void execute(final Runnable task) {
+		try {
+			workers.execute(task);
+		} catch (final RuntimeException e) {
+			ClicCore.getLogger().error(e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Stops the daemon: the connections are closed, and the command lines
+	 * being executed are cancelled
+	 */
+	void stop() {
+		running = false;
+		selector.wakeup();
+	}
+
+	/**
+	 * @return the token the clients have to provide
+	 */
+	String getToken() {
+		return info.getToken();
+	}
+}
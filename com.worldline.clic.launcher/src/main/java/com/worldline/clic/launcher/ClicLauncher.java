@@ -0,0 +1,394 @@
+/*
+ * CLiC, Framework for Command Line Interpretation in Eclipse
+ *
+ *     Copyright (C) 2013 Worldline or third-party contributors as
+ *     indicated by the @author tags or express copyright attribution
+ *     statements applied by the authors.
+ *
+ *     This library is free software; you can redistribute it and/or
+ *     modify it under the terms of the GNU Lesser General Public
+ *     License as published by the Free Software Foundation; either
+ *     version 2.1 of the License.
+ *
+ *     This library is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *     Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public
+ *     License along with this library; if not, write to the Free Software
+ *     Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+package com.worldline.clic.launcher;
+
+import static java.util.Arrays.asList;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+import joptsimple.OptionException;
+import joptsimple.OptionParser;
+import joptsimple.OptionSet;
+import joptsimple.OptionSpec;
+
+import com.worldline.clic.commands.CommandContext;
+import com.worldline.clic.core.ClicCore;
+import com.worldline.clic.core.ContributionProvider;
+import com.worldline.clic.core.DefaultExecutionMonitor;
+import com.worldline.clic.internal.engine.ClicMessages;
+import com.worldline.clic.internal.engine.CommandEngine;
+
+/**
+ * The {@link ClicLauncher} executes CLiC command lines from a shell, without
+ * Eclipse. The commands are the ones contributed by the
+ * {@link ContributionProvider}s declared as services on the classpath.
+ * 
+ * The command lines are executed in this order, all of them sharing the same
+ * {@link CommandContext}:
+ * <ul>
+ * <li>the one made of the arguments following the options, if any,</li>
+ * <li>the ones provided with <i>--command</i>,</li>
+ * <li>the lines of the scripts provided with <i>--file</i>, - standing for the
+ * standard input. Empty lines and lines starting with # are ignored.</li>
+ * </ul>
+ * 
+ * The execution stops at the first command line which fails, unless
+ * <i>--keep-going</i> is provided. The exit code is 0 if all the command
+ * lines succeeded, 1 if some of them failed, 2 if the arguments or the
+ * scripts are invalid, and 3 if the daemon can't be reached.
+ * 
+ * The launcher can also start a {@link ClicDaemon} with <i>--daemon</i>, send
+ * the command lines to it rather than executing them with <i>--connect</i>,
+ * and stop it with <i>--stop</i>.
+ * 
+ * @author mvanbesien / aneveux
+ * @version 1.0
+ * @since 1.2
+ */
+public final class ClicLauncher {
+
+	/**
+	 * Exit code when all the command lines succeeded
+	 */
+	static final int SUCCESS = 0;
+
+	/**
+	 * Exit code when some command lines failed
+	 */
+	static final int FAILURE = 1;
+
+	/**
+	 * Exit code when the arguments or the scripts are invalid
+	 */
+	static final int USAGE = 2;
+
+	/**
+	 * Exit code when the daemon can't be reached
+	 */
+	static final int UNAVAILABLE = 3;
+
+	/**
+	 * The parser of the launcher's arguments
+	 */
+	private final OptionParser parser = new OptionParser();
+
+	/**
+	 * The command lines to be executed
+	 */
+	private final OptionSpec<String> commandOption = parser
+			.acceptsAll(asList("c", "command"), "Executes a command line").withRequiredArg()
+			.describedAs("command line");
+
+	/**
+	 * The scripts to be executed
+	 */
+	private final OptionSpec<File> fileOption = parser
+			.acceptsAll(asList("f", "file"), "Executes the command lines of a script, - for the standard input")
+			.withRequiredArg().ofType(File.class).describedAs("script");
+
+	/**
+	 * Whether the execution goes on after a failure
+	 */
+	private final OptionSpec<Void> keepGoingOption = parser.acceptsAll(asList("k", "keep-going"),
+			"Executes the remaining command lines after a failure");
+
+	/**
+	 * Whether a daemon has to be started
+	 */
+	private final OptionSpec<Void> daemonOption = parser.accepts("daemon",
+			"Starts a daemon executing the command lines sent with --connect");
+
+	/**
+	 * The port of the daemon
+	 */
+	private final OptionSpec<Integer> portOption = parser
+			.accepts("port", "The loopback port the daemon listens on, any free port by default").withRequiredArg()
+			.ofType(Integer.class).describedAs("port").defaultsTo(0);
+
+	/**
+	 * The number of workers of the daemon
+	 */
+	private final OptionSpec<Integer> workersOption = parser
+			.accepts("workers", "The number of command lines the daemon executes at the same time")
+			.withRequiredArg().ofType(Integer.class).describedAs("count")
+			.defaultsTo(Runtime.getRuntime().availableProcessors());
+
+	/**
+	 * Whether the command lines are sent to the daemon
+	 */
+	private final OptionSpec<Void> connectOption = parser.accepts("connect",
+			"Sends the command lines to the running daemon");
+
+	/**
+	 * Whether the daemon has to be stopped
+	 */
+	private final OptionSpec<Void> stopOption = parser.accepts("stop", "Stops the running daemon");
+
+	/**
+	 * Whether the help has to be displayed
+	 */
+	private final OptionSpec<Void> helpOption = parser.acceptsAll(asList("h", "help"), "Displays this help");
+
+	/**
+	 * Private constructor, the launcher being used through
+	 * {@link #main(String[])}
+	 */
+	private ClicLauncher() {
+		// The arguments following the first command line argument belong to it
+		parser.posixlyCorrect(true);
+	}
+
+	/**
+	 * Executes the command lines and exits with the corresponding code
+	 * 
+	 * @param args
+	 *            the launcher's arguments
+	 */
+	public static void main(final String[] args) {
+		System.exit(new ClicLauncher().run(args, System.in, System.out, System.err));
+	}
+
+	/**
+	 * Executes the command lines provided by the arguments
+	 * 
+	 * @param args
+	 *            the launcher's arguments
+	 * @param in
+	 *            the standard input, from which the script - is read
+	 * @param out
+	 *            the stream the messages of the commands are written on
+	 * @param err
+	 *            the stream the errors of the launcher are written on
+	 * @return the exit code
+	 */
+	int run(final String[] args, final InputStream in, final PrintStream out, final PrintStream err) {
+		final OptionSet options;
+		try {
+			options = parser.parse(args);
+		} catch (final OptionException e) {
+			err.println(e.getMessage());
+			printHelp(err);
+			return USAGE;
+		}
+		if (options.has(helpOption)) {
+			printHelp(out);
+			return SUCCESS;
+		}
+		if (options.has(daemonOption))
+			try {
+				new ClicDaemon(options.valueOf(portOption), options.valueOf(workersOption)).serve(out);
+				return SUCCESS;
+			} catch (final IOException e) {
+				err.println(ClicMessages.DAEMON_ERROR.value(e.getMessage()));
+				return UNAVAILABLE;
+			}
+		if (options.has(stopOption))
+			try {
+				final DaemonClient client = DaemonClient.connect();
+				try {
+					client.stop();
+				} finally {
+					client.close();
+				}
+				return SUCCESS;
+			} catch (final IOException e) {
+				err.println(ClicMessages.DAEMON_ERROR.value(e.getMessage()));
+				return UNAVAILABLE;
+			}
+
+		final List<String> commandLines = new ArrayList<String>();
+		if (!options.nonOptionArguments().isEmpty())
+			commandLines.add(toCommandLine(options.nonOptionArguments()));
+		commandLines.addAll(options.valuesOf(commandOption));
+		for (final File script : options.valuesOf(fileOption))
+			try {
+				commandLines.addAll(readScript(script, in));
+			} catch (final IOException e) {
+				err.println(ClicMessages.LAUNCHER_SCRIPT_ERROR.value(script, e.getMessage()));
+				return USAGE;
+			}
+		if (commandLines.isEmpty()) {
+			printHelp(err);
+			return USAGE;
+		}
+
+		final boolean keepGoing = options.has(keepGoingOption);
+		try {
+			if (!options.has(connectOption)) {
+				final Writer writer = new StandardOutputWriter(out);
+				final CommandContext context = new CommandContext(writer);
+				return execute(commandLines, keepGoing, new CommandLineExecutor() {
+					@Override
+					public boolean execute(final String commandLine) {
+						return CommandEngine.execute(commandLine, context, new DefaultExecutionMonitor()).isOK();
+					}
+				}, out, err);
+			}
+			final DaemonClient client = DaemonClient.connect();
+			try {
+				return execute(commandLines, keepGoing, new CommandLineExecutor() {
+					@Override
+					public boolean execute(final String commandLine) throws IOException {
+						return client.execute(commandLine, out);
+					}
+				}, out, err);
+			} finally {
+				client.close();
+			}
+		} catch (final IOException e) {
+			err.println(ClicMessages.DAEMON_ERROR.value(e.getMessage()));
+			return UNAVAILABLE;
+		}
+	}
+
+	/**
+	 * Executes the command lines one after the other
+	 * 
+	 * @param commandLines
+	 *            the command lines
+	 * @param keepGoing
+	 *            whether the execution goes on after a failure
+	 * @param executor
+	 *            executes each command line
+	 * @param out
+	 *            the stream the messages of the commands are written on
+	 * @param err
+	 *            the stream the errors of the launcher are written on
+	 * @return the exit code
+	 * @throws IOException
+	 *             if the executor fails
+	 */
+	private static int execute(final List<String> commandLines, final boolean keepGoing,
+			final CommandLineExecutor executor, final PrintStream out, final PrintStream err) throws IOException {
+		int failures = 0;
+		int executed = 0;
+		for (final String commandLine : commandLines) {
+			executed++;
+			if (!executor.execute(commandLine)) {
+				failures++;
+				if (!keepGoing)
+					break;
+			}
+		}
+		out.flush();
+		if (failures > 0) {
+			err.println(ClicMessages.LAUNCHER_FAILED.value(failures, executed));
+			return FAILURE;
+		}
+		return SUCCESS;
+	}
+
+	/**
+	 * Rebuilds a command line from the arguments following the options,
+	 * quoting the ones which would otherwise be split by the engine.
+	 * 
+	 * @param arguments
+	 *            the arguments following the options
+	 * @return the corresponding command line
+	 */
+	static String toCommandLine(final List<?> arguments) {
+		final StringBuilder commandLine = new StringBuilder();
+		for (final Object argument : arguments) {
+			final String value = String.valueOf(argument);
+			if (commandLine.length() > 0)
+				commandLine.append(' ');
+			if (value.isEmpty() || value.indexOf(' ') != -1 || value.indexOf('\'') != -1
+					|| value.indexOf('"') != -1) {
+				final char quote = value.indexOf('"') != -1 ? '\'' : '"';
+				commandLine.append(quote).append(value).append(quote);
+			} else
+				commandLine.append(value);
+		}
+		return commandLine.toString();
+	}
+
+	/**
+	 * Reads the command lines of a script
+	 * 
+	 * @param script
+	 *            the script, - standing for the standard input
+	 * @param in
+	 *            the standard input
+	 * @return the command lines of the script, without the empty lines and the
+	 *         comments
+	 * @throws IOException
+	 *             if the script can't be read
+	 */
+	static List<String> readScript(final File script, final InputStream in) throws IOException {
+		final boolean standardInput = "-".equals(script.getPath());
+		final BufferedReader reader = new BufferedReader(new InputStreamReader(standardInput ? in
+				: new FileInputStream(script)));
+		try {
+			final List<String> commandLines = new ArrayList<String>();
+			for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+				final String commandLine = line.trim();
+				if (commandLine.length() > 0 && !commandLine.startsWith("#"))
+					commandLines.add(commandLine);
+			}
+			return commandLines;
+		} finally {
+			if (!standardInput)
+				reader.close();
+		}
+	}
+
+	/**
+	 * Executes a command line, locally or on the daemon
+	 */
+	private interface CommandLineExecutor {
+
+		/**
+		 * Executes a command line
+		 * 
+		 * @param commandLine
+		 *            the command line
+		 * @return true if the command line succeeded
+		 * @throws IOException
+		 *             if the daemon can't be reached
+		 */
+		boolean execute(String commandLine) throws IOException;
+	}
+
+	/**
+	 * Prints the usage of the launcher
+	 * 
+	 * @param stream
+	 *            the stream the usage is printed on
+	 */
+	private void printHelp(final PrintStream stream) {
+		stream.println("Usage: clic [options] [command line]");
+		try {
+			parser.printHelpOn(stream);
+		} catch (final IOException e) {
+			ClicCore.getLogger().error(e.getMessage(), e);
+		}
+	}
+}
@@ -0,0 +1,162 @@
+/*
+ * CLiC, Framework for Command Line Interpretation in Eclipse
+ *
+ *     Copyright (C) 2013 Worldline or third-party contributors as
+ *     indicated by the @author tags or express copyright attribution
+ *     statements applied by the authors.
+ *
+ *     This library is free software; you can redistribute it and/or
+ *     modify it under the terms of the GNU Lesser General Public
+ *     License as published by the Free Software Foundation; either
+ *     version 2.1 of the License.
+ *
+ *     This library is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *     Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public
+ *     License along with this library; if not, write to the Free Software
+ *     Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+package com.worldline.clic.launcher;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+
+/**
+ * The {@link DaemonClient} sends command lines to the running
+ * {@link ClicDaemon}, and prints the output they produce.
+ * 
+ * @author mvanbesien / aneveux
+ * @version 1.0
+ * @since 1.2
+ * 
+ * @see DaemonConnection
+ */
+class DaemonClient implements Closeable {
+
+	/**
+	 * The socket connected to the daemon
+	 */
+	private final Socket socket;
+
+	/**
+	 * Reads the answers of the daemon
+	 */
+	private final BufferedReader reader;
+
+	/**
+	 * Writes the requests to the daemon
+	 */
+	private final Writer writer;
+
+	/**
+	 * The message of the last status received
+	 */
+	private String lastMessage;
+
+	/**
+	 * Constructor, connecting to the daemon
+	 * 
+	 * @param info
+	 *            the information of the running daemon
+	 * @throws IOException
+	 *             if the connection fails
+	 */
+	private DaemonClient(final DaemonInfo info) throws IOException {
+		socket = new Socket(InetAddress.getByName(null), info.getPort());
+		socket.setTcpNoDelay(true);
+		reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), DaemonConnection.UTF_8));
+		writer = new OutputStreamWriter(socket.getOutputStream(), DaemonConnection.UTF_8);
+	}
+
+	/**
+	 * Connects to the running daemon, and authenticates
+	 * 
+	 * @return the connected client
+	 * @throws IOException
+	 *             if no daemon is running, or if it rejects the connection
+	 */
+	static DaemonClient connect() throws IOException {
+		final DaemonInfo info = DaemonInfo.read();
+		final DaemonClient client = new DaemonClient(info);
+		try {
+			if (client.request(DaemonConnection.AUTH + info.getToken(), null) != DaemonConnection.SUCCEEDED)
+				throw new IOException(client.lastMessage);
+			return client;
+		} catch (final IOException e) {
+			client.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Executes a command line on the daemon
+	 * 
+	 * @param commandLine
+	 *            the command line
+	 * @param out
+	 *            the stream the output of the command is printed on
+	 * @return true if the command line succeeded
+	 * @throws IOException
+	 *             if the connection fails
+	 */
+	boolean execute(final String commandLine, final PrintStream out) throws IOException {
+		return request(commandLine, out) == DaemonConnection.SUCCEEDED;
+	}
+
+	/**
+	 * Stops the daemon
+	 * 
+	 * @throws IOException
+	 *             if the connection fails
+	 */
+	void stop() throws IOException {
+		request(DaemonConnection.STOP, null);
+	}
+
+	/**
+	 * Sends a request, and prints the output until its status is received
+	 * 
+	 * @param request
+	 *            the request
+	 * @param out
+	 *            the stream the output is printed on, if any
+	 * @return the status of the request
+	 * @throws IOException
+	 *             if the connection fails
+	 */
+	private int request(final String request, final PrintStream out) throws IOException {
+		writer.write(request + "\n");
+		writer.flush();
+		for (String line = reader.readLine(); line != null; line = reader.readLine())
+			if (line.startsWith(DaemonConnection.OUTPUT)) {
+				if (out != null)
+					out.println(line.substring(DaemonConnection.OUTPUT.length()));
+			} else if (line.startsWith(DaemonConnection.STATUS)) {
+				final String status = line.substring(DaemonConnection.STATUS.length());
+				final int separator = status.indexOf(' ');
+				lastMessage = separator != -1 ? status.substring(separator + 1) : null;
+				try {
+					return Integer.parseInt(separator != -1 ? status.substring(0, separator) : status);
+				} catch (final NumberFormatException e) {
+					throw new IOException("Invalid status: " + line, e);
+				}
+			}
+		throw new EOFException("Connection closed by the daemon");
+	}
+
+	@Override
+	public void close() throws IOException {
+		socket.close();
+	}
+}
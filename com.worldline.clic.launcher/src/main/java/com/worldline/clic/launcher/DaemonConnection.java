@@ -0,0 +1,428 @@
+/*
+ * CLiC, Framework for Command Line Interpretation in Eclipse
+ *
+ *     Copyright (C) 2013 Worldline or third-party contributors as
+ *     indicated by the @author tags or express copyright attribution
+ *     statements applied by the authors.
+ *
+ *     This library is free software; you can redistribute it and/or
+ *     modify it under the terms of the GNU Lesser General Public
+ *     License as published by the Free Software Foundation; either
+ *     version 2.1 of the License.
+ *
+ *     This library is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *     Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public
+ *     License along with this library; if not, write to the Free Software
+ *     Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+package com.worldline.clic.launcher;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import com.worldline.clic.commands.CommandContext;
+import com.worldline.clic.core.ClicCore;
+import com.worldline.clic.core.DefaultExecutionMonitor;
+import com.worldline.clic.core.ExecutionStatus;
+import com.worldline.clic.internal.engine.ClicMessages;
+import com.worldline.clic.internal.engine.CommandEngine;
+
+/**
+ * A {@link DaemonConnection} holds the state of a client connected to the
+ * {@link ClicDaemon}: its own {@link CommandContext}, the command lines
+ * waiting to be executed, and the output waiting to be written.
+ * 
+ * The protocol is made of UTF-8 lines. The client first sends
+ * <i>AUTH &lt;token&gt;</i>, then one command line per line, or <i>STOP</i> to
+ * stop the daemon. The daemon answers each of them with the lines written by
+ * the command, prefixed by <i>O</i>, followed by a status line: <i>S 0</i> on
+ * success, <i>S 1 &lt;message&gt;</i> on failure, and <i>S 2
+ * &lt;message&gt;</i> if the request has been rejected.
+ * 
+ * The output is written by the selector thread. A worker producing output
+ * faster than the client reads it is blocked once {@link #MAX_PENDING_OUTPUT}
+ * bytes are waiting.
+ * 
+ * @author mvanbesien / aneveux
+ * @version 1.0
+ * @since 1.2
+ */
+class DaemonConnection {
+
+	/**
+	 * The request authenticating the client
+	 */
+	static final String AUTH = "AUTH ";
+
+	/**
+	 * The request stopping the daemon
+	 */
+	static final String STOP = "STOP";
+
+	/**
+	 * The prefix of the lines written by the commands
+	 */
+	static final String OUTPUT = "O ";
+
+	/**
+	 * The prefix of the status lines
+	 */
+	static final String STATUS = "S ";
+
+	/**
+	 * The status of a request which succeeded
+	 */
+	static final int SUCCEEDED = 0;
+
+	/**
+	 * The status of a command line which failed
+	 */
+	static final int FAILED = 1;
+
+	/**
+	 * The status of a request which has been rejected
+	 */
+	static final int REJECTED = 2;
+
+	/**
+	 * The encoding of the protocol
+	 */
+	static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	/**
+	 * The maximum length of a request, in bytes
+	 */
+	private static final int MAX_LINE = 64 * 1024;
+
+	/**
+	 * The number of bytes of output above which the workers are blocked
+	 */
+	private static final long MAX_PENDING_OUTPUT = 1024 * 1024;
+
+	/**
+	 * The daemon the client is connected to
+	 */
+	private final ClicDaemon daemon;
+
+	/**
+	 * The channel of the connection
+	 */
+	private final SocketChannel channel;
+
+	/**
+	 * The key of the channel in the daemon's selector
+	 */
+	private final SelectionKey key;
+
+	/**
+	 * The buffer the requests are read into
+	 */
+	private final ByteBuffer readBuffer = ByteBuffer.allocate(8192);
+
+	/**
+	 * The request being read
+	 */
+	private final ByteArrayOutputStream line = new ByteArrayOutputStream();
+
+	/**
+	 * The output waiting to be written
+	 */
+	private final Queue<ByteBuffer> output = new ConcurrentLinkedQueue<ByteBuffer>();
+
+	/**
+	 * The number of bytes waiting to be written, guarded by {@link #output}
+	 */
+	private long pendingOutput;
+
+	/**
+	 * The command lines waiting to be executed, guarded by this connection
+	 */
+	private final Deque<String> commandLines = new ArrayDeque<String>();
+
+	/**
+	 * Whether a command line of this connection is being executed, guarded by
+	 * this connection
+	 */
+	private boolean executing;
+
+	/**
+	 * Whether the client provided the token
+	 */
+	private boolean authenticated;
+
+	/**
+	 * Whether the connection has to be closed once its output is written
+	 */
+	private volatile boolean closing;
+
+	/**
+	 * Whether the daemon has to be stopped once the connection is closed
+	 */
+	private boolean stopping;
+
+	/**
+	 * Whether the connection is closed
+	 */
+	private volatile boolean closed;
+
+	/**
+	 * The monitor of the command lines, cancelled when the connection is
+	 * closed
+	 */
+	private final DefaultExecutionMonitor monitor = new DefaultExecutionMonitor();
+
+	/**
+	 * The context of the command lines of this connection
+	 */
+	private final CommandContext context = new CommandContext(new ConnectionWriter());
+
+	/**
+	 * Constructor
+	 * 
+	 * @param daemon
+	 *            the daemon the client is connected to
+	 * @param channel
+	 *            the channel of the connection
+	 * @param key
+	 *            the key of the channel in the daemon's selector
+	 */
+	DaemonConnection(final ClicDaemon daemon, final SocketChannel channel, final SelectionKey key) {
+		this.daemon = daemon;
+		this.channel = channel;
+		this.key = key;
+	}
+
+	/**
+	 * Reads the available requests. Called by the selector thread.
+	 * 
+	 * @return false if the client closed the connection
+	 * @throws IOException
+	 *             if the channel can't be read
+	 */
+	boolean read() throws IOException {
+		readBuffer.clear();
+		if (channel.read(readBuffer) < 0)
+			return false;
+		readBuffer.flip();
+		while (readBuffer.hasRemaining() && !closing) {
+			final byte b = readBuffer.get();
+			if (b == '\n') {
+				String request = new String(line.toByteArray(), UTF_8);
+				line.reset();
+				if (request.endsWith("\r"))
+					request = request.substring(0, request.length() - 1);
+				onRequest(request);
+			} else if (line.size() < MAX_LINE)
+				line.write(b);
+			else
+				reject(ClicMessages.DAEMON_REQUEST_TOO_LONG.value(MAX_LINE));
+		}
+		return true;
+	}
+
+	/**
+	 * Handles a request. Called by the selector thread.
+	 * 
+	 * @param request
+	 *            the request
+	 */
+	private void onRequest(final String request) {
+		if (!authenticated) {
+			if (request.startsWith(AUTH)
+					&& MessageDigest.isEqual(request.substring(AUTH.length()).getBytes(UTF_8), daemon.getToken()
+							.getBytes(UTF_8))) {
+				authenticated = true;
+				send(STATUS + SUCCEEDED);
+			} else
+				reject(ClicMessages.DAEMON_UNAUTHORIZED.value());
+		} else if (STOP.equals(request)) {
+			send(STATUS + SUCCEEDED);
+			closing = true;
+			stopping = true;
+		} else if (request.trim().length() > 0) {
+			synchronized (this) {
+				commandLines.add(request.trim());
+			}
+			executeNext();
+		}
+	}
+
+	/**
+	 * Rejects the request, and closes the connection once the rejection is
+	 * written
+	 * 
+	 * @param message
+	 *            the reason of the rejection
+	 */
+	private void reject(final String message) {
+		send(STATUS + REJECTED + " " + message);
+		closing = true;
+	}
+
+	/**
+	 * Executes the next command line of this connection on a worker, unless
+	 * one is already being executed
+	 */
+	private void executeNext() {
+		final String commandLine;
+		synchronized (this) {
+			if (executing || closed || commandLines.isEmpty())
+				return;
+			executing = true;
+			commandLine = commandLines.poll();
+		}
+		daemon.execute(new Runnable() {
+			@Override
+			public void run() {
+				String status = STATUS + FAILED;
+				try {
+					final ExecutionStatus result = CommandEngine.execute(commandLine, context, monitor);
+					status = result.isOK() ? STATUS + SUCCEEDED : STATUS + FAILED + " "
+							+ String.valueOf(result.getMessage()).replace('\n', ' ');
+				} catch (final RuntimeException e) {
+					ClicCore.getLogger().error(e.getMessage(), e);
+				} finally {
+					send(status);
+					synchronized (DaemonConnection.this) {
+						executing = false;
+					}
+					executeNext();
+				}
+			}
+		});
+	}
+
+	/**
+	 * Queues a line to be written, without blocking
+	 * 
+	 * @param text
+	 *            the line
+	 */
+	private void send(final String text) {
+		if (closed)
+			return;
+		final ByteBuffer buffer = ByteBuffer.wrap((text + "\n").getBytes(UTF_8));
+		synchronized (output) {
+			pendingOutput += buffer.remaining();
+		}
+		output.add(buffer);
+		daemon.requestWrite(this);
+	}
+
+	/**
+	 * Queues a line written by a command, blocking the worker while too much
+	 * output is waiting to be written
+	 * 
+	 * @param text
+	 *            the line
+	 */
+	private void sendOutput(final String text) {
+		synchronized (output) {
+			try {
+				while (pendingOutput > MAX_PENDING_OUTPUT && !closed)
+					output.wait();
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		send(OUTPUT + text);
+	}
+
+	/**
+	 * Registers the interest of the selector for writes. Called by the
+	 * selector thread.
+	 */
+	void enableWrites() {
+		if (key.isValid())
+			key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+	}
+
+	/**
+	 * Writes as much of the pending output as possible. Called by the selector
+	 * thread.
+	 * 
+	 * @throws IOException
+	 *             if the channel can't be written
+	 */
+	void write() throws IOException {
+		for (ByteBuffer buffer = output.peek(); buffer != null; buffer = output.peek()) {
+			final int written = channel.write(buffer);
+			synchronized (output) {
+				pendingOutput -= written;
+				output.notifyAll();
+			}
+			if (buffer.hasRemaining())
+				return;
+			output.poll();
+		}
+		if (closing) {
+			close();
+			if (stopping)
+				daemon.stop();
+		} else if (key.isValid())
+			key.interestOps(SelectionKey.OP_READ);
+	}
+
+	/**
+	 * Closes the connection, cancelling its command lines
+	 */
+	void close() {
+		closed = true;
+		monitor.setCanceled(true);
+		key.cancel();
+		try {
+			channel.close();
+		} catch (final IOException e) {
+			// Already closed
+		}
+		synchronized (output) {
+			output.clear();
+			output.notifyAll();
+		}
+	}
+
+	/**
+	 * The {@link Writer} of the {@link CommandContext} of the connection,
+	 * sending each line written by the commands to the client
+	 */
+	private final class ConnectionWriter extends Writer {
+
+		@Override
+		public void write(final char[] cbuf, final int off, final int len) {
+			this.write(new String(cbuf, off, len));
+		}
+
+		@Override
+		public void write(final String str) {
+			for (final String text : str.split("\n", -1))
+				sendOutput(text);
+		}
+
+		@Override
+		public void write(final String str, final int off, final int len) {
+			this.write(str.substring(off, off + len));
+		}
+
+		@Override
+		public void flush() {
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+}
@@ -0,0 +1,189 @@
+/*
+ * CLiC, Framework for Command Line Interpretation in Eclipse
+ *
+ *     Copyright (C) 2013 Worldline or third-party contributors as
+ *     indicated by the @author tags or express copyright attribution
+ *     statements applied by the authors.
+ *
+ *     This library is free software; you can redistribute it and/or
+ *     modify it under the terms of the GNU Lesser General Public
+ *     License as published by the Free Software Foundation; either
+ *     version 2.1 of the License.
+ *
+ *     This library is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *     Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public
+ *     License along with this library; if not, write to the Free Software
+ *     Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+package com.worldline.clic.launcher;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermission;
+import java.security.SecureRandom;
+import java.util.EnumSet;
+import java.util.Properties;
+
+/**
+ * The {@link DaemonInfo} describes how to reach the running {@link ClicDaemon}:
+ * the loopback port it listens on, and the token its clients have to provide.
+ * It is stored in <i>~/.clic/daemon.properties</i>, readable by its owner only,
+ * so that only the user who started the daemon can send it commands.
+ * 
+ * @author mvanbesien / aneveux
+ * @version 1.0
+ * @since 1.2
+ */
+class DaemonInfo {
+
+	/**
+	 * The file the information is stored in
+	 */
+	static final File FILE = new File(new File(System.getProperty("user.home"), ".clic"), "daemon.properties");
+
+	/**
+	 * The port the daemon listens on
+	 */
+	private final int port;
+
+	/**
+	 * The token the clients have to provide
+	 */
+	private final String token;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param port
+	 *            the port the daemon listens on
+	 * @param token
+	 *            the token the clients have to provide
+	 */
+	DaemonInfo(final int port, final String token) {
+		this.port = port;
+		this.token = token;
+	}
+
+	/**
+	 * @return a new random token, to be provided by the clients
+	 */
+	static String newToken() {
+		final byte[] bytes = new byte[16];
+		new SecureRandom().nextBytes(bytes);
+		final StringBuilder token = new StringBuilder();
+		for (final byte b : bytes)
+			token.append(String.format("%02x", b & 0xff));
+		return token.toString();
+	}
+
+	/**
+	 * Reads the information of the running daemon
+	 * 
+	 * @return the information of the running daemon
+	 * @throws IOException
+	 *             if no daemon is running, or if the file can't be read
+	 */
+	static DaemonInfo read() throws IOException {
+		final Properties properties = new Properties();
+		final InputStream stream = new FileInputStream(FILE);
+		try {
+			properties.load(stream);
+		} finally {
+			stream.close();
+		}
+		try {
+			return new DaemonInfo(Integer.parseInt(properties.getProperty("port")), properties.getProperty("token"));
+		} catch (final NumberFormatException e) {
+			throw new IOException("Invalid " + FILE, e);
+		}
+	}
+
+	/**
+	 * Writes the information, readable by the current user only
+	 * 
+	 * @throws IOException
+	 *             if the file can't be written
+	 */
+	void write() throws IOException {
+		final File directory = FILE.getParentFile();
+		if (!directory.isDirectory() && !directory.mkdirs())
+			throw new IOException("Unable to create " + directory);
+		final File temporary = new File(directory, FILE.getName() + ".tmp");
+		temporary.delete();
+		if (!temporary.createNewFile())
+			throw new IOException("Unable to create " + temporary);
+		restrictToOwner(temporary);
+		final Properties properties = new Properties();
+		properties.setProperty("port", String.valueOf(port));
+		properties.setProperty("token", token);
+		final OutputStream stream = new FileOutputStream(temporary);
+		try {
+			properties.store(stream, "CLiC daemon");
+		} finally {
+			stream.close();
+		}
+		if (!temporary.renameTo(FILE) && !(FILE.delete() && temporary.renameTo(FILE)))
+			throw new IOException("Unable to create " + FILE);
+	}
+
+	/**
+	 * Deletes the information, once the daemon is stopped, provided it has
+	 * not been replaced by another daemon meanwhile
+	 */
+	void delete() {
+		try {
+			if (token.equals(read().token))
+				FILE.delete();
+		} catch (final IOException e) {
+			// Already deleted
+		}
+	}
+
+	/**
+	 * Makes a file readable and writable by its owner only
+	 * 
+	 * @param file
+	 *            the file
+	 * @throws IOException
+	 *             if the permissions can't be changed
+	 */
+	private static void restrictToOwner(final File file) throws IOException {
+		try {
+			Files.setPosixFilePermissions(file.toPath(),
+					EnumSet.of(PosixFilePermission.OWNER_READ, PosixFilePermission.OWNER_WRITE));
+		} catch (final UnsupportedOperationException e) {
+			// Not a POSIX file system
+			file.setReadable(false, false);
+			file.setWritable(false, false);
+			file.setReadable(true, true);
+			file.setWritable(true, true);
+		}
+	}
+
+	/**
+	 * Simple getter for {@link #port}
+	 * 
+	 * @return {@link #port}
+	 */
+	int getPort() {
+		return port;
+	}
+
+	/**
+	 * Simple getter for {@link #token}
+	 * 
+	 * @return {@link #token}
+	 */
+	String getToken() {
+		return token;
+	}
+}
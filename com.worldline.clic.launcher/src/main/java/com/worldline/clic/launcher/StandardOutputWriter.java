@@ -0,0 +1,92 @@
+/*
+ * CLiC, Framework for Command Line Interpretation in Eclipse
+ *
+ *     Copyright (C) 2013 Worldline or third-party contributors as
+ *     indicated by the @author tags or express copyright attribution
+ *     statements applied by the authors.
+ *
+ *     This library is free software; you can redistribute it and/or
+ *     modify it under the terms of the GNU Lesser General Public
+ *     License as published by the Free Software Foundation; either
+ *     version 2.1 of the License.
+ *
+ *     This library is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *     Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public
+ *     License along with this library; if not, write to the Free Software
+ *     Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+package com.worldline.clic.launcher;
+
+import java.io.PrintStream;
+import java.io.Writer;
+
+/**
+ * This extension of a {@link Writer} allows to write the messages of the
+ * commands executed by the {@link ClicLauncher} on a {@link PrintStream}, each
+ * message being terminated by a new line, just like in the CLiC console.
+ * 
+ * @author mvanbesien / aneveux
+ * @version 1.0
+ * @since 1.2
+ */
+class StandardOutputWriter extends Writer {
+
+	/**
+	 * The {@link PrintStream} the messages are written on
+	 */
+	private final PrintStream stream;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param stream
+	 *            the {@link PrintStream} the messages are written on
+	 */
+	StandardOutputWriter(final PrintStream stream) {
+		this.stream = stream;
+	}
+
+	/**
+	 * Allows to flush the {@link #stream}, without closing it
+	 */
+	@Override
+	public void close() {
+		stream.flush();
+	}
+
+	/**
+	 * Allows to flush the {@link #stream}
+	 */
+	@Override
+	public void flush() {
+		stream.flush();
+	}
+
+	/**
+	 * Allows to write information on the {@link #stream}
+	 */
+	@Override
+	public void write(final char[] cbuf, final int off, final int len) {
+		this.write(new String(cbuf, off, len));
+	}
+
+	/**
+	 * Allows to write information on the {@link #stream}
+	 */
+	@Override
+	public void write(final String str) {
+		stream.print(str + "\n");
+	}
+
+	/**
+	 * Allows to write information on the {@link #stream}
+	 */
+	@Override
+	public void write(final String str, final int off, final int len) {
+		this.write(str.substring(off, off + len));
+	}
+}
@@ -0,0 +1,101 @@
+/*
+ * CLiC, Framework for Command Line Interpretation in Eclipse
+ *
+ *     Copyright (C) 2013 Worldline or third-party contributors as
+ *     indicated by the @author tags or express copyright attribution
+ *     statements applied by the authors.
+ *
+ *     This library is free software; you can redistribute it and/or
+ *     modify it under the terms of the GNU Lesser General Public
+ *     License as published by the Free Software Foundation; either
+ *     version 2.1 of the License.
+ *
+ *     This library is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *     Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public
+ *     License along with this library; if not, write to the Free Software
+ *     Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+package com.worldline.clic.internal.view.history;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+/**
+ * Tests the ring buffer of the {@link CommandHistory}, as it grows up to its
+ * size limit then overwrites its oldest commands
+ * 
+ * @author mvanbesien / aneveux
+ * @version 1.0
+ * @since 1.2
+ */
+public class CommandHistoryTest {
+
+	@Test
+	public void browsesTheLastCommandsOnceWrapped() {
+		final CommandHistory history = new CommandHistory(3);
+		for (int i = 0; i < 5; i++)
+			history.addCommand("command " + i);
+		assertEquals(3, history.getSize());
+		assertEquals("command 3", history.getPreviousCommand());
+		assertEquals("command 2", history.getPreviousCommand());
+		assertNull(history.getPreviousCommand());
+		assertEquals("command 3", history.getNextCommand());
+		assertEquals("command 4", history.getNextCommand());
+		assertNull(history.getNextCommand());
+	}
+
+	@Test
+	public void evictsTheOldestCommandsOnceWrapped() {
+		final CommandHistory history = new CommandHistory(3);
+		for (int i = 0; i < 5; i++)
+			history.addCommand("command " + i);
+		assertEquals(5, history.getNextSequence());
+		assertNull(history.getCommand(1));
+		assertEquals("command 2", history.getCommand(2));
+		assertEquals("command 4", history.getCommand(4));
+		assertNull(history.getCommand(5));
+	}
+
+	@Test
+	public void keepsTheOrderOfTheCommandsOnceGrownAndWrapped() {
+		final CommandHistory history = new CommandHistory(1000);
+		for (int i = 0; i < 1500; i++)
+			history.addCommand("command " + i);
+		assertEquals(1000, history.getSize());
+		for (int i = 1498; i >= 500; i--)
+			assertEquals("command " + i, history.getPreviousCommand());
+		assertNull(history.getPreviousCommand());
+		assertNull(history.getCommand(499));
+		assertEquals("command 500", history.getCommand(500));
+	}
+
+	@Test
+	public void resetsTheCursorWhenACommandIsAdded() {
+		final CommandHistory history = new CommandHistory(100);
+		for (int i = 0; i < 70; i++)
+			history.addCommand("command " + i);
+		history.getPreviousCommand();
+		history.getPreviousCommand();
+		history.addCommand("command 70");
+		assertNull(history.getNextCommand());
+		assertEquals("command 69", history.getPreviousCommand());
+		assertEquals("command 68", history.getPreviousCommand());
+	}
+
+	@Test
+	public void growsUpToASizeLimitWhichIsNotAPowerOfTwo() {
+		final CommandHistory history = new CommandHistory(100);
+		for (int i = 0; i < 250; i++)
+			history.addCommand("command " + i);
+		assertEquals(100, history.getSize());
+		for (int i = 150; i < 250; i++)
+			assertEquals("command " + i, history.getCommand(i));
+		assertNull(history.getCommand(149));
+	}
+}
@@ -0,0 +1,89 @@
+/*
+ * CLiC, Framework for Command Line Interpretation in Eclipse
+ *
+ *     Copyright (C) 2013 Worldline or third-party contributors as
+ *     indicated by the @author tags or express copyright attribution
+ *     statements applied by the authors.
+ *
+ *     This library is free software; you can redistribute it and/or
+ *     modify it under the terms of the GNU Lesser General Public
+ *     License as published by the Free Software Foundation; either
+ *     version 2.1 of the License.
+ *
+ *     This library is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *     Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public
+ *     License along with this library; if not, write to the Free Software
+ *     Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+package com.worldline.clic.internal.view.history;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Tests the ranking of the {@link FrecencyTable}, including when its scores
+ * are scaled down
+ * 
+ * @author mvanbesien / aneveux
+ * @version 1.0
+ * @since 1.2
+ */
+public class FrecencyTableTest {
+
+	@Test
+	public void ranksTheFrequentAndRecentCommandsFirst() {
+		final FrecencyTable table = new FrecencyTable(16);
+		table.record("build");
+		table.record("deploy --target alpha");
+		table.record("deploy --target beta -v");
+		table.record("test");
+		assertTrue(table.getScore("deploy") > table.getScore("test"));
+		assertTrue(table.getScore("test") > table.getScore("build"));
+		assertTrue(table.getScore("deploy", "target") > table.getScore("deploy", "v"));
+		assertEquals(0, table.getScore("unknown"), 0);
+		assertTrue(table.getCommandLineScore("deploy --target gamma") > table.getScore("deploy"));
+	}
+
+	@Test
+	public void keepsTheRankingWhenTheScoresAreScaledDown() {
+		final int scaling = countRecordsBeforeScaling();
+		final FrecencyTable table = new FrecencyTable(16);
+		for (int i = 0; i < scaling - 3; i++)
+			table.record("filler");
+		table.record("often");
+		table.record("often");
+		table.record("once");
+		final double filler = table.getScore("filler");
+		table.record("later");
+		assertTrue(table.getScore("filler") < filler);
+		assertTrue(table.getScore("often") > table.getScore("later"));
+		assertTrue(table.getScore("later") > table.getScore("once"));
+		assertTrue(table.getScore("once") > 0);
+		table.record("last");
+		assertTrue(table.getScore("last") > table.getScore("later"));
+		assertFalse(Double.isInfinite(table.getScore("filler")));
+	}
+
+	/**
+	 * @return the number of commands recorded before the one causing the
+	 *         scores to be scaled down
+	 */
+	private static int countRecordsBeforeScaling() {
+		final FrecencyTable table = new FrecencyTable(16);
+		double previous = 0;
+		for (int recorded = 0;; recorded++) {
+			table.record("filler");
+			final double score = table.getScore("filler");
+			if (score < previous)
+				return recorded;
+			previous = score;
+		}
+	}
+}
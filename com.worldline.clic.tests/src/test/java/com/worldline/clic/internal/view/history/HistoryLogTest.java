@@ -0,0 +1,141 @@
+/*
+ * CLiC, Framework for Command Line Interpretation in Eclipse
+ *
+ *     Copyright (C) 2013 Worldline or third-party contributors as
+ *     indicated by the @author tags or express copyright attribution
+ *     statements applied by the authors.
+ *
+ *     This library is free software; you can redistribute it and/or
+ *     modify it under the terms of the GNU Lesser General Public
+ *     License as published by the Free Software Foundation; either
+ *     version 2.1 of the License.
+ *
+ *     This library is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *     Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public
+ *     License along with this library; if not, write to the Free Software
+ *     Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+package com.worldline.clic.internal.view.history;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests the {@link HistoryLog}, and its recovery from the files a crash may
+ * leave behind
+ * 
+ * @author mvanbesien / aneveux
+ * @version 1.0
+ * @since 1.2
+ */
+public class HistoryLogTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private File directory;
+
+	@Before
+	public void setUp() throws IOException {
+		directory = folder.newFolder("history");
+		final HistoryLog log = new HistoryLog(directory);
+		for (int i = 0; i < 5; i++)
+			log.append("command " + i);
+		log.close();
+	}
+
+	@Test
+	public void readsTheCommandsOfThePreviousSession() throws IOException {
+		final HistoryLog log = new HistoryLog(directory);
+		try {
+			assertEquals(5, log.getSize());
+			assertEquals(Arrays.asList("command 3", "command 4"), log.getLast(2));
+			assertEquals("command 0", log.get(0));
+			assertNull(log.get(5));
+		} finally {
+			log.close();
+		}
+	}
+
+	@Test
+	public void truncatesATornTailRecord() throws IOException {
+		final long length = new File(directory, "history.log").length();
+		append("history.log", new byte[] { 0, 0, 0, 42, 1, 2, 3, 4, 'c', 'o', 'm' });
+		HistoryLog log = new HistoryLog(directory);
+		try {
+			assertEquals(5, log.getSize());
+			assertEquals(length, new File(directory, "history.log").length());
+			log.append("command 5");
+		} finally {
+			log.close();
+		}
+		log = new HistoryLog(directory);
+		try {
+			assertEquals(6, log.getSize());
+			assertEquals(Arrays.asList("command 4", "command 5"), log.getLast(2));
+		} finally {
+			log.close();
+		}
+	}
+
+	@Test
+	public void indexesTheRecordsLeftOutOfTheIndex() throws IOException {
+		final RandomAccessFile index = new RandomAccessFile(new File(directory, "history.idx"), "rw");
+		try {
+			index.setLength(2 * 8);
+		} finally {
+			index.close();
+		}
+		final HistoryLog log = new HistoryLog(directory);
+		try {
+			assertEquals(5, log.getSize());
+			assertEquals("command 4", log.get(4));
+		} finally {
+			log.close();
+		}
+	}
+
+	@Test
+	public void ignoresZeroFilledIndexEntries() throws IOException {
+		final RandomAccessFile index = new RandomAccessFile(new File(directory, "history.idx"), "rw");
+		try {
+			index.setLength(3 * 8);
+			index.setLength(8 * 8);
+		} finally {
+			index.close();
+		}
+		final HistoryLog log = new HistoryLog(directory);
+		try {
+			assertEquals(5, log.getSize());
+			assertEquals(5 * 8, new File(directory, "history.idx").length());
+			assertEquals(Arrays.asList("command 0", "command 1", "command 2", "command 3", "command 4"),
+					log.getLast(10));
+		} finally {
+			log.close();
+		}
+	}
+
+	private void append(final String name, final byte[] bytes) throws IOException {
+		final RandomAccessFile file = new RandomAccessFile(new File(directory, name), "rw");
+		try {
+			file.seek(file.length());
+			file.write(bytes);
+		} finally {
+			file.close();
+		}
+	}
+}
@@ -0,0 +1,78 @@
+/*
+ * CLiC, Framework for Command Line Interpretation in Eclipse
+ *
+ *     Copyright (C) 2013 Worldline or third-party contributors as
+ *     indicated by the @author tags or express copyright attribution
+ *     statements applied by the authors.
+ *
+ *     This library is free software; you can redistribute it and/or
+ *     modify it under the terms of the GNU Lesser General Public
+ *     License as published by the Free Software Foundation; either
+ *     version 2.1 of the License.
+ *
+ *     This library is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *     Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public
+ *     License along with this library; if not, write to the Free Software
+ *     Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+package com.worldline.clic.internal.view.history;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Tests the {@link HistorySearchIndex} through the {@link CommandHistory} it
+ * indexes, as the commands are evicted from it
+ * 
+ * @author mvanbesien / aneveux
+ * @version 1.0
+ * @since 1.2
+ */
+public class HistorySearchIndexTest {
+
+	@Test
+	public void findsTheLastCommandsContainingAText() {
+		final CommandHistory history = new CommandHistory(10);
+		history.addCommand("deploy --target alpha");
+		history.addCommand("build");
+		history.addCommand("deploy --target beta");
+		history.addCommand("test");
+		assertEquals(2, history.search("deploy", history.getNextSequence()));
+		assertEquals(0, history.search("deploy", 2));
+		assertEquals(-1, history.search("deploy", 0));
+		assertEquals(-1, history.search("undeploy", history.getNextSequence()));
+	}
+
+	@Test
+	public void doesNotFindTheEvictedCommands() {
+		final CommandHistory history = new CommandHistory(3);
+		history.addCommand("deploy --target alpha");
+		history.addCommand("deploy --target beta");
+		history.addCommand("build");
+		history.addCommand("test");
+		assertEquals(1, history.search("deploy", history.getNextSequence()));
+		assertEquals(-1, history.search("deploy", 1));
+		assertEquals(-1, history.search("alpha", history.getNextSequence()));
+		assertEquals(-1, history.search("al", history.getNextSequence()));
+	}
+
+	@Test
+	public void findsTheCommandsAddedAfterManyEvictions() {
+		final CommandHistory history = new CommandHistory(50);
+		for (int i = 0; i < 1000; i++)
+			history.addCommand((i % 2 == 0 ? "deploy " : "build ") + i);
+		int sequence = history.getNextSequence();
+		for (int i = 998; i >= 950; i -= 2) {
+			sequence = history.search("deploy", sequence);
+			assertEquals(i, sequence);
+		}
+		assertEquals(-1, history.search("deploy", sequence));
+		assertEquals(999, history.search("build", history.getNextSequence()));
+		assertEquals(-1, history.search("deploy 4", history.getNextSequence()));
+	}
+}
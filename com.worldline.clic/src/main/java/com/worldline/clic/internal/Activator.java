@@ -28,6 +28,11 @@ import org.eclipse.swt.graphics.Image;
 import org.eclipse.ui.plugin.AbstractUIPlugin;
 import org.osgi.framework.BundleContext;
 
+import com.worldline.clic.core.ClicCore;
+import com.worldline.clic.internal.commands.ExtensionRegistryContributions;
+import com.worldline.clic.internal.jmx.ManagementRegistration;
+import com.worldline.clic.internal.view.history.HistoryLog;
+
 /**
  * The activator class controls the plug-in life cycle
  * 
@@ -43,6 +48,10 @@ public class Activator extends AbstractUIPlugin {
 	// The shared instance
 	private static Activator plugin;
 
+	// The provider of the commands and listeners contributed to the extension
+	// points
+	private final ExtensionRegistryContributions contributions = new ExtensionRegistryContributions();
+
 	/**
 	 * The constructor
 	 */
@@ -61,6 +70,10 @@ public class Activator extends AbstractUIPlugin {
 		super.start(context);
 		plugin = this;
 		getImageRegistry();
+		ClicCore.setLogger(new ErrorLogEngineLogger());
+		ClicCore.setScheduler(new JobEngineScheduler());
+		ClicCore.addContributionProvider(contributions);
+		ManagementRegistration.register();
 	}
 
 	/*
@@ -72,6 +85,11 @@ public class Activator extends AbstractUIPlugin {
 	 */
 	@Override
 	public void stop(final BundleContext context) throws Exception {
+		ManagementRegistration.unregister();
+		HistoryLog.closeDefault();
+		ClicCore.removeContributionProvider(contributions);
+		ClicCore.setScheduler(null);
+		ClicCore.setLogger(null);
 		getImageRegistry().dispose();
 		plugin = null;
 		super.stop(context);
@@ -106,6 +124,20 @@ public class Activator extends AbstractUIPlugin {
 				new Status(IStatus.WARNING, Activator.PLUGIN_ID, message));
 	}
 
+	/**
+	 * Sends the message and the Throwable to the Error Log with the WARN
+	 * severity
+	 * 
+	 * @param message
+	 * @param t
+	 *            Throwable
+	 */
+	public static void sendWarningToErrorLog(final String message,
+			final Throwable t) {
+		Activator.plugin.getLog().log(
+				new Status(IStatus.WARNING, Activator.PLUGIN_ID, message, t));
+	}
+
 	/**
 	 * Sends the message to the Error Log with the ERROR severity
 	 * 
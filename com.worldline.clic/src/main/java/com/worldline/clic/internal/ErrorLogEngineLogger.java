@@ -0,0 +1,51 @@
+/*
+ * CLiC, Framework for Command Line Interpretation in Eclipse
+ *
+ *     Copyright (C) 2013 Worldline or third-party contributors as
+ *     indicated by the @author tags or express copyright attribution
+ *     statements applied by the authors.
+ *
+ *     This library is free software; you can redistribute it and/or
+ *     modify it under the terms of the GNU Lesser General Public
+ *     License as published by the Free Software Foundation; either
+ *     version 2.1 of the License.
+ *
+ *     This library is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *     Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public
+ *     License along with this library; if not, write to the Free Software
+ *     Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+package com.worldline.clic.internal;
+
+import com.worldline.clic.core.EngineLogger;
+
+/**
+ * The {@link EngineLogger} sending the warnings and errors of the command
+ * engine to the Error Log.
+ * 
+ * @author mvanbesien / aneveux
+ * @version 1.0
+ * @since 1.2
+ */
+public class ErrorLogEngineLogger implements EngineLogger {
+
+	@Override
+	public void warning(final String message, final Throwable t) {
+		if (t != null)
+			Activator.sendWarningToErrorLog(message, t);
+		else
+			Activator.sendWarningToErrorLog(message);
+	}
+
+	@Override
+	public void error(final String message, final Throwable t) {
+		if (t != null)
+			Activator.sendErrorToErrorLog(message, t);
+		else
+			Activator.sendErrorToErrorLog(message);
+	}
+}
@@ -0,0 +1,75 @@
+/*
+ * CLiC, Framework for Command Line Interpretation in Eclipse
+ *
+ *     Copyright (C) 2013 Worldline or third-party contributors as
+ *     indicated by the @author tags or express copyright attribution
+ *     statements applied by the authors.
+ *
+ *     This library is free software; you can redistribute it and/or
+ *     modify it under the terms of the GNU Lesser General Public
+ *     License as published by the Free Software Foundation; either
+ *     version 2.1 of the License.
+ *
+ *     This library is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *     Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public
+ *     License along with this library; if not, write to the Free Software
+ *     Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+package com.worldline.clic.internal;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+
+import com.worldline.clic.core.ExecutionStatus;
+
+/**
+ * Converts the statuses of the executions of the command engine into
+ * {@link IStatus}. It only depends on the Equinox runtime, so that the
+ * commands can be invoked where the UI plug-in is not started, such as from
+ * the benchmarks.
+ * 
+ * @author mvanbesien / aneveux
+ * @version 1.0
+ * @since 1.2
+ */
+public final class ExecutionStatuses {
+
+	/**
+	 * The identifier of the plug-in the statuses are reported by, which is
+	 * the one of the {@link Activator}
+	 */
+	private static final String PLUGIN_ID = "com.worldline.clic"; //$NON-NLS-1$
+
+	/**
+	 * Private constructor, as this class only holds static methods
+	 */
+	private ExecutionStatuses() {
+	}
+
+	/**
+	 * Converts the status of an execution of the command engine into an
+	 * {@link IStatus}
+	 * 
+	 * @param status
+	 *            the status of the execution
+	 * @return the matching {@link IStatus}
+	 */
+	public static IStatus toStatus(final ExecutionStatus status) {
+		switch (status.getSeverity()) {
+		case OK:
+			return Status.OK_STATUS;
+		case CANCEL:
+			return Status.CANCEL_STATUS;
+		case WARNING:
+			return new Status(IStatus.WARNING, PLUGIN_ID, status.getMessage(),
+					status.getException());
+		default:
+			return new Status(IStatus.ERROR, PLUGIN_ID, status.getMessage(),
+					status.getException());
+		}
+	}
+}
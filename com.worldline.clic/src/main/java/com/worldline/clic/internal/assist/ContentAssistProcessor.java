@@ -26,7 +26,8 @@ import java.util.LinkedHashSet;
 import java.util.Set;
 
 import com.worldline.clic.commands.AbstractCommand;
-import com.worldline.clic.internal.commands.CommandRegistry;
+import com.worldline.clic.internal.engine.CommandRegistry;
+import com.worldline.clic.internal.view.history.FrecencyTable;
 
 /**
  * 
@@ -34,6 +35,11 @@ import com.worldline.clic.internal.commands.CommandRegistry;
  * you are using a command, it completes the command with the matching extended
  * pattern. It does the same with the arguments of the provided command.
  * 
+ * When a {@link FrecencyTable} is provided, and some of the matching commands
+ * or arguments have already been used, the one used the most often and the
+ * most recently is completed directly, rather than the common prefix of all
+ * the matching ones.
+ * 
  * @author mvanbesien
  * @since 0.1
  * @version 0.1
@@ -42,16 +48,22 @@ import com.worldline.clic.internal.commands.CommandRegistry;
 public class ContentAssistProcessor {
 
 	/**
-	 * Set that contains all commands and command flows identifiers
-	 */
-	private static Set<String> allCommands = new HashSet<String>();
-	
-	/**
-	 * Static initializer
+	 * This inner class allows to load the set of commands lazily, the first
+	 * time it is needed.
 	 */
-	static {
-		allCommands.addAll(CommandRegistry.getInstance().getCommandsList());
-		allCommands.addAll(CommandRegistry.getInstance().getFlows().keySet());
+	private static final class CommandsHolder {
+		/**
+		 * Set that contains all commands and command flows identifiers
+		 */
+		private static Set<String> allCommands = new HashSet<String>();
+
+		/**
+		 * Static initializer
+		 */
+		static {
+			allCommands.addAll(CommandRegistry.getInstance().getCommandsList());
+			allCommands.addAll(CommandRegistry.getInstance().getFlows().keySet());
+		}
 	}
 	
 	// Private constructor as par static helper class
@@ -71,6 +83,54 @@ public class ContentAssistProcessor {
 	 * @return
 	 */
 	public static String assist(String fullCommand, int cursorPosition) {
+		return assist(fullCommand, cursorPosition, (FrecencyTable) null);
+	}
+
+	/**
+	 * Takes the command and the current caret position, and completes the
+	 * command with matching auto completion, preferring the commands and
+	 * arguments ranked first by the provided {@link FrecencyTable}.
+	 * 
+	 * @param fullCommand
+	 * @param cursorPosition
+	 * @param frecency
+	 *            the frecency of the commands and arguments, null if they
+	 *            shouldn't be ranked
+	 * @return
+	 */
+	public static String assist(String fullCommand, int cursorPosition, FrecencyTable frecency) {
+		return assist(fullCommand, cursorPosition, CommandsHolder.allCommands, frecency);
+	}
+
+	/**
+	 * Takes the command and the current caret position, and completes the
+	 * command with matching auto completion, among the provided commands and
+	 * command flows identifiers.
+	 * 
+	 * @param fullCommand
+	 * @param cursorPosition
+	 * @param allCommands
+	 * @return
+	 */
+	static String assist(String fullCommand, int cursorPosition, Set<String> allCommands) {
+		return assist(fullCommand, cursorPosition, allCommands, null);
+	}
+
+	/**
+	 * Takes the command and the current caret position, and completes the
+	 * command with matching auto completion, among the provided commands and
+	 * command flows identifiers, preferring the ones ranked first by the
+	 * provided {@link FrecencyTable}.
+	 * 
+	 * @param fullCommand
+	 * @param cursorPosition
+	 * @param allCommands
+	 * @param frecency
+	 *            the frecency of the commands and arguments, null if they
+	 *            shouldn't be ranked
+	 * @return
+	 */
+	static String assist(String fullCommand, int cursorPosition, Set<String> allCommands, FrecencyTable frecency) {
 
 		// Handle the case where nothing is specified.
 		if (fullCommand.length() == 0)
@@ -96,7 +156,7 @@ public class ContentAssistProcessor {
 			// In this case, we are in the command.
 			String initialValue = commandChunks[0];
 			String commandPrefix = initialValue.substring(0, cursorPositionInChunk);
-			String commonExpandedPrefix = getExpandedPrefix(commandPrefix, allCommands);
+			String commonExpandedPrefix = getExpandedPrefix(commandPrefix, allCommands, frecency, null);
 			if (commonExpandedPrefix != null && commonExpandedPrefix.length() > 0) {
 				commandChunks[0] = commonExpandedPrefix
 						+ (initialValue.length() > cursorPositionInChunk ? initialValue.substring(commonExpandedPrefix
@@ -116,16 +176,19 @@ public class ContentAssistProcessor {
 			}
 
 			if (argumentPrefix.length() > 0) {
-				String expandedArgument = getExpandedPrefix(argumentPrefix, possibleOptions);
+				String expandedArgument = getExpandedPrefix(argumentPrefix, possibleOptions, frecency, commandName);
 				commandChunks[cursorChunkLocation] = "-"
 						+ expandedArgument
 						+ (argumentValue.length() > cursorPositionInChunk ? commandChunks[cursorChunkLocation]
 								.substring(argumentPrefix.length() + 1) : "");
-			} else if (argumentPrefix.length() == 0 && possibleOptions.size() == 1) {
-				commandChunks[cursorChunkLocation] = "-"
-						+ possibleOptions.iterator().next()
-						+ (argumentValue.length() > cursorPositionInChunk ? commandChunks[cursorChunkLocation]
-								.substring(argumentPrefix.length() + 1) : "");
+			} else if (argumentPrefix.length() == 0) {
+				String option = possibleOptions.size() == 1 ? possibleOptions.iterator().next() : getMostFrecent(
+						possibleOptions, frecency, commandName);
+				if (option != null)
+					commandChunks[cursorChunkLocation] = "-"
+							+ option
+							+ (argumentValue.length() > cursorPositionInChunk ? commandChunks[cursorChunkLocation]
+									.substring(argumentPrefix.length() + 1) : "");
 			}
 			// TODO : Handle the values with specific handlers (through
 			// extension points ?).
@@ -156,13 +219,20 @@ public class ContentAssistProcessor {
 	/**
 	 * Retrieves the elements in the provided proposals set, that start with the
 	 * initial pattern, and returns the common longest prefix of the selected
-	 * elements.
+	 * elements. If some of them have already been used, the one with the best
+	 * frecency is returned instead.
 	 * 
 	 * @param prefix
 	 * @param proposals
+	 * @param frecency
+	 *            the frecency of the proposals, possibly null
+	 * @param commandName
+	 *            the command the proposals are options of, null if they are
+	 *            commands
 	 * @return
 	 */
-	private static String getExpandedPrefix(String prefix, Set<String> proposals) {
+	private static String getExpandedPrefix(String prefix, Set<String> proposals, FrecencyTable frecency,
+			String commandName) {
 		Set<String> acceptableCommands = new LinkedHashSet<String>();
 
 		// We get all the items that have the same prefix, and in them, we
@@ -176,6 +246,11 @@ public class ContentAssistProcessor {
 			}
 		}
 
+		// The most likely item is completed directly, if any
+		String mostFrecent = getMostFrecent(acceptableCommands, frecency, commandName);
+		if (mostFrecent != null)
+			return mostFrecent;
+
 		for (String command : acceptableCommands) {
 			matchingCommand = getCommonPrefix(matchingCommand, command);
 		}
@@ -183,6 +258,35 @@ public class ContentAssistProcessor {
 		return matchingCommand;
 	}
 
+	/**
+	 * Retrieves the proposal with the best frecency, in a single pass over the
+	 * proposals.
+	 * 
+	 * @param proposals
+	 * @param frecency
+	 *            the frecency of the proposals, possibly null
+	 * @param commandName
+	 *            the command the proposals are options of, null if they are
+	 *            commands
+	 * @return the proposal with the best frecency, or null if none has been
+	 *         used
+	 */
+	private static String getMostFrecent(Set<String> proposals, FrecencyTable frecency, String commandName) {
+		if (frecency == null)
+			return null;
+		String mostFrecent = null;
+		double bestScore = 0;
+		for (String proposal : proposals) {
+			double score = commandName != null ? frecency.getScore(commandName, proposal) : frecency
+					.getScore(proposal);
+			if (score > bestScore) {
+				bestScore = score;
+				mostFrecent = proposal;
+			}
+		}
+		return mostFrecent;
+	}
+
 	/**
 	 * Retrieves the longest common prefix of the two provided strings.
 	 * 
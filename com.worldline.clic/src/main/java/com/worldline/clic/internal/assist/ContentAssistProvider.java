@@ -22,8 +22,10 @@
 package com.worldline.clic.internal.assist;
 
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.eclipse.jface.viewers.DoubleClickEvent;
@@ -46,8 +48,12 @@ import org.eclipse.swt.widgets.Shell;
 import org.eclipse.swt.widgets.Table;
 import org.eclipse.swt.widgets.Text;
 
+import com.worldline.clic.internal.view.history.FrecencyTable;
+
 /**
- * This class allows to deal with autocompletion for all commands.
+ * This class allows to deal with autocompletion for all commands. When a
+ * {@link FrecencyTable} is provided, the proposals are ranked by frecency, the
+ * most likely one first.
  * 
  * @author mvanbesien
  * @since 1.0
@@ -59,6 +65,7 @@ public class ContentAssistProvider {
 	private final IProcessor[] processors;
 	private final Map<String, Object> properties = new HashMap<String, Object>();
 	private IStructuredContentProvider assistContentProvider;
+	private FrecencyTable frecency;
 
 	private Listener textKeyListener;
 	private Listener assistTablePopulationListener;
@@ -82,6 +89,17 @@ public class ContentAssistProvider {
 		properties.put(key, value);
 	}
 
+	/**
+	 * Allows to rank the proposals by frecency
+	 * 
+	 * @param frecency
+	 *            the frecency of the commands and options, null if the
+	 *            proposals shouldn't be ranked
+	 */
+	public void setFrecencyTable(final FrecencyTable frecency) {
+		this.frecency = frecency;
+	}
+
 	private void build() {
 		// Creation of graphical elements
 		final Display display = text.getDisplay();
@@ -148,7 +166,7 @@ public class ContentAssistProvider {
 
 			@Override
 			public Object[] getElements(final Object inputElement) {
-				final Collection<String> results = new ArrayList<String>();
+				final List<String> results = new ArrayList<String>();
 				if (inputElement instanceof String) {
 					final String input = (String) inputElement;
 					final ProcessorContext pc = new ProcessorContext(input,
@@ -156,11 +174,33 @@ public class ContentAssistProvider {
 					for (final IProcessor processor : processors)
 						results.addAll(processor.getProposals(pc));
 				}
+				if (frecency != null && results.size() > 1)
+					rankByFrecency(results);
 				return results.toArray();
 			}
 		};
 	}
 
+	/**
+	 * Sorts the proposals by decreasing frecency, keeping the order of the
+	 * processors for the proposals which have not been used. The scores are
+	 * computed once per proposal.
+	 * 
+	 * @param proposals
+	 *            the proposals to sort
+	 */
+	private void rankByFrecency(final List<String> proposals) {
+		final Map<String, Double> scores = new HashMap<String, Double>();
+		for (final String proposal : proposals)
+			scores.put(proposal, frecency.getCommandLineScore(proposal));
+		Collections.sort(proposals, new Comparator<String>() {
+			@Override
+			public int compare(final String first, final String second) {
+				return Double.compare(scores.get(second), scores.get(first));
+			}
+		});
+	}
+
 	private Listener newAssistTablePopulationListener() {
 		return new Listener() {
 
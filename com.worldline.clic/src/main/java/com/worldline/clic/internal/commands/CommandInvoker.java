@@ -22,11 +22,14 @@
 package com.worldline.clic.internal.commands;
 
 import org.eclipse.core.runtime.IStatus;
-import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.Status;
 
 import com.worldline.clic.commands.CommandContext;
-import com.worldline.clic.internal.Activator;
+import com.worldline.clic.core.ClicCore;
+import com.worldline.clic.core.DefaultExecutionMonitor;
+import com.worldline.clic.core.ExecutionStatus;
+import com.worldline.clic.internal.ExecutionStatuses;
+import com.worldline.clic.internal.engine.CommandEngine;
 
 /**
  * A {@link CommandInvoker} allows to invoke programmatically a CLiC command. It
@@ -42,7 +45,7 @@ import com.worldline.clic.internal.Activator;
  * @version 1.0
  * @since 1.0
  * 
- * @see CommandProcessor
+ * @see CommandEngine
  */
 public class CommandInvoker {
 
@@ -55,19 +58,20 @@ public class CommandInvoker {
 	 * @param context
 	 *            the execution context to be used
 	 * @return an {@link IStatus} allowing to give information about the
-	 *         execution status
+	 *         execution status: the status of the executed command, or flow,
+	 *         or {@link Status#CANCEL_STATUS} if it has been cancelled
 	 * 
 	 * @since 1.0
 	 */
 	public static IStatus invoke(final String commandChain,
 			final CommandContext context) {
 		try {
-			return new CommandProcessor(commandChain, context)
-					.run(new NullProgressMonitor());
+			return ExecutionStatuses.toStatus(CommandEngine.execute(
+					commandChain, context, new DefaultExecutionMonitor()));
 		} catch (final Exception e) {
-			Activator.sendErrorToErrorLog(e.getMessage(), e);
-			return new Status(IStatus.ERROR, Activator.PLUGIN_ID,
-					e.getMessage(), e);
+			ClicCore.getLogger().error(e.getMessage(), e);
+			return ExecutionStatuses.toStatus(ExecutionStatus.error(
+					e.getMessage(), e));
 		}
 	}
 
@@ -0,0 +1,268 @@
+/*
+ * CLiC, Framework for Command Line Interpretation in Eclipse
+ *
+ *     Copyright (C) 2013 Worldline or third-party contributors as
+ *     indicated by the @author tags or express copyright attribution
+ *     statements applied by the authors.
+ *
+ *     This library is free software; you can redistribute it and/or
+ *     modify it under the terms of the GNU Lesser General Public
+ *     License as published by the Free Software Foundation; either
+ *     version 2.1 of the License.
+ *
+ *     This library is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *     Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public
+ *     License along with this library; if not, write to the Free Software
+ *     Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+package com.worldline.clic.internal.commands;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IConfigurationElement;
+import org.eclipse.core.runtime.Platform;
+
+import com.worldline.clic.commands.AbstractCommand;
+import com.worldline.clic.core.CommandDescriptor;
+import com.worldline.clic.core.CommandFactory;
+import com.worldline.clic.core.ContributionProvider;
+import com.worldline.clic.core.FlowDescriptor;
+import com.worldline.clic.core.ListenerDescriptor;
+import com.worldline.clic.core.ListenerFactory;
+import com.worldline.clic.internal.Activator;
+import com.worldline.clic.listeners.internal.CircuitBreaker;
+import com.worldline.clic.listeners.internal.DispatchPolicy;
+import com.worldline.clic.listeners.internal.IListener;
+
+/**
+ * The {@link ExtensionRegistryContributions} reads the commands, flows and
+ * listeners contributed through this plugin's extension points, and provides
+ * them to the command engine.
+ * 
+ * The commands are only created when executed, through the
+ * <i>implementation</i> attribute of their <i>command</i> element. The
+ * listeners declaring an <i>eventType</i> are only created when an event of
+ * this type is published.
+ * 
+ * @author mvanbesien / aneveux
+ * @version 1.0
+ * @since 1.2
+ */
+public class ExtensionRegistryContributions implements ContributionProvider {
+
+	@Override
+	public Collection<CommandDescriptor> getCommands() {
+		final List<CommandDescriptor> commands = new ArrayList<CommandDescriptor>();
+		for (final IConfigurationElement element : getConfigurationElements("commands"))
+			if ("command".equals(element.getName())) {
+				final CommandDescriptor command = new CommandDescriptor(element.getAttribute("id"),
+						element.getAttribute("description"), new ExtensionCommandFactory(element));
+				if (Boolean.parseBoolean(element.getAttribute("cacheable")))
+					command.withCache(parseNumber(element.getAttribute("cacheTtl"), 60) * 1000,
+							element.getAttribute("cacheKey"));
+				commands.add(command);
+			}
+		return commands;
+	}
+
+	@Override
+	public Collection<FlowDescriptor> getFlows() {
+		final List<FlowDescriptor> flows = new ArrayList<FlowDescriptor>();
+		for (final IConfigurationElement element : getConfigurationElements("commands"))
+			if ("flow".equals(element.getName())) {
+				final FlowDescriptor flow = new FlowDescriptor(element.getAttribute("name"));
+				for (final IConfigurationElement subElement : element.getChildren())
+					if ("commandReference".equals(subElement.getName()))
+						addFlowStep(flow, subElement);
+				flows.add(flow.withParallelism(parseParallelism(element.getAttribute("parallelism"))));
+			}
+		return flows;
+	}
+
+	@Override
+	public Collection<ListenerDescriptor> getListeners() {
+		final List<ListenerDescriptor> listeners = new ArrayList<ListenerDescriptor>();
+		for (final IConfigurationElement element : getConfigurationElements("listeners"))
+			if ("listener".equals(element.getName()) && element.getAttribute("eventType") != null)
+				listeners.add(configureDelivery(new ListenerDescriptor(element.getAttribute("implementation"),
+						element.getAttribute("eventType"), new ExtensionListenerFactory(element)), element));
+			else if ("listener".equals(element.getName()))
+				try {
+					final Object listener = element.createExecutableExtension("implementation");
+					if (listener instanceof IListener<?>)
+						listeners.add(configureDelivery(new ListenerDescriptor((IListener<?>) listener), element));
+					else
+						Activator.sendWarningToErrorLog(element.getAttribute("implementation")
+								+ " does not implement " + IListener.class.getName());
+				} catch (final CoreException e) {
+					Activator.sendErrorToErrorLog(e.getMessage(), e);
+				}
+		return listeners;
+	}
+
+	/**
+	 * Returns the elements contributed to an extension point of this plugin
+	 * 
+	 * @param extensionPointId
+	 *            the simple identifier of the extension point
+	 * @return the contributed elements
+	 */
+	private static IConfigurationElement[] getConfigurationElements(final String extensionPointId) {
+		return Platform.getExtensionRegistry().getConfigurationElementsFor(Activator.PLUGIN_ID, extensionPointId);
+	}
+
+	/**
+	 * Configures the delivery of the events to a listener, from the attributes
+	 * of its <i>listener</i> element of the extension point
+	 * 
+	 * @param listener
+	 *            the {@link ListenerDescriptor} of the listener
+	 * @param element
+	 *            the <i>listener</i> element
+	 * @return the configured {@link ListenerDescriptor}
+	 */
+	private static ListenerDescriptor configureDelivery(final ListenerDescriptor listener,
+			final IConfigurationElement element) {
+		return listener
+				.withAsynchronousDelivery(Boolean.parseBoolean(element.getAttribute("asynchronous")))
+				.withQueue((int) parseNumber(element.getAttribute("queueCapacity"),
+						DispatchPolicy.DEFAULT_QUEUE_CAPACITY), element.getAttribute("overflow"))
+				.withBatches((int) parseNumber(element.getAttribute("batchSize"), 1),
+						parseNumber(element.getAttribute("batchDelay"), DispatchPolicy.DEFAULT_BATCH_DELAY))
+				.withTimeBudget(parseNumber(element.getAttribute("timeBudget"), CircuitBreaker.DEFAULT_TIME_BUDGET));
+	}
+
+	/**
+	 * Parses a numeric attribute of the extension point
+	 * 
+	 * @param value
+	 *            the value of the attribute, which may be null
+	 * @param defaultValue
+	 *            the value to be used if the attribute is missing or invalid
+	 * @return the value of the attribute
+	 */
+	private static long parseNumber(final String value, final long defaultValue) {
+		if (value != null)
+			try {
+				return Long.parseLong(value.trim());
+			} catch (final NumberFormatException e) {
+				Activator.sendWarningToErrorLog(e.getMessage());
+			}
+		return defaultValue;
+	}
+
+	/**
+	 * Adds the step declared by a <i>commandReference</i> element of the
+	 * extension point to a flow
+	 * 
+	 * @param flow
+	 *            the {@link FlowDescriptor} of the flow
+	 * @param element
+	 *            the <i>commandReference</i> element
+	 */
+	private static void addFlowStep(final FlowDescriptor flow, final IConfigurationElement element) {
+		final String commandReference = element.getAttribute("name");
+		final String id = element.getAttribute("id");
+		final List<String> dependencies = new ArrayList<String>();
+		final String dependsOn = element.getAttribute("dependsOn");
+		if (dependsOn != null)
+			for (final String dependency : dependsOn.split(","))
+				if (dependency.trim().length() > 0)
+					dependencies.add(dependency.trim());
+		flow.withStep(id != null && id.trim().length() > 0 ? id.trim() : commandReference, commandReference,
+				dependencies);
+	}
+
+	/**
+	 * Parses the <i>parallelism</i> attribute of a flow.
+	 * 
+	 * @param parallelism
+	 *            the value of the attribute, which may be null
+	 * @return the parallelism limit, defaulting to the number of available
+	 *         processors
+	 */
+	private static int parseParallelism(final String parallelism) {
+		if (parallelism != null)
+			try {
+				return Integer.parseInt(parallelism.trim());
+			} catch (final NumberFormatException e) {
+				Activator.sendWarningToErrorLog(e.getMessage());
+			}
+		return Runtime.getRuntime().availableProcessors();
+	}
+
+	/**
+	 * The {@link CommandFactory} creating a command from the
+	 * <i>implementation</i> attribute of its <i>command</i> element, which
+	 * activates the contributing plugin if needed.
+	 * 
+	 * @author mvanbesien / aneveux
+	 * @version 1.0
+	 * @since 1.2
+	 */
+	private static final class ExtensionCommandFactory implements CommandFactory {
+
+		/**
+		 * the <i>command</i> element of the extension point
+		 */
+		private final IConfigurationElement element;
+
+		/**
+		 * Constructor
+		 * 
+		 * @param element
+		 *            the <i>command</i> element of the extension point
+		 */
+		private ExtensionCommandFactory(final IConfigurationElement element) {
+			this.element = element;
+		}
+
+		@Override
+		public AbstractCommand createCommand() throws CoreException {
+			return (AbstractCommand) element.createExecutableExtension("implementation");
+		}
+	}
+
+	/**
+	 * The {@link ListenerFactory} creating a listener from the
+	 * <i>implementation</i> attribute of its <i>listener</i> element, which
+	 * activates the contributing plugin if needed.
+	 * 
+	 * @author mvanbesien / aneveux
+	 * @version 1.0
+	 * @since 1.2
+	 */
+	private static final class ExtensionListenerFactory implements ListenerFactory {
+
+		/**
+		 * the <i>listener</i> element of the extension point
+		 */
+		private final IConfigurationElement element;
+
+		/**
+		 * Constructor
+		 * 
+		 * @param element
+		 *            the <i>listener</i> element of the extension point
+		 */
+		private ExtensionListenerFactory(final IConfigurationElement element) {
+			this.element = element;
+		}
+
+		@Override
+		public IListener<?> createListener() throws CoreException {
+			final Object listener = element.createExecutableExtension("implementation");
+			if (!(listener instanceof IListener<?>))
+				throw new ClassCastException(element.getAttribute("implementation") + " does not implement "
+						+ IListener.class.getName());
+			return (IListener<?>) listener;
+		}
+	}
+}
@@ -0,0 +1,193 @@
+/*
+ * CLiC, Framework for Command Line Interpretation in Eclipse
+ *
+ *     Copyright (C) 2013 Worldline or third-party contributors as
+ *     indicated by the @author tags or express copyright attribution
+ *     statements applied by the authors.
+ *
+ *     This library is free software; you can redistribute it and/or
+ *     modify it under the terms of the GNU Lesser General Public
+ *     License as published by the Free Software Foundation; either
+ *     version 2.1 of the License.
+ *
+ *     This library is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *     Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public
+ *     License along with this library; if not, write to the Free Software
+ *     Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+package com.worldline.clic.internal.console;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.eclipse.core.runtime.jobs.IJobChangeEvent;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.core.runtime.jobs.JobChangeAdapter;
+
+import com.worldline.clic.commands.CommandContext;
+import com.worldline.clic.internal.commands.CommandProcessor;
+import com.worldline.clic.internal.engine.ClicMessages;
+
+/**
+ * The {@link BackgroundJobs} object keeps track of all the commands which have
+ * been launched in the background from an {@link InteractiveConsole} (using a
+ * trailing <i>&amp;</i>). It allows to list them, to wait for their
+ * termination and to cancel them, just like the <i>jobs</i>, <i>wait</i> and
+ * <i>kill</i> built-ins of a Unix shell.
+ * 
+ * Each background command receives a job number, which is released as soon as
+ * the command is done.
+ * 
+ * @author mvanbesien / aneveux
+ * @version 1.0
+ * @since 1.2
+ */
+class BackgroundJobs {
+
+	/**
+	 * All the running background jobs, sorted by job number
+	 */
+	private final Map<Integer, CommandProcessor> jobs = new TreeMap<Integer, CommandProcessor>();
+
+	/**
+	 * The command lines of the running background jobs, by job number
+	 */
+	private final Map<Integer, String> commandLines = new TreeMap<Integer, String>();
+
+	/**
+	 * The {@link CommandContext} used to notify the end-user about the jobs
+	 * lifecycle
+	 */
+	private final CommandContext context;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param context
+	 *            the {@link CommandContext} used to notify the end-user
+	 */
+	BackgroundJobs(final CommandContext context) {
+		this.context = context;
+	}
+
+	/**
+	 * Schedules a new command in the background, and registers it with the
+	 * first available job number.
+	 * 
+	 * The command is executed in its own context, forked from the console's
+	 * one, and its messages are tagged with the job number.
+	 * 
+	 * @param commandLine
+	 *            the command line to execute
+	 * @return the job number assigned to the command
+	 */
+	int launch(final String commandLine) {
+		final int id;
+		final CommandProcessor processor;
+		synchronized (this) {
+			int candidate = 1;
+			while (jobs.containsKey(candidate))
+				candidate++;
+			id = candidate;
+			processor = new CommandProcessor(commandLine, context.fork(String.valueOf(id)));
+			jobs.put(id, processor);
+			commandLines.put(id, commandLine);
+		}
+		processor.addJobChangeListener(new JobChangeAdapter() {
+			@Override
+			public void done(final IJobChangeEvent event) {
+				synchronized (BackgroundJobs.this) {
+					jobs.remove(id);
+					commandLines.remove(id);
+					BackgroundJobs.this.notifyAll();
+				}
+				context.write(ClicMessages.JOB_DONE.value(id, commandLine));
+			}
+		});
+		context.write(ClicMessages.JOB_STARTED.value(id, commandLine));
+		processor.schedule();
+		return id;
+	}
+
+	/**
+	 * Writes the list of the running background jobs
+	 */
+	void list() {
+		final List<String> lines = new ArrayList<String>();
+		synchronized (this) {
+			for (final Map.Entry<Integer, CommandProcessor> entry : jobs.entrySet())
+				lines.add(ClicMessages.JOB_ENTRY.value(entry.getKey(), entry.getValue().getState() == Job.RUNNING ? ClicMessages.JOB_RUNNING.value()
+						: ClicMessages.JOB_WAITING.value(), commandLines.get(entry.getKey())));
+		}
+		if (lines.isEmpty())
+			context.write(ClicMessages.JOB_NONE.value());
+		for (final String line : lines)
+			context.write(line);
+	}
+
+	/**
+	 * Blocks until the background job with the provided number is done.
+	 * 
+	 * @param id
+	 *            the job number
+	 * @throws InterruptedException
+	 *             if the waiting thread is interrupted
+	 */
+	void waitFor(final int id) throws InterruptedException {
+		final CommandProcessor processor;
+		synchronized (this) {
+			processor = jobs.get(id);
+		}
+		if (processor == null)
+			context.write(ClicMessages.JOB_NOT_FOUND.value(id));
+		else
+			processor.join();
+	}
+
+	/**
+	 * Blocks until all the background jobs are done
+	 * 
+	 * @throws InterruptedException
+	 *             if the waiting thread is interrupted
+	 */
+	synchronized void waitForAll() throws InterruptedException {
+		while (!jobs.isEmpty())
+			wait();
+	}
+
+	/**
+	 * Requests the cancellation of the background job with the provided
+	 * number.
+	 * 
+	 * @param id
+	 *            the job number
+	 */
+	void kill(final int id) {
+		final CommandProcessor processor;
+		synchronized (this) {
+			processor = jobs.get(id);
+		}
+		if (processor == null)
+			context.write(ClicMessages.JOB_NOT_FOUND.value(id));
+		else {
+			processor.cancel();
+			context.write(ClicMessages.JOB_KILLED.value(id));
+		}
+	}
+
+	/**
+	 * Requests the cancellation of all the background jobs, typically when the
+	 * console is disposed.
+	 */
+	synchronized void killAll() {
+		for (final CommandProcessor processor : jobs.values())
+			processor.cancel();
+	}
+
+}
@@ -24,29 +24,74 @@ package com.worldline.clic.internal.console;
 import java.io.BufferedReader;
 import java.io.InputStreamReader;
 import java.io.Writer;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
 
 import org.eclipse.swt.SWT;
+import org.eclipse.swt.custom.StyledText;
 import org.eclipse.swt.widgets.Display;
+import org.eclipse.ui.console.IConsoleView;
 import org.eclipse.ui.console.IOConsole;
 import org.eclipse.ui.console.IOConsoleOutputStream;
+import org.eclipse.ui.part.IPageBookViewPage;
 
 import com.worldline.clic.commands.CommandContext;
 import com.worldline.clic.internal.Activator;
-import com.worldline.clic.internal.ClicMessages;
 import com.worldline.clic.internal.commands.CommandProcessor;
+import com.worldline.clic.internal.engine.ClicMessages;
+import com.worldline.clic.internal.view.history.CommandHistory;
+import com.worldline.clic.internal.view.history.HistoryLog;
+import com.worldline.clic.internal.view.history.ReverseSearchKeyListener;
 
 /**
  * This {@link InteractiveConsole} extending {@link IOConsole} allows to use
  * CLiC directly from an Eclipse console, as a terminal-like tool.
  * 
+ * Lines typed (or pasted) in the console are read by a dedicated thread and
+ * queued, so that the user can type ahead while a command is being executed.
+ * A command line ending with a standalone <i>&amp;</i> is executed in the
+ * background, and the <i>jobs</i>, <i>wait</i> and <i>kill</i> built-ins allow
+ * to manage those background commands.
+ * 
+ * The lines are recorded in a {@link CommandHistory}, persisted in the
+ * workspace along with the history of the views, and searched with
+ * <i>Ctrl+R</i>.
+ * 
  * @author mvanbesien / aneveux
- * @version 1.0
+ * @version 1.1
  * @since 1.0
  * 
  * @see IOConsole
  */
 public class InteractiveConsole extends IOConsole implements Runnable {
 
+	/**
+	 * The built-in listing the background jobs
+	 */
+	private static final String JOBS = "jobs";
+
+	/**
+	 * The built-in waiting for background jobs
+	 */
+	private static final String WAIT = "wait";
+
+	/**
+	 * The built-in cancelling background jobs
+	 */
+	private static final String KILL = "kill";
+
+	/**
+	 * The size limit of the {@link CommandHistory}, given by the
+	 * <i>com.worldline.clic.history.size</i> system property
+	 */
+	private static final int HISTORY_SIZE = Integer.getInteger("com.worldline.clic.history.size", 20000);
+
+	/**
+	 * The last token of a line asking for the command to be executed in the
+	 * background
+	 */
+	private static final String BACKGROUND = "&";
+
 	/**
 	 * The {@link InputStreamReader} allowing to read information from the
 	 * console
@@ -74,13 +119,39 @@ public class InteractiveConsole extends IOConsole implements Runnable {
 	/**
 	 * A boolean to indicate if the console's active or not
 	 */
-	private boolean active = true;
+	private volatile boolean active = true;
 
 	/**
-	 * A {@link Thread} instance to be used for the console
+	 * A {@link Thread} instance to be used for the console, executing the
+	 * queued command lines
 	 */
 	private final Thread thread;
 
+	/**
+	 * A daemon {@link Thread} instance reading the lines from the console, and
+	 * queuing them in {@link #pendingLines}. It is blocked in
+	 * {@link BufferedReader#readLine()}, which an interruption doesn't unblock:
+	 * it is stopped by closing the input stream of the console, which makes
+	 * the read return, when the console is disposed.
+	 */
+	private final Thread readerThread;
+
+	/**
+	 * The type-ahead queue, containing the lines which have been read from the
+	 * console but not processed yet
+	 */
+	private final BlockingQueue<String> pendingLines = new LinkedBlockingQueue<String>();
+
+	/**
+	 * The commands which are currently executed in the background
+	 */
+	private final BackgroundJobs backgroundJobs;
+
+	/**
+	 * The {@link CommandHistory} recording the lines processed by the console
+	 */
+	private final CommandHistory commandHistory = new CommandHistory(HISTORY_SIZE, HistoryLog.getDefault());
+
 	/**
 	 * A {@link CommandContext} wrapper matching the command's execution context
 	 */
@@ -98,6 +169,7 @@ public class InteractiveConsole extends IOConsole implements Runnable {
 		iocos = newOutputStream();
 		writer = new InteractiveConsoleWriter(iocos);
 		context = new CommandContext(writer);
+		backgroundJobs = new BackgroundJobs(context);
 		iocos.setColor(Display.getDefault().getSystemColor(SWT.COLOR_BLUE));
 
 		try {
@@ -109,32 +181,180 @@ public class InteractiveConsole extends IOConsole implements Runnable {
 		thread = new Thread(this);
 		thread.setDaemon(true);
 		thread.setName(ClicMessages.CLIC_TITLE.value());
+		readerThread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				readLines();
+			}
+		});
+		readerThread.setDaemon(true);
+		readerThread.setName(ClicMessages.CLIC_TITLE.value() + " reader");
 		thread.start();
+		readerThread.start();
 	}
 
 	/**
-	 * This method is called internally while constructing the console, it
-	 * allows to read lines directly from the console and execute the specified
-	 * commands
+	 * Creates the page displaying the console, and binds <i>Ctrl+R</i> to a
+	 * reverse search in the history once its text widget has been created
 	 */
 	@Override
-	public void run() {
+	public IPageBookViewPage createPage(final IConsoleView view) {
+		final IPageBookViewPage page = super.createPage(view);
+		Display.getDefault().asyncExec(new Runnable() {
+			@Override
+			public void run() {
+				if (page.getControl() instanceof StyledText && !page.getControl().isDisposed())
+					bindReverseSearch((StyledText) page.getControl());
+			}
+		});
+		return page;
+	}
+
+	/**
+	 * Binds <i>Ctrl+R</i> to a reverse search in the history, the command line
+	 * being the last line of the console, and the query being displayed in
+	 * the name of the console
+	 * 
+	 * @param text
+	 *            the text widget of the console
+	 */
+	private void bindReverseSearch(final StyledText text) {
+		text.addVerifyKeyListener(new ReverseSearchKeyListener(commandHistory) {
+			@Override
+			protected String getCommandLine() {
+				final int start = getCommandLineStart();
+				return text.getTextRange(start, text.getCharCount() - start);
+			}
+
+			@Override
+			protected void setCommandLine(final String commandLine) {
+				final int start = getCommandLineStart();
+				text.replaceTextRange(start, text.getCharCount() - start, commandLine);
+				text.setCaretOffset(text.getCharCount());
+			}
+
+			@Override
+			protected void showQuery(final String query) {
+				setName(query != null ? ClicMessages.CLIC_TITLE.value() + " " + query : ClicMessages.CLIC_TITLE
+						.value());
+			}
+
+			/**
+			 * @return the offset of the last line of the console, which is
+			 *         the one being typed as the messages end with a new line
+			 */
+			private int getCommandLineStart() {
+				return text.getOffsetAtLine(text.getLineCount() - 1);
+			}
+		});
+	}
+
+	/**
+	 * Reads all the lines typed in the console, and queues them in
+	 * {@link #pendingLines} so that they're executed one after the other,
+	 * without waiting for the previous command to be completed.
+	 */
+	private void readLines() {
 		while (active)
 			try {
 				final String line = br.readLine();
-				final CommandProcessor commandProcessor = new CommandProcessor(
-						line, context);
-				try {
-					commandProcessor.schedule();
-					commandProcessor.join();
-				} catch (final Exception e) {
+				if (line == null)
+					active = false;
+				else
+					pendingLines.put(line);
+			} catch (final InterruptedException e) {
+				active = false;
+			} catch (final Exception e) {
+				if (active)
 					Activator.sendErrorToErrorLog(e.getMessage(), e);
-				}
+			}
+	}
+
+	/**
+	 * This method is called internally while constructing the console, it
+	 * allows to take the lines queued by the reader thread and execute the
+	 * specified commands
+	 */
+	@Override
+	public void run() {
+		while (active)
+			try {
+				processLine(pendingLines.take().trim());
+			} catch (final InterruptedException e) {
+				active = false;
 			} catch (final Exception e) {
 				Activator.sendErrorToErrorLog(e.getMessage(), e);
 			}
 	}
 
+	/**
+	 * Processes a line read from the console, and records it in the history.
+	 * The line is either one of the built-ins dealing with background jobs, a
+	 * command to be executed in the background if its last token is
+	 * <i>&amp;</i>, or a command to be executed before processing the next
+	 * line.
+	 * 
+	 * @param line
+	 *            the line read from the console
+	 * @throws InterruptedException
+	 *             if the console is disposed while waiting for a command
+	 */
+	private void processLine(final String line) throws InterruptedException {
+		if (line.length() == 0)
+			return;
+		commandHistory.addCommand(line);
+		final String[] chunks = line.split("\\s+");
+		if (JOBS.equals(chunks[0]))
+			backgroundJobs.list();
+		else if (WAIT.equals(chunks[0])) {
+			if (chunks.length == 1)
+				backgroundJobs.waitForAll();
+			for (int i = 1; i < chunks.length; i++)
+				if (isJobNumber(chunks[i]))
+					backgroundJobs.waitFor(toJobNumber(chunks[i]));
+		} else if (KILL.equals(chunks[0])) {
+			if (chunks.length == 1)
+				context.write(ClicMessages.JOB_KILL_USAGE.value());
+			for (int i = 1; i < chunks.length; i++)
+				if (isJobNumber(chunks[i]))
+					backgroundJobs.kill(toJobNumber(chunks[i]));
+		} else if (chunks.length > 1 && BACKGROUND.equals(chunks[chunks.length - 1])) {
+			backgroundJobs.launch(line.substring(0, line.length() - BACKGROUND.length()).trim());
+		} else {
+			final CommandProcessor commandProcessor = new CommandProcessor(line, context.fork(null));
+			commandProcessor.schedule();
+			commandProcessor.join();
+		}
+	}
+
+	/**
+	 * Checks that the provided argument of a built-in is a job number, and
+	 * notifies the end-user otherwise.
+	 * 
+	 * @param argument
+	 *            the argument to check, optionally prefixed with <i>%</i>
+	 * @return true if the argument is a job number
+	 */
+	private boolean isJobNumber(final String argument) {
+		if (!argument.matches("%?\\d{1,9}")) {
+			context.write(ClicMessages.JOB_NOT_FOUND.value(argument));
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Converts an argument of a built-in, which has been checked with
+	 * {@link #isJobNumber(String)}, to a job number.
+	 * 
+	 * @param argument
+	 *            the argument to convert, optionally prefixed with <i>%</i>
+	 * @return the job number
+	 */
+	private static int toJobNumber(final String argument) {
+		return Integer.parseInt(argument.startsWith("%") ? argument.substring(1) : argument);
+	}
+
 	/**
 	 * This method is called internally and allows to dispose all the resources
 	 * used for the console
@@ -147,11 +367,14 @@ public class InteractiveConsole extends IOConsole implements Runnable {
 			Activator.sendErrorToErrorLog(e.getMessage(), e);
 		}
 		try {
+			// Makes readLine() return, ending the reader thread, without waiting
+			// for the lock of the reader it holds
 			getInputStream().close();
 		} catch (final Exception e) {
 			Activator.sendErrorToErrorLog(e.getMessage(), e);
 		}
 		try {
+			backgroundJobs.killAll();
 			thread.interrupt();
 		} catch (final Exception e) {
 			Activator.sendErrorToErrorLog(e.getMessage(), e);
@@ -22,7 +22,10 @@
 package com.worldline.clic.internal.view;
 
 import java.io.Writer;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.eclipse.core.runtime.jobs.IJobChangeEvent;
+import org.eclipse.core.runtime.jobs.JobChangeAdapter;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.custom.StyledText;
 import org.eclipse.swt.events.KeyAdapter;
@@ -32,10 +35,13 @@ import org.eclipse.swt.widgets.Composite;
 import org.eclipse.ui.part.ViewPart;
 
 import com.worldline.clic.commands.CommandContext;
-import com.worldline.clic.internal.ClicMessages;
 import com.worldline.clic.internal.assist.ContentAssistProcessor;
 import com.worldline.clic.internal.commands.CommandProcessor;
+import com.worldline.clic.internal.engine.ClicMessages;
+import com.worldline.clic.internal.jmx.OutputMonitor;
 import com.worldline.clic.internal.view.history.CommandHistory;
+import com.worldline.clic.internal.view.history.HistoryLog;
+import com.worldline.clic.internal.view.history.ReverseSearchKeyListener;
 
 /**
  * This {@link CommandLineClientView} is actually an Eclipse {@link ViewPart}
@@ -43,7 +49,8 @@ import com.worldline.clic.internal.view.history.CommandHistory;
  * from their execution.
  * 
  * It consists in a simple textfield where you specify the commands, and a place
- * where you'll be able to read the results.
+ * where you'll be able to read the results. The commands typed before can be
+ * browsed with the arrows, or searched with <i>Ctrl+R</i>.
  * 
  * @author mvanbesien / aneveux
  * @version 1.0
@@ -53,6 +60,12 @@ import com.worldline.clic.internal.view.history.CommandHistory;
  */
 public class CommandLineClientView extends ViewPart {
 
+	/**
+	 * The size limit of the {@link CommandHistory}, given by the
+	 * <i>com.worldline.clic.history.size</i> system property
+	 */
+	private static final int HISTORY_SIZE = Integer.getInteger("com.worldline.clic.history.size", 20000);
+
 	/**
 	 * The {@link Writer} extension allowing to write in the view
 	 */
@@ -75,10 +88,38 @@ public class CommandLineClientView extends ViewPart {
 	private CommandContext context;
 
 	/**
-	 * The {@link CommandHistory} used to retrieved previously typed commands.
+	 * The {@link CommandHistory} used to retrieved previously typed commands,
+	 * persisted in the workspace along with the ones of the other views and
+	 * consoles.
 	 */
 	private CommandHistory commandHistory;
 
+	/**
+	 * The number of commands which have been launched from this view
+	 */
+	private int executions;
+
+	/**
+	 * The number of commands which are currently running, used in order to
+	 * tag the messages of the commands executed at the same time
+	 */
+	private final AtomicInteger runningCommands = new AtomicInteger();
+
+	/**
+	 * Exposes the scrollback and history sizes of this view over JMX
+	 */
+	private final OutputMonitor.Source outputSource = new OutputMonitor.Source() {
+		@Override
+		public int getScrollbackLength() {
+			return writer != null ? writer.getLength() : 0;
+		}
+
+		@Override
+		public int getHistorySize() {
+			return commandHistory != null ? commandHistory.getSize() : 0;
+		}
+	};
+
 	/**
 	 * Allows to create all the graphical components to be used in the GUI
 	 */
@@ -95,11 +136,33 @@ public class CommandLineClientView extends ViewPart {
 		new FormDataBuilder().left().right().top().bottom(commandText).apply(historyText);
 		this.writer = new HistoryBufferedWriter(historyText, 10000);
 		this.context = new CommandContext(writer);
-		this.commandHistory = new CommandHistory(50);
+		this.commandHistory = new CommandHistory(HISTORY_SIZE, HistoryLog.getDefault());
+
+		commandText.addVerifyKeyListener(new ReverseSearchKeyListener(commandHistory) {
+			@Override
+			protected String getCommandLine() {
+				return commandText.getText();
+			}
+
+			@Override
+			protected void setCommandLine(final String commandLine) {
+				commandText.setText(commandLine);
+				commandText.setCaretOffset(commandLine.length());
+			}
+
+			@Override
+			protected void showQuery(final String query) {
+				setContentDescription(query != null ? query : "");
+			}
+		});
 
 		commandText.addKeyListener(new KeyAdapter() {
 			@Override
 			public void keyPressed(final KeyEvent e) {
+				if (!e.doit) {
+					// Consumed by the reverse search
+					return;
+				}
 				if (e.keyCode == SWT.CR && commandText.getText().trim().length() > 0) {
 					final String command = commandText.getText().trim();
 					commandHistory.addCommand(command);
@@ -109,8 +172,16 @@ public class CommandLineClientView extends ViewPart {
 					historyText.update();
 					commandText.update();
 
-					final CommandProcessor commandProcessor = new CommandProcessor(command, context);
+					executions++;
+					final String tag = runningCommands.getAndIncrement() > 0 ? String.valueOf(executions) : null;
+					final CommandProcessor commandProcessor = new CommandProcessor(command, context.fork(tag));
 					commandProcessor.addJobChangeListener(new CommandProcessorFinalizer(commandProcessor, writer));
+					commandProcessor.addJobChangeListener(new JobChangeAdapter() {
+						@Override
+						public void done(final IJobChangeEvent event) {
+							runningCommands.decrementAndGet();
+						}
+					});
 					commandProcessor.schedule();
 				} else if (e.keyCode == SWT.TAB || (e.stateMask == SWT.CTRL && e.keyCode == SWT.SPACE)) {
 					String initialCommand = commandText.getText();
@@ -119,7 +190,8 @@ public class CommandLineClientView extends ViewPart {
 						initialCaretOffset--;
 						initialCommand = initialCommand.substring(0, initialCommand.length() - 1);
 					}
-					String finalCommand = ContentAssistProcessor.assist(initialCommand, initialCaretOffset);
+					String finalCommand = ContentAssistProcessor.assist(initialCommand, initialCaretOffset,
+							commandHistory.getFrecency());
 					int finalCaretOffset = initialCaretOffset + finalCommand.length() - initialCommand.length();
 
 					commandText.setText(finalCommand);
@@ -146,6 +218,7 @@ public class CommandLineClientView extends ViewPart {
 		getViewSite().getActionBars().getToolBarManager().add(new HistoryCleanAction(writer));
 
 		writer.write(ClicMessages.CLIC_WELCOME.value());
+		OutputMonitor.register(outputSource);
 	}
 
 	@Override
@@ -154,6 +227,7 @@ public class CommandLineClientView extends ViewPart {
 
 	@Override
 	public void dispose() {
+		OutputMonitor.unregister(outputSource);
 		super.dispose();
 	}
 
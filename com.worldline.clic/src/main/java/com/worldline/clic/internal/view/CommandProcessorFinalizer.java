@@ -28,8 +28,8 @@ import org.eclipse.core.runtime.MultiStatus;
 import org.eclipse.core.runtime.jobs.IJobChangeEvent;
 import org.eclipse.core.runtime.jobs.JobChangeAdapter;
 
-import com.worldline.clic.internal.ClicMessages;
 import com.worldline.clic.internal.commands.CommandProcessor;
+import com.worldline.clic.internal.engine.ClicMessages;
 
 /**
  * This extension of a {@link JobChangeAdapter} allows to get information about
@@ -55,6 +55,11 @@ final class HistoryBufferedWriter extends Writer {
 	 */
 	private final int bufferLimit;
 
+	/**
+	 * The number of characters currently displayed
+	 */
+	private volatile int length;
+
 	/**
 	 * Constructor
 	 * 
@@ -79,13 +84,10 @@ final class HistoryBufferedWriter extends Writer {
 
 			@Override
 			public void run() {
-				String concat = text.getText().concat(line + "\r\n");
-				if (concat.length() > bufferLimit) {
-					final int index = concat.indexOf("\n", concat.length()
-							- bufferLimit);
-					concat = concat.substring(index + 1);
-				}
+				final String concat = trim(text.getText().concat(line + "\r\n"),
+						bufferLimit);
 				text.setText(concat);
+				length = concat.length();
 
 				final List<StyleRange> ranges = new ArrayList<>();
 				int index = 0;
@@ -112,6 +114,24 @@ final class HistoryBufferedWriter extends Writer {
 		});
 	}
 
+	/**
+	 * Removes the first lines of a buffer, so that it doesn't exceed the
+	 * provided limit
+	 * 
+	 * @param buffer
+	 *            the content of the buffer
+	 * @param bufferLimit
+	 *            the maximum number of characters of the buffer
+	 * @return the buffer, without its first lines if it exceeds the limit
+	 * @since 1.2
+	 */
+	static String trim(final String buffer, final int bufferLimit) {
+		if (buffer.length() <= bufferLimit)
+			return buffer;
+		final int index = buffer.indexOf("\n", buffer.length() - bufferLimit);
+		return buffer.substring(index + 1);
+	}
+
 	/**
 	 * Allows to clear the history buffer in order to remove all the things
 	 * written on the GUI
@@ -123,11 +143,22 @@ final class HistoryBufferedWriter extends Writer {
 			@Override
 			public void run() {
 				text.setText("");
+				length = 0;
 				text.update();
 			}
 		});
 	}
 
+	/**
+	 * Simple getter for {@link #length}
+	 * 
+	 * @return the number of characters currently displayed
+	 * @since 1.2
+	 */
+	public int getLength() {
+		return length;
+	}
+
 	/**
 	 * Allows to close the writer
 	 */
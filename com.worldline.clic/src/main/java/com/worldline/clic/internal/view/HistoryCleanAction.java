@@ -28,7 +28,7 @@ import org.eclipse.jface.resource.ImageDescriptor;
 import org.eclipse.ui.plugin.AbstractUIPlugin;
 
 import com.worldline.clic.internal.Activator;
-import com.worldline.clic.internal.ClicMessages;
+import com.worldline.clic.internal.engine.ClicMessages;
 
 /**
  * {@link HistoryCleanAction} is an {@link Action} allowing to clear the GUI's
@@ -25,53 +25,183 @@ package com.worldline.clic.internal.view.history;
  * Command history implementation. contains references to the previously entered
  * commands, and proposes API to browse them in a chained way
  * 
+ * The commands are kept in a ring buffer, growing up to the size limit of the
+ * history, so that adding a command, evicting the oldest one and moving the
+ * browsing cursor are done in constant time, whatever the size of the history.
+ * 
+ * When created with a {@link HistoryLog}, the history starts with the last
+ * commands of the log, and the added commands are appended to it.
+ * 
+ * The commands containing a given text are found through a
+ * {@link HistorySearchIndex}, updated as the commands are added, so that
+ * searching a large history is done without scanning it. The commands and
+ * options used are also ranked in a {@link FrecencyTable}, for the completion
+ * to propose the most likely ones first. The history can be used from several
+ * threads.
+ * 
  * @author mvanbesien
  * @since 1.0
  */
 public class CommandHistory {
 
 	/**
-	 * First link in the command history chain
+	 * Initial capacity of the ring buffer, which is then doubled until it
+	 * reaches the size limit of the history
+	 */
+	private static final int INITIAL_CAPACITY = 64;
+
+	/**
+	 * Maximum number of commands and options ranked by frecency
+	 */
+	private static final int FRECENCY_SIZE = 4096;
+
+	/**
+	 * The commands, as a ring buffer
+	 */
+	private String[] commands;
+
+	/**
+	 * Index of the last added command in the ring buffer
+	 */
+	private int last = -1;
+
+	/**
+	 * Number of commands in the history
 	 */
-	private ChainLink<String> first;
+	private int size;
 
 	/**
-	 * Currently processed link in the command history chain
+	 * Currently browsed command, as the number of commands added after it
 	 */
-	private ChainLink<String> current;
+	private int cursor;
+
+	/**
+	 * Number of commands added to the history since its creation, which is
+	 * also the sequence number of the next added command
+	 */
+	private int total;
+
+	/**
+	 * The index of the trigrams of the commands
+	 */
+	private final HistorySearchIndex searchIndex;
+
+	/**
+	 * The frecency of the commands and options
+	 */
+	private final FrecencyTable frecency = new FrecencyTable(FRECENCY_SIZE);
 
 	/**
 	 * Size limit of the history
 	 */
 	private int maxSize;
 
+	/**
+	 * The log the commands are persisted to, null if they aren't
+	 */
+	private final HistoryLog log;
+
 	/**
 	 * Creates new command history with the size limit, as provided
 	 * 
 	 * @param maxSize
 	 */
 	public CommandHistory(int maxSize) {
-		this.maxSize = maxSize;
+		this(maxSize, null);
+	}
+
+	/**
+	 * Creates new command history with the size limit, as provided, persisted
+	 * to the provided log
+	 * 
+	 * @param maxSize
+	 * @param log
+	 *            the {@link HistoryLog} the history is loaded from and the
+	 *            commands are appended to, null if the commands shouldn't be
+	 *            persisted
+	 */
+	public CommandHistory(int maxSize, HistoryLog log) {
+		this.maxSize = Math.max(1, maxSize);
+		this.commands = new String[Math.min(this.maxSize, INITIAL_CAPACITY)];
+		this.searchIndex = new HistorySearchIndex(this.maxSize);
+		if (log != null) {
+			for (String command : log.getLast(this.maxSize)) {
+				store(command);
+			}
+		}
+		this.log = log;
 	}
 
 	/**
 	 * Adds a new command in the history. This action has a side impact, which
 	 * consists in resetting the browsing cursor to the first one (aKa the one
-	 * which is just being added now...).
+	 * which is just being added now...). When the history is full, the oldest
+	 * command is overwritten. The command is also queued to be written to the
+	 * log, if any.
 	 * 
 	 * @param command
 	 */
-	public void addCommand(String command) {
-		ChainLink<String> link = new ChainLink<String>(command);
-		if (first != null) {
-			first.addFirst(link);
+	public synchronized void addCommand(String command) {
+		store(command);
+		if (log != null) {
+			log.append(command);
 		}
-		first = link;
-		current = first;
+	}
 
-		while (first.getSize() > maxSize) {
-			first.removeLast();
+	/**
+	 * Stores a command in the ring buffer, in the search index and in the
+	 * frecency table, and resets the browsing cursor
+	 * 
+	 * @param command
+	 */
+	private void store(String command) {
+		if (size == commands.length && size < maxSize) {
+			grow();
 		}
+		last = (last + 1) % commands.length;
+		commands[last] = command;
+		if (size < commands.length) {
+			size++;
+		}
+		cursor = 0;
+		int sequence = total++;
+		searchIndex.add(sequence, command, total - size);
+		frecency.record(command);
+	}
+
+	/**
+	 * Doubles the capacity of the ring buffer, without exceeding the size limit
+	 * of the history. The commands are moved to the beginning of the new
+	 * buffer, the oldest one first.
+	 */
+	private void grow() {
+		String[] grown = new String[(int) Math.min((long) commands.length * 2, maxSize)];
+		int oldest = (last + 1) % commands.length;
+		System.arraycopy(commands, oldest, grown, 0, commands.length - oldest);
+		System.arraycopy(commands, 0, grown, commands.length - oldest, oldest);
+		last = size - 1;
+		commands = grown;
+	}
+
+	/**
+	 * Returns the command added a given number of commands before the last
+	 * one
+	 * 
+	 * @param age
+	 *            the number of commands added after the returned one
+	 * @return the command
+	 */
+	private String get(int age) {
+		return commands[(last - age + commands.length) % commands.length];
+	}
+
+	/**
+	 * Returns the number of commands in the history
+	 * 
+	 * @return
+	 */
+	public synchronized int getSize() {
+		return size;
 	}
 
 	/**
@@ -80,18 +210,12 @@ public class CommandHistory {
 	 * 
 	 * @return
 	 */
-	public String getNextCommand() {
-		// Be careful ! next command means one typed later than current, so it
-		// is previous in the list !
-		if (current == null) {
-			return null;
-		}
-		if (current.previous() != null) {
-			current = current.previous();
-			return current != null ? current.value() : null;
-		} else {
+	public synchronized String getNextCommand() {
+		if (size == 0 || cursor == 0) {
 			return null;
 		}
+		cursor--;
+		return get(cursor);
 	}
 
 	/**
@@ -100,17 +224,59 @@ public class CommandHistory {
 	 * 
 	 * @return
 	 */
-	public String getPreviousCommand() {
-		// Be careful ! previous command means one typed sooner than current, so
-		// it is next in the list !
-		if (current == null) {
+	public synchronized String getPreviousCommand() {
+		if (size == 0 || cursor == size - 1) {
 			return null;
 		}
-		if (current.next() != null) {
-			current = current.next();
-			return current != null ? current.value() : null;
-		} else
-			return null;
+		cursor++;
+		return get(cursor);
+	}
+
+	/**
+	 * Returns the sequence number the next added command will get, which is
+	 * the upper bound of the sequence numbers of the commands of the history
+	 * 
+	 * @return the sequence number of the next command
+	 */
+	public synchronized int getNextSequence() {
+		return total;
+	}
+
+	/**
+	 * Returns a command from its sequence number
+	 * 
+	 * @param sequence
+	 *            the number of commands added before this one
+	 * @return the command, or null if it has been evicted from the history
+	 */
+	public synchronized String getCommand(int sequence) {
+		int age = total - 1 - sequence;
+		return age >= 0 && age < size ? get(age) : null;
+	}
+
+	/**
+	 * Finds the last command containing a text, among the ones added before a
+	 * given one
+	 * 
+	 * @param text
+	 *            the text to look for
+	 * @param before
+	 *            the sequence number the found command should be lower than
+	 * @return the sequence number of the found command, or -1 if none is
+	 *         found
+	 */
+	public synchronized int search(String text, int before) {
+		return searchIndex.search(this, text, Math.min(before, total), total - size);
+	}
+
+	/**
+	 * Returns the frecency of the commands and options of the history, which
+	 * is updated as the commands are added
+	 * 
+	 * @return the {@link FrecencyTable}
+	 */
+	public FrecencyTable getFrecency() {
+		return frecency;
 	}
 
 }
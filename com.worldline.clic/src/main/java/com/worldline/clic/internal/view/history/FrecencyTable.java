@@ -0,0 +1,251 @@
+/*
+ * CLiC, Framework for Command Line Interpretation in Eclipse
+ *
+ *     Copyright (C) 2013 Worldline or third-party contributors as
+ *     indicated by the @author tags or express copyright attribution
+ *     statements applied by the authors.
+ *
+ *     This library is free software; you can redistribute it and/or
+ *     modify it under the terms of the GNU Lesser General Public
+ *     License as published by the Free Software Foundation; either
+ *     version 2.1 of the License.
+ *
+ *     This library is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *     Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public
+ *     License along with this library; if not, write to the Free Software
+ *     Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+package com.worldline.clic.internal.view.history;
+
+import java.util.Arrays;
+
+/**
+ * The {@link FrecencyTable} ranks the commands, and the options used with each
+ * command, by frecency: how often and how recently they have been used. Each
+ * use adds to the score of the command and of its options, and the scores
+ * decay as commands are typed, a score being halved every
+ * <i>com.worldline.clic.frecency.halflife</i> commands (500 by default).
+ * 
+ * Rather than decaying all the scores each time a command is typed, each use
+ * adds an amount growing exponentially with the number of commands typed so
+ * far, which ranks the scores the same way. The scores are scaled down when
+ * this amount becomes too large. The decay being counted in commands rather
+ * than in time, the table is rebuilt identically from the persisted history.
+ * 
+ * The scores are kept in a compact open-addressing table. When it is full,
+ * the lower half of the scores is dropped.
+ * 
+ * @author mvanbesien / aneveux
+ * @version 1.0
+ * @since 1.2
+ */
+public class FrecencyTable {
+
+	/**
+	 * The number of commands after which a score is halved
+	 */
+	private static final double HALF_LIFE = Math.max(1,
+			Integer.getInteger("com.worldline.clic.frecency.halflife", 500));
+
+	/**
+	 * The amount added by a use beyond which the scores are scaled down
+	 */
+	private static final double MAX_INCREMENT = 1e200;
+
+	/**
+	 * The scored commands, and options prefixed with their command
+	 */
+	private String[] keys;
+
+	/**
+	 * The scores, at the same index as their key
+	 */
+	private double[] scores;
+
+	/**
+	 * The number of scored keys
+	 */
+	private int size;
+
+	/**
+	 * The maximum number of scored keys
+	 */
+	private final int maxSize;
+
+	/**
+	 * The number of commands recorded since the scores have last been scaled
+	 * down
+	 */
+	private long recorded;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param maxSize
+	 *            the maximum number of scored commands and options
+	 */
+	public FrecencyTable(final int maxSize) {
+		this.maxSize = Math.max(2, maxSize);
+		int capacity = 16;
+		while (capacity < this.maxSize * 2)
+			capacity <<= 1;
+		keys = new String[capacity];
+		scores = new double[capacity];
+	}
+
+	/**
+	 * Records the use of a command line, adding to the score of its command
+	 * and of each of its options
+	 * 
+	 * @param commandLine
+	 *            the command line
+	 */
+	public synchronized void record(final String commandLine) {
+		final String[] chunks = commandLine.trim().split("\\s+");
+		if (chunks[0].length() == 0)
+			return;
+		double increment = Math.pow(2, ++recorded / HALF_LIFE);
+		if (increment > MAX_INCREMENT) {
+			for (int i = 0; i < scores.length; i++)
+				scores[i] /= increment;
+			recorded = 0;
+			increment = 1;
+		}
+		add(chunks[0], increment);
+		for (int i = 1; i < chunks.length; i++) {
+			final String option = getOption(chunks[i]);
+			if (option != null)
+				add(getOptionKey(chunks[0], option), increment);
+		}
+	}
+
+	/**
+	 * Returns the score of a command
+	 * 
+	 * @param command
+	 *            the command or flow identifier
+	 * @return the score, 0 if the command has not been used. The scores are
+	 *         only meaningful when compared to each other.
+	 */
+	public synchronized double getScore(final String command) {
+		final int index = indexOf(command);
+		return keys[index] != null ? scores[index] : 0;
+	}
+
+	/**
+	 * Returns the score of an option used with a command
+	 * 
+	 * @param command
+	 *            the command or flow identifier
+	 * @param option
+	 *            the name of the option, without its leading dashes
+	 * @return the score, 0 if the option has not been used with the command
+	 */
+	public double getScore(final String command, final String option) {
+		return getScore(getOptionKey(command, option));
+	}
+
+	/**
+	 * Returns the score of a command line, as the sum of the scores of its
+	 * command and of its options
+	 * 
+	 * @param commandLine
+	 *            the command line
+	 * @return the score
+	 */
+	public double getCommandLineScore(final String commandLine) {
+		final String[] chunks = commandLine.trim().split("\\s+");
+		double score = getScore(chunks[0]);
+		for (int i = 1; i < chunks.length; i++) {
+			final String option = getOption(chunks[i]);
+			if (option != null)
+				score += getScore(chunks[0], option);
+		}
+		return score;
+	}
+
+	/**
+	 * Adds to the score of a key, making room for it if needed
+	 */
+	private void add(final String key, final double increment) {
+		int index = indexOf(key);
+		if (keys[index] == null) {
+			if (size >= maxSize) {
+				dropLowerHalf();
+				index = indexOf(key);
+			}
+			keys[index] = key;
+			size++;
+		}
+		scores[index] += increment;
+	}
+
+	/**
+	 * Finds the slot of a key, by linear probing
+	 * 
+	 * @return the index of the key, or of the empty slot it should be stored
+	 *         at
+	 */
+	private int indexOf(final String key) {
+		final int mask = keys.length - 1;
+		final int hash = key.hashCode();
+		int index = (hash ^ hash >>> 16) & mask;
+		while (keys[index] != null && !keys[index].equals(key))
+			index = index + 1 & mask;
+		return index;
+	}
+
+	/**
+	 * Drops the keys whose score is lower than the median score, then stores
+	 * the remaining ones again, keeping at most half of the maximum number of
+	 * keys
+	 */
+	private void dropLowerHalf() {
+		final double[] sorted = new double[size];
+		int count = 0;
+		for (int i = 0; i < keys.length; i++)
+			if (keys[i] != null)
+				sorted[count++] = scores[i];
+		Arrays.sort(sorted);
+		final double median = sorted[size / 2];
+		final String[] oldKeys = keys;
+		final double[] oldScores = scores;
+		keys = new String[oldKeys.length];
+		scores = new double[oldScores.length];
+		size = 0;
+		for (int i = 0; i < oldKeys.length && size < maxSize / 2; i++)
+			if (oldKeys[i] != null && oldScores[i] >= median) {
+				final int index = indexOf(oldKeys[i]);
+				keys[index] = oldKeys[i];
+				scores[index] = oldScores[i];
+				size++;
+			}
+	}
+
+	/**
+	 * @return the name of the option given by a chunk of a command line,
+	 *         without its leading dashes and its value, or null if the chunk
+	 *         is not an option
+	 */
+	private static String getOption(final String chunk) {
+		if (!chunk.startsWith("-"))
+			return null;
+		int start = 1;
+		if (chunk.startsWith("--"))
+			start = 2;
+		final int end = chunk.indexOf('=');
+		final String option = chunk.substring(start, end > start ? end : chunk.length());
+		return option.length() > 0 ? option : null;
+	}
+
+	/**
+	 * @return the key an option used with a command is scored with
+	 */
+	private static String getOptionKey(final String command, final String option) {
+		return command + " -" + option;
+	}
+}
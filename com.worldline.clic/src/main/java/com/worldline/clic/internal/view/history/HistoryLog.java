@@ -0,0 +1,490 @@
+/*
+ * CLiC, Framework for Command Line Interpretation in Eclipse
+ *
+ *     Copyright (C) 2013 Worldline or third-party contributors as
+ *     indicated by the @author tags or express copyright attribution
+ *     statements applied by the authors.
+ *
+ *     This library is free software; you can redistribute it and/or
+ *     modify it under the terms of the GNU Lesser General Public
+ *     License as published by the Free Software Foundation; either
+ *     version 2.1 of the License.
+ *
+ *     This library is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *     Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public
+ *     License along with this library; if not, write to the Free Software
+ *     Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+package com.worldline.clic.internal.view.history;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+import com.worldline.clic.internal.Activator;
+
+/**
+ * The {@link HistoryLog} persists the commands typed in the views and consoles
+ * of a workspace, so that their history survives restarts.
+ * 
+ * The commands are appended to a log, each one as a record made of its length,
+ * the CRC32 of its content and its content encoded in UTF-8. The offset of each
+ * record is kept in a separate index of 8 bytes per command, allowing to read
+ * any command without reading the log from its beginning.
+ * 
+ * The commands are written by a background thread, so that the UI thread never
+ * waits for the disk: all the commands queued while the previous ones are
+ * being written are written, and forced to the disk, at once, then indexed.
+ * The index being written after the log, a crash may leave the last records
+ * out of the index, leave entries of the index unwritten, or leave a partial
+ * record at the end of the log: when the log is opened, the index is kept up
+ * to its first entry whose offset doesn't follow the previous one, only the
+ * records following the last indexed one are checked, the valid ones are
+ * indexed and the partial one is truncated. Loading the last commands only
+ * maps the end of the log, so opening a large history costs as much as opening
+ * a small one.
+ * 
+ * @author mvanbesien / aneveux
+ * @version 1.0
+ * @since 1.2
+ */
+public class HistoryLog {
+
+	/**
+	 * The name of the log in the state location of the plugin
+	 */
+	private static final String LOG_NAME = "history.log";
+
+	/**
+	 * The name of the index in the state location of the plugin
+	 */
+	private static final String INDEX_NAME = "history.idx";
+
+	/**
+	 * The size of the header of a record: its length and its CRC32
+	 */
+	private static final int HEADER_SIZE = 8;
+
+	/**
+	 * The size of an entry of the index
+	 */
+	private static final int INDEX_ENTRY_SIZE = 8;
+
+	/**
+	 * The greatest length of a record, beyond which it is considered as
+	 * corrupted
+	 */
+	private static final int MAX_RECORD_SIZE = 1 << 20;
+
+	/**
+	 * Marks the end of the queued commands, when the log is closed
+	 */
+	private static final String END = new String();
+
+	/**
+	 * The log of the workspace, null until it is opened
+	 */
+	private static HistoryLog instance;
+
+	/**
+	 * The records of the commands
+	 */
+	private final FileChannel log;
+
+	/**
+	 * The offsets of the records
+	 */
+	private final FileChannel index;
+
+	/**
+	 * The commands waiting to be written
+	 */
+	private final BlockingQueue<String> pending = new LinkedBlockingQueue<String>();
+
+	/**
+	 * The thread writing the queued commands
+	 */
+	private final Thread writer;
+
+	/**
+	 * The number of commands written to the log
+	 */
+	private volatile long size;
+
+	/**
+	 * The offset the next record is written at
+	 */
+	private long end;
+
+	/**
+	 * Returns the log of the workspace, stored in the state location of the
+	 * plugin, opening it on the first call
+	 * 
+	 * @return the log of the workspace, or null if it can't be opened
+	 */
+	public static synchronized HistoryLog getDefault() {
+		if (instance == null && Activator.getDefault() != null)
+			try {
+				instance = new HistoryLog(Activator.getDefault().getStateLocation().toFile());
+			} catch (final IOException e) {
+				Activator.sendErrorToErrorLog(e.getMessage(), e);
+			}
+		return instance;
+	}
+
+	/**
+	 * Closes the log of the workspace, if it has been opened
+	 */
+	public static synchronized void closeDefault() {
+		if (instance != null) {
+			instance.close();
+			instance = null;
+		}
+	}
+
+	/**
+	 * Opens a log, recovering it if the previous session didn't close it
+	 * properly, and starts the thread writing the commands
+	 * 
+	 * @param directory
+	 *            the directory of the log and its index
+	 * @throws IOException
+	 *             if the log or its index can't be opened
+	 */
+	HistoryLog(final File directory) throws IOException {
+		directory.mkdirs();
+		log = new RandomAccessFile(new File(directory, LOG_NAME), "rw").getChannel();
+		index = new RandomAccessFile(new File(directory, INDEX_NAME), "rw").getChannel();
+		recover();
+		writer = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				writeCommands();
+			}
+		}, "CLiC history writer");
+		writer.setDaemon(true);
+		writer.start();
+	}
+
+	/**
+	 * Checks the records following the last indexed one, indexes the valid
+	 * ones and truncates the log after them
+	 * 
+	 * @throws IOException
+	 *             if the log or its index can't be read
+	 */
+	private void recover() throws IOException {
+		long count = countIncreasingOffsets();
+		long position = 0;
+		while (count > 0) {
+			final long offset = readOffset(count - 1);
+			final long next = offset >= 0 && offset < log.size() ? checkRecord(offset) : -1;
+			if (next >= 0) {
+				position = next;
+				break;
+			}
+			count--;
+		}
+		final List<Long> recovered = new ArrayList<Long>();
+		for (long next = checkRecord(position); next >= 0; next = checkRecord(position)) {
+			recovered.add(position);
+			position = next;
+		}
+		log.truncate(position);
+		index.truncate(count * INDEX_ENTRY_SIZE);
+		if (!recovered.isEmpty()) {
+			final ByteBuffer entries = ByteBuffer.allocate(recovered.size() * INDEX_ENTRY_SIZE);
+			for (final Long offset : recovered)
+				entries.putLong(offset);
+			entries.flip();
+			writeFully(index, entries, count * INDEX_ENTRY_SIZE);
+		}
+		log.force(false);
+		index.force(false);
+		size = count + recovered.size();
+		end = position;
+	}
+
+	/**
+	 * Counts the entries of the index before the first one whose offset isn't
+	 * greater than the previous one, or is out of the log. The entries
+	 * following it have been left unwritten, or zero-filled, by a crash: the
+	 * records they should point to are indexed again from the log.
+	 * 
+	 * @return the number of entries which can be trusted
+	 * @throws IOException
+	 *             if the index can't be read
+	 */
+	private long countIncreasingOffsets() throws IOException {
+		final long count = index.size() / INDEX_ENTRY_SIZE;
+		final ByteBuffer entries = ByteBuffer.allocate(INDEX_ENTRY_SIZE * 4096);
+		long previous = -1;
+		for (long sequence = 0; sequence < count;) {
+			entries.clear();
+			entries.limit((int) Math.min(entries.capacity(), (count - sequence) * INDEX_ENTRY_SIZE));
+			readFully(index, entries, sequence * INDEX_ENTRY_SIZE);
+			entries.flip();
+			while (entries.remaining() >= INDEX_ENTRY_SIZE) {
+				final long offset = entries.getLong();
+				if (offset <= previous || offset >= log.size())
+					return sequence;
+				previous = offset;
+				sequence++;
+			}
+			if (entries.hasRemaining() || entries.limit() == 0)
+				return sequence;
+		}
+		return count;
+	}
+
+	/**
+	 * Checks that a valid record is found at an offset of the log
+	 * 
+	 * @param offset
+	 *            the offset of the record
+	 * @return the offset of the following record, or -1 if no valid record is
+	 *         found
+	 * @throws IOException
+	 *             if the log can't be read
+	 */
+	private long checkRecord(final long offset) throws IOException {
+		final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		if (offset + HEADER_SIZE > log.size() || readFully(log, header, offset) < HEADER_SIZE)
+			return -1;
+		final int length = header.getInt(0);
+		if (length < 0 || length > MAX_RECORD_SIZE || offset + HEADER_SIZE + length > log.size())
+			return -1;
+		final ByteBuffer content = ByteBuffer.allocate(length);
+		readFully(log, content, offset + HEADER_SIZE);
+		final CRC32 crc = new CRC32();
+		crc.update(content.array(), 0, length);
+		return (int) crc.getValue() == header.getInt(4) ? offset + HEADER_SIZE + length : -1;
+	}
+
+	/**
+	 * Queues a command to be written to the log. Returns immediately.
+	 * 
+	 * @param command
+	 *            the command
+	 */
+	public void append(final String command) {
+		if (writer.isAlive())
+			pending.add(command);
+	}
+
+	/**
+	 * Writes the queued commands until the log is closed, forcing them to the
+	 * disk once per group of commands queued together
+	 */
+	private void writeCommands() {
+		final List<String> commands = new ArrayList<String>();
+		boolean closed = false;
+		while (!closed)
+			try {
+				commands.add(pending.take());
+				pending.drainTo(commands);
+				closed = removeEnd(commands);
+				if (!commands.isEmpty())
+					write(commands);
+			} catch (final InterruptedException e) {
+				closed = true;
+			} catch (final IOException e) {
+				Activator.sendErrorToErrorLog(e.getMessage(), e);
+			} finally {
+				commands.clear();
+			}
+	}
+
+	/**
+	 * Removes the end mark from the commands taken from the queue, if found.
+	 * The mark is compared by identity, so that an empty command can't be
+	 * mistaken for it.
+	 * 
+	 * @param commands
+	 *            the commands taken from the queue
+	 * @return true if the end mark has been found
+	 */
+	private static boolean removeEnd(final List<String> commands) {
+		for (int i = commands.size() - 1; i >= 0; i--)
+			if (commands.get(i) == END) {
+				commands.subList(i, commands.size()).clear();
+				return true;
+			}
+		return false;
+	}
+
+	/**
+	 * Writes a group of commands to the log, forces it to the disk, then
+	 * indexes them and forces the index to the disk
+	 * 
+	 * @param commands
+	 *            the commands
+	 * @throws IOException
+	 *             if the log or its index can't be written
+	 */
+	private void write(final List<String> commands) throws IOException {
+		final List<byte[]> contents = new ArrayList<byte[]>(commands.size());
+		int length = 0;
+		for (final String command : commands) {
+			final byte[] content = command.getBytes(StandardCharsets.UTF_8);
+			contents.add(content);
+			length += HEADER_SIZE + content.length;
+		}
+		final ByteBuffer records = ByteBuffer.allocate(length);
+		final ByteBuffer entries = ByteBuffer.allocate(contents.size() * INDEX_ENTRY_SIZE);
+		final CRC32 crc = new CRC32();
+		for (final byte[] content : contents) {
+			entries.putLong(end + records.position());
+			crc.reset();
+			crc.update(content, 0, content.length);
+			records.putInt(content.length).putInt((int) crc.getValue()).put(content);
+		}
+		records.flip();
+		entries.flip();
+		writeFully(log, records, end);
+		log.force(false);
+		writeFully(index, entries, size * INDEX_ENTRY_SIZE);
+		index.force(false);
+		end += length;
+		size += contents.size();
+	}
+
+	/**
+	 * Returns the number of commands written to the log, the ones waiting to
+	 * be written excepted
+	 * 
+	 * @return the number of commands
+	 */
+	public long getSize() {
+		return size;
+	}
+
+	/**
+	 * Reads a command from the log, using the index to find its record
+	 * 
+	 * @param sequence
+	 *            the number of commands written before this one
+	 * @return the command, or null if it can't be read
+	 */
+	public String get(final long sequence) {
+		if (sequence < 0 || sequence >= size)
+			return null;
+		try {
+			final long offset = readOffset(sequence);
+			final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+			readFully(log, header, offset);
+			final ByteBuffer content = ByteBuffer.allocate(header.getInt(0));
+			readFully(log, content, offset + HEADER_SIZE);
+			return new String(content.array(), StandardCharsets.UTF_8);
+		} catch (final IOException e) {
+			Activator.sendErrorToErrorLog(e.getMessage(), e);
+			return null;
+		}
+	}
+
+	/**
+	 * Reads the last commands of the log, by mapping the part of the log they
+	 * are written in
+	 * 
+	 * @param count
+	 *            the maximum number of commands to read
+	 * @return the commands, the oldest one first
+	 */
+	public List<String> getLast(final int count) {
+		final long written = size;
+		final long first = Math.max(0, written - count);
+		if (first >= written)
+			return Collections.emptyList();
+		final List<String> commands = new ArrayList<String>((int) (written - first));
+		try {
+			final long offset = readOffset(first);
+			final MappedByteBuffer records = log.map(MapMode.READ_ONLY, offset, log.size() - offset);
+			for (long i = first; i < written; i++) {
+				final byte[] content = new byte[records.getInt()];
+				records.getInt();
+				records.get(content);
+				commands.add(new String(content, StandardCharsets.UTF_8));
+			}
+		} catch (final IOException e) {
+			Activator.sendErrorToErrorLog(e.getMessage(), e);
+		}
+		return commands;
+	}
+
+	/**
+	 * Reads the offset of a record from the index
+	 * 
+	 * @param sequence
+	 *            the number of records written before this one
+	 * @return the offset of the record
+	 * @throws IOException
+	 *             if the index can't be read
+	 */
+	private long readOffset(final long sequence) throws IOException {
+		final ByteBuffer entry = ByteBuffer.allocate(INDEX_ENTRY_SIZE);
+		readFully(index, entry, sequence * INDEX_ENTRY_SIZE);
+		return entry.getLong(0);
+	}
+
+	/**
+	 * Writes the commands queued so far, then closes the log
+	 */
+	void close() {
+		pending.add(END);
+		try {
+			writer.join(TimeUnit.SECONDS.toMillis(5));
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		try {
+			log.close();
+			index.close();
+		} catch (final IOException e) {
+			Activator.sendErrorToErrorLog(e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Reads a channel at a given position until the buffer is full or the end
+	 * of the channel is reached
+	 * 
+	 * @return the number of bytes read
+	 */
+	private static int readFully(final FileChannel channel, final ByteBuffer buffer, final long position)
+			throws IOException {
+		int read = 0;
+		while (buffer.hasRemaining()) {
+			final int count = channel.read(buffer, position + read);
+			if (count < 0)
+				break;
+			read += count;
+		}
+		return read;
+	}
+
+	/**
+	 * Writes the whole buffer to a channel at a given position
+	 */
+	private static void writeFully(final FileChannel channel, final ByteBuffer buffer, final long position)
+			throws IOException {
+		int written = 0;
+		while (buffer.hasRemaining())
+			written += channel.write(buffer, position + written);
+	}
+}
@@ -0,0 +1,273 @@
+/*
+ * CLiC, Framework for Command Line Interpretation in Eclipse
+ *
+ *     Copyright (C) 2013 Worldline or third-party contributors as
+ *     indicated by the @author tags or express copyright attribution
+ *     statements applied by the authors.
+ *
+ *     This library is free software; you can redistribute it and/or
+ *     modify it under the terms of the GNU Lesser General Public
+ *     License as published by the Free Software Foundation; either
+ *     version 2.1 of the License.
+ *
+ *     This library is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *     Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public
+ *     License along with this library; if not, write to the Free Software
+ *     Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+package com.worldline.clic.internal.view.history;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * The {@link HistorySearchIndex} finds the commands of a
+ * {@link CommandHistory} containing a given text, without scanning the whole
+ * history. Each command is split into its trigrams (its sequences of three
+ * consecutive characters), and the sequence number of the command is appended
+ * to the postings of each of its trigrams. As the sequence numbers only grow,
+ * the postings are sorted, and adding a command costs one append per trigram.
+ * 
+ * A text of at least three characters can only be found in the commands
+ * listed in the postings of each of its trigrams: the rarest of its trigrams
+ * gives the candidates, which are then checked against the whole text. Shorter
+ * texts are looked for by scanning the history from the last command, as they
+ * are usually found among the first commands scanned.
+ * 
+ * The commands evicted from the history are removed from the postings lazily,
+ * when the postings are full, or when all the postings are swept once the
+ * history has been renewed.
+ * 
+ * @author mvanbesien / aneveux
+ * @version 1.0
+ * @since 1.2
+ */
+class HistorySearchIndex {
+
+	/**
+	 * The length of the indexed sequences of characters
+	 */
+	private static final int GRAM = 3;
+
+	/**
+	 * The postings of each trigram, by trigram
+	 */
+	private final Map<Long, Postings> postings = new HashMap<Long, Postings>();
+
+	/**
+	 * The number of commands added after which all the postings are swept
+	 */
+	private final int sweepInterval;
+
+	/**
+	 * The number of commands added since the last sweep
+	 */
+	private int additions;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param sweepInterval
+	 *            the number of commands added after which all the postings
+	 *            are swept, usually the size limit of the history
+	 */
+	HistorySearchIndex(final int sweepInterval) {
+		this.sweepInterval = Math.max(1, sweepInterval);
+	}
+
+	/**
+	 * Indexes a command
+	 * 
+	 * @param sequence
+	 *            the sequence number of the command
+	 * @param command
+	 *            the command
+	 * @param oldest
+	 *            the sequence number of the oldest command of the history
+	 */
+	void add(final int sequence, final String command, final int oldest) {
+		for (int i = 0; i + GRAM <= command.length(); i++) {
+			final Long trigram = trigram(command, i);
+			Postings list = postings.get(trigram);
+			if (list == null) {
+				list = new Postings();
+				postings.put(trigram, list);
+			}
+			list.add(sequence, oldest);
+		}
+		if (++additions >= sweepInterval) {
+			sweep(oldest);
+			additions = 0;
+		}
+	}
+
+	/**
+	 * Finds the last command containing a text, among the ones added before a
+	 * given one
+	 * 
+	 * @param history
+	 *            the history the commands are read from
+	 * @param text
+	 *            the text to look for
+	 * @param before
+	 *            the sequence number the found command should be lower than
+	 * @param oldest
+	 *            the sequence number of the oldest command of the history
+	 * @return the sequence number of the found command, or -1 if none is
+	 *         found
+	 */
+	int search(final CommandHistory history, final String text, final int before, final int oldest) {
+		if (text.length() == 0)
+			return -1;
+		if (text.length() < GRAM) {
+			for (int sequence = before - 1; sequence >= oldest; sequence--)
+				if (history.getCommand(sequence).contains(text))
+					return sequence;
+			return -1;
+		}
+		Postings rarest = null;
+		for (int i = 0; i + GRAM <= text.length(); i++) {
+			final Postings list = postings.get(trigram(text, i));
+			if (list == null)
+				return -1;
+			list.trim(oldest);
+			if (rarest == null || list.size() < rarest.size())
+				rarest = list;
+		}
+		for (int i = rarest.indexBefore(before); i >= rarest.start; i--) {
+			final int sequence = rarest.values[i];
+			if (history.getCommand(sequence).contains(text))
+				return sequence;
+		}
+		return -1;
+	}
+
+	/**
+	 * Removes the evicted commands from all the postings, and drops the empty
+	 * ones
+	 * 
+	 * @param oldest
+	 *            the sequence number of the oldest command of the history
+	 */
+	private void sweep(final int oldest) {
+		for (final Iterator<Postings> iterator = postings.values().iterator(); iterator.hasNext();) {
+			final Postings list = iterator.next();
+			list.trim(oldest);
+			if (list.size() == 0)
+				iterator.remove();
+			else
+				list.compact();
+		}
+	}
+
+	/**
+	 * Packs the trigram found at a given index of a text in a long
+	 * 
+	 * @param text
+	 *            the text
+	 * @param index
+	 *            the index of the first character of the trigram
+	 * @return the trigram
+	 */
+	private static Long trigram(final String text, final int index) {
+		return Long.valueOf((long) text.charAt(index) << 32 | (long) text.charAt(index + 1) << 16
+				| text.charAt(index + 2));
+	}
+
+	/**
+	 * The sequence numbers of the commands containing a trigram, in
+	 * ascending order
+	 * 
+	 * @author mvanbesien / aneveux
+	 * @version 1.0
+	 * @since 1.2
+	 */
+	private static final class Postings {
+
+		/**
+		 * The sequence numbers, the valid ones being between {@link #start}
+		 * and {@link #end}
+		 */
+		private int[] values = new int[4];
+
+		/**
+		 * The index of the first valid sequence number
+		 */
+		private int start;
+
+		/**
+		 * The index following the last valid sequence number
+		 */
+		private int end;
+
+		/**
+		 * Appends a sequence number, unless the command has already been
+		 * appended for another occurrence of the trigram. When the postings
+		 * are full, the evicted commands are removed before growing them.
+		 */
+		void add(final int sequence, final int oldest) {
+			if (end > start && values[end - 1] == sequence)
+				return;
+			if (end == values.length) {
+				trim(oldest);
+				if (size() > values.length / 2) {
+					final int[] grown = new int[values.length * 2];
+					System.arraycopy(values, start, grown, 0, size());
+					values = grown;
+					end = size();
+					start = 0;
+				} else
+					compact();
+			}
+			values[end++] = sequence;
+		}
+
+		/**
+		 * Skips the sequence numbers of the evicted commands
+		 */
+		void trim(final int oldest) {
+			while (start < end && values[start] < oldest)
+				start++;
+		}
+
+		/**
+		 * Moves the valid sequence numbers to the beginning of the array
+		 */
+		void compact() {
+			if (start > 0) {
+				System.arraycopy(values, start, values, 0, size());
+				end = size();
+				start = 0;
+			}
+		}
+
+		/**
+		 * @return the index of the last sequence number lower than the
+		 *         provided one, or {@link #start} - 1 if there is none
+		 */
+		int indexBefore(final int sequence) {
+			int low = start;
+			int high = end - 1;
+			while (low <= high) {
+				final int middle = (low + high) >>> 1;
+				if (values[middle] < sequence)
+					low = middle + 1;
+				else
+					high = middle - 1;
+			}
+			return high;
+		}
+
+		/**
+		 * @return the number of valid sequence numbers
+		 */
+		int size() {
+			return end - start;
+		}
+	}
+}
@@ -0,0 +1,136 @@
+/*
+ * CLiC, Framework for Command Line Interpretation in Eclipse
+ *
+ *     Copyright (C) 2013 Worldline or third-party contributors as
+ *     indicated by the @author tags or express copyright attribution
+ *     statements applied by the authors.
+ *
+ *     This library is free software; you can redistribute it and/or
+ *     modify it under the terms of the GNU Lesser General Public
+ *     License as published by the Free Software Foundation; either
+ *     version 2.1 of the License.
+ *
+ *     This library is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *     Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public
+ *     License along with this library; if not, write to the Free Software
+ *     Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+package com.worldline.clic.internal.view.history;
+
+/**
+ * A {@link ReverseSearch} is a reverse incremental search in a
+ * {@link CommandHistory}, as started with <i>Ctrl+R</i> in a Unix shell: each
+ * typed character refines the query, the last command containing it being
+ * proposed, and searching again proposes the previous command containing it.
+ * 
+ * @author mvanbesien / aneveux
+ * @version 1.0
+ * @since 1.2
+ */
+public class ReverseSearch {
+
+	/**
+	 * The history searched in
+	 */
+	private final CommandHistory history;
+
+	/**
+	 * The text looked for
+	 */
+	private final StringBuilder query = new StringBuilder();
+
+	/**
+	 * The sequence number of the proposed command, -1 if none is proposed
+	 */
+	private int match = -1;
+
+	/**
+	 * Whether the last search found a command
+	 */
+	private boolean found = true;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param history
+	 *            the history to search in
+	 */
+	public ReverseSearch(final CommandHistory history) {
+		this.history = history;
+	}
+
+	/**
+	 * Appends a character to the query, and proposes the last command
+	 * containing it, starting from the proposed one
+	 * 
+	 * @param c
+	 *            the typed character
+	 */
+	public void append(final char c) {
+		query.append(c);
+		search(match >= 0 ? match + 1 : history.getNextSequence());
+	}
+
+	/**
+	 * Removes the last character of the query, and proposes the last command
+	 * containing it
+	 */
+	public void erase() {
+		if (query.length() > 0)
+			query.setLength(query.length() - 1);
+		match = -1;
+		search(history.getNextSequence());
+	}
+
+	/**
+	 * Proposes the previous command containing the query, skipping the ones
+	 * identical to the proposed one. The proposed command is kept if there is
+	 * none.
+	 */
+	public void next() {
+		final String current = getMatch();
+		int sequence = match >= 0 ? match : history.getNextSequence();
+		do
+			sequence = history.search(query.toString(), sequence);
+		while (sequence >= 0 && current != null && current.equals(history.getCommand(sequence)));
+		found = sequence >= 0;
+		if (found)
+			match = sequence;
+	}
+
+	/**
+	 * Looks for the last command containing the query, among the ones added
+	 * before a given one. The proposed command is kept if there is none.
+	 */
+	private void search(final int before) {
+		final int sequence = history.search(query.toString(), before);
+		found = sequence >= 0 || query.length() == 0;
+		if (sequence >= 0 || query.length() == 0)
+			match = sequence;
+	}
+
+	/**
+	 * @return the text looked for
+	 */
+	public String getQuery() {
+		return query.toString();
+	}
+
+	/**
+	 * @return the proposed command, or null if none is proposed
+	 */
+	public String getMatch() {
+		return match >= 0 ? history.getCommand(match) : null;
+	}
+
+	/**
+	 * @return true if the last search found a command
+	 */
+	public boolean isFound() {
+		return found;
+	}
+}
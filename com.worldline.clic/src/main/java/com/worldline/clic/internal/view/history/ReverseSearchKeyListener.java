@@ -0,0 +1,140 @@
+/*
+ * CLiC, Framework for Command Line Interpretation in Eclipse
+ *
+ *     Copyright (C) 2013 Worldline or third-party contributors as
+ *     indicated by the @author tags or express copyright attribution
+ *     statements applied by the authors.
+ *
+ *     This library is free software; you can redistribute it and/or
+ *     modify it under the terms of the GNU Lesser General Public
+ *     License as published by the Free Software Foundation; either
+ *     version 2.1 of the License.
+ *
+ *     This library is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ *     Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public
+ *     License along with this library; if not, write to the Free Software
+ *     Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ */
+package com.worldline.clic.internal.view.history;
+
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.custom.VerifyKeyListener;
+import org.eclipse.swt.events.VerifyEvent;
+
+import com.worldline.clic.internal.engine.ClicMessages;
+
+/**
+ * The {@link ReverseSearchKeyListener} binds a {@link ReverseSearch} to the
+ * keyboard of a command line: <i>Ctrl+R</i> starts the search, or proposes the
+ * previous matching command while searching, the typed characters refine the
+ * query, <i>Backspace</i> shortens it, and <i>Escape</i> (or <i>Ctrl+G</i>)
+ * cancels the search, restoring the command line. Any other key accepts the
+ * proposed command, then has its usual effect, so that <i>Enter</i> executes
+ * it.
+ * 
+ * The command line, and the place the query is displayed at, are provided by
+ * the implementations.
+ * 
+ * @author mvanbesien / aneveux
+ * @version 1.0
+ * @since 1.2
+ */
+public abstract class ReverseSearchKeyListener implements VerifyKeyListener {
+
+	/**
+	 * The history searched in
+	 */
+	private final CommandHistory history;
+
+	/**
+	 * The current search, null if the user is not searching
+	 */
+	private ReverseSearch search;
+
+	/**
+	 * The content of the command line when the search has been started
+	 */
+	private String original;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param history
+	 *            the history to search in
+	 */
+	public ReverseSearchKeyListener(final CommandHistory history) {
+		this.history = history;
+	}
+
+	@Override
+	public void verifyKey(final VerifyEvent e) {
+		if (e.stateMask == SWT.CTRL && e.keyCode == 'r') {
+			e.doit = false;
+			if (search == null) {
+				search = new ReverseSearch(history);
+				original = getCommandLine();
+			} else
+				search.next();
+			update();
+		} else if (search == null)
+			return;
+		else if (e.keyCode == SWT.ESC || e.stateMask == SWT.CTRL && e.keyCode == 'g') {
+			e.doit = false;
+			stop();
+			setCommandLine(original);
+		} else if (e.keyCode == SWT.BS) {
+			e.doit = false;
+			search.erase();
+			update();
+		} else if ((e.stateMask & SWT.CTRL) == 0 && e.character >= ' ' && e.character != SWT.DEL) {
+			e.doit = false;
+			search.append(e.character);
+			update();
+		} else
+			stop();
+	}
+
+	/**
+	 * Displays the proposed command and the query
+	 */
+	private void update() {
+		final String match = search.getMatch();
+		setCommandLine(match != null ? match : original);
+		showQuery(search.isFound() ? ClicMessages.SEARCH_PROMPT.value(search.getQuery())
+				: ClicMessages.SEARCH_FAILED.value(search.getQuery()));
+	}
+
+	/**
+	 * Stops the search, leaving the proposed command on the command line
+	 */
+	private void stop() {
+		search = null;
+		showQuery(null);
+	}
+
+	/**
+	 * @return the content of the command line
+	 */
+	protected abstract String getCommandLine();
+
+	/**
+	 * Replaces the content of the command line, moving the caret to its end
+	 * 
+	 * @param commandLine
+	 *            the new content of the command line
+	 */
+	protected abstract void setCommandLine(String commandLine);
+
+	/**
+	 * Displays the query while searching
+	 * 
+	 * @param query
+	 *            the query, along with the search prompt, or null when the
+	 *            search is stopped
+	 */
+	protected abstract void showQuery(String query);
+}